@@ -8,8 +8,10 @@
 package net.greenrivertech.alexb.quizgame;
 
 import android.app.FragmentManager;
+import android.content.DialogInterface;
 import android.content.Intent;
 import android.os.Bundle;
+import android.support.v7.app.AlertDialog;
 import android.support.v7.app.AppCompatActivity;
 import android.support.v7.widget.Toolbar;
 import android.view.Menu;
@@ -20,12 +22,21 @@ import android.widget.ImageButton;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import net.greenrivertech.alexb.quizgame.engine.AnswerState;
+import net.greenrivertech.alexb.quizgame.engine.QuizMetrics;
+import net.greenrivertech.alexb.quizgame.engine.QuizTimer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Main activity that displays questions and true/false buttons.
  *
  * @author Alex Ball
  */
-public class QuestionsActivity extends AppCompatActivity {
+public class QuestionsActivity extends AppCompatActivity
+        implements QuizModel.OnQuizReadyListener, QuizModel.OnTimerListener {
 
     //the view that displays the question text
     private TextView questionText;
@@ -33,9 +44,54 @@ public class QuestionsActivity extends AppCompatActivity {
     //the view that displays whether the current question was answered already or not
     private TextView answeredText;
 
+    //the view that displays the time left in timed games
+    private TextView timerText;
+
+    //the answer and navigation buttons (disabled while the questions are loading)
+    private Button falseAnswer;
+    private Button trueAnswer;
+    private ImageButton previousQuestion;
+    private ImageButton nextQuestion;
+
+    //every control that is disabled while loading, and whether they are enabled now
+    private View[] controls;
+    private boolean controlsEnabled = true;
+
+    //whether the answer buttons are enabled (they are disabled for questions that have run
+    //out of time)
+    private boolean answersEnabled = true;
+
+    //strings shown on every answer, looked up once instead of on each tap
+    private String correctText;
+    private String wrongText;
+    private String wasAnsweredCorrectText;
+    private String wasAnsweredWrongText;
+    private String expiredText;
+    private String timeUpText;
+
+    //the time left shown (in whole seconds), so the countdown text is only rebuilt when it
+    //changes
+    private long shownQuestionSeconds = -1;
+    private long shownGameSeconds = -1;
+
+    //the one toast used for answer feedback; its text is replaced on each answer
+    private Toast toast;
+
+    //the question text and answer state currently shown, so unchanged views are not reset
+    private String shownQuestionText;
+    private AnswerState shownAnswerState;
+    private boolean shownExpired;
+
     //the model that represents the game (the game logic)
     private QuizModel model;
 
+    //when this activity was created (System.nanoTime), for measuring the time until the
+    //first question is shown.
+    private long createTimeNanos;
+
+    //true once a question has been shown by this activity
+    private boolean firstQuestionShown;
+
     /**
      * Name for the user's score, which is passed to ScoreSummaryActivity to be displayed.
      */
@@ -47,6 +103,49 @@ public class QuestionsActivity extends AppCompatActivity {
     public static final String NUM_QUESTIONS_ANSWERED =
             "net.greenrivertech.alexb.quizgame.NUM_QUESTIONS_ANSWERED";
 
+    /**
+     * Name for the user's speed-weighted score in timed games (see QuizTimer.getSpeedScore);
+     * not included for untimed games.
+     */
+    public static final String SPEED_SCORE = "net.greenrivertech.alexb.quizgame.SPEED_SCORE";
+
+    /**
+     * Name for the game's rank on the leaderboard (see Leaderboard.rank); not included for
+     * games too long to be ranked.
+     */
+    public static final String MY_RANK = "net.greenrivertech.alexb.quizgame.MY_RANK";
+
+    /**
+     * Name for the number of games on the leaderboard, included along with MY_RANK.
+     */
+    public static final String NUM_RANKED = "net.greenrivertech.alexb.quizgame.NUM_RANKED";
+
+    /**
+     * Name for the System.nanoTime() when the game ended, which ScoreSummaryActivity uses to
+     * measure how long the transition to it took.
+     */
+    public static final String GAME_OVER_TIME =
+            "net.greenrivertech.alexb.quizgame.GAME_OVER_TIME";
+
+    /**
+     * Name for the game's question numbers (see QuizEngine.getQuestionNumbers), which
+     * ReviewActivity lists with the answers given.
+     */
+    public static final String GAME_QUESTIONS =
+            "net.greenrivertech.alexb.quizgame.GAME_QUESTIONS";
+
+    /**
+     * Name for the game's saved state (see QuizEngine.saveState): which questions were
+     * answered, and how, as bitsets.
+     */
+    public static final String GAME_STATE = "net.greenrivertech.alexb.quizgame.GAME_STATE";
+
+    /**
+     * Name for the flag, sent back by ScoreSummaryActivity's "play again" button, that starts
+     * the next game in place of the finished one (see QuizModel.playAgain).
+     */
+    public static final String PLAY_AGAIN = "net.greenrivertech.alexb.quizgame.PLAY_AGAIN";
+
     /**
      * Tag for the QuizModel fragment. Needed to findFragmentByTag when
      * switching device orientation.
@@ -55,6 +154,7 @@ public class QuestionsActivity extends AppCompatActivity {
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        createTimeNanos = System.nanoTime();
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_questions);
         Toolbar toolbar = (Toolbar) findViewById(R.id.toolbar);
@@ -76,18 +176,33 @@ public class QuestionsActivity extends AppCompatActivity {
             fm.beginTransaction().add(model, TAG_QUIZ_MODEL_FRAGMENT).commit();
         }
 
+        //the model loads its questions in the background; redraw when it is ready.
+        model.setOnQuizReadyListener(this);
+        model.setOnTimerListener(this);
+
         //get views for displaying question text, if the question was answered or not,
         //false button, true button, and previous/next question buttons.
         questionText = (TextView) findViewById(R.id.questionText);
         answeredText = (TextView) findViewById(R.id.answeredText);
+        timerText = (TextView) findViewById(R.id.timerText);
+
+        falseAnswer = (Button) findViewById(R.id.falseAnswer);
+        trueAnswer = (Button) findViewById(R.id.trueAnswer);
 
-        Button falseAnswer = (Button) findViewById(R.id.falseAnswer);
-        Button trueAnswer = (Button) findViewById(R.id.trueAnswer);
+        previousQuestion = (ImageButton) findViewById(R.id.previousQuestion);
+        nextQuestion = (ImageButton) findViewById(R.id.nextQuestion);
+        controls = new View[] {falseAnswer, trueAnswer, previousQuestion, nextQuestion,
+                questionText};
 
-        ImageButton previousQuestion = (ImageButton) findViewById(R.id.previousQuestion);
-        ImageButton nextQuestion = (ImageButton) findViewById(R.id.nextQuestion);
+        //look up the feedback strings once; answering a question then allocates nothing here.
+        correctText = getResources().getString(R.string.correct);
+        wrongText = getResources().getString(R.string.wrong);
+        wasAnsweredCorrectText = getResources().getString(R.string.wasAnsweredCorrect);
+        wasAnsweredWrongText = getResources().getString(R.string.wasAnsweredWrong);
+        expiredText = getResources().getString(R.string.questionExpired);
+        timeUpText = getResources().getString(R.string.timeUp);
 
-        //display current question
+        //display current question (or a placeholder if it is still loading)
         updateGameDisplay();
 
         //listener for the false button
@@ -144,6 +259,53 @@ public class QuestionsActivity extends AppCompatActivity {
         }
     }
 
+    @Override
+    protected void onNewIntent(Intent intent) {
+        super.onNewIntent(intent);
+        setIntent(intent);
+
+        //"play again" from the score summary: the next game is usually waiting in the model's
+        //pool, so it is shown at once; otherwise onQuizReady shows it once it has loaded.
+        if (intent.getBooleanExtra(PLAY_AGAIN, false)) {
+            model.playAgain((QuizGameApplication) getApplication());
+            updateGameDisplay();
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+
+        //the model outlives this activity, so stop it from calling back into it.
+        model.setOnQuizReadyListener(null);
+        model.setOnTimerListener(null);
+    }
+
+    /**
+     * Called when the model has finished loading its questions; displays the first question.
+     *
+     * @param model The model that is now ready.
+     */
+    @Override
+    public void onQuizReady(QuizModel model) {
+        updateGameDisplay();
+    }
+
+    /**
+     * Called when a timed game's countdown changes or a question runs out of time; redraws
+     * the game (showing the next question if the current one ran out of time).
+     *
+     * @param model The model whose timer ticked.
+     * @param expired True if a question or the game just ran out of time.
+     */
+    @Override
+    public void onTimerTick(QuizModel model, boolean expired) {
+        if (expired && !model.isTimeUp()) {
+            popToast(timeUpText);
+        }
+        updateGameDisplay();
+    }
+
     /**
      * Answers the current question with the user's answer, displays a toast that tells the user
      * if they were correct, then either displays the next question, or starts the score summary
@@ -152,14 +314,20 @@ public class QuestionsActivity extends AppCompatActivity {
      * @param answer The user's answer.
      */
     public void updateGameDisplay(boolean answer) {
+        //if the question ran out of time just before the tap, the timer has moved on (and
+        //redrawn the game) instead; the tap was meant for the question that expired.
+        if (model.updateTimer()) {
+            return;
+        }
+
         //answer question and get whether the user was correct or not.
         boolean result = model.answerQuestion(answer);
 
         //if result is true, user was correct, otherwise they were wrong.
         if (result) {
-            popToast(getResources().getString(R.string.correct));
+            popToast(correctText);
         } else {
-            popToast(getResources().getString(R.string.wrong));
+            popToast(wrongText);
         }
 
         updateGameDisplay();
@@ -167,35 +335,129 @@ public class QuestionsActivity extends AppCompatActivity {
 
     /**
      * Update the game display by displaying the current question. If the game is over,
-     * start the ScoreSummaryActivity instead.
+     * start the ScoreSummaryActivity instead. If the questions are still loading, display
+     * a placeholder and disable the buttons until they are ready.
      */
     public void updateGameDisplay() {
-        //check if game is over. If it is, start the score summary activity.
-        //otherwise, update questionText with the next question.
-        if (model.isGameOver()) {
+        if (!model.isReady()) {
+            if (questionText != null) {
+                questionText.setText(R.string.loadingQuestions);
+            }
+            if (answeredText != null) {
+                answeredText.setText(null);
+            }
+            shownQuestionText = null;
+            shownAnswerState = null;
+            setControlsEnabled(false);
+            return;
+        }
+        setControlsEnabled(true);
+
+        //check if game is over (or a timed game's time is up). If it is, start the score
+        //summary activity. otherwise, update questionText with the next question.
+        if (model.isGameOver() || model.isTimeUp()) {
             //start score summary activity
             startScoreSummary();
         } else {
-            //get new question and update the questionText.
-            if (questionText != null) {
-                questionText.setText(model.getCurrentQuestionText());
+            //get new question and update the questionText (if it changed; the model hands
+            //back the same String each time a question is shown).
+            String text = model.getCurrentQuestionText();
+            if (questionText != null && text != shownQuestionText) {
+                questionText.setText(text);
+                shownQuestionText = text;
             }
 
             //check if this question was answered and update the answeredText.
-            if (answeredText != null) {
-                if (model.isCurrentQuestionAnswered()) {
-                    if (model.isCurrentQuestionAnsweredCorrectly()) {
-                        String wasAnsweredCorrect = getResources()
-                                .getString(R.string.wasAnsweredCorrect);
-                        answeredText.setText(wasAnsweredCorrect);
-                    } else {
-                        String wasAnsweredWrong = getResources()
-                                .getString(R.string.wasAnsweredWrong);
-                        answeredText.setText(wasAnsweredWrong);
-                    }
+            //questions that ran out of time are shown as such and cannot be answered.
+            boolean expired = model.isCurrentQuestionExpired();
+            setAnswersEnabled(!expired);
+            AnswerState answerState = model.getCurrentAnswerState();
+            if (answeredText != null
+                    && (answerState != shownAnswerState || expired != shownExpired)) {
+                if (expired) {
+                    answeredText.setText(expiredText);
                 } else {
-                    answeredText.setText(null);
+                    switch (answerState) {
+                        case CORRECT:
+                            answeredText.setText(wasAnsweredCorrectText);
+                            break;
+                        case WRONG:
+                            answeredText.setText(wasAnsweredWrongText);
+                            break;
+                        default:
+                            answeredText.setText(null);
+                            break;
+                    }
                 }
+                shownAnswerState = answerState;
+                shownExpired = expired;
+            }
+
+            updateTimerDisplay();
+
+            if (!firstQuestionShown) {
+                firstQuestionShown = true;
+                QuizMetrics.FIRST_QUESTION.recordSince(createTimeNanos);
+            }
+        }
+    }
+
+    //show the time left for the current question and the game, if the game is timed.
+    private void updateTimerDisplay() {
+        QuizTimer timer = model.getTimer();
+        if (timerText == null) {
+            return;
+        }
+        if (timer == null) {
+            if (shownGameSeconds != -1) {
+                timerText.setText(null);
+                shownQuestionSeconds = -1;
+                shownGameSeconds = -1;
+            }
+            return;
+        }
+
+        //round up, so the countdown reaches 0 when time runs out, not a second before.
+        long now = System.nanoTime();
+        long questionSeconds = toSecondsLeft(timer.getQuestionTimeLeft(now));
+        long gameSeconds = toSecondsLeft(timer.getGameTimeLeft(now));
+        if (questionSeconds != shownQuestionSeconds || gameSeconds != shownGameSeconds) {
+            timerText.setText(getResources().getString(R.string.timeLeft,
+                    questionSeconds, gameSeconds));
+            shownQuestionSeconds = questionSeconds;
+            shownGameSeconds = gameSeconds;
+        }
+    }
+
+    //whole seconds left, rounded up.
+    private static long toSecondsLeft(long nanos) {
+        return TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1);
+    }
+
+    //enable or disable the true and false buttons.
+    private void setAnswersEnabled(boolean enabled) {
+        if (enabled == answersEnabled) {
+            return;
+        }
+        answersEnabled = enabled;
+        if (falseAnswer != null) {
+            falseAnswer.setEnabled(enabled);
+        }
+        if (trueAnswer != null) {
+            trueAnswer.setEnabled(enabled);
+        }
+    }
+
+    //enable or disable the answer and navigation buttons.
+    private void setControlsEnabled(boolean enabled) {
+        if (enabled == controlsEnabled) {
+            return;
+        }
+        controlsEnabled = enabled;
+        answersEnabled = enabled;
+        for (View control : controls) {
+            if (control != null) {
+                control.setEnabled(enabled);
             }
         }
     }
@@ -204,13 +466,45 @@ public class QuestionsActivity extends AppCompatActivity {
      * Starts the ScoreSummaryActivity, displaying the user's score.
      */
     public void startScoreSummary() {
+        long gameOverTime = System.nanoTime();
+        QuizMetrics.GAMES_FINISHED.incrementAndGet();
+
         //display game over text
         popToast(getResources().getString(R.string.gameOver));
 
+        //save the result to the score history, the review schedule, the replay logs and the
+        //leaderboard (all written to disk in the background).
+        QuizGameApplication app = (QuizGameApplication) getApplication();
+        boolean ranked = model.getEngine().getNumQuestions()
+                <= QuizGameApplication.LEADERBOARD_MAX_QUESTIONS;
+        if (model.recordScore(app.getScoreHistory())) {
+            app.saveReviewSchedule();
+            if (model.getReplay() != null) {
+                app.appendReplay(model.getReplay());
+            }
+            if (ranked) {
+                app.getLeaderboard().add(model.getScore(), model.getNumQuestionsAnswered(),
+                        System.currentTimeMillis());
+                app.saveLeaderboard();
+            }
+        }
+
         //Create intent, put quiz answer information in it, and start the activity.
         Intent intent = new Intent(this, ScoreSummaryActivity.class);
         intent.putExtra(MY_SCORE, model.getScore());
         intent.putExtra(NUM_QUESTIONS_ANSWERED, model.getNumQuestionsAnswered());
+        intent.putExtra(GAME_OVER_TIME, gameOverTime);
+        intent.putExtra(GAME_QUESTIONS, model.getEngine().getQuestionNumbers());
+        intent.putExtra(GAME_STATE, model.getEngine().saveState());
+        if (model.isTimed()) {
+            intent.putExtra(SPEED_SCORE, model.getTimer().getSpeedScore());
+        }
+        if (ranked) {
+            //equal results share a rank, so this is the same after a rotation.
+            intent.putExtra(MY_RANK, app.getLeaderboard().rank(model.getScore(),
+                    model.getNumQuestionsAnswered()));
+            intent.putExtra(NUM_RANKED, app.getLeaderboard().size());
+        }
         startActivity(intent);
     }
 
@@ -220,13 +514,32 @@ public class QuestionsActivity extends AppCompatActivity {
      * @param text The text to be displayed.
      */
     public void popToast(String text) {
-        Toast.makeText(this, text, Toast.LENGTH_SHORT).show();
+        //reuse one toast, so quick answers replace the feedback instead of queueing new toasts.
+        if (toast == null) {
+            toast = Toast.makeText(this, text, Toast.LENGTH_SHORT);
+        } else {
+            toast.setText(text);
+        }
+        toast.show();
     }
 
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
         // Inflate the menu; this adds items to the action bar if it is present.
         getMenuInflater().inflate(R.menu.menu_questions, menu);
+
+        MenuItem adaptive = menu.findItem(R.id.action_adaptive);
+        if (adaptive != null) {
+            adaptive.setChecked(((QuizGameApplication) getApplication()).isAdaptiveSelection());
+        }
+        MenuItem review = menu.findItem(R.id.action_review);
+        if (review != null) {
+            review.setChecked(((QuizGameApplication) getApplication()).isSpacedReview());
+        }
+        MenuItem timed = menu.findItem(R.id.action_timed);
+        if (timed != null) {
+            timed.setChecked(((QuizGameApplication) getApplication()).isTimedMode());
+        }
         return true;
     }
 
@@ -242,6 +555,58 @@ public class QuestionsActivity extends AppCompatActivity {
             return true;
         }
 
+        //toggle adaptive question selection (takes effect from the next game)
+        if (id == R.id.action_adaptive) {
+            item.setChecked(!item.isChecked());
+            ((QuizGameApplication) getApplication()).setAdaptiveSelection(item.isChecked());
+            return true;
+        }
+
+        //toggle spaced review (takes effect from the next game)
+        if (id == R.id.action_review) {
+            item.setChecked(!item.isChecked());
+            ((QuizGameApplication) getApplication()).setSpacedReview(item.isChecked());
+            return true;
+        }
+
+        //toggle timed games (takes effect from the next game)
+        if (id == R.id.action_timed) {
+            item.setChecked(!item.isChecked());
+            ((QuizGameApplication) getApplication()).setTimedMode(item.isChecked());
+            return true;
+        }
+
+        //choose which tag the questions must have (takes effect from the next game)
+        if (id == R.id.action_category) {
+            showCategoryDialog();
+            return true;
+        }
+
         return super.onOptionsItemSelected(item);
     }
+
+    //let the user pick one of the bank's tags (or every question) for future games.
+    private void showCategoryDialog() {
+        final QuizGameApplication app = (QuizGameApplication) getApplication();
+        final List<String> tags = model.isReady() ? model.getTagIndex().getTags()
+                : Collections.<String>emptyList();
+
+        String[] choices = new String[tags.size() + 1];
+        choices[0] = getResources().getString(R.string.allCategories);
+        for (int i = 0; i < tags.size(); i++) {
+            choices[i + 1] = tags.get(i);
+        }
+        int checked = tags.indexOf(app.getTagFilter()) + 1;
+
+        new AlertDialog.Builder(this)
+                .setTitle(R.string.action_category)
+                .setSingleChoiceItems(choices, checked, new DialogInterface.OnClickListener() {
+                    @Override
+                    public void onClick(DialogInterface dialog, int which) {
+                        app.setTagFilter(which == 0 ? "" : tags.get(which - 1));
+                        dialog.dismiss();
+                    }
+                })
+                .show();
+    }
 }
@@ -0,0 +1,454 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: QuizGameApplication.java
+ *
+ * Application class that holds the objects shared by every activity, such as the score history.
+ */
+package net.greenrivertech.alexb.quizgame;
+
+import android.app.Application;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import net.greenrivertech.alexb.quizgame.engine.AdaptiveQuestionSampler;
+import net.greenrivertech.alexb.quizgame.engine.Leaderboard;
+import net.greenrivertech.alexb.quizgame.engine.QuestionBank;
+import net.greenrivertech.alexb.quizgame.engine.QuestionIdSet;
+import net.greenrivertech.alexb.quizgame.engine.QuizMetrics;
+import net.greenrivertech.alexb.quizgame.engine.ReplayRecorder;
+import net.greenrivertech.alexb.quizgame.engine.ReviewScheduler;
+import net.greenrivertech.alexb.quizgame.engine.ScoreHistoryStore;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Application class that holds the objects shared by every activity, such as the score history.
+ *
+ * @author Alex Ball
+ */
+public class QuizGameApplication extends Application {
+    /**
+     * Name of the directory (in the app's files directory) that holds the score history.
+     */
+    public static final String SCORE_HISTORY_DIR = "score_history";
+
+    /**
+     * Name of the app's shared preferences file.
+     */
+    public static final String PREFS_NAME = "quiz_settings";
+
+    /**
+     * Preference for choosing questions the user tends to get wrong more often.
+     */
+    public static final String PREF_ADAPTIVE_SELECTION = "adaptive_selection";
+
+    /**
+     * Preference for spaced review: asking the questions that are due for review (see
+     * ReviewScheduler) before new ones. Takes priority over adaptive selection.
+     */
+    public static final String PREF_SPACED_REVIEW = "spaced_review";
+
+    /**
+     * Preference for the tag query (see TagIndex.query) that games' questions must match;
+     * empty for every question.
+     */
+    public static final String PREF_TAG_FILTER = "tag_filter";
+
+    /**
+     * Preference for timed games (see QuizModel.TIMED_QUESTION_SECONDS).
+     */
+    public static final String PREF_TIMED = "timed";
+
+    /**
+     * Name of the file (in the app's files directory) that metrics snapshots are appended to,
+     * as JSON lines.
+     */
+    public static final String METRICS_FILE = "metrics.jsonl";
+
+    /**
+     * Name of the file (in the app's files directory) that holds the spaced review schedule.
+     */
+    public static final String REVIEW_SCHEDULE_FILE = "review_schedule.bin";
+
+    /**
+     * Name of the file (in the app's files directory) that the replay log of each finished
+     * game is appended to (see ReplayRecorder.writeFramed), so a reported score can be checked
+     * by replaying the game.
+     */
+    public static final String REPLAY_LOG_FILE = "replays.bin";
+
+    /**
+     * Name of the file (in the app's files directory) that holds the leaderboard of every game
+     * played on this device.
+     */
+    public static final String LEADERBOARD_FILE = "leaderboard.bin";
+
+    /**
+     * The most questions a game can have and still be ranked on the leaderboard; longer games
+     * (such as a whole question pack) are not comparable with the rest.
+     */
+    public static final int LEADERBOARD_MAX_QUESTIONS = 100;
+
+    //tag for log messages
+    private static final String TAG = "QuizMetrics";
+
+    //writes metrics snapshots off the main thread
+    private final ExecutorService metricsWriter = Executors.newSingleThreadExecutor();
+
+    //the score history of every game played on this device
+    private ScoreHistoryStore scoreHistory;
+
+    //sampler for adaptive games, and the bank it was built for; guarded by this
+    private AdaptiveQuestionSampler adaptiveSampler;
+    private QuestionBank adaptiveSamplerBank;
+
+    //schedule for spaced review games, and the bank it was loaded for; guarded by this
+    private ReviewScheduler reviewScheduler;
+    private QuestionBank reviewSchedulerBank;
+
+    //the leaderboard, read from LEADERBOARD_FILE when first needed; guarded by this
+    private Leaderboard leaderboard;
+
+    //writes the review schedule, replay logs and leaderboard off the main thread
+    private final ExecutorService fileWriter = Executors.newSingleThreadExecutor();
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        //start reading the score history in the background right away, so it is ready by the
+        //time the first game ends.
+        scoreHistory = ScoreHistoryStore.open(new File(getFilesDir(), SCORE_HISTORY_DIR));
+
+        //turn any question lists copied into the files directory into the question pack
+        //before the first game is loaded.
+        QuizModel.importPendingQuestions(getFilesDir());
+
+        //then bring the pack up to date with any patches waiting in the update directory.
+        QuizModel.applyPendingUpdates(getFilesDir());
+    }
+
+    /**
+     * Returns the score history of every game played on this device.
+     *
+     * @return The score history.
+     */
+    public ScoreHistoryStore getScoreHistory() {
+        return scoreHistory;
+    }
+
+    /**
+     * Takes a snapshot of every metric (see QuizMetrics) and, in the background, appends it to
+     * METRICS_FILE and writes it to logcat, one JSON object per line.
+     */
+    public void dumpMetrics() {
+        final StringBuilder snapshot = new StringBuilder();
+        QuizMetrics.snapshot(snapshot, System.currentTimeMillis());
+        final File metricsFile = new File(getFilesDir(), METRICS_FILE);
+
+        metricsWriter.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (String line : snapshot.toString().split("\n")) {
+                    Log.i(TAG, line);
+                }
+
+                Writer out = null;
+                try {
+                    out = new OutputStreamWriter(new FileOutputStream(metricsFile, true),
+                            "UTF-8");
+                    out.write(snapshot.toString());
+                } catch (IOException e) {
+                    Log.w(TAG, "Could not write " + metricsFile, e);
+                } finally {
+                    if (out != null) {
+                        try {
+                            out.close();
+                        } catch (IOException e) {
+                            Log.w(TAG, "Could not write " + metricsFile, e);
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns true if games should favour questions the user tends to get wrong.
+     *
+     * @return True if adaptive question selection is turned on.
+     */
+    public boolean isAdaptiveSelection() {
+        return getSharedPreferences(PREFS_NAME, MODE_PRIVATE)
+                .getBoolean(PREF_ADAPTIVE_SELECTION, false);
+    }
+
+    /**
+     * Turns adaptive question selection on or off, starting with the next game.
+     *
+     * @param adaptive True to favour questions the user tends to get wrong.
+     */
+    public void setAdaptiveSelection(boolean adaptive) {
+        SharedPreferences.Editor editor = getSharedPreferences(PREFS_NAME, MODE_PRIVATE).edit();
+        editor.putBoolean(PREF_ADAPTIVE_SELECTION, adaptive);
+        editor.apply();
+    }
+
+    /**
+     * Returns true if games should ask the questions that are due for review first.
+     *
+     * @return True if spaced review is turned on.
+     */
+    public boolean isSpacedReview() {
+        return getSharedPreferences(PREFS_NAME, MODE_PRIVATE)
+                .getBoolean(PREF_SPACED_REVIEW, false);
+    }
+
+    /**
+     * Turns spaced review on or off, starting with the next game.
+     *
+     * @param review True to ask the questions that are due for review first.
+     */
+    public void setSpacedReview(boolean review) {
+        SharedPreferences.Editor editor = getSharedPreferences(PREFS_NAME, MODE_PRIVATE).edit();
+        editor.putBoolean(PREF_SPACED_REVIEW, review);
+        editor.apply();
+    }
+
+    /**
+     * Returns true if games should be timed, with a time limit on each question and on the
+     * whole game.
+     *
+     * @return True if timed mode is turned on.
+     */
+    public boolean isTimedMode() {
+        return getSharedPreferences(PREFS_NAME, MODE_PRIVATE).getBoolean(PREF_TIMED, false);
+    }
+
+    /**
+     * Turns timed mode on or off, starting with the next game.
+     *
+     * @param timed True to time games.
+     */
+    public void setTimedMode(boolean timed) {
+        SharedPreferences.Editor editor = getSharedPreferences(PREFS_NAME, MODE_PRIVATE).edit();
+        editor.putBoolean(PREF_TIMED, timed);
+        editor.apply();
+    }
+
+    /**
+     * Returns the tag query that games' questions must match, such as "science AND easy", or
+     * an empty string if games may use any question.
+     *
+     * @return The tag filter.
+     */
+    public String getTagFilter() {
+        return getSharedPreferences(PREFS_NAME, MODE_PRIVATE).getString(PREF_TAG_FILTER, "");
+    }
+
+    /**
+     * Sets the tag query that games' questions must match, starting with the next game.
+     *
+     * @param filter The tag query, or an empty string for every question.
+     */
+    public void setTagFilter(String filter) {
+        SharedPreferences.Editor editor = getSharedPreferences(PREFS_NAME, MODE_PRIVATE).edit();
+        editor.putString(PREF_TAG_FILTER, filter);
+        editor.apply();
+    }
+
+    /**
+     * Returns the sampler for adaptive games from the given bank, seeded with the per-question
+     * statistics from the score history. The sampler is kept and reused (it learns from every
+     * answer it is told about) until a game is played from a different bank. Call this off the
+     * main thread; building a sampler for a large bank takes O(n).
+     *
+     * @param bank The bank the game is played from.
+     * @param bankId The number that identifies the bank in the score history; statistics
+     * recorded for other banks are not used.
+     * @param live The questions in the bank that may be asked, or null for all of them (see
+     * PatchedQuestionBank.getLiveQuestions). The others are never chosen.
+     *
+     * @return The adaptive sampler for the bank.
+     */
+    public synchronized AdaptiveQuestionSampler getAdaptiveSampler(QuestionBank bank,
+                                                                   int bankId,
+                                                                   QuestionIdSet live) {
+        if (adaptiveSampler == null || adaptiveSamplerBank != bank) {
+            int[] timesAnswered = new int[bank.size()];
+            int[] timesCorrect = new int[bank.size()];
+            scoreHistory.getQuestionCounts(bankId, timesAnswered, timesCorrect);
+            adaptiveSampler = new AdaptiveQuestionSampler(timesAnswered, timesCorrect,
+                    new Random());
+            if (live != null) {
+                for (int i = 0; i < bank.size(); i++) {
+                    if (!live.contains(i)) {
+                        adaptiveSampler.exclude(i);
+                    }
+                }
+            }
+            adaptiveSamplerBank = bank;
+        }
+        return adaptiveSampler;
+    }
+
+    /**
+     * Returns the spaced review schedule for the given bank, read from REVIEW_SCHEDULE_FILE
+     * the first time (or a new one, if there is none or it cannot be read). The schedule is
+     * kept and reused until a game is played from a different bank. Call this off the main
+     * thread; reading a schedule takes O(n).
+     *
+     * @param bank The bank the game is played from.
+     * @param bankId The number that identifies the bank; a saved schedule for another bank is
+     * replaced by a new one.
+     * @param live The questions in the bank that may be asked, or null for all of them (see
+     * PatchedQuestionBank.getLiveQuestions). The others are never asked.
+     *
+     * @return The review schedule for the bank.
+     */
+    public synchronized ReviewScheduler getReviewScheduler(QuestionBank bank, int bankId,
+                                                           QuestionIdSet live) {
+        if (reviewScheduler == null || reviewSchedulerBank != bank) {
+            File file = new File(getFilesDir(), REVIEW_SCHEDULE_FILE);
+            reviewScheduler = null;
+            if (file.exists()) {
+                try {
+                    reviewScheduler = ReviewScheduler.read(file, bank.size(), new Random());
+                    if (reviewScheduler.getBankId() != bankId) {
+                        Log.i(TAG, "Starting a new review schedule for another question bank.");
+                        reviewScheduler = null;
+                    }
+                } catch (IOException e) {
+                    Log.w(TAG, "Cannot read " + file + "; starting a new review schedule.", e);
+                }
+            }
+            if (reviewScheduler == null) {
+                reviewScheduler = new ReviewScheduler(bank.size(), bankId, new Random());
+            }
+            if (live != null) {
+                for (int i = 0; i < bank.size(); i++) {
+                    if (!live.contains(i)) {
+                        reviewScheduler.exclude(i);
+                    }
+                }
+            }
+            reviewSchedulerBank = bank;
+        }
+        return reviewScheduler;
+    }
+
+    /**
+     * Saves the spaced review schedule, if one has been loaded, to REVIEW_SCHEDULE_FILE in
+     * the background.
+     */
+    public void saveReviewSchedule() {
+        final ReviewScheduler scheduler;
+        synchronized (this) {
+            scheduler = reviewScheduler;
+        }
+        if (scheduler == null) {
+            return;
+        }
+        final File file = new File(getFilesDir(), REVIEW_SCHEDULE_FILE);
+        fileWriter.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    scheduler.write(file);
+                } catch (IOException e) {
+                    Log.w(TAG, "Could not write " + file, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Appends the replay log of a finished game to REPLAY_LOG_FILE in the background.
+     *
+     * @param recorder The finished game's recorder. Its log is copied, so the recorder can be
+     * reused at once.
+     */
+    public void appendReplay(ReplayRecorder recorder) {
+        final byte[] log = recorder.toByteArray();
+        final File file = new File(getFilesDir(), REPLAY_LOG_FILE);
+        fileWriter.execute(new Runnable() {
+            @Override
+            public void run() {
+                FileOutputStream out = null;
+                try {
+                    out = new FileOutputStream(file, true);
+                    ReplayRecorder.writeFramed(out, log, 0, log.length);
+                } catch (IOException e) {
+                    Log.w(TAG, "Could not write " + file, e);
+                } finally {
+                    if (out != null) {
+                        try {
+                            out.close();
+                        } catch (IOException e) {
+                            Log.w(TAG, "Could not write " + file, e);
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the leaderboard of every game played on this device, read from LEADERBOARD_FILE
+     * the first time (or a new one, if there is none or it cannot be read). The file is a few
+     * kilobytes however many games have been played, so this is quick enough to call from the
+     * main thread.
+     *
+     * @return The leaderboard.
+     */
+    public synchronized Leaderboard getLeaderboard() {
+        if (leaderboard == null) {
+            File file = new File(getFilesDir(), LEADERBOARD_FILE);
+            if (file.exists()) {
+                try {
+                    leaderboard = Leaderboard.read(file, Leaderboard.DEFAULT_TOP_CAPACITY);
+                } catch (IOException e) {
+                    Log.w(TAG, "Cannot read " + file + "; starting a new leaderboard.", e);
+                }
+            }
+            if (leaderboard == null
+                    || leaderboard.getMaxQuestions() != LEADERBOARD_MAX_QUESTIONS) {
+                leaderboard = new Leaderboard(LEADERBOARD_MAX_QUESTIONS);
+            }
+        }
+        return leaderboard;
+    }
+
+    /**
+     * Saves a snapshot of the leaderboard, if it has been loaded, to LEADERBOARD_FILE in the
+     * background.
+     */
+    public void saveLeaderboard() {
+        final Leaderboard board;
+        synchronized (this) {
+            board = leaderboard;
+        }
+        if (board == null) {
+            return;
+        }
+        final File file = new File(getFilesDir(), LEADERBOARD_FILE);
+        fileWriter.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    board.write(file);
+                } catch (IOException e) {
+                    Log.w(TAG, "Could not write " + file, e);
+                }
+            }
+        });
+    }
+}
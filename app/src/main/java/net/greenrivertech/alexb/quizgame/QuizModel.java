@@ -10,14 +10,52 @@ package net.greenrivertech.alexb.quizgame;
 
 import android.app.Fragment;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
 
+import net.greenrivertech.alexb.quizgame.engine.AdaptiveQuestionSampler;
+import net.greenrivertech.alexb.quizgame.engine.AnswerState;
+import net.greenrivertech.alexb.quizgame.engine.CachingQuestionBank;
+import net.greenrivertech.alexb.quizgame.engine.ColumnarQuestionBank;
+import net.greenrivertech.alexb.quizgame.engine.GamePool;
+import net.greenrivertech.alexb.quizgame.engine.PatchedQuestionBank;
+import net.greenrivertech.alexb.quizgame.engine.Question;
+import net.greenrivertech.alexb.quizgame.engine.QuestionBank;
+import net.greenrivertech.alexb.quizgame.engine.QuestionIdSet;
+import net.greenrivertech.alexb.quizgame.engine.QuestionImporter;
+import net.greenrivertech.alexb.quizgame.engine.QuestionPackUpdater;
+import net.greenrivertech.alexb.quizgame.engine.QuestionSampler;
+import net.greenrivertech.alexb.quizgame.engine.QuizEngine;
+import net.greenrivertech.alexb.quizgame.engine.QuizMetrics;
+import net.greenrivertech.alexb.quizgame.engine.QuizTimer;
+import net.greenrivertech.alexb.quizgame.engine.ReplayRecorder;
+import net.greenrivertech.alexb.quizgame.engine.ReviewScheduler;
+import net.greenrivertech.alexb.quizgame.engine.ScoreHistoryStore;
+import net.greenrivertech.alexb.quizgame.engine.TagIndex;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * This class represents a quiz game in which a user has a score. They increase their score
- * by correctly answering true/false questions.
+ * by correctly answering true/false questions. The game rules live in a QuizEngine; this
+ * fragment loads the game and keeps it alive across activity restarts.
+ *
+ * In timed mode, a QuizTimer limits the time for each question and for the whole game. One
+ * Runnable on the main thread drives it: it is scheduled for the timer's next deadline (or the
+ * next second of the countdown), and rescheduled after every answer and move, so there is
+ * never more than one pending wake-up however many questions there are.
  *
  * @author Alex Ball
  */
@@ -27,79 +65,290 @@ public class QuizModel extends Fragment {
      */
     public static final int DEFAULT_NUM_QUESTIONS = 3;
 
-    //array representing the list of questions used for this game.
-    private List<Question> questions;
+    /**
+     * Time allowed for each question in timed games, in seconds.
+     */
+    public static final int TIMED_QUESTION_SECONDS = 10;
+
+    /**
+     * Time allowed for a whole timed game, in seconds.
+     */
+    public static final int TIMED_GAME_SECONDS = 25;
+
+    //the game itself (the game rules); null until the model is ready.
+    private QuizEngine engine;
+
+    //the game's time limits; null if the game is not timed.
+    private QuizTimer timer;
+
+    //records the game for replay; null if it is not recorded (e.g. restored without its log).
+    private ReplayRecorder replay;
 
-    //the user's score; the number of correctly answered questions for this game.
-    private int score;
+    //the warm pool the game came from, the game's place in it and the tag filter the pool's
+    //games match; null if the game did not come from a pool (a restored, adaptive or review
+    //game). Only used on the main thread.
+    private GamePool gamePool;
+    private GamePool.Game pooledGame;
+    private String gamePoolFilter;
 
-    //the question number that the user is on (used for ordering the questions; user may be
-    //on 1st question (0), or 3rd question (2),etc.)
-    private int gameQuestionNum;
+    //the questions either side of the current one (previous in the high half, next in the low
+    //half, -1 for none) and the bank to decode them in, for prefetchTask. written on the main
+    //thread and read on the loader thread.
+    private volatile CachingQuestionBank prefetchCache;
+    private volatile long prefetchQuestions;
 
-    //The number of questions that the user has answered in this game.
-    private int numQuestionsAnswered;
+    //true while prefetchTask is queued, so navigating quickly never queues it twice.
+    private final AtomicBoolean prefetchQueued = new AtomicBoolean();
 
-    //The number of questions in this quiz
-    private int numQuestions;
+    //decodes the latest neighbours; one task is reused so navigating allocates nothing.
+    private final Runnable prefetchTask = new Runnable() {
+        @Override
+        public void run() {
+            //clear the flag first: neighbours set after this are then prefetched by a new run.
+            prefetchQueued.set(false);
+            CachingQuestionBank cache = prefetchCache;
+            long questions = prefetchQuestions;
+            cache.prefetch((int) (questions >> 32));
+            cache.prefetch((int) questions);
+        }
+    };
+
+    /**
+     * Name of the question pack file (in the app's files directory) that games are played
+     * from. If there is no such file, the built-in questions are used instead.
+     */
+    public static final String QUESTION_PACK_FILE = "questions.qpk";
 
     /**
-     * The full list of questions that the quiz game might ask the user.
-     * A small number of questions are selected from this list for each game.
+     * Names of question sources (in the app's files directory) that importPendingQuestions
+     * turns into the question pack, replacing it. Each is renamed with IMPORTED_SUFFIX once
+     * imported, so it is only imported once.
      */
-    public static final List<Question> fullQuestionList;
+    public static final String[] IMPORT_SOURCES = {"questions.csv", "questions.jsonl"};
+
+    /**
+     * Suffix added to question sources once they have been imported.
+     */
+    public static final String IMPORTED_SUFFIX = ".imported";
+
+    /**
+     * Name of the directory (in the app's files directory) that applyPendingUpdates reads
+     * question pack patches from. It stands in for a download server: patches copied into it
+     * are applied to the question pack, so content changes do not need a new build.
+     */
+    public static final String PACK_UPDATES_DIR = "pack-updates";
+
+    //tag for log messages
+    private static final String TAG = "QuizModel";
 
-    static {
-        //setup the full list of questions
-        fullQuestionList = new ArrayList<>();
-        fullQuestionList.add(new Question("Is water wet?", true));
-        fullQuestionList.add(new Question("Is fire hot?", true));
-        fullQuestionList.add(new Question("Is ice cold?", true));
-        fullQuestionList.add(new Question("Is 5 greater than 6?", false));
-        fullQuestionList.add(new Question("Can deer fly?", false));
-        fullQuestionList.add(new Question("Is this app working?", true));
-        fullQuestionList.add(new Question("Are puzzles puzzling?", true));
-        fullQuestionList.add(new Question("Can dolphins breathe air?", true));
-        fullQuestionList.add(new Question("Are potatoes fruits?", false));
-        fullQuestionList.add(new Question("Is false equal to true?", false));
+    //keys for the game's state in the saved instance state
+    private static final String STATE_QUESTIONS = "net.greenrivertech.alexb.quizgame.QUESTIONS";
+    private static final String STATE_GAME = "net.greenrivertech.alexb.quizgame.GAME_STATE";
+    private static final String STATE_SCORE_RECORDED =
+            "net.greenrivertech.alexb.quizgame.SCORE_RECORDED";
+    private static final String STATE_TIMER = "net.greenrivertech.alexb.quizgame.TIMER_STATE";
+    private static final String STATE_REPLAY = "net.greenrivertech.alexb.quizgame.REPLAY_LOG";
+
+    //the countdown is shown in whole seconds, so the timer wakes up at least once a second.
+    private static final long TIMER_TICK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    //background thread that loads question banks and chooses each game's questions.
+    private static final ExecutorService loader = Executors.newSingleThreadExecutor();
+
+    //games ready to play from the open bank, and the tag filter they match. These two fields
+    //are only read and replaced on the loader thread, which also runs the pool's refills; the
+    //pool itself is shared, since playAgain and the loader's post to the main thread call its
+    //take() and recycle() on the main thread (GamePool is thread safe).
+    private static GamePool openGamePool;
+    private static String openGamePoolFilter;
+
+    /**
+     * Memory budget for the question pack's decoded question text, in bytes.
+     */
+    public static final long TEXT_CACHE_BYTES = 256 * 1024;
+
+    //the open question pack, with its text cache, shared by every game until the pack file
+    //or its overlay of patches changes; only used on the loader thread.
+    private static CachingQuestionBank openPack;
+    private static int openPackBaseVersion;
+    private static long openPackModified;
+    private static long openPackLength;
+    private static long openOverlayModified;
+
+    //the open pack's questions that have not been removed by a patch, or null if none have
+    private static QuestionIdSet openPackLive;
+
+    //the bank id (see bankId) of the open pack
+    private static int openPackId;
+
+    //bank id of the built-in questions
+    private static final int BUILT_IN_BANK_ID = 0;
+
+    //true once the game's questions have been chosen and the game can be played.
+    private boolean ready;
+
+    //the tags of the bank's questions; empty until the model is ready.
+    private TagIndex tagIndex = TagIndex.EMPTY;
+
+    //the bank id (see bankId) of the game's bank, for the score history.
+    private int bankId;
+
+    //how long it took to load the bank and choose the questions, in nanoseconds.
+    private long loadTimeNanos;
+
+    //true once this game's result has been saved to the score history.
+    private boolean scoreRecorded;
+
+    //told when the game becomes ready; may be null.
+    private OnQuizReadyListener onQuizReadyListener;
+
+    //told about each timer tick; may be null.
+    private OnTimerListener onTimerListener;
+
+    //the one scheduler for the timer: timerTick is posted to timerHandler for the next time
+    //the timer needs to wake up, replacing any earlier post.
+    private final Handler timerHandler = new Handler(Looper.getMainLooper());
+    private final Runnable timerTick = new Runnable() {
+        @Override
+        public void run() {
+            updateTimer();
+        }
+    };
+
+    /**
+     * Listener that is told when a QuizModel has finished loading and can be played.
+     */
+    public interface OnQuizReadyListener {
+        /**
+         * Called on the main thread when the model's questions are ready.
+         *
+         * @param model The model that is now ready.
+         */
+        void onQuizReady(QuizModel model);
+    }
+
+    /**
+     * Listener that is told when a timed game's countdown changes or its time runs out.
+     */
+    public interface OnTimerListener {
+        /**
+         * Called on the main thread when the time left (in whole seconds) changes, or a
+         * question or the game runs out of time.
+         *
+         * @param model The model whose timer ticked.
+         * @param expired True if a question or the game just ran out of time.
+         */
+        void onTimerTick(QuizModel model, boolean expired);
     }
 
     /**
-     * Constructor that creates a new QuizModel with score 0 and gameQuestionNum 0 (first question).
+     * Listener that is told when loadBank has loaded the question bank.
+     */
+    public interface OnBankLoadedListener {
+        /**
+         * Called on the main thread when the bank is loaded.
+         *
+         * @param bank The question bank games are played from.
+         */
+        void onBankLoaded(QuestionBank bank);
+    }
+
+    /**
+     * Constructor that creates a new QuizModel that is not ready yet. Its questions are loaded
+     * in the background when the fragment is created; see isReady().
      */
     public QuizModel() {
-        numQuestions = DEFAULT_NUM_QUESTIONS;
-        score = 0;
-        gameQuestionNum = 0;
-        numQuestionsAnswered = 0;
-
-        //random object used for randomly selecting questions for this game.
-        Random rand = new Random();
-
-        //keep track of which questions have already been selected
-        ArrayList<Integer> chosenQuestions = new ArrayList<>();
-
-        //fill the array with questions.
-        questions = new ArrayList<>();
-        for(int i = 0; i < numQuestions; i++) {
-            //get a new random number until we get a question that is not already
-            //in the game.
-            int questionNumber = rand.nextInt(fullQuestionList.size());
-            while (chosenQuestions.contains(questionNumber)) {
-                questionNumber = rand.nextInt(fullQuestionList.size());
-            }
+        ready = false;
+    }
+
+    /**
+     * Constructor that creates a new QuizModel with score 0 and gameQuestionNum 0 (first question),
+     * using the given sampler to choose the questions for this game. A seeded sampler makes the
+     * game reproducible. The model is ready as soon as it is constructed.
+     *
+     * @param bank The bank to choose questions from.
+     * @param sampler The sampler that chooses questions from the bank.
+     */
+    public QuizModel(QuestionBank bank, QuestionSampler sampler) {
+        engine = QuizEngine.newGame(bank, sampler, DEFAULT_NUM_QUESTIONS);
+        ready = true;
+    }
+
+    /**
+     * Constructor that creates a new QuizModel with score 0 and gameQuestionNum 0 (first question),
+     * asking only questions from the given pool, e.g. the questions matching a tag query such
+     * as <code>getDefaultTagIndex().query("science AND nature")</code>. The model is ready as
+     * soon as it is constructed.
+     *
+     * @param bank The bank the questions come from.
+     * @param pool The question numbers to choose from.
+     * @param sampler The sampler that chooses questions from the pool.
+     */
+    public QuizModel(QuestionBank bank, QuestionIdSet pool, QuestionSampler sampler) {
+        engine = QuizEngine.newGame(bank, pool, sampler, DEFAULT_NUM_QUESTIONS);
+        ready = true;
+    }
 
-            //add the questionNumber to the list of chosen questions and add
-            //the question to the list of questions for this game.
-            chosenQuestions.add(questionNumber);
-            questions.add(fullQuestionList.get(questionNumber).copyQuestion());
+    /**
+     * Returns the built-in bank of questions that the quiz game might ask the user, used when
+     * no question pack is loaded. The bank is built the first time this is called.
+     *
+     * @return The built-in question bank.
+     */
+    public static QuestionBank getDefaultQuestionBank() {
+        return DefaultQuestionBankHolder.BANK;
+    }
+
+    /**
+     * Returns the tags of the built-in questions (see getDefaultQuestionBank).
+     *
+     * @return The built-in questions' tags.
+     */
+    public static TagIndex getDefaultTagIndex() {
+        return DefaultQuestionBankHolder.TAGS;
+    }
+
+    //holds the built-in bank, so it is only built when first asked for (on the loader thread)
+    //rather than when QuizModel is loaded on the main thread.
+    private static class DefaultQuestionBankHolder {
+        static final QuestionBank BANK;
+        static final TagIndex TAGS;
+
+        static {
+            //setup the full bank of questions
+            ColumnarQuestionBank.Builder builder = new ColumnarQuestionBank.Builder();
+            builder.add("Is water wet?", true);
+            builder.add("Is fire hot?", true);
+            builder.add("Is ice cold?", true);
+            builder.add("Is 5 greater than 6?", false);
+            builder.add("Can deer fly?", false);
+            builder.add("Is this app working?", true);
+            builder.add("Are puzzles puzzling?", true);
+            builder.add("Can dolphins breathe air?", true);
+            builder.add("Are potatoes fruits?", false);
+            builder.add("Is false equal to true?", false);
+            BANK = builder.build();
+
+            //tag each question, in question number order
+            TAGS = new TagIndex.Builder(0)
+                    .add(0, "science").add(1, "science").add(2, "science")
+                    .add(3, "logic")
+                    .add(4, "nature")
+                    .add(5, "silly")
+                    .add(6, "logic").add(6, "silly")
+                    .add(7, "nature").add(7, "science")
+                    .add(8, "nature")
+                    .add(9, "logic")
+                    .build();
         }
     }
 
     /**
      * This onCreate method is needed for saving the QuizModel even when the
      * activity that called it is destroyed and recreated. It uses setRetainInstance(true)
-     * to accomplish this.
+     * to accomplish this. It also starts loading the questions in the background if the
+     * model is not ready yet; if the app's process was killed mid-game, the saved game is
+     * restored once the questions are loaded.
      */
     @Override
     public void onCreate(Bundle savedInstanceState) {
@@ -107,6 +356,640 @@ public class QuizModel extends Fragment {
 
         // set the fragment to be retained (including when the device's orientation changes).
         setRetainInstance(true);
+
+        if (!ready) {
+            int[] savedQuestions = null;
+            long[] savedState = null;
+            long[] savedTimer = null;
+            byte[] savedReplay = null;
+            if (savedInstanceState != null) {
+                savedQuestions = savedInstanceState.getIntArray(STATE_QUESTIONS);
+                savedState = savedInstanceState.getLongArray(STATE_GAME);
+                savedTimer = savedInstanceState.getLongArray(STATE_TIMER);
+                savedReplay = savedInstanceState.getByteArray(STATE_REPLAY);
+                scoreRecorded = savedInstanceState.getBoolean(STATE_SCORE_RECORDED);
+            }
+            loadInBackground((QuizGameApplication) getActivity().getApplication(),
+                    new File(getActivity().getFilesDir(), QUESTION_PACK_FILE),
+                    savedQuestions, savedState, savedTimer, savedReplay);
+        }
+    }
+
+    /**
+     * Saves the game in a compact form (the question numbers and a few words of state; see
+     * QuizEngine.saveState), so it can be restored if the app's process is killed.
+     */
+    @Override
+    public void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        if (ready) {
+            outState.putIntArray(STATE_QUESTIONS, engine.getQuestionNumbers());
+            outState.putLongArray(STATE_GAME, engine.saveState());
+            outState.putBoolean(STATE_SCORE_RECORDED, scoreRecorded);
+            if (timer != null) {
+                outState.putLongArray(STATE_TIMER, timer.saveState(System.nanoTime()));
+            }
+            if (replay != null && replay.isRecording()) {
+                outState.putByteArray(STATE_REPLAY, replay.toByteArray());
+            }
+        }
+    }
+
+    /**
+     * Starts the clock of a timed game when the game is on screen.
+     */
+    @Override
+    public void onResume() {
+        super.onResume();
+        if (ready && timer != null) {
+            timer.start(System.nanoTime());
+            scheduleTimer();
+        }
+    }
+
+    /**
+     * Stops the clock of a timed game while the game is not on screen.
+     */
+    @Override
+    public void onPause() {
+        super.onPause();
+        if (timer != null) {
+            timer.stop(System.nanoTime());
+            timerHandler.removeCallbacks(timerTick);
+        }
+    }
+
+    //load the question bank and choose this game's questions (or restore the saved game, if
+    //there is one) on the loader thread, then start the game on the main thread.
+    private void loadInBackground(final QuizGameApplication app, final File packFile,
+                                  final int[] savedQuestions, final long[] savedState,
+                                  final long[] savedTimer, final byte[] savedReplay) {
+        final Handler mainHandler = new Handler(Looper.getMainLooper());
+        final long startTime = System.nanoTime();
+        final boolean review = app.isSpacedReview();
+        final boolean adaptive = app.isAdaptiveSelection();
+        final String tagFilter = app.getTagFilter();
+        final boolean timed = app.isTimedMode();
+
+        loader.execute(new Runnable() {
+            @Override
+            public void run() {
+                final QuestionBank loadedBank = loadQuestionBank(packFile);
+                final TagIndex loadedTags = loadTagIndex(packFile, loadedBank);
+                QuestionIdSet pool = filterQuestions(loadedTags, tagFilter);
+                final QuestionIdSet live = loadedBank == openPack ? openPackLive : null;
+                final int loadedBankId = loadedBank == openPack ? openPackId : BUILT_IN_BANK_ID;
+                if (live != null && pool != null) {
+                    //questions removed by a patch are not asked again.
+                    pool = pool.and(live);
+                }
+                QuizEngine restoredEngine = null;
+                if (savedQuestions != null && savedState != null) {
+                    restoredEngine = restoreGame(loadedBank, savedQuestions, savedState);
+                }
+
+                final QuizEngine loadedEngine;
+                GamePool.Game taken = null;
+                if (restoredEngine != null) {
+                    loadedEngine = restoredEngine;
+                    if (review) {
+                        loadedEngine.setAnswerListener(
+                                app.getReviewScheduler(loadedBank, loadedBankId, live));
+                    } else if (adaptive) {
+                        loadedEngine.setAnswerListener(
+                                app.getAdaptiveSampler(loadedBank, loadedBankId, live));
+                    }
+                } else if (pool != null || (!review && !adaptive)) {
+                    //a game filtered by tag (spaced review and adaptive selection only apply
+                    //to the whole bank) or a game from the whole bank. Their questions can be
+                    //chosen ahead of time, so they come from a warm pool, which is then
+                    //refilled for the next game.
+                    taken = openGamePool(loadedBank, pool != null ? pool : live, tagFilter)
+                            .take();
+                    loadedEngine = taken.getEngine();
+                } else if (review) {
+                    //ask the questions that are due for review, then new ones, and reschedule
+                    //each one as it is answered. questions removed by a patch are excluded.
+                    ReviewScheduler scheduler = app.getReviewScheduler(loadedBank, loadedBankId,
+                            live);
+                    loadedEngine = QuizEngine.newGame(loadedBank, scheduler,
+                            numQuestions(loadedBank, live));
+                    loadedEngine.setAnswerListener(scheduler);
+                } else {
+                    //favour questions the user tends to get wrong, and keep the sampler's
+                    //statistics up to date as this game is played. questions removed by a
+                    //patch are excluded.
+                    AdaptiveQuestionSampler sampler = app.getAdaptiveSampler(loadedBank,
+                            loadedBankId, live);
+                    loadedEngine = QuizEngine.newGame(loadedBank, sampler,
+                            numQuestions(loadedBank, live));
+                    loadedEngine.setAnswerListener(sampler);
+                }
+                final GamePool.Game loadedPooledGame = taken;
+                final GamePool loadedGamePool = taken != null ? openGamePool : null;
+
+                //record the game for replay. A game from the whole bank only needs its seed
+                //logged; other games log their questions. A restored game carries on its
+                //saved log, if there is one.
+                final ReplayRecorder loadedReplay;
+                if (restoredEngine == null) {
+                    loadedReplay = new ReplayRecorder();
+                    startReplay(loadedReplay, loadedEngine, loadedPooledGame);
+                } else if (savedReplay != null) {
+                    loadedReplay = new ReplayRecorder();
+                    loadedReplay.resume(restoredEngine, savedReplay);
+                } else {
+                    loadedReplay = null;
+                }
+
+                //a restored game keeps its timer (or lack of one); a new game is timed if
+                //timed mode is on.
+                final QuizTimer loadedTimer;
+                if (restoredEngine != null) {
+                    loadedTimer = savedTimer != null
+                            ? restoreTimer(restoredEngine, savedTimer) : null;
+                } else if (timed) {
+                    loadedTimer = newTimer(loadedEngine, loadedPooledGame);
+                } else {
+                    loadedTimer = null;
+                }
+
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        loadTimeNanos = System.nanoTime() - startTime;
+                        QuizMetrics.MODEL_LOAD.record(loadTimeNanos);
+                        engine = loadedEngine;
+                        timer = loadedTimer;
+                        replay = loadedReplay;
+                        tagIndex = loadedTags;
+                        bankId = loadedBankId;
+
+                        //a game this model had before (see playAgain) goes back to its pool.
+                        if (pooledGame != null) {
+                            gamePool.recycle(pooledGame);
+                        }
+                        gamePool = loadedGamePool;
+                        pooledGame = loadedPooledGame;
+                        gamePoolFilter = tagFilter;
+                        ready = true;
+                        prefetchNeighbours();
+                        if (timer != null && isResumed()) {
+                            timer.start(System.nanoTime());
+                            scheduleTimer();
+                        }
+                        if (onQuizReadyListener != null) {
+                            onQuizReadyListener.onQuizReady(QuizModel.this);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    //the warm pool of games from the given bank and questions, made when the bank or the tag
+    //filter changes; runs on the loader thread.
+    private static GamePool openGamePool(QuestionBank bank, QuestionIdSet questions,
+                                         String tagFilter) {
+        if (openGamePool == null || openGamePool.getBank() != bank
+                || !tagFilter.equals(openGamePoolFilter)) {
+            openGamePool = new GamePool(bank, questions, DEFAULT_NUM_QUESTIONS,
+                    GamePool.DEFAULT_CAPACITY, loader);
+            openGamePoolFilter = tagFilter;
+        }
+        return openGamePool;
+    }
+
+    //a number that identifies a pack file by its version and size, so the review schedule and
+    //the score history's per-question counts are not applied to another pack's questions.
+    //patches keep question numbers, so they keep the pack's id. never negative, and never the
+    //built-in questions' id.
+    private static int bankId(int basePackVersion, int basePackSize) {
+        long mixed = ((long) basePackVersion << 32 | (basePackSize & 0xFFFFFFFFL))
+                * 0x9E3779B97F4A7C15L;
+        return (int) (mixed >>> 33) | 1;
+    }
+
+    //the number of questions in a new game from the bank, when only the live questions (all
+    //of them, if null) may be asked.
+    private static int numQuestions(QuestionBank bank, QuestionIdSet live) {
+        return Math.min(DEFAULT_NUM_QUESTIONS, live != null ? live.cardinality() : bank.size());
+    }
+
+    //start recording a new game. A game from the whole bank only needs its seed logged; other
+    //games log their questions.
+    private static void startReplay(ReplayRecorder recorder, QuizEngine game,
+                                    GamePool.Game pooled) {
+        if (pooled != null && pooled.isSeeded()) {
+            recorder.startSeeded(game, pooled.getSeed());
+        } else {
+            recorder.start(game);
+        }
+    }
+
+    //a timer for a new timed game: the one a pooled game was last played with, if it has one.
+    private static QuizTimer newTimer(QuizEngine game, GamePool.Game pooled) {
+        long questionLimit = TimeUnit.SECONDS.toNanos(TIMED_QUESTION_SECONDS);
+        long gameLimit = TimeUnit.SECONDS.toNanos(TIMED_GAME_SECONDS);
+        return pooled != null ? pooled.getTimer(questionLimit, gameLimit)
+                : new QuizTimer(game, questionLimit, gameLimit);
+    }
+
+    /**
+     * Starts the next game in place of this one, which is over (the score summary's "play
+     * again" button). If this game came from a warm pool and the settings have not changed,
+     * the next game is taken from the pool: it is ready at once, without a trip to the loader
+     * thread, and reuses the arrays, timer and replay buffer of an earlier game, so nothing is
+     * allocated. This game then goes back to the pool to be reused in turn. Otherwise the next
+     * game is loaded in the background, as the first one was, and the OnQuizReadyListener is
+     * told when it is ready.
+     *
+     * @param app The application, for the settings and the files directory.
+     *
+     * @return True if the next game is ready now, false if it is loading.
+     */
+    public boolean playAgain(QuizGameApplication app) {
+        if (!ready) {
+            //the next game is already on its way.
+            return false;
+        }
+        timerHandler.removeCallbacks(timerTick);
+        if (timer != null) {
+            timer.stop(System.nanoTime());
+        }
+        scoreRecorded = false;
+
+        if (pooledGame == null || app.isSpacedReview() || app.isAdaptiveSelection()
+                || !app.getTagFilter().equals(gamePoolFilter)) {
+            //the finished game goes back to its pool once the next one is loaded.
+            ready = false;
+            loadInBackground(app, new File(app.getFilesDir(), QUESTION_PACK_FILE),
+                    null, null, null, null);
+            return false;
+        }
+
+        GamePool.Game finished = pooledGame;
+        pooledGame = gamePool.take();
+        engine = pooledGame.getEngine();
+        timer = app.isTimedMode() ? newTimer(engine, pooledGame) : null;
+        if (replay == null) {
+            replay = new ReplayRecorder();
+        }
+        startReplay(replay, engine, pooledGame);
+
+        //nothing refers to the finished game any more.
+        gamePool.recycle(finished);
+
+        prefetchNeighbours();
+        if (timer != null && isResumed()) {
+            timer.start(System.nanoTime());
+            scheduleTimer();
+        }
+        return true;
+    }
+
+    //rebuild a saved game, or return null if it no longer matches the bank (e.g. the question
+    //pack was replaced while the app was not running).
+    private static QuizEngine restoreGame(QuestionBank bank, int[] questions, long[] state) {
+        long startTime = System.nanoTime();
+        try {
+            QuizEngine restored = QuizEngine.restore(bank, questions, state);
+            QuizMetrics.STATE_RESTORE.recordSince(startTime);
+            return restored;
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Cannot restore saved game; starting a new one.", e);
+            return null;
+        }
+    }
+
+    //rebuild a saved game's timer, or return null (an untimed game) if it no longer fits.
+    private static QuizTimer restoreTimer(QuizEngine game, long[] state) {
+        try {
+            return QuizTimer.restore(game, state);
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Cannot restore saved timer; continuing without one.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Imports any question sources waiting in the files directory (see IMPORT_SOURCES) into a
+     * new question pack, on the same background thread that loads games, so a game started
+     * afterwards plays the imported questions. Duplicate and invalid questions are skipped
+     * and logged.
+     *
+     * @param filesDir The app's files directory.
+     */
+    public static void importPendingQuestions(final File filesDir) {
+        loader.execute(new Runnable() {
+            @Override
+            public void run() {
+                importQuestions(filesDir);
+            }
+        });
+    }
+
+    //import every waiting question source into a new pack; runs on the loader thread.
+    private static void importQuestions(File filesDir) {
+        List<File> sources = new ArrayList<File>();
+        for (String name : IMPORT_SOURCES) {
+            File source = new File(filesDir, name);
+            if (source.exists()) {
+                sources.add(source);
+            }
+        }
+        if (sources.isEmpty()) {
+            return;
+        }
+
+        //the new pack's version follows the one it replaces, patches included.
+        File packFile = new File(filesDir, QUESTION_PACK_FILE);
+        int packVersion = 1;
+        if (packFile.exists()) {
+            try {
+                packVersion = PatchedQuestionBank.open(packFile).getPackVersion() + 1;
+            } catch (IOException e) {
+                Log.w(TAG, "Cannot read old question pack version.", e);
+            }
+        }
+
+        long startTime = System.nanoTime();
+        try {
+            QuestionImporter importer = new QuestionImporter(packFile, packVersion);
+            try {
+                for (File source : sources) {
+                    BufferedReader in = new BufferedReader(new InputStreamReader(
+                            new FileInputStream(source), "UTF-8"), 64 * 1024);
+                    try {
+                        importer.importFrom(in,
+                                QuestionImporter.Format.forFileName(source.getName()));
+                    } finally {
+                        in.close();
+                    }
+                }
+                importer.finish();
+            } finally {
+                importer.close();
+            }
+
+            //patches to the old pack do not apply to the new one.
+            PatchedQuestionBank.overlayFile(packFile).delete();
+            for (File source : sources) {
+                if (!source.renameTo(new File(source.getPath() + IMPORTED_SUFFIX))) {
+                    Log.w(TAG, "Cannot rename imported question source " + source + ".");
+                }
+            }
+            for (String error : importer.getErrors()) {
+                Log.w(TAG, "Skipped invalid question: " + error);
+            }
+            Log.i(TAG, String.format(Locale.US,
+                    "Imported %d questions (%d duplicates, %d invalid) from %d lines in %.1f ms.",
+                    importer.getImported(), importer.getDuplicates(), importer.getInvalid(),
+                    importer.getLinesRead(), (System.nanoTime() - startTime) / 1e6));
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot import questions; keeping the old question pack.", e);
+        }
+    }
+
+    /**
+     * Applies any question pack patches waiting in the update directory (see PACK_UPDATES_DIR),
+     * on the same background thread that loads games, so a game started afterwards plays the
+     * updated questions. Only the patches are read; the pack file itself is not rewritten.
+     *
+     * @param filesDir The app's files directory.
+     */
+    public static void applyPendingUpdates(final File filesDir) {
+        loader.execute(new Runnable() {
+            @Override
+            public void run() {
+                applyUpdates(filesDir);
+            }
+        });
+    }
+
+    //apply every patch that leads on from the pack's version; runs on the loader thread.
+    private static void applyUpdates(File filesDir) {
+        File packFile = new File(filesDir, QUESTION_PACK_FILE);
+        File source = new File(filesDir, PACK_UPDATES_DIR);
+        if (!packFile.exists() || !source.isDirectory()) {
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        try {
+            QuestionPackUpdater updater = new QuestionPackUpdater(packFile);
+            int version = updater.update(source);
+            if (updater.getPatchesApplied() > 0) {
+                Log.i(TAG, String.format(Locale.US,
+                        "Applied %d question pack patches (now version %d) in %.1f ms.",
+                        updater.getPatchesApplied(), version,
+                        (System.nanoTime() - startTime) / 1e6));
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot update question pack; keeping the current version.", e);
+        }
+    }
+
+    //the tags of the bank's questions: the built-in tags for the built-in bank, or the pack's
+    //tag index if it has one that was built for this pack file. patches keep question numbers,
+    //so the index still holds; questions a patch adds just have no tags.
+    private static TagIndex loadTagIndex(File packFile, QuestionBank bank) {
+        if (bank == getDefaultQuestionBank()) {
+            return getDefaultTagIndex();
+        }
+
+        File tagFile = new File(packFile.getPath() + TagIndex.FILE_SUFFIX);
+        if (tagFile.exists()) {
+            try {
+                TagIndex tags = TagIndex.read(tagFile);
+                if (tags.getPackVersion() == openPackBaseVersion) {
+                    return tags;
+                }
+                Log.w(TAG, "Ignoring tag index built for another version of the pack.");
+            } catch (IOException e) {
+                Log.w(TAG, "Cannot read tag index.", e);
+            }
+        }
+        return TagIndex.EMPTY;
+    }
+
+    //the questions matching the tag filter, or null to use the whole bank (no filter, or a
+    //filter that is malformed or matches nothing).
+    private static QuestionIdSet filterQuestions(TagIndex tags, String filter) {
+        if (filter.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            QuestionIdSet pool = tags.query(filter);
+            if (pool.cardinality() > 0) {
+                return pool;
+            }
+            Log.w(TAG, "No questions match \"" + filter + "\"; using every question.");
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Bad tag filter; using every question.", e);
+        }
+        return null;
+    }
+
+    /**
+     * Loads the question bank that games are played from (the question pack, or the built-in
+     * questions if there is none) on the background thread that loads games, and hands it to
+     * the listener on the main thread. The open pack is shared with games, so this is quick
+     * if a game has just been played from it.
+     *
+     * @param filesDir The app's files directory.
+     * @param listener The listener to give the bank to.
+     */
+    public static void loadBank(final File filesDir, final OnBankLoadedListener listener) {
+        final Handler mainHandler = new Handler(Looper.getMainLooper());
+        loader.execute(new Runnable() {
+            @Override
+            public void run() {
+                final QuestionBank bank = loadQuestionBank(new File(filesDir, QUESTION_PACK_FILE));
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onBankLoaded(bank);
+                    }
+                });
+            }
+        });
+    }
+
+    //open the question pack, with any patches applied, if there is one, otherwise use the
+    //built-in questions. the pack stays open (keeping its cached text) from game to game until
+    //it is replaced or patched.
+    private static QuestionBank loadQuestionBank(File packFile) {
+        if (packFile.exists()) {
+            File overlayFile = PatchedQuestionBank.overlayFile(packFile);
+            if (openPack != null && packFile.lastModified() == openPackModified
+                    && packFile.length() == openPackLength
+                    && overlayFile.lastModified() == openOverlayModified) {
+                return openPack;
+            }
+            try {
+                PatchedQuestionBank pack = PatchedQuestionBank.open(packFile);
+                openPack = new CachingQuestionBank(pack, TEXT_CACHE_BYTES,
+                        CachingQuestionBank.Policy.TINY_LFU);
+                openPackBaseVersion = pack.getBasePackVersion();
+                openPackModified = packFile.lastModified();
+                openPackLength = packFile.length();
+                openOverlayModified = overlayFile.lastModified();
+                openPackLive = pack.getLiveQuestions();
+                openPackId = bankId(pack.getBasePackVersion(), pack.getOverlay().getFromSize());
+                return openPack;
+            } catch (IOException e) {
+                Log.w(TAG, "Cannot open question pack; using built-in questions.", e);
+            }
+        }
+        openPack = null;
+        return getDefaultQuestionBank();
+    }
+
+    //decode the questions either side of the current one in the background, if the bank
+    //caches text and they are not cached yet, so moving to them does not wait for decoding.
+    private void prefetchNeighbours() {
+        if (!(engine.getBank() instanceof CachingQuestionBank)) {
+            return;
+        }
+        CachingQuestionBank cache = (CachingQuestionBank) engine.getBank();
+        int position = engine.getGameQuestionNum();
+        int previous = position > 0 ? engine.getQuestionNumber(position - 1) : -1;
+        int next = position < engine.getNumQuestions() - 1
+                ? engine.getQuestionNumber(position + 1) : -1;
+
+        if ((previous >= 0 && !cache.isCached(previous))
+                || (next >= 0 && !cache.isCached(next))) {
+            prefetchCache = cache;
+            prefetchQuestions = ((long) previous << 32) | (next & 0xFFFFFFFFL);
+            if (prefetchQueued.compareAndSet(false, true)) {
+                loader.execute(prefetchTask);
+            }
+        }
+    }
+
+    /**
+     * Returns true once the game's questions are loaded and the game can be played. None of
+     * the game methods may be called before then.
+     *
+     * @return True if the game is ready, false if it is still loading.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns how long it took to load the question bank and choose this game's questions,
+     * in nanoseconds, or 0 if the model was not loaded in the background.
+     *
+     * @return The load time in nanoseconds.
+     */
+    public long getLoadTimeNanos() {
+        return loadTimeNanos;
+    }
+
+    /**
+     * Returns the tags of the questions in this game's bank, for choosing a tag filter.
+     * Empty until the model is ready.
+     *
+     * @return The bank's tag index.
+     */
+    public TagIndex getTagIndex() {
+        return tagIndex;
+    }
+
+    /**
+     * Sets the listener that is told when this model becomes ready. The model is retained
+     * across activity restarts, so activities should clear the listener when destroyed.
+     *
+     * @param listener The listener, or null for none.
+     */
+    public void setOnQuizReadyListener(OnQuizReadyListener listener) {
+        onQuizReadyListener = listener;
+    }
+
+    /**
+     * Returns the game being played. The engine holds all of the game's state; the methods
+     * below are shortcuts to it.
+     *
+     * @return The game being played.
+     */
+    public QuizEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Saves this game's result to the score history and ends its replay log, unless this has
+     * already been done (the game over screen can be reached more than once, e.g. after a
+     * rotation).
+     *
+     * @param history The score history to save to.
+     *
+     * @return True if the result was saved now, false if it had been already.
+     */
+    public boolean recordScore(ScoreHistoryStore history) {
+        if (scoreRecorded) {
+            return false;
+        }
+        scoreRecorded = true;
+        history.record(engine, bankId, System.currentTimeMillis());
+        if (timer != null) {
+            timer.recordResponseTimes(QuizMetrics.RESPONSE_TIME);
+        }
+        if (replay != null) {
+            replay.finish();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the recorder of this game's replay log, or null if the game is not recorded (it
+     * was restored after its log was lost). The log is ended by recordScore().
+     *
+     * @return The game's replay recorder, or null.
+     */
+    public ReplayRecorder getReplay() {
+        return replay;
     }
 
     /**
@@ -115,7 +998,7 @@ public class QuizModel extends Fragment {
      * @return Current score.
      */
     public int getScore() {
-        return score;
+        return engine.getScore();
     }
 
     /**
@@ -124,16 +1007,26 @@ public class QuizModel extends Fragment {
      * @return The number of questions that have been answered.
      */
     public int getNumQuestionsAnswered() {
-        return numQuestionsAnswered;
+        return engine.getNumQuestionsAnswered();
     }
 
     /**
-     * Returns the current question.
+     * Returns a copy of the current question, including whether (and how) it was answered.
+     * Changes to the copy do not affect this game.
      *
-     * @return The current question.
+     * @return A copy of the current question.
      */
     public Question getCurrentQuestion() {
-        return questions.get(gameQuestionNum);
+        return engine.getCurrentQuestion();
+    }
+
+    /**
+     * Returns the question number (in the question bank) of the current question.
+     *
+     * @return The question number of the current question.
+     */
+    public int getCurrentQuestionNumber() {
+        return engine.getCurrentQuestionNumber();
     }
 
     /**
@@ -142,7 +1035,7 @@ public class QuizModel extends Fragment {
      * @return The current question
      */
     public String getCurrentQuestionText() {
-        return getCurrentQuestion().getQuestion();
+        return engine.getCurrentQuestionText();
     }
 
     /**
@@ -151,7 +1044,7 @@ public class QuizModel extends Fragment {
      * @return True if the current question has been answered, false otherwise.
      */
     public boolean isCurrentQuestionAnswered() {
-        return getCurrentQuestion().isAnswered();
+        return engine.isCurrentQuestionAnswered();
     }
 
     /**
@@ -160,57 +1053,93 @@ public class QuizModel extends Fragment {
      * @return True if the current question has been correctly answered, false otherwise.
      */
     public boolean isCurrentQuestionAnsweredCorrectly() {
-        return getCurrentQuestion().getIsCorrectlyAnswered();
+        return engine.isCurrentQuestionAnsweredCorrectly();
     }
 
     /**
-     * Takes the user's answer and compares it to the correct answer. If they match, then
-     * the user's score increments and this method returns true. Otherwise, this method
-     * returns false. Either way, move on to next question and increment numQuestionsAnswered.
+     * Returns whether the current question has been answered, and if so whether correctly.
+     * This does not allocate.
+     *
+     * @return The answer state of the current question.
+     */
+    public AnswerState getCurrentAnswerState() {
+        return engine.getCurrentAnswerState();
+    }
+
+    /**
+     * Answers the current question and moves on to the next one; see
+     * QuizEngine.answerQuestion.
      *
      * @param answer The user's answer.
      *
      * @throws IllegalStateException Throws IllegalStateException if called when
-     * the game is already over.
+     * the game is already over, or the current question has run out of time.
      *
      * @return True if the user was correct, false otherwise.
      */
     public boolean answerQuestion(boolean answer) {
+        checkAnswerable();
+        long startTime = System.nanoTime();
+        return answered(startTime, engine.answerQuestion(answer));
+    }
 
-        //if the game is over, then a question cannot be answered.
-        if (isGameOver()) {
-            throw new IllegalStateException("Cannot answer questions when game is over.");
-        }
-
-        //assume user was incorrect.
-        boolean result = false;
-
-        //if the user already answered the question, their score should not increase for
-        //answering correctly this time.
-        boolean noScore = false;
-
-        //the user answered a question; increment numQuestionsAnswered if this
-        //question was not already answered.
-        if (!getCurrentQuestion().isAnswered()) {
-            noScore = true;
-            numQuestionsAnswered++;
-        }
+    /**
+     * Answers the current single choice question and moves on to the next one; see
+     * QuizEngine.answerChoice.
+     *
+     * @param choice The index of the user's choice.
+     *
+     * @return True if the user was correct, false otherwise.
+     */
+    public boolean answerChoice(int choice) {
+        checkAnswerable();
+        long startTime = System.nanoTime();
+        return answered(startTime, engine.answerChoice(choice));
+    }
 
-        //if the answer to the question represented by currentQuestionNum matches
-        //the user's answer, then increase score and set result to true (user was correct).
-        if (getCurrentQuestion().answerQuestion(answer)) {
-            result = true;
+    /**
+     * Answers the current multi-select question and moves on to the next one; see
+     * QuizEngine.answerChoices.
+     *
+     * @param choices The user's choices, as a bitmask (bit i for choice i).
+     *
+     * @return True if the user was correct, false otherwise.
+     */
+    public boolean answerChoices(long choices) {
+        checkAnswerable();
+        long startTime = System.nanoTime();
+        return answered(startTime, engine.answerChoices(choices));
+    }
 
-            //only incrase score if this is the first time the question has been answered.
-            if (noScore) {
-                score++;
-            }
-        }
+    /**
+     * Answers the current numeric question and moves on to the next one; see
+     * QuizEngine.answerNumber.
+     *
+     * @param number The user's answer.
+     *
+     * @return True if the user was correct, false otherwise.
+     */
+    public boolean answerNumber(double number) {
+        checkAnswerable();
+        long startTime = System.nanoTime();
+        return answered(startTime, engine.answerNumber(number));
+    }
 
-        //advance to the next question.
-        nextQuestion();
+    /**
+     * Returns the type of the current question; one of the QuestionType constants.
+     *
+     * @return The current question's type.
+     */
+    public int getCurrentQuestionType() {
+        return engine.getCurrentQuestionType();
+    }
 
-        //return result (true if user was correct, false otherwise).
+    //record an answer's latency, charge the time up to the answer to the question, and
+    //prefetch the questions around the new current one.
+    private boolean answered(long startTime, boolean result) {
+        QuizMetrics.ANSWER.recordSince(startTime);
+        updateTimer(startTime);
+        prefetchNeighbours();
         return result;
     }
 
@@ -221,14 +1150,12 @@ public class QuizModel extends Fragment {
      * @return True if successful, false otherwise.
      */
     public boolean nextQuestion() {
-        //if this is the last question, do not advance, and return false.
-        if (gameQuestionNum >= numQuestions - 1) {
-            return false;
-        }
-
-        //if this is not the last question, advance to the next question and return true.
-        gameQuestionNum++;
-        return true;
+        long startTime = System.nanoTime();
+        boolean result = engine.nextQuestion();
+        QuizMetrics.NAVIGATE.recordSince(startTime);
+        updateTimer(startTime);
+        prefetchNeighbours();
+        return result;
     }
 
     /**
@@ -238,14 +1165,12 @@ public class QuizModel extends Fragment {
      * @return True if successful, false otherwise.
      */
     public boolean previousQuestion() {
-        //if this is the first question, do not go back, and return false.
-        if (gameQuestionNum <= 0) {
-            return false;
-        }
-
-        //if this is not the first question, go back to the previous question and return true.
-        gameQuestionNum--;
-        return true;
+        long startTime = System.nanoTime();
+        boolean result = engine.previousQuestion();
+        QuizMetrics.NAVIGATE.recordSince(startTime);
+        updateTimer(startTime);
+        prefetchNeighbours();
+        return result;
     }
 
     /**
@@ -255,6 +1180,105 @@ public class QuizModel extends Fragment {
      * @return True if the user has answered enough questions, false otherwise.
      */
     public boolean isGameOver() {
-        return numQuestionsAnswered >= numQuestions;
+        return engine.isGameOver();
+    }
+
+    /**
+     * Returns true if this game is timed.
+     *
+     * @return True if the game has time limits.
+     */
+    public boolean isTimed() {
+        return timer != null;
+    }
+
+    /**
+     * Returns this game's timer, for reading the time left and response times, or null if the
+     * game is not timed. Use this model's methods, not the timer's, to change the game.
+     *
+     * @return The game's timer, or null.
+     */
+    public QuizTimer getTimer() {
+        return timer;
+    }
+
+    /**
+     * Returns true if this is a timed game and its time has run out, or every question has
+     * been answered or run out of time.
+     *
+     * @return True if the timed game is finished.
+     */
+    public boolean isTimeUp() {
+        return timer != null && timer.isFinished();
+    }
+
+    /**
+     * Returns true if the current question ran out of time before it was answered, so it can
+     * no longer be answered.
+     *
+     * @return True if the current question has expired.
+     */
+    public boolean isCurrentQuestionExpired() {
+        return timer != null && timer.isExpired(engine.getGameQuestionNum());
+    }
+
+    /**
+     * Catches the timer up with the clock: expires the current question (moving on to the
+     * next one) or the game if its time has run out, tells the timer listener, and schedules
+     * the next wake-up. This runs on its own when the timer is due, but a tap can arrive
+     * between a deadline and that wake-up, so call this before answering and skip the answer
+     * if it returns true.
+     *
+     * @return True if a question or the game just ran out of time.
+     */
+    public boolean updateTimer() {
+        if (timer == null || !timer.isRunning()) {
+            return false;
+        }
+        boolean expired = timer.expire(System.nanoTime());
+        scheduleTimer();
+        if (onTimerListener != null) {
+            onTimerListener.onTimerTick(this, expired);
+        }
+        return expired;
+    }
+
+    /**
+     * Sets the listener that is told about each timer tick. The model is retained across
+     * activity restarts, so activities should clear the listener when destroyed.
+     *
+     * @param listener The listener, or null for none.
+     */
+    public void setOnTimerListener(OnTimerListener listener) {
+        onTimerListener = listener;
+    }
+
+    //tell the timer that the game changed at the given time, and reschedule it.
+    private void updateTimer(long now) {
+        if (timer != null) {
+            timer.update(now);
+            scheduleTimer();
+        }
+    }
+
+    //post the timer's one wake-up for the next time its countdown changes, replacing the
+    //current one. The delay is worked out from absolute deadlines each time, so late
+    //wake-ups do not add up.
+    private void scheduleTimer() {
+        timerHandler.removeCallbacks(timerTick);
+        long now = System.nanoTime();
+        long next = timer.getNextTick(now, TIMER_TICK_NANOS);
+        if (next != Long.MAX_VALUE) {
+            //round up, so the timer is never woken before it is due.
+            long delayMillis = TimeUnit.NANOSECONDS.toMillis(Math.max(0, next - now) + 999999);
+            timerHandler.postDelayed(timerTick, delayMillis);
+        }
+    }
+
+    //throw if the current question has run out of time.
+    private void checkAnswerable() {
+        if (isCurrentQuestionExpired()) {
+            throw new IllegalStateException("The current question has run out of time.");
+        }
     }
 }
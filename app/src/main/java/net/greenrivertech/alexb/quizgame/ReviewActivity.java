@@ -0,0 +1,218 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: ReviewActivity.java
+ *
+ * Review activity that lists every question in a finished game, with the answer the user
+ * gave and the correct answer.
+ */
+package net.greenrivertech.alexb.quizgame;
+
+import android.content.Intent;
+import android.content.res.Resources;
+import android.os.Bundle;
+import android.support.v7.app.AppCompatActivity;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.support.v7.widget.Toolbar;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import net.greenrivertech.alexb.quizgame.engine.QuestionBank;
+import net.greenrivertech.alexb.quizgame.engine.QuestionType;
+import net.greenrivertech.alexb.quizgame.engine.QuizEngine;
+
+/**
+ * Review activity that lists every question in a finished game, with the answer the user
+ * gave and the correct answer.
+ *
+ * The game is passed in as its question numbers and saved state (see
+ * QuestionsActivity.GAME_QUESTIONS and GAME_STATE), a few bytes per question, and restored
+ * against the question bank. Rows are bound by a RecyclerView, which keeps only enough row
+ * views to fill the screen and reuses them as the list scrolls, and each question's text is
+ * only read from the bank (and decoded, for a question pack) when its row is shown, so the
+ * memory used does not grow with the length of the game.
+ *
+ * @author Alex Ball
+ */
+public class ReviewActivity extends AppCompatActivity {
+    //tag for log messages
+    private static final String TAG = "ReviewActivity";
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_review);
+        Toolbar toolbar = (Toolbar) findViewById(R.id.toolbar);
+        setSupportActionBar(toolbar);
+
+        //every row has the same layout, and the list's size does not depend on its rows.
+        final RecyclerView list = (RecyclerView) findViewById(R.id.reviewList);
+        list.setHasFixedSize(true);
+        list.setLayoutManager(new LinearLayoutManager(this));
+
+        //get the game from the intent
+        Intent intent = getIntent();
+        final int[] questions = intent.getIntArrayExtra(QuestionsActivity.GAME_QUESTIONS);
+        final long[] state = intent.getLongArrayExtra(QuestionsActivity.GAME_STATE);
+        if (questions == null || state == null) {
+            finish();
+            return;
+        }
+
+        //restore it once the bank is loaded (at once, if a game was just played from it).
+        QuizModel.loadBank(getFilesDir(), new QuizModel.OnBankLoadedListener() {
+            @Override
+            public void onBankLoaded(QuestionBank bank) {
+                if (isFinishing()) {
+                    return;
+                }
+                try {
+                    QuizEngine game = QuizEngine.restore(bank, questions, state);
+                    list.setAdapter(new ReviewAdapter(game, getResources()));
+                } catch (IllegalArgumentException e) {
+                    //the question pack was replaced since the game was played.
+                    Log.w(TAG, "Cannot restore the game to review.", e);
+                    Toast.makeText(ReviewActivity.this,
+                            getResources().getString(R.string.reviewUnavailable),
+                            Toast.LENGTH_SHORT).show();
+                    finish();
+                }
+            }
+        });
+    }
+
+    /**
+     * Adapter that binds a row of the review list to a question in the game.
+     */
+    static class ReviewAdapter extends RecyclerView.Adapter<ReviewAdapter.Holder> {
+        private final QuizEngine game;
+        private final QuestionBank bank;
+
+        //labels, looked up once rather than for every row
+        private final String givenLabel;
+        private final String correctLabel;
+        private final String notAnswered;
+        private final String trueText;
+        private final String falseText;
+        private final String rightMark;
+        private final String wrongMark;
+
+        //reused to build each line of text; TextView copies what it is given.
+        private final StringBuilder line = new StringBuilder();
+
+        /**
+         * Constructor that creates an adapter for a finished game.
+         *
+         * @param game The game to review.
+         * @param resources The resources to read the labels from.
+         */
+        ReviewAdapter(QuizEngine game, Resources resources) {
+            this.game = game;
+            bank = game.getBank();
+            givenLabel = resources.getString(R.string.givenAnswer);
+            correctLabel = resources.getString(R.string.correctAnswer);
+            notAnswered = resources.getString(R.string.notAnswered);
+            trueText = resources.getString(R.string.trueButtonText);
+            falseText = resources.getString(R.string.falseButtonText);
+            rightMark = resources.getString(R.string.correct);
+            wrongMark = resources.getString(R.string.wrong);
+        }
+
+        /**
+         * The views of one row, found once when the row is created.
+         */
+        static class Holder extends RecyclerView.ViewHolder {
+            final TextView question;
+            final TextView given;
+            final TextView correct;
+
+            Holder(View row) {
+                super(row);
+                question = (TextView) row.findViewById(R.id.reviewQuestion);
+                given = (TextView) row.findViewById(R.id.reviewGiven);
+                correct = (TextView) row.findViewById(R.id.reviewCorrect);
+            }
+        }
+
+        @Override
+        public Holder onCreateViewHolder(ViewGroup parent, int viewType) {
+            View row = LayoutInflater.from(parent.getContext())
+                    .inflate(R.layout.item_review, parent, false);
+            return new Holder(row);
+        }
+
+        @Override
+        public void onBindViewHolder(Holder holder, int position) {
+            int questionNumber = game.getQuestionNumber(position);
+            int type = game.getQuestionType(position);
+
+            line.setLength(0);
+            line.append(position + 1).append(". ").append(bank.getQuestionText(questionNumber));
+            holder.question.setText(line);
+
+            line.setLength(0);
+            line.append(givenLabel).append(' ');
+            if (game.isAnswered(position)) {
+                appendAnswer(questionNumber, type, game.getGivenAnswer(position));
+                line.append("  ").append(game.isAnsweredCorrectly(position)
+                        ? rightMark : wrongMark);
+            } else {
+                line.append(notAnswered);
+            }
+            holder.given.setText(line);
+
+            line.setLength(0);
+            line.append(correctLabel).append(' ');
+            if (type == QuestionType.NUMERIC) {
+                double min = bank.getRangeMin(questionNumber);
+                double max = bank.getRangeMax(questionNumber);
+                line.append(min);
+                if (max != min) {
+                    line.append(" - ").append(max);
+                }
+            } else {
+                appendAnswer(questionNumber, type, bank.getAnswerKey(questionNumber));
+            }
+            holder.correct.setText(line);
+        }
+
+        @Override
+        public int getItemCount() {
+            return game.getNumQuestions();
+        }
+
+        //append an answer, encoded as QuestionType describes, as the user would read it.
+        private void appendAnswer(int questionNumber, int type, long answer) {
+            switch (type) {
+                case QuestionType.TRUE_FALSE:
+                    line.append(answer == 1 ? trueText : falseText);
+                    break;
+                case QuestionType.SINGLE_CHOICE:
+                    line.append(bank.getChoiceText(questionNumber, (int) answer));
+                    break;
+                case QuestionType.MULTI_SELECT:
+                    int choices = bank.getChoiceCount(questionNumber);
+                    String separator = "";
+                    for (int choice = 0; choice < choices; choice++) {
+                        if ((answer & (1L << choice)) != 0) {
+                            line.append(separator)
+                                    .append(bank.getChoiceText(questionNumber, choice));
+                            separator = ", ";
+                        }
+                    }
+                    break;
+                case QuestionType.NUMERIC:
+                    line.append(Double.longBitsToDouble(answer));
+                    break;
+                default:
+                    line.append(answer);
+                    break;
+            }
+        }
+    }
+}
@@ -12,8 +12,13 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.support.v7.app.AppCompatActivity;
 import android.support.v7.widget.Toolbar;
+import android.view.View;
+import android.widget.Button;
 import android.widget.TextView;
 
+import net.greenrivertech.alexb.quizgame.engine.QuizMetrics;
+import net.greenrivertech.alexb.quizgame.engine.ScoreHistoryStore;
+
 import java.util.Locale;
 
 /**
@@ -32,7 +37,7 @@ public class ScoreSummaryActivity extends AppCompatActivity {
         setSupportActionBar(toolbar);
 
         //get the user's score from the intent
-        Intent intent = getIntent();
+        final Intent intent = getIntent();
         int score = intent.getIntExtra(QuestionsActivity.MY_SCORE, 0);
         int numQuestionsAnswered = intent.getIntExtra(QuestionsActivity.NUM_QUESTIONS_ANSWERED, 0);
 
@@ -57,6 +62,95 @@ public class ScoreSummaryActivity extends AppCompatActivity {
         if (numQuestionsView != null) {
             numQuestionsView.setText(numQuestionsText);
         }
+
+        //display the speed-weighted score of a timed game
+        TextView speedScoreView = (TextView) findViewById(R.id.speedScoreView);
+        if (speedScoreView != null && intent.hasExtra(QuestionsActivity.SPEED_SCORE)) {
+            speedScoreView.setText(String.format(Locale.US, "%s %d",
+                    getResources().getText(R.string.speedScore),
+                    intent.getIntExtra(QuestionsActivity.SPEED_SCORE, 0)));
+        }
+
+        //display the game's rank among every game played
+        TextView rankView = (TextView) findViewById(R.id.rankView);
+        if (rankView != null && intent.hasExtra(QuestionsActivity.MY_RANK)) {
+            rankView.setText(String.format(Locale.US, "%s %,d / %,d",
+                    getResources().getText(R.string.rank),
+                    intent.getLongExtra(QuestionsActivity.MY_RANK, 0),
+                    intent.getLongExtra(QuestionsActivity.NUM_RANKED, 0)));
+        }
+
+        //display stats from every game played (kept up to date by the score history, so
+        //this does not depend on how many games there have been)
+        ScoreHistoryStore history = ((QuizGameApplication) getApplication()).getScoreHistory();
+        TextView gamesPlayedView = (TextView) findViewById(R.id.gamesPlayedView);
+        TextView bestScoreView = (TextView) findViewById(R.id.bestScoreView);
+        TextView meanScoreView = (TextView) findViewById(R.id.meanScoreView);
+
+        if (gamesPlayedView != null) {
+            gamesPlayedView.setText(String.format(Locale.US, "%s %d",
+                    getResources().getText(R.string.gamesPlayed), history.getGamesPlayed()));
+        }
+        if (bestScoreView != null) {
+            bestScoreView.setText(String.format(Locale.US, "%s %d",
+                    getResources().getText(R.string.bestScore), history.getBestScore()));
+        }
+        if (meanScoreView != null) {
+            meanScoreView.setText(String.format(Locale.US, "%s %.2f",
+                    getResources().getText(R.string.meanScore), history.getMeanScore()));
+        }
+
+        //let the user go back over the game's questions and answers
+        Button reviewButton = (Button) findViewById(R.id.reviewButton);
+        if (reviewButton != null) {
+            if (intent.hasExtra(QuestionsActivity.GAME_QUESTIONS)) {
+                reviewButton.setOnClickListener(new View.OnClickListener() {
+                    @Override
+                    public void onClick(View v) {
+                        //pass the game on as it came: question numbers and bitsets.
+                        Intent review = new Intent(ScoreSummaryActivity.this,
+                                ReviewActivity.class);
+                        review.putExtra(QuestionsActivity.GAME_QUESTIONS,
+                                intent.getIntArrayExtra(QuestionsActivity.GAME_QUESTIONS));
+                        review.putExtra(QuestionsActivity.GAME_STATE,
+                                intent.getLongArrayExtra(QuestionsActivity.GAME_STATE));
+                        startActivity(review);
+                    }
+                });
+            } else {
+                reviewButton.setVisibility(View.GONE);
+            }
+        }
+
+        //start the next game straight away, back on the question screen below this one
+        Button playAgainButton = (Button) findViewById(R.id.playAgainButton);
+        if (playAgainButton != null) {
+            playAgainButton.setOnClickListener(new View.OnClickListener() {
+                @Override
+                public void onClick(View v) {
+                    Intent playAgain = new Intent(ScoreSummaryActivity.this,
+                            QuestionsActivity.class);
+                    playAgain.putExtra(QuestionsActivity.PLAY_AGAIN, true);
+                    playAgain.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP
+                            | Intent.FLAG_ACTIVITY_SINGLE_TOP);
+                    startActivity(playAgain);
+                    finish();
+                }
+            });
+        }
+
+        //once this screen has been laid out and drawn, record how long it took to get here
+        //from the end of the game, and save a snapshot of the metrics.
+        if (savedInstanceState == null && intent.hasExtra(QuestionsActivity.GAME_OVER_TIME)) {
+            getWindow().getDecorView().post(new Runnable() {
+                @Override
+                public void run() {
+                    QuizMetrics.SCORE_SUMMARY_TRANSITION.recordSince(
+                            intent.getLongExtra(QuestionsActivity.GAME_OVER_TIME, 0));
+                    ((QuizGameApplication) getApplication()).dumpMetrics();
+                }
+            });
+        }
     }
 
 }
@@ -0,0 +1,65 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: AdaptiveQuestionSamplerBenchmark.java
+ *
+ * Measures how AdaptiveQuestionSampler's costs grow with the size of the bank.
+ */
+package net.greenrivertech.alexb.quizgame.benchmark;
+
+import net.greenrivertech.alexb.quizgame.engine.AdaptiveQuestionSampler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how AdaptiveQuestionSampler's costs grow with the size of the bank: choosing a
+ * 10-question game, and recording an answer (which changes a weight). Both should grow only
+ * logarithmically, i.e. stay nearly flat from 10^3 to 10^6 questions.
+ *
+ * @author Alex Ball
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AdaptiveQuestionSamplerBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int bankSize;
+
+    private AdaptiveQuestionSampler sampler;
+    private int[] out = new int[10];
+    private Random rand = new Random(7);
+
+    @Setup
+    public void setUp() {
+        //start from uneven statistics, like a bank that has been played for a while.
+        int[] answered = new int[bankSize];
+        int[] correct = new int[bankSize];
+        for (int i = 0; i < bankSize; i++) {
+            answered[i] = rand.nextInt(20);
+            correct[i] = answered[i] == 0 ? 0 : rand.nextInt(answered[i] + 1);
+        }
+        sampler = new AdaptiveQuestionSampler(answered, correct, new Random(42));
+    }
+
+    @Benchmark
+    public int[] sampleGame() {
+        sampler.sample(bankSize, out.length, out);
+        return out;
+    }
+
+    @Benchmark
+    public void recordAnswer() {
+        sampler.onAnswer(rand.nextInt(bankSize), rand.nextBoolean());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: CachingQuestionBankBenchmark.java
+ *
+ * Measures reading question text from a mapped question pack with and without a text cache.
+ */
+package net.greenrivertech.alexb.quizgame.benchmark;
+
+import net.greenrivertech.alexb.quizgame.engine.CachingQuestionBank;
+import net.greenrivertech.alexb.quizgame.engine.MappedQuestionBank;
+import net.greenrivertech.alexb.quizgame.engine.QuestionBank;
+import net.greenrivertech.alexb.quizgame.engine.QuestionPackWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading question text from a mapped question pack of 10^6 questions, directly and
+ * through a CachingQuestionBank with each eviction policy, for a player who moves back and
+ * forth within a 500 question game (with the odd jump elsewhere in the bank).
+ *
+ * @author Alex Ball
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CachingQuestionBankBenchmark {
+    private static final int BANK_SIZE = 1000000;
+    private static final int GAME_SIZE = 500;
+
+    @Param({"NONE", "LRU", "LFU", "TINY_LFU"})
+    public String policy;
+
+    @Param({"65536", "262144"})
+    public long budgetBytes;
+
+    private File packFile;
+    private QuestionBank bank;
+
+    //the question numbers read, in order; a random walk over a game's questions
+    private int[] reads;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        packFile = File.createTempFile("benchmark", ".qpk");
+        QuestionPackWriter writer = new QuestionPackWriter(packFile, 1);
+        try {
+            for (int i = 0; i < BANK_SIZE; i++) {
+                writer.add(SyntheticBanks.questionText(i), i % 2 == 0);
+            }
+            writer.finish();
+        } finally {
+            writer.close();
+        }
+
+        MappedQuestionBank pack = MappedQuestionBank.open(packFile);
+        bank = policy.equals("NONE") ? pack : new CachingQuestionBank(pack, budgetBytes,
+                CachingQuestionBank.Policy.valueOf(policy));
+
+        Random rand = new Random(42);
+        int[] game = new int[GAME_SIZE];
+        for (int i = 0; i < game.length; i++) {
+            game[i] = rand.nextInt(BANK_SIZE);
+        }
+        reads = new int[1 << 16];
+        int position = 0;
+        for (int i = 0; i < reads.length; i++) {
+            position = Math.max(0, Math.min(GAME_SIZE - 1, position + rand.nextInt(5) - 2));
+            reads[i] = rand.nextInt(20) == 0 ? rand.nextInt(BANK_SIZE) : game[position];
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        packFile.delete();
+    }
+
+    /**
+     * Reading the text of the next question in the walk.
+     */
+    @Benchmark
+    public String getQuestionText() {
+        next = (next + 1) & (reads.length - 1);
+        return bank.getQuestionText(reads[next]);
+    }
+}
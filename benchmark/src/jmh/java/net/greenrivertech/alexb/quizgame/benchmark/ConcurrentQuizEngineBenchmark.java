@@ -0,0 +1,114 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: ConcurrentQuizEngineBenchmark.java
+ *
+ * Measures ConcurrentQuizEngine against a synchronized game when several threads share a game.
+ */
+package net.greenrivertech.alexb.quizgame.benchmark;
+
+import net.greenrivertech.alexb.quizgame.engine.ConcurrentQuizEngine;
+import net.greenrivertech.alexb.quizgame.engine.QuestionBank;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures ConcurrentQuizEngine against a synchronized game (LockedQuizGame) when several
+ * threads share one game: in each group, three threads answer questions all over the game
+ * (first answers, then re-answers), one moves back and forth, and one reads the score, as a
+ * scoring service, the UI and an autosave worker might. The last question is never answered,
+ * so the game never ends.
+ *
+ * @author Alex Ball
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConcurrentQuizEngineBenchmark {
+    private static final int GAME_SIZE = 4096;
+
+    private ConcurrentQuizEngine lockFree;
+    private LockedQuizGame locked;
+
+    /**
+     * Each answering thread's walk through the game, starting at a different place.
+     */
+    @State(Scope.Thread)
+    public static class Player {
+        private static final AtomicInteger players = new AtomicInteger();
+
+        private int next = players.getAndIncrement() * 1021;
+
+        //the next position to answer; any but the last.
+        int nextPosition() {
+            next = (next + 7) % (GAME_SIZE - 1);
+            return next;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        QuestionBank bank = SyntheticBanks.columnar(GAME_SIZE);
+        int[] questions = new int[GAME_SIZE];
+        for (int i = 0; i < GAME_SIZE; i++) {
+            questions[i] = i;
+        }
+        lockFree = new ConcurrentQuizEngine(bank, questions);
+        locked = new LockedQuizGame(bank, questions);
+    }
+
+    @Benchmark
+    @Group("lockFree")
+    @GroupThreads(3)
+    public boolean lockFreeAnswer(Player player) {
+        int position = player.nextPosition();
+        return lockFree.answerQuestionAt(position, (position & 2) == 0);
+    }
+
+    @Benchmark
+    @Group("lockFree")
+    @GroupThreads(1)
+    public boolean lockFreeNavigate() {
+        return lockFree.nextQuestion() || lockFree.previousQuestion();
+    }
+
+    @Benchmark
+    @Group("lockFree")
+    @GroupThreads(1)
+    public int lockFreeReadScore() {
+        return lockFree.getScore() + lockFree.getGameQuestionNum();
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(3)
+    public boolean lockedAnswer(Player player) {
+        int position = player.nextPosition();
+        return locked.answerQuestionAt(position, (position & 2) == 0);
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public boolean lockedNavigate() {
+        return locked.nextQuestion() || locked.previousQuestion();
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public int lockedReadScore() {
+        return locked.getScore() + locked.getGameQuestionNum();
+    }
+}
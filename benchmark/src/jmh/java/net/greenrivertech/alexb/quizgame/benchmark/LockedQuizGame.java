@@ -0,0 +1,84 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: LockedQuizGame.java
+ *
+ * The synchronized baseline that ConcurrentQuizEngineBenchmark compares ConcurrentQuizEngine
+ * with.
+ */
+package net.greenrivertech.alexb.quizgame.benchmark;
+
+import net.greenrivertech.alexb.quizgame.engine.QuestionBank;
+
+/**
+ * The synchronized baseline that ConcurrentQuizEngineBenchmark compares ConcurrentQuizEngine
+ * with: the same true/false game rules and operations, kept thread-safe the obvious way, with
+ * every method holding the game's lock.
+ *
+ * @author Alex Ball
+ */
+final class LockedQuizGame {
+    private final QuestionBank bank;
+    private final int[] questions;
+    private final long[] answered;
+    private final long[] correct;
+    private int score;
+    private int gameQuestionNum;
+    private int numQuestionsAnswered;
+
+    LockedQuizGame(QuestionBank bank, int[] questions) {
+        this.bank = bank;
+        this.questions = questions;
+        answered = new long[(questions.length + 63) >>> 6];
+        correct = new long[answered.length];
+    }
+
+    synchronized int getScore() {
+        return score;
+    }
+
+    synchronized int getGameQuestionNum() {
+        return gameQuestionNum;
+    }
+
+    synchronized boolean isGameOver() {
+        return numQuestionsAnswered >= questions.length;
+    }
+
+    synchronized boolean answerQuestionAt(int position, boolean answer) {
+        if (isGameOver()) {
+            throw new IllegalStateException("Cannot answer questions when game is over.");
+        }
+        boolean result = answer == bank.getCorrectAnswer(questions[position]);
+        long bit = 1L << position;
+        if ((answered[position >>> 6] & bit) == 0) {
+            answered[position >>> 6] |= bit;
+            numQuestionsAnswered++;
+            if (result) {
+                score++;
+            }
+        }
+        if (result) {
+            correct[position >>> 6] |= bit;
+        } else {
+            correct[position >>> 6] &= ~bit;
+        }
+        return result;
+    }
+
+    synchronized boolean nextQuestion() {
+        if (gameQuestionNum >= questions.length - 1) {
+            return false;
+        }
+        gameQuestionNum++;
+        return true;
+    }
+
+    synchronized boolean previousQuestion() {
+        if (gameQuestionNum <= 0) {
+            return false;
+        }
+        gameQuestionNum--;
+        return true;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: QuestionSamplerBenchmark.java
+ *
+ * Measures how long FloydQuestionSampler takes to choose a game's questions.
+ */
+package net.greenrivertech.alexb.quizgame.benchmark;
+
+import net.greenrivertech.alexb.quizgame.engine.FloydQuestionSampler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long FloydQuestionSampler takes to choose a game's questions, for bank sizes
+ * from 10 to 10^6 and for games that use anywhere from a sliver of the bank to all of it.
+ * Divide the reported time by count (bankSize * fraction) for the time per pick, which should
+ * stay flat across every row.
+ *
+ * @author Alex Ball
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QuestionSamplerBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int bankSize;
+
+    @Param({"0.001", "0.1", "0.5", "1.0"})
+    public double fraction;
+
+    private int count;
+    private int[] out;
+    private FloydQuestionSampler sampler;
+
+    @Setup
+    public void setUp() {
+        count = Math.max(1, (int) (bankSize * fraction));
+        out = new int[count];
+        sampler = new FloydQuestionSampler(42);
+    }
+
+    @Benchmark
+    public int[] sample() {
+        sampler.sample(bankSize, count, out);
+        return out;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: QuestionTextBenchmark.java
+ *
+ * Compares the memory used by question text, and the time to read a question's text, for
+ * plain Strings, a columnar bank and a columnar bank with compressed text.
+ */
+package net.greenrivertech.alexb.quizgame.benchmark;
+
+import net.greenrivertech.alexb.quizgame.engine.ColumnarQuestionBank;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the memory used by question text, and the time to read a random question's text,
+ * for plain Strings (one per question, as Question objects keep them), a columnar bank (one
+ * shared char[]) and a columnar bank with compressed text (see CompressedTextStore). Setup
+ * prints each storage's size in bytes: measured on the heap for the Strings, and counted for
+ * the columns. Reading from the Strings only returns a reference, so it is the floor; the
+ * columnar banks make a new String on every read.
+ *
+ * @author Alex Ball
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QuestionTextBenchmark {
+    @Param({"STRINGS", "COLUMNAR", "COMPRESSED"})
+    public String storage;
+
+    @Param({"10000", "1000000"})
+    public int bankSize;
+
+    private String[] strings;
+    private ColumnarQuestionBank bank;
+    private Random rand = new Random(42);
+
+    @Setup
+    public void setUp() {
+        long size;
+        if (storage.equals("STRINGS")) {
+            long before = usedMemory();
+            strings = new String[bankSize];
+            for (int i = 0; i < bankSize; i++) {
+                strings[i] = SyntheticBanks.questionText(i);
+            }
+            size = usedMemory() - before;
+        } else {
+            bank = storage.equals("COMPRESSED") ? SyntheticBanks.compressed(bankSize)
+                    : SyntheticBanks.columnar(bankSize);
+            size = bank.getTextSizeInBytes();
+        }
+        System.out.println(String.format(Locale.US, "%s text of %,d questions: %,d bytes",
+                storage, bankSize, size));
+    }
+
+    @Benchmark
+    public String readText() {
+        int questionNumber = rand.nextInt(bankSize);
+        return strings != null ? strings[questionNumber] : bank.getQuestionText(questionNumber);
+    }
+
+    //heap in use after a full collection.
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
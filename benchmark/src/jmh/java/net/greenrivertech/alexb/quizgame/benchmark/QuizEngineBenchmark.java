@@ -0,0 +1,156 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: QuizEngineBenchmark.java
+ *
+ * Measures game construction, answering, navigation and scoring in QuizEngine.
+ */
+package net.greenrivertech.alexb.quizgame.benchmark;
+
+import net.greenrivertech.alexb.quizgame.engine.FloydQuestionSampler;
+import net.greenrivertech.alexb.quizgame.engine.QuestionBank;
+import net.greenrivertech.alexb.quizgame.engine.QuestionType;
+import net.greenrivertech.alexb.quizgame.engine.QuizEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures game construction, answering, navigation and scoring in QuizEngine for bank sizes
+ * from 10 to 10^6 questions. playMixedGame plays the same size of game over a bank of every
+ * question type, to compare with playGame's true/false only bank; resetGame starts a game
+ * again in place (as GamePool does), to compare with newGame.
+ *
+ * @author Alex Ball
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QuizEngineBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int bankSize;
+
+    @Param({"3", "500"})
+    public int numQuestions;
+
+    private QuestionBank bank;
+    private FloydQuestionSampler sampler;
+
+    //questions for games that are replayed from the start
+    private int[] questions;
+
+    //a bank of every question type, and questions from it
+    private QuestionBank mixedBank;
+    private int[] mixedQuestions;
+
+    //a game that is navigated back and forth and never finishes
+    private QuizEngine openGame;
+
+    //a game that is started again and again
+    private QuizEngine recycledGame;
+
+    @Setup
+    public void setUp() {
+        bank = SyntheticBanks.columnar(bankSize);
+        sampler = new FloydQuestionSampler(42);
+        questions = QuizEngine.newGame(bank, sampler, numQuestions).getQuestionNumbers();
+        openGame = new QuizEngine(bank, questions);
+        recycledGame = new QuizEngine(bank, questions.clone());
+        mixedBank = SyntheticBanks.mixed(bankSize);
+        mixedQuestions = QuizEngine.newGame(mixedBank, sampler, numQuestions)
+                .getQuestionNumbers();
+    }
+
+    /**
+     * Choosing the questions and setting up a new game.
+     */
+    @Benchmark
+    public QuizEngine newGame() {
+        return QuizEngine.newGame(bank, sampler, numQuestions);
+    }
+
+    /**
+     * Choosing new questions for a finished game and starting it again, without allocating.
+     */
+    @Benchmark
+    public QuizEngine resetGame() {
+        recycledGame.reset(sampler);
+        return recycledGame;
+    }
+
+    /**
+     * Answering every question in a game, alternating true and false, and reading the score.
+     */
+    @Benchmark
+    public int playGame() {
+        QuizEngine game = new QuizEngine(bank, questions);
+        boolean answer = false;
+        while (!game.isGameOver()) {
+            game.answerQuestion(answer);
+            answer = !answer;
+        }
+        return game.getScore();
+    }
+
+    /**
+     * Answering every question in a game of mixed question types, with an answer of the
+     * current question's type, and reading the score.
+     */
+    @Benchmark
+    public int playMixedGame() {
+        QuizEngine game = new QuizEngine(mixedBank, mixedQuestions);
+        int turn = 0;
+        while (!game.isGameOver()) {
+            switch (game.getCurrentQuestionType()) {
+                case QuestionType.TRUE_FALSE:
+                    game.answerQuestion((turn & 1) == 0);
+                    break;
+                case QuestionType.SINGLE_CHOICE:
+                    game.answerChoice(turn & 3);
+                    break;
+                case QuestionType.MULTI_SELECT:
+                    game.answerChoices(turn & 63);
+                    break;
+                default:
+                    game.answerNumber(turn % 100);
+                    break;
+            }
+            turn++;
+        }
+        return game.getScore();
+    }
+
+    /**
+     * Moving to the next question, wrapping back to the first after the last.
+     */
+    @Benchmark
+    public int navigate() {
+        if (!openGame.nextQuestion()) {
+            while (openGame.previousQuestion()) {
+                //go back to the first question
+            }
+        }
+        return openGame.getGameQuestionNum();
+    }
+
+    /**
+     * Reading the state that the question screen shows for the current question.
+     */
+    @Benchmark
+    public void readScore(Blackhole blackhole) {
+        blackhole.consume(openGame.isCurrentQuestionAnswered());
+        blackhole.consume(openGame.isCurrentQuestionAnsweredCorrectly());
+        blackhole.consume(openGame.getScore());
+        blackhole.consume(openGame.isGameOver());
+    }
+}
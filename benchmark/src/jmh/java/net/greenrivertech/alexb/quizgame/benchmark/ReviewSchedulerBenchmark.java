@@ -0,0 +1,67 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: ReviewSchedulerBenchmark.java
+ *
+ * Measures how ReviewScheduler's costs grow with the size of the bank.
+ */
+package net.greenrivertech.alexb.quizgame.benchmark;
+
+import net.greenrivertech.alexb.quizgame.engine.ReviewScheduler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how ReviewScheduler's costs grow with the size of the bank: choosing a 10-question
+ * game of due questions, and recording an answer (which moves the question in the heap). Both
+ * should grow only logarithmically, i.e. stay nearly flat from 10^3 to 10^6 questions.
+ *
+ * @author Alex Ball
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ReviewSchedulerBenchmark {
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    @Param({"1000", "100000", "1000000"})
+    public int bankSize;
+
+    private ReviewScheduler scheduler;
+    private int[] out = new int[10];
+    private Random rand = new Random(7);
+    private long now;
+
+    @Setup
+    public void setUp() {
+        //every question answered at some point over the last year, so most are due.
+        now = System.currentTimeMillis();
+        scheduler = new ReviewScheduler(bankSize, new Random(42));
+        for (int i = 0; i < bankSize; i++) {
+            scheduler.review(i, rand.nextInt(6), now - rand.nextInt(365) * DAY);
+        }
+    }
+
+    @Benchmark
+    public int[] sampleGame() {
+        scheduler.sample(bankSize, out.length, out, now);
+        return out;
+    }
+
+    @Benchmark
+    public void recordAnswer() {
+        scheduler.review(rand.nextInt(bankSize), rand.nextBoolean()
+                ? ReviewScheduler.QUALITY_CORRECT : ReviewScheduler.QUALITY_WRONG,
+                now - rand.nextInt(365) * DAY);
+    }
+}
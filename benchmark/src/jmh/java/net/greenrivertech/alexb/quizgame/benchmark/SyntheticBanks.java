@@ -0,0 +1,116 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: SyntheticBanks.java
+ *
+ * Builds question banks of any size for benchmarks.
+ */
+package net.greenrivertech.alexb.quizgame.benchmark;
+
+import net.greenrivertech.alexb.quizgame.engine.ColumnarQuestionBank;
+import net.greenrivertech.alexb.quizgame.engine.TagIndex;
+
+import java.util.Random;
+
+/**
+ * Builds question banks of any size for benchmarks. Questions are short generated trivia-like
+ * lines with random answers; the same size always gives the same bank.
+ *
+ * @author Alex Ball
+ */
+final class SyntheticBanks {
+    private static final String[] SUBJECTS = {"water", "fire", "ice", "a deer", "a dolphin",
+            "a potato", "this app", "a puzzle", "the moon", "a prime number"};
+    private static final String[] PREDICATES = {"wet", "hot", "cold", "able to fly",
+            "able to breathe air", "a fruit", "working", "puzzling", "made of cheese", "even"};
+
+    private SyntheticBanks() {
+    }
+
+    /**
+     * Builds a columnar bank with the given number of questions.
+     */
+    static ColumnarQuestionBank columnar(int size) {
+        return columnar(size, new ColumnarQuestionBank.Builder());
+    }
+
+    /**
+     * Builds a columnar bank with the given number of questions, the same as columnar(size),
+     * that keeps its question text compressed.
+     */
+    static ColumnarQuestionBank compressed(int size) {
+        return columnar(size, new ColumnarQuestionBank.Builder().compressText());
+    }
+
+    private static ColumnarQuestionBank columnar(int size, ColumnarQuestionBank.Builder builder) {
+        Random rand = new Random(size);
+        for (int i = 0; i < size; i++) {
+            builder.add(questionText(i), rand.nextBoolean());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Builds a columnar bank with the given number of questions of every type, in turn:
+     * true/false, single choice (4 choices), multi-select (6 choices) and numeric.
+     */
+    static ColumnarQuestionBank mixed(int size) {
+        Random rand = new Random(size);
+        String[] choices = {"red", "green", "blue", "yellow", "black", "white"};
+        String[] fourChoices = {"red", "green", "blue", "yellow"};
+        ColumnarQuestionBank.Builder builder = new ColumnarQuestionBank.Builder();
+        for (int i = 0; i < size; i++) {
+            switch (i % 4) {
+                case 0:
+                    builder.add(questionText(i), rand.nextBoolean());
+                    break;
+                case 1:
+                    builder.addSingleChoice(questionText(i), fourChoices, rand.nextInt(4));
+                    break;
+                case 2:
+                    builder.addMultiSelect(questionText(i), choices, rand.nextInt(64));
+                    break;
+                default:
+                    int min = rand.nextInt(100);
+                    builder.addNumeric(questionText(i), min, min + rand.nextInt(10));
+                    break;
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Builds a tag index for a bank of the given size. About 30% of questions are tagged
+     * "science", 20% "history", 40% "easy", 20% "hard" and 0.1% "rare".
+     */
+    static TagIndex tags(int size) {
+        Random rand = new Random(size);
+        TagIndex.Builder builder = new TagIndex.Builder(1);
+        for (int i = 0; i < size; i++) {
+            double subject = rand.nextDouble();
+            if (subject < 0.3) {
+                builder.add(i, "science");
+            } else if (subject < 0.5) {
+                builder.add(i, "history");
+            }
+            double level = rand.nextDouble();
+            if (level < 0.4) {
+                builder.add(i, "easy");
+            } else if (level < 0.6) {
+                builder.add(i, "hard");
+            }
+            if (rand.nextDouble() < 0.001) {
+                builder.add(i, "rare");
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the text of generated question i.
+     */
+    static String questionText(int i) {
+        return "Is " + SUBJECTS[i % SUBJECTS.length] + " "
+                + PREDICATES[(i / SUBJECTS.length) % PREDICATES.length] + " (#" + i + ")?";
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: TagIndexBenchmark.java
+ *
+ * Measures tag queries and building filtered games from a TagIndex.
+ */
+package net.greenrivertech.alexb.quizgame.benchmark;
+
+import net.greenrivertech.alexb.quizgame.engine.FloydQuestionSampler;
+import net.greenrivertech.alexb.quizgame.engine.QuestionBank;
+import net.greenrivertech.alexb.quizgame.engine.QuestionIdSet;
+import net.greenrivertech.alexb.quizgame.engine.QuizEngine;
+import net.greenrivertech.alexb.quizgame.engine.TagIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures tag queries and building filtered games (query, then sample from the result) from
+ * a TagIndex, for banks of up to 10^6 questions.
+ *
+ * @author Alex Ball
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TagIndexBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int bankSize;
+
+    @Param({"science AND easy", "history OR science AND hard", "rare"})
+    public String query;
+
+    @Param({"3", "500"})
+    public int numQuestions;
+
+    private QuestionBank bank;
+    private TagIndex tags;
+    private QuestionIdSet pool;
+    private FloydQuestionSampler sampler;
+
+    @Setup
+    public void setUp() {
+        bank = SyntheticBanks.columnar(bankSize);
+        tags = SyntheticBanks.tags(bankSize);
+        pool = tags.query(query);
+        sampler = new FloydQuestionSampler(42);
+    }
+
+    /**
+     * Running the query alone.
+     */
+    @Benchmark
+    public QuestionIdSet query() {
+        return tags.query(query);
+    }
+
+    /**
+     * Sampling a game from an already computed query result.
+     */
+    @Benchmark
+    public QuizEngine newGameFromPool() {
+        return QuizEngine.newGame(bank, pool, sampler, numQuestions);
+    }
+
+    /**
+     * Running the query and sampling a game from the result, as a filtered game does.
+     */
+    @Benchmark
+    public QuizEngine newFilteredGame() {
+        return QuizEngine.newGame(bank, tags.query(query), sampler, numQuestions);
+    }
+}
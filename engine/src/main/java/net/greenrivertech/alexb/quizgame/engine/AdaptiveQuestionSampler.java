@@ -0,0 +1,173 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: AdaptiveQuestionSampler.java
+ *
+ * QuestionSampler that favours questions the user tends to get wrong.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+import java.util.Random;
+
+/**
+ * QuestionSampler that favours questions the user tends to get wrong. Each question is chosen
+ * with probability proportional to its smoothed error rate, (wrong + 1) / (answered + 2), so a
+ * question that has never been asked counts as 50% wrong, and every question keeps a small
+ * minimum weight so none are ruled out entirely. Questions can be excluded (e.g. ones a patch
+ * has removed from the pack); they have weight 0 and are never chosen.
+ *
+ * The statistics are updated one answer at a time (register the sampler as the game's
+ * AnswerListener), and the weights live in a FenwickTree, so both updating a question and
+ * choosing a game of k questions cost O(log n) per question, however large the bank.
+ *
+ * Methods are synchronized, so games can be sampled on a background thread while answers
+ * arrive on the main thread.
+ *
+ * @author Alex Ball
+ */
+public class AdaptiveQuestionSampler implements QuestionSampler, AnswerListener {
+    //weights are fixed point: an error rate of 1 is WEIGHT_SCALE
+    private static final long WEIGHT_SCALE = 1024;
+
+    //the smallest weight a question can have
+    private static final long MIN_WEIGHT = 1;
+
+    private final Random rand;
+
+    //per-question statistics
+    private final int[] timesAnswered;
+    private final int[] timesWrong;
+
+    //questions that are never chosen, one bit per question, and how many there are
+    private final long[] excluded;
+    private int excludedCount;
+
+    //the current weight of every question
+    private final FenwickTree weights;
+
+    //weights taken out while sampling, so a game has no repeats (reused between calls)
+    private long[] removed = new long[0];
+
+    /**
+     * Constructor that creates a sampler for a bank with no answer statistics yet.
+     *
+     * @param bankSize The number of questions in the bank.
+     */
+    public AdaptiveQuestionSampler(int bankSize) {
+        this(new int[bankSize], new int[bankSize], new Random());
+    }
+
+    /**
+     * Constructor that creates a sampler starting from the given statistics, e.g. from the
+     * score history.
+     *
+     * @param timesAnswered How many times each question has been answered. Copied.
+     * @param timesCorrect How many times each question has been answered correctly. Copied.
+     * @param rand The random number generator to draw with; seed it for reproducible games.
+     */
+    public AdaptiveQuestionSampler(int[] timesAnswered, int[] timesCorrect, Random rand) {
+        this.rand = rand;
+        this.timesAnswered = timesAnswered.clone();
+        timesWrong = new int[timesAnswered.length];
+        excluded = new long[Bits.words(timesAnswered.length)];
+
+        long[] initialWeights = new long[timesAnswered.length];
+        for (int i = 0; i < initialWeights.length; i++) {
+            timesWrong[i] = timesAnswered[i] - timesCorrect[i];
+            initialWeights[i] = weight(i);
+        }
+        weights = new FenwickTree(initialWeights);
+    }
+
+    /**
+     * Returns the number of questions this sampler chooses from.
+     *
+     * @return The bank size.
+     */
+    public int size() {
+        return weights.size();
+    }
+
+    /**
+     * Returns the current weight of the given question (its relative chance of being chosen).
+     *
+     * @param questionNumber The question number.
+     *
+     * @return The question's weight.
+     */
+    public synchronized long getWeight(int questionNumber) {
+        return weights.get(questionNumber);
+    }
+
+    /**
+     * Stops the given question from being chosen, e.g. because a patch has removed it. Its
+     * statistics are still kept up to date by answers.
+     *
+     * @param questionNumber The question number.
+     */
+    public synchronized void exclude(int questionNumber) {
+        if (!Bits.get(excluded, questionNumber)) {
+            Bits.set(excluded, questionNumber, true);
+            excludedCount++;
+            weights.set(questionNumber, 0);
+        }
+    }
+
+    @Override
+    public synchronized void onAnswer(int questionNumber, boolean correct) {
+        timesAnswered[questionNumber]++;
+        if (!correct) {
+            timesWrong[questionNumber]++;
+        }
+        weights.set(questionNumber, weight(questionNumber));
+    }
+
+    @Override
+    public synchronized void sample(int bankSize, int count, int[] out) {
+        if (bankSize != weights.size()) {
+            throw new IllegalArgumentException("Sampler is for a bank of " + weights.size()
+                    + " questions, not " + bankSize + ".");
+        }
+        if (count < 0 || count > bankSize - excludedCount || count > out.length) {
+            throw new IllegalArgumentException("Cannot choose " + count + " questions from "
+                    + (bankSize - excludedCount) + " into an array of length " + out.length
+                    + ".");
+        }
+        if (removed.length < count) {
+            removed = new long[count];
+        }
+
+        //draw one question at a time, taking each one's weight out until the game is chosen
+        //so it cannot be drawn twice.
+        for (int i = 0; i < count; i++) {
+            long target = nextLong(weights.total());
+            int questionNumber = weights.find(target);
+            out[i] = questionNumber;
+            removed[i] = weights.get(questionNumber);
+            weights.set(questionNumber, 0);
+        }
+
+        //put the weights back.
+        for (int i = 0; i < count; i++) {
+            weights.set(out[i], removed[i]);
+        }
+    }
+
+    //the smoothed error rate of a question, in fixed point, with a floor; 0 if the question
+    //is excluded.
+    private long weight(int questionNumber) {
+        if (Bits.get(excluded, questionNumber)) {
+            return 0;
+        }
+        long rate = WEIGHT_SCALE * (timesWrong[questionNumber] + 1)
+                / (timesAnswered[questionNumber] + 2);
+        return Math.max(MIN_WEIGHT, rate);
+    }
+
+    //a random long from 0 (inclusive) to bound (exclusive).
+    private long nextLong(long bound) {
+        //Random.nextLong(bound) does not exist on Android's Java 7 API; the bias of a plain
+        //modulo is at most bound / 2^63, which is negligible for these totals.
+        return (rand.nextLong() >>> 1) % bound;
+    }
+}
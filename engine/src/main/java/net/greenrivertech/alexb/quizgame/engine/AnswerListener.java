@@ -0,0 +1,25 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: AnswerListener.java
+ *
+ * Listener that QuizEngine tells about each question as it is answered.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+/**
+ * Listener that QuizEngine tells about each question as it is answered for the first time
+ * (answering a question again does not change the score, so it is not reported).
+ *
+ * @author Alex Ball
+ */
+public interface AnswerListener {
+
+    /**
+     * Called when a question is answered for the first time in a game.
+     *
+     * @param questionNumber The question number in the bank.
+     * @param correct True if the answer was correct.
+     */
+    void onAnswer(int questionNumber, boolean correct);
+}
@@ -0,0 +1,32 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: AnswerState.java
+ *
+ * Whether a question in a game has been answered, and if so whether correctly.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+/**
+ * Whether a question in a game has been answered, and if so whether correctly. This is all
+ * the question screen needs to show for a question besides its text; being an enum, reading
+ * it never allocates.
+ *
+ * @author Alex Ball
+ */
+public enum AnswerState {
+    /**
+     * The question has not been answered.
+     */
+    UNANSWERED,
+
+    /**
+     * The question has been answered correctly.
+     */
+    CORRECT,
+
+    /**
+     * The question has been answered incorrectly.
+     */
+    WRONG
+}
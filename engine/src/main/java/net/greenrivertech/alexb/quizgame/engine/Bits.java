@@ -0,0 +1,45 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: Bits.java
+ *
+ * Helpers for using a long[] as a fixed-size bitset.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+/**
+ * Helpers for using a long[] as a fixed-size bitset. Used instead of java.util.BitSet so the
+ * words can be stored and restored directly (BitSet.toLongArray needs API 19).
+ *
+ * @author Alex Ball
+ */
+final class Bits {
+
+    private Bits() {
+    }
+
+    /**
+     * Returns the number of longs needed to hold the given number of bits.
+     */
+    static int words(int numBits) {
+        return (numBits + 63) >>> 6;
+    }
+
+    /**
+     * Returns the value of the given bit.
+     */
+    static boolean get(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Sets the given bit to the given value.
+     */
+    static void set(long[] bits, int index, boolean value) {
+        if (value) {
+            bits[index >>> 6] |= 1L << index;
+        } else {
+            bits[index >>> 6] &= ~(1L << index);
+        }
+    }
+}
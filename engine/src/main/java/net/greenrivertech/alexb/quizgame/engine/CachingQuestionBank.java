@@ -0,0 +1,634 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: CachingQuestionBank.java
+ *
+ * A question bank that keeps recently or frequently used question text in a cache with a fixed
+ * memory budget.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A question bank that keeps decoded question text from another bank (such as a
+ * MappedQuestionBank, which decodes text on every call) in a cache with a fixed memory budget,
+ * so moving back and forth between questions does not decode the same text again.
+ *
+ * The budget is in bytes, estimated as ENTRY_OVERHEAD plus 2 bytes per char of each cached
+ * question. When it is full, the eviction policy decides what goes:
+ * <ul>
+ * <li>LRU evicts the least recently used question.</li>
+ * <li>LFU evicts the least frequently used question (the least recently used of those, on a
+ * tie).</li>
+ * <li>TINY_LFU is W-TinyLFU: new questions enter a small LRU window (1% of the budget), and
+ * leave it for the main area (a segmented LRU) only if a compact frequency sketch says they
+ * are used more often than the question they would replace. It keeps popular questions
+ * cached through one-off scans, such as paging through a long review list.</li>
+ * </ul>
+ *
+ * prefetch() loads a question before it is asked for, e.g. the questions either side of the
+ * current one. The bank is thread-safe, so prefetching can run on a background thread; text is
+ * decoded outside the lock. Answers are not cached; they are cheap to read.
+ *
+ * @author Alex Ball
+ */
+public class CachingQuestionBank implements QuestionBank {
+    /**
+     * Eviction policies.
+     */
+    public enum Policy {
+        /**
+         * Least recently used.
+         */
+        LRU,
+
+        /**
+         * Least frequently used.
+         */
+        LFU,
+
+        /**
+         * Window TinyLFU: frequency-based admission in front of a segmented LRU.
+         */
+        TINY_LFU
+    }
+
+    /**
+     * Estimated bytes used by each cache entry apart from its chars: the String, its char
+     * array header, and the entry itself.
+     */
+    public static final int ENTRY_OVERHEAD = 128;
+
+    //which part of the cache an entry is in (TINY_LFU)
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final QuestionBank source;
+    private final Policy policy;
+    private final long budgetBytes;
+
+    //TINY_LFU budgets: the window, and the protected part of the main area
+    private final long windowBudget;
+    private final long protectedBudget;
+
+    //open-addressing index from question number to entry; guarded by this
+    private Entry[] table = new Entry[16];
+    private int count;
+    private long sizeBytes;
+
+    //LRU uses window alone; TINY_LFU uses all three; LFU uses the frequency lists. Each list
+    //has its most recently used entry at the head.
+    private final EntryList window = new EntryList();
+    private final EntryList probation = new EntryList();
+    private final EntryList protectedList = new EntryList();
+    private FrequencyList lowestFrequency;
+
+    //TINY_LFU's estimate of how often each question is asked for
+    private final FrequencySketch sketch;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Constructor that caches the text of the given bank.
+     *
+     * @param source The bank to read questions from.
+     * @param budgetBytes The most memory (estimated; see ENTRY_OVERHEAD) the cache may use.
+     * @param policy Which questions to evict when the cache is full.
+     */
+    public CachingQuestionBank(QuestionBank source, long budgetBytes, Policy policy) {
+        if (budgetBytes < 0) {
+            throw new IllegalArgumentException("Negative cache budget.");
+        }
+        this.source = source;
+        this.policy = policy;
+        this.budgetBytes = budgetBytes;
+        windowBudget = budgetBytes / 100;
+        protectedBudget = (budgetBytes - windowBudget) * 4 / 5;
+        sketch = policy == Policy.TINY_LFU
+                ? new FrequencySketch(budgetBytes / (ENTRY_OVERHEAD + 64)) : null;
+    }
+
+    /**
+     * Returns the bank whose questions are cached.
+     *
+     * @return The underlying bank.
+     */
+    public QuestionBank getSource() {
+        return source;
+    }
+
+    @Override
+    public int size() {
+        return source.size();
+    }
+
+    @Override
+    public boolean getCorrectAnswer(int questionNumber) {
+        return source.getCorrectAnswer(questionNumber);
+    }
+
+    @Override
+    public int getQuestionType(int questionNumber) {
+        return source.getQuestionType(questionNumber);
+    }
+
+    @Override
+    public long getAnswerKey(int questionNumber) {
+        return source.getAnswerKey(questionNumber);
+    }
+
+    @Override
+    public double getRangeMin(int questionNumber) {
+        return source.getRangeMin(questionNumber);
+    }
+
+    @Override
+    public double getRangeMax(int questionNumber) {
+        return source.getRangeMax(questionNumber);
+    }
+
+    @Override
+    public int getChoiceCount(int questionNumber) {
+        return source.getChoiceCount(questionNumber);
+    }
+
+    @Override
+    public String getChoiceText(int questionNumber, int choice) {
+        return source.getChoiceText(questionNumber, choice);
+    }
+
+    @Override
+    public String getQuestionText(int questionNumber) {
+        synchronized (this) {
+            if (sketch != null) {
+                sketch.increment(questionNumber);
+            }
+            Entry entry = find(questionNumber);
+            if (entry != null) {
+                hits.incrementAndGet();
+                onHit(entry);
+                return entry.text;
+            }
+        }
+
+        misses.incrementAndGet();
+        String text = source.getQuestionText(questionNumber);
+        synchronized (this) {
+            if (find(questionNumber) == null) {
+                insert(questionNumber, text);
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Loads a question's text into the cache, if it is not already there, without counting a
+     * hit or a miss. Question numbers outside the bank are ignored.
+     *
+     * @param questionNumber The question to load.
+     */
+    public void prefetch(int questionNumber) {
+        if (questionNumber < 0 || questionNumber >= source.size()) {
+            return;
+        }
+        synchronized (this) {
+            if (find(questionNumber) != null) {
+                return;
+            }
+        }
+
+        String text = source.getQuestionText(questionNumber);
+        synchronized (this) {
+            if (find(questionNumber) == null) {
+                insert(questionNumber, text);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of getQuestionText calls answered from the cache.
+     *
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of getQuestionText calls that had to read the underlying bank.
+     *
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the fraction of getQuestionText calls answered from the cache, or 0 if there
+     * have been none.
+     *
+     * @return The hit rate, from 0 to 1.
+     */
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * Returns the number of questions evicted to stay within the budget.
+     *
+     * @return The number of evictions.
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Returns the estimated memory used by the cached questions, in bytes.
+     *
+     * @return The cache's size in bytes.
+     */
+    public synchronized long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    /**
+     * Returns the number of questions in the cache.
+     *
+     * @return The number of cached questions.
+     */
+    public synchronized int getCachedCount() {
+        return count;
+    }
+
+    /**
+     * Returns true if the question's text is in the cache, without counting a use.
+     *
+     * @param questionNumber The question number.
+     *
+     * @return True if the question is cached.
+     */
+    public synchronized boolean isCached(int questionNumber) {
+        return find(questionNumber) != null;
+    }
+
+    //move an entry that was just used according to the policy.
+    private void onHit(Entry entry) {
+        switch (policy) {
+            case LRU:
+                window.moveToHead(entry);
+                break;
+            case LFU:
+                incrementFrequency(entry);
+                break;
+            default:
+                if (entry.region == PROBATION) {
+                    //used again while on probation: promote it, demoting the protected
+                    //area's least recently used questions if it is over its budget.
+                    probation.remove(entry);
+                    entry.region = PROTECTED;
+                    protectedList.addFirst(entry);
+                    while (protectedList.bytes > protectedBudget) {
+                        Entry demoted = protectedList.tail;
+                        protectedList.remove(demoted);
+                        demoted.region = PROBATION;
+                        probation.addFirst(demoted);
+                    }
+                } else if (entry.region == PROTECTED) {
+                    protectedList.moveToHead(entry);
+                } else {
+                    window.moveToHead(entry);
+                }
+                break;
+        }
+    }
+
+    //add a question to the cache, evicting others to stay within the budget.
+    private void insert(int questionNumber, String text) {
+        int bytes = ENTRY_OVERHEAD + 2 * text.length();
+        if (bytes > budgetBytes) {
+            return;
+        }
+
+        Entry entry = new Entry(questionNumber, text, bytes);
+        switch (policy) {
+            case LRU:
+                while (sizeBytes + bytes > budgetBytes) {
+                    evict(window.tail);
+                }
+                add(entry);
+                window.addFirst(entry);
+                break;
+            case LFU:
+                while (sizeBytes + bytes > budgetBytes) {
+                    evict(lowestFrequency.tail);
+                }
+                add(entry);
+                if (lowestFrequency == null || lowestFrequency.frequency != 1) {
+                    lowestFrequency = FrequencyList.insertAfter(null, lowestFrequency, 1);
+                }
+                entry.frequencyList = lowestFrequency;
+                lowestFrequency.addFirst(entry);
+                break;
+            default:
+                add(entry);
+                entry.region = WINDOW;
+                window.addFirst(entry);
+                drainWindow();
+                break;
+        }
+    }
+
+    //move questions from the TINY_LFU window to the main area, or evict them, until the
+    //window is within its budget.
+    private void drainWindow() {
+        long mainBudget = budgetBytes - windowBudget;
+        while (window.bytes > windowBudget) {
+            Entry candidate = window.tail;
+            window.remove(candidate);
+
+            //make room for the candidate only by evicting questions used less often.
+            boolean admit = true;
+            while (probation.bytes + protectedList.bytes + candidate.bytes > mainBudget) {
+                Entry victim = probation.tail != null ? probation.tail : protectedList.tail;
+                if (victim == null
+                        || sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                    admit = false;
+                    break;
+                }
+                evict(victim);
+            }
+
+            if (admit) {
+                candidate.region = PROBATION;
+                probation.addFirst(candidate);
+            } else {
+                removeFromIndex(candidate);
+            }
+        }
+    }
+
+    //remove an entry from the cache entirely.
+    private void evict(Entry entry) {
+        switch (policy) {
+            case LFU:
+                FrequencyList list = entry.frequencyList;
+                list.remove(entry);
+                if (list.head == null) {
+                    removeFrequencyList(list);
+                }
+                break;
+            default:
+                if (entry.region == PROBATION) {
+                    probation.remove(entry);
+                } else if (entry.region == PROTECTED) {
+                    protectedList.remove(entry);
+                } else {
+                    window.remove(entry);
+                }
+                break;
+        }
+        removeFromIndex(entry);
+    }
+
+    //LFU: move an entry to the list for one more use.
+    private void incrementFrequency(Entry entry) {
+        FrequencyList current = entry.frequencyList;
+        FrequencyList next = current.next;
+        if (next == null || next.frequency != current.frequency + 1) {
+            next = FrequencyList.insertAfter(current, next, current.frequency + 1);
+        }
+        current.remove(entry);
+        entry.frequencyList = next;
+        next.addFirst(entry);
+        if (current.head == null) {
+            removeFrequencyList(current);
+        }
+    }
+
+    private void removeFrequencyList(FrequencyList list) {
+        if (list.previous != null) {
+            list.previous.next = list.next;
+        } else {
+            lowestFrequency = list.next;
+        }
+        if (list.next != null) {
+            list.next.previous = list.previous;
+        }
+    }
+
+    //index: linear probing on the question number, with backward-shift deletion.
+
+    private static int slot(int key, int mask) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private Entry find(int key) {
+        int mask = table.length - 1;
+        for (int i = slot(key, mask); table[i] != null; i = (i + 1) & mask) {
+            if (table[i].key == key) {
+                return table[i];
+            }
+        }
+        return null;
+    }
+
+    private void add(Entry entry) {
+        if (count + 1 > table.length / 2) {
+            Entry[] old = table;
+            table = new Entry[old.length * 2];
+            for (Entry e : old) {
+                if (e != null) {
+                    put(e);
+                }
+            }
+        }
+        put(entry);
+        count++;
+        sizeBytes += entry.bytes;
+    }
+
+    private void put(Entry entry) {
+        int mask = table.length - 1;
+        int i = slot(entry.key, mask);
+        while (table[i] != null) {
+            i = (i + 1) & mask;
+        }
+        table[i] = entry;
+    }
+
+    private void removeFromIndex(Entry entry) {
+        int mask = table.length - 1;
+        int i = slot(entry.key, mask);
+        while (table[i] != entry) {
+            i = (i + 1) & mask;
+        }
+        table[i] = null;
+
+        //shift later entries of the same probe run back into the gap.
+        for (int j = (i + 1) & mask; table[j] != null; j = (j + 1) & mask) {
+            int home = slot(table[j].key, mask);
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                table[i] = table[j];
+                table[j] = null;
+                i = j;
+            }
+        }
+
+        count--;
+        sizeBytes -= entry.bytes;
+        evictions.incrementAndGet();
+    }
+
+    //one cached question.
+    private static final class Entry {
+        final int key;
+        final String text;
+        final int bytes;
+        int region;
+        FrequencyList frequencyList;
+        Entry previous;
+        Entry next;
+
+        Entry(int key, String text, int bytes) {
+            this.key = key;
+            this.text = text;
+            this.bytes = bytes;
+        }
+    }
+
+    //a doubly linked list of entries, most recently used first.
+    private static class EntryList {
+        Entry head;
+        Entry tail;
+        long bytes;
+
+        void addFirst(Entry entry) {
+            entry.previous = null;
+            entry.next = head;
+            if (head != null) {
+                head.previous = entry;
+            } else {
+                tail = entry;
+            }
+            head = entry;
+            bytes += entry.bytes;
+        }
+
+        void remove(Entry entry) {
+            if (entry.previous != null) {
+                entry.previous.next = entry.next;
+            } else {
+                head = entry.next;
+            }
+            if (entry.next != null) {
+                entry.next.previous = entry.previous;
+            } else {
+                tail = entry.previous;
+            }
+            entry.previous = null;
+            entry.next = null;
+            bytes -= entry.bytes;
+        }
+
+        void moveToHead(Entry entry) {
+            if (entry != head) {
+                remove(entry);
+                addFirst(entry);
+            }
+        }
+    }
+
+    //LFU: the entries used a given number of times, in a list of such lists ordered by
+    //frequency.
+    private static final class FrequencyList extends EntryList {
+        final int frequency;
+        FrequencyList previous;
+        FrequencyList next;
+
+        private FrequencyList(int frequency) {
+            this.frequency = frequency;
+        }
+
+        static FrequencyList insertAfter(FrequencyList previous, FrequencyList next,
+                                         int frequency) {
+            FrequencyList list = new FrequencyList(frequency);
+            list.previous = previous;
+            list.next = next;
+            if (previous != null) {
+                previous.next = list;
+            }
+            if (next != null) {
+                next.previous = list;
+            }
+            return list;
+        }
+    }
+
+    //TINY_LFU: a count-min sketch of 4-bit counters, 16 to a long, that is halved after
+    //every 10 increments per counter slot so old popularity fades.
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L,
+                0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private final long[] table;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(long expectedEntries) {
+            int words = 8;
+            while (words < expectedEntries && words < (1 << 24)) {
+                words <<= 1;
+            }
+            table = new long[words];
+            sampleSize = 10 * words;
+        }
+
+        int frequency(int item) {
+            int start = (spread(item) & 3) << 2;
+            int frequency = 15;
+            for (int i = 0; i < 4; i++) {
+                int counter = (int) (table[indexOf(item, i)] >>> ((start + i) << 2)) & 15;
+                frequency = Math.min(frequency, counter);
+            }
+            return frequency;
+        }
+
+        void increment(int item) {
+            int start = (spread(item) & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(item, i);
+                int shift = (start + i) << 2;
+                if (((table[index] >>> shift) & 15) != 15) {
+                    table[index] += 1L << shift;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] = (table[i] >>> 1) & RESET_MASK;
+                }
+                additions /= 2;
+            }
+        }
+
+        private static int spread(int item) {
+            item = ((item >>> 16) ^ item) * 0x45d9f3b;
+            return (item >>> 16) ^ item;
+        }
+
+        private int indexOf(int item, int i) {
+            long hash = (item + SEEDS[i]) * SEEDS[i];
+            hash += hash >>> 32;
+            return (int) hash & (table.length - 1);
+        }
+    }
+}
@@ -0,0 +1,402 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: ColumnarQuestionBank.java
+ *
+ * In-memory QuestionBank that stores its questions in a few primitive arrays instead of
+ * one object per question.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+import java.util.Arrays;
+
+/**
+ * In-memory QuestionBank that stores its questions in a few primitive arrays instead of
+ * one object per question. All question text lives in one shared char buffer, an int array
+ * holds where each question's text starts, and the correct answers are packed one bit per
+ * question.
+ *
+ * Large banks can keep their question text compressed instead (see
+ * Builder.compressText()), at the cost of decoding each question's text when it is read.
+ *
+ * Banks with other question types than true/false (see QuestionType) also get a byte per
+ * question for its type and a long for its answer key, plus columns for numeric ranges and
+ * choice text if there are such questions. A bank of only true/false questions has none of
+ * these.
+ *
+ * Use a ColumnarQuestionBank.Builder to create one.
+ *
+ * @author Alex Ball
+ */
+public class ColumnarQuestionBank implements QuestionBank {
+    //the number of questions in this bank
+    private final int size;
+
+    //text of question i is text[textOffsets[i]] to text[textOffsets[i + 1]] (exclusive);
+    //both null if the text is compressed
+    private final int[] textOffsets;
+
+    //all question text, back to back
+    private final char[] text;
+
+    //all question text, compressed; null if it is not
+    private final CompressedTextStore compressedText;
+
+    //correct answers of true/false questions, one bit per question
+    private final long[] correctAnswers;
+
+    //each question's type and encoded answer key; null if every question is true/false
+    private final byte[] types;
+    private final long[] answerKeys;
+
+    //each numeric question's range; null if there are no numeric questions
+    private final double[] rangeMins;
+    private final double[] rangeMaxes;
+
+    //choice c of question i is choice number choiceStarts[i] + c, and choice j's text is
+    //choiceText[choiceOffsets[j]] to choiceText[choiceOffsets[j + 1]]; null if no question has
+    //choices
+    private final int[] choiceStarts;
+    private final int[] choiceOffsets;
+    private final char[] choiceText;
+
+    private ColumnarQuestionBank(Builder builder) {
+        size = builder.size;
+        if (builder.compressText) {
+            CompressedTextStore.Builder store = new CompressedTextStore.Builder();
+            for (int i = 0; i < size; i++) {
+                int start = builder.textOffsets[i];
+                store.add(new String(builder.text, start, builder.textOffsets[i + 1] - start));
+            }
+            compressedText = store.build();
+            textOffsets = null;
+            text = null;
+        } else {
+            compressedText = null;
+            textOffsets = Arrays.copyOf(builder.textOffsets, size + 1);
+            text = Arrays.copyOf(builder.text, builder.textOffsets[size]);
+        }
+        correctAnswers = Arrays.copyOf(builder.correctAnswers, Bits.words(size));
+        types = builder.types != null ? Arrays.copyOf(builder.types, size) : null;
+        answerKeys = builder.answerKeys != null ? Arrays.copyOf(builder.answerKeys, size) : null;
+        rangeMins = builder.rangeMins != null ? Arrays.copyOf(builder.rangeMins, size) : null;
+        rangeMaxes = builder.rangeMaxes != null ? Arrays.copyOf(builder.rangeMaxes, size) : null;
+        if (builder.choiceStarts != null) {
+            choiceStarts = Arrays.copyOf(builder.choiceStarts, size + 1);
+            choiceOffsets = Arrays.copyOf(builder.choiceOffsets, builder.choiceStarts[size] + 1);
+            choiceText = Arrays.copyOf(builder.choiceText,
+                    builder.choiceOffsets[builder.choiceStarts[size]]);
+        } else {
+            choiceStarts = null;
+            choiceOffsets = null;
+            choiceText = null;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getQuestionText(int questionNumber) {
+        checkQuestionNumber(questionNumber);
+        if (compressedText != null) {
+            return compressedText.get(questionNumber);
+        }
+        int start = textOffsets[questionNumber];
+        return new String(text, start, textOffsets[questionNumber + 1] - start);
+    }
+
+    @Override
+    public boolean getCorrectAnswer(int questionNumber) {
+        checkQuestionNumber(questionNumber);
+        return Bits.get(correctAnswers, questionNumber);
+    }
+
+    @Override
+    public int getQuestionType(int questionNumber) {
+        checkQuestionNumber(questionNumber);
+        return types != null ? types[questionNumber] : QuestionType.TRUE_FALSE;
+    }
+
+    @Override
+    public long getAnswerKey(int questionNumber) {
+        checkQuestionNumber(questionNumber);
+        if (answerKeys != null) {
+            return answerKeys[questionNumber];
+        }
+        return Bits.get(correctAnswers, questionNumber) ? 1 : 0;
+    }
+
+    @Override
+    public double getRangeMin(int questionNumber) {
+        checkQuestionNumber(questionNumber);
+        return rangeMins != null ? rangeMins[questionNumber] : Double.NaN;
+    }
+
+    @Override
+    public double getRangeMax(int questionNumber) {
+        checkQuestionNumber(questionNumber);
+        return rangeMaxes != null ? rangeMaxes[questionNumber] : Double.NaN;
+    }
+
+    @Override
+    public int getChoiceCount(int questionNumber) {
+        checkQuestionNumber(questionNumber);
+        if (choiceStarts == null) {
+            return 0;
+        }
+        return choiceStarts[questionNumber + 1] - choiceStarts[questionNumber];
+    }
+
+    @Override
+    public String getChoiceText(int questionNumber, int choice) {
+        if (choice < 0 || choice >= getChoiceCount(questionNumber)) {
+            throw new IndexOutOfBoundsException("Question " + questionNumber
+                    + " has no choice " + choice + ".");
+        }
+        int index = choiceStarts[questionNumber] + choice;
+        int start = choiceOffsets[index];
+        return new String(choiceText, start, choiceOffsets[index + 1] - start);
+    }
+
+    /**
+     * Returns the memory used by the question text column, in bytes (not counting object
+     * headers): two bytes a character plus an offset per question, or the size of the
+     * compressed text.
+     *
+     * @return The size of the question text in bytes.
+     */
+    public long getTextSizeInBytes() {
+        if (compressedText != null) {
+            return compressedText.getSizeInBytes();
+        }
+        return 2L * text.length + 4L * textOffsets.length;
+    }
+
+    private void checkQuestionNumber(int questionNumber) {
+        if (questionNumber < 0 || questionNumber >= size) {
+            throw new IndexOutOfBoundsException("Question number " + questionNumber
+                    + " is not in a bank of " + size + " questions.");
+        }
+    }
+
+    /**
+     * Builds a ColumnarQuestionBank one question at a time.
+     */
+    public static class Builder {
+        private int size;
+        private int[] textOffsets = new int[17];
+        private char[] text = new char[256];
+        private long[] correctAnswers = new long[1];
+
+        //created when the first question of each kind is added; see ColumnarQuestionBank
+        private byte[] types;
+        private long[] answerKeys;
+        private double[] rangeMins;
+        private double[] rangeMaxes;
+        private int[] choiceStarts;
+        private int[] choiceOffsets;
+        private char[] choiceText;
+
+        //whether build() compresses the question text
+        private boolean compressText;
+
+        /**
+         * Makes the bank keep its question text compressed with a symbol table trained on the
+         * text (see CompressedTextStore), which for short, repetitive questions takes about a
+         * quarter of the memory, but makes reading a question's text decode it. Choice text is
+         * not compressed. Worth it for banks of many thousands of questions.
+         *
+         * @return This builder.
+         */
+        public Builder compressText() {
+            compressText = true;
+            return this;
+        }
+
+        /**
+         * Adds a true/false question to the bank being built. Its question number is the
+         * number of questions added before it.
+         *
+         * @param question The question itself, as a string.
+         * @param correctAnswer The correct answer to this question.
+         *
+         * @return This builder.
+         */
+        public Builder add(String question, boolean correctAnswer) {
+            addQuestion(question, QuestionType.TRUE_FALSE, correctAnswer ? 1 : 0);
+            Bits.set(correctAnswers, size - 1, correctAnswer);
+            return this;
+        }
+
+        /**
+         * Adds a question with several choices, one of which is correct.
+         *
+         * @param question The question itself, as a string.
+         * @param choices The choices, from 2 to QuestionType.MAX_CHOICES of them.
+         * @param correctChoice The index of the correct choice.
+         *
+         * @throws IllegalArgumentException If there are too few or too many choices, or
+         * correctChoice is not one of them.
+         *
+         * @return This builder.
+         */
+        public Builder addSingleChoice(String question, String[] choices, int correctChoice) {
+            checkChoices(choices);
+            if (correctChoice < 0 || correctChoice >= choices.length) {
+                throw new IllegalArgumentException("Correct choice " + correctChoice
+                        + " is not one of the " + choices.length + " choices.");
+            }
+            addQuestion(question, QuestionType.SINGLE_CHOICE, correctChoice);
+            addChoices(choices);
+            return this;
+        }
+
+        /**
+         * Adds a question with several choices, any number of which are correct.
+         *
+         * @param question The question itself, as a string.
+         * @param choices The choices, from 2 to QuestionType.MAX_CHOICES of them.
+         * @param correctChoices The correct choices, as a bitmask (bit i for choice i).
+         *
+         * @throws IllegalArgumentException If there are too few or too many choices, or
+         * correctChoices includes choices that do not exist.
+         *
+         * @return This builder.
+         */
+        public Builder addMultiSelect(String question, String[] choices, long correctChoices) {
+            checkChoices(choices);
+            if ((correctChoices & ~QuestionType.allChoices(choices.length)) != 0) {
+                throw new IllegalArgumentException("Correct choices include choices that do "
+                        + "not exist.");
+            }
+            addQuestion(question, QuestionType.MULTI_SELECT, correctChoices);
+            addChoices(choices);
+            return this;
+        }
+
+        /**
+         * Adds a question whose answer is a number in a range (inclusive).
+         *
+         * @param question The question itself, as a string.
+         * @param min The smallest correct answer.
+         * @param max The largest correct answer.
+         *
+         * @throws IllegalArgumentException If min is greater than max, or either is NaN.
+         *
+         * @return This builder.
+         */
+        public Builder addNumeric(String question, double min, double max) {
+            if (!(min <= max)) {
+                throw new IllegalArgumentException("Invalid range " + min + " to " + max + ".");
+            }
+            addQuestion(question, QuestionType.NUMERIC, 0);
+            if (rangeMins == null) {
+                rangeMins = new double[textOffsets.length];
+                rangeMaxes = new double[textOffsets.length];
+                Arrays.fill(rangeMins, Double.NaN);
+                Arrays.fill(rangeMaxes, Double.NaN);
+            }
+            rangeMins[size - 1] = min;
+            rangeMaxes[size - 1] = max;
+            return this;
+        }
+
+        /**
+         * Builds the bank. The arrays are trimmed to fit, so the builder should not be used
+         * after calling this.
+         *
+         * @return The new bank.
+         */
+        public ColumnarQuestionBank build() {
+            return new ColumnarQuestionBank(this);
+        }
+
+        private static void checkChoices(String[] choices) {
+            if (choices.length < 2 || choices.length > QuestionType.MAX_CHOICES) {
+                throw new IllegalArgumentException("A question needs from 2 to "
+                        + QuestionType.MAX_CHOICES + " choices, not " + choices.length + ".");
+            }
+        }
+
+        //add a question's text, type and answer key, growing the arrays as needed.
+        private void addQuestion(String question, int type, long answerKey) {
+            int start = textOffsets[size];
+            int end = start + question.length();
+
+            //grow the arrays as needed (doubling, like ArrayList).
+            if (size + 2 > textOffsets.length) {
+                int capacity = textOffsets.length * 2;
+                textOffsets = Arrays.copyOf(textOffsets, capacity);
+                if (types != null) {
+                    types = Arrays.copyOf(types, capacity);
+                    answerKeys = Arrays.copyOf(answerKeys, capacity);
+                }
+                if (rangeMins != null) {
+                    int old = rangeMins.length;
+                    rangeMins = Arrays.copyOf(rangeMins, capacity);
+                    rangeMaxes = Arrays.copyOf(rangeMaxes, capacity);
+                    Arrays.fill(rangeMins, old, capacity, Double.NaN);
+                    Arrays.fill(rangeMaxes, old, capacity, Double.NaN);
+                }
+                if (choiceStarts != null) {
+                    choiceStarts = Arrays.copyOf(choiceStarts, capacity);
+                }
+            }
+            if (end > text.length) {
+                text = Arrays.copyOf(text, Math.max(end, text.length * 2));
+            }
+            if (Bits.words(size + 1) > correctAnswers.length) {
+                correctAnswers = Arrays.copyOf(correctAnswers, correctAnswers.length * 2);
+            }
+
+            //the first question that is not true/false adds the type and key columns, filled
+            //in for the true/false questions before it.
+            if (types == null && type != QuestionType.TRUE_FALSE) {
+                types = new byte[textOffsets.length];
+                answerKeys = new long[textOffsets.length];
+                for (int i = 0; i < size; i++) {
+                    answerKeys[i] = Bits.get(correctAnswers, i) ? 1 : 0;
+                }
+            }
+
+            question.getChars(0, question.length(), text, start);
+            textOffsets[size + 1] = end;
+            if (types != null) {
+                types[size] = (byte) type;
+                answerKeys[size] = answerKey;
+            }
+            if (choiceStarts != null) {
+                choiceStarts[size + 1] = choiceStarts[size];
+            }
+            size++;
+        }
+
+        //add the choices of the question just added.
+        private void addChoices(String[] choices) {
+            if (choiceStarts == null) {
+                choiceStarts = new int[textOffsets.length];
+                choiceOffsets = new int[17];
+                choiceText = new char[256];
+            }
+
+            int first = choiceStarts[size - 1];
+            if (first + choices.length + 1 > choiceOffsets.length) {
+                choiceOffsets = Arrays.copyOf(choiceOffsets,
+                        Math.max(first + choices.length + 1, choiceOffsets.length * 2));
+            }
+            for (int i = 0; i < choices.length; i++) {
+                int start = choiceOffsets[first + i];
+                int end = start + choices[i].length();
+                if (end > choiceText.length) {
+                    choiceText = Arrays.copyOf(choiceText, Math.max(end, choiceText.length * 2));
+                }
+                choices[i].getChars(0, choices[i].length(), choiceText, start);
+                choiceOffsets[first + i + 1] = end;
+            }
+            choiceStarts[size] = first + choices.length;
+        }
+    }
+}
@@ -0,0 +1,405 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: CompressedTextStore.java
+ *
+ * Read-only list of strings compressed with a shared symbol table trained on the strings
+ * themselves, any one of which can be decoded on its own.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only list of strings compressed with a shared symbol table trained on the strings
+ * themselves, any one of which can be decoded on its own.
+ *
+ * This is a simplified FSST (fast static symbol table) scheme. The strings are encoded as
+ * UTF-8, and the table maps each code 0 to 254 to a symbol of 1 to 7 bytes, chosen for the
+ * bytes they save: common words, word pieces and the spaces and punctuation around them. A
+ * string is stored as the codes of its longest-matching symbols, with code 255 followed by a
+ * literal byte for anything the table does not cover, and preceded by the number of its codes
+ * (a varint, usually one byte). Only every 16th string's position is kept, so finding a
+ * string skips over at most 15 others by their lengths. The table is trained in a few rounds
+ * on a sample of at most 256 KB: each round encodes the sample with the current table, counts
+ * how often each symbol (and each pair of neighbouring symbols, as a longer candidate) was
+ * used, and keeps the 255 that cover the most bytes.
+ *
+ * Short, repetitive lines such as trivia questions compress to half their UTF-8 size or less,
+ * positions included (a quarter of a char[] of the same text with an offset per line).
+ * Unlike a general purpose compressor there is no block to decompress: decoding a string is
+ * one table lookup per code, and takes about twice as long as copying it from a char[].
+ *
+ * Use a CompressedTextStore.Builder to create one. The store is immutable, and safe to read
+ * from any number of threads.
+ *
+ * @author Alex Ball
+ */
+public class CompressedTextStore {
+    //code that is followed by one literal byte
+    private static final int ESCAPE = 255;
+
+    //codes 0 to MAX_SYMBOLS - 1 are symbols
+    private static final int MAX_SYMBOLS = 255;
+
+    //symbols are at most this many bytes, so a symbol and its length fit in a long key
+    private static final int MAX_SYMBOL_LENGTH = 7;
+
+    //training rounds, and the most text the table is trained on
+    private static final int TRAINING_ROUNDS = 5;
+    private static final int TRAINING_BYTES = 1 << 18;
+
+    //strings per block; the position of the first string of each block is kept
+    private static final int BLOCK_SIZE = 16;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    //the number of strings in this store
+    private final int size;
+
+    //each string's code count (a varint) and codes, back to back; the strings of block b
+    //start at codes[blockOffsets[b]]
+    private final int[] blockOffsets;
+    private final byte[] codes;
+
+    //the symbol table: symbol c's bytes, lowest byte first, and its length
+    private final long[] symbols;
+    private final byte[] symbolLengths;
+
+    //the length in UTF-8 bytes of the longest string, and of all of them together
+    private final int maxLength;
+    private final long textBytes;
+
+    private CompressedTextStore(int size, int[] blockOffsets, byte[] codes, SymbolTable table,
+                                int maxLength, long textBytes) {
+        this.size = size;
+        this.blockOffsets = blockOffsets;
+        this.codes = codes;
+        symbols = table.symbols;
+        symbolLengths = table.lengths;
+        this.maxLength = maxLength;
+        this.textBytes = textBytes;
+    }
+
+    /**
+     * Returns the number of strings in this store.
+     *
+     * @return The number of strings.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Decodes a string.
+     *
+     * @param index The string's index (the number of strings added before it).
+     *
+     * @throws IndexOutOfBoundsException If there is no such string.
+     *
+     * @return The string.
+     */
+    public String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("String " + index + " is not in a store of "
+                    + size + " strings.");
+        }
+        //skip the strings before this one in its block.
+        int start = blockOffsets[index / BLOCK_SIZE];
+        int end;
+        for (int skip = index % BLOCK_SIZE; ; skip--) {
+            int count = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = codes[start++];
+                count |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+            end = start + count;
+            if (skip == 0) {
+                break;
+            }
+            start = end;
+        }
+
+        //every code decodes to at most MAX_SYMBOL_LENGTH bytes.
+        byte[] out = new byte[Math.min(maxLength, (end - start) * MAX_SYMBOL_LENGTH)];
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            int code = codes[i] & 0xFF;
+            if (code == ESCAPE) {
+                out[length++] = codes[++i];
+            } else {
+                long symbol = symbols[code];
+                for (int k = symbolLengths[code]; k > 0; k--) {
+                    out[length++] = (byte) symbol;
+                    symbol >>>= 8;
+                }
+            }
+        }
+        return new String(out, 0, length, UTF_8);
+    }
+
+    /**
+     * Returns the memory used by the compressed strings, their positions and the symbol table,
+     * in bytes (not counting object headers).
+     *
+     * @return The size in bytes.
+     */
+    public long getSizeInBytes() {
+        return codes.length + 4L * blockOffsets.length + 9L * symbols.length;
+    }
+
+    /**
+     * Returns the total length of the strings in UTF-8, i.e. what getSizeInBytes() would be
+     * without compression (or offsets).
+     *
+     * @return The uncompressed size in bytes.
+     */
+    public long getTextBytes() {
+        return textBytes;
+    }
+
+    /**
+     * Returns the number of symbols in the table (at most 255).
+     *
+     * @return The number of symbols.
+     */
+    public int getSymbolCount() {
+        return symbols.length;
+    }
+
+    /**
+     * Builds a CompressedTextStore one string at a time. The strings are kept as UTF-8 until
+     * build() trains the table and compresses them.
+     */
+    public static class Builder {
+        private int size;
+        private int[] offsets = new int[17];
+        private byte[] text = new byte[256];
+        private int maxLength;
+
+        /**
+         * Adds a string to the store being built. Its index is the number of strings added
+         * before it.
+         *
+         * @param string The string.
+         *
+         * @return This builder.
+         */
+        public Builder add(String string) {
+            byte[] bytes = string.getBytes(UTF_8);
+            int start = offsets[size];
+            int end = start + bytes.length;
+            if (size + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            if (end > text.length) {
+                text = Arrays.copyOf(text, Math.max(end, text.length * 2));
+            }
+            System.arraycopy(bytes, 0, text, start, bytes.length);
+            offsets[size + 1] = end;
+            maxLength = Math.max(maxLength, bytes.length);
+            size++;
+            return this;
+        }
+
+        /**
+         * Trains the symbol table and compresses the strings. The builder should not be used
+         * after calling this.
+         *
+         * @return The new store.
+         */
+        public CompressedTextStore build() {
+            SymbolTable table = train();
+
+            //encode every string; there are at most two codes per byte (an escape and the
+            //byte), which also leaves room for the count.
+            byte[] codes = new byte[16];
+            byte[] string = new byte[2 * maxLength];
+            int[] blockOffsets = new int[(size + BLOCK_SIZE - 1) / BLOCK_SIZE];
+            int length = 0;
+            for (int i = 0; i < size; i++) {
+                int count = 0;
+                int end = offsets[i + 1];
+                for (int pos = offsets[i]; pos < end; ) {
+                    int code = table.match(text, pos, end);
+                    if (code >= 0) {
+                        string[count++] = (byte) code;
+                        pos += table.lengths[code];
+                    } else {
+                        string[count++] = (byte) ESCAPE;
+                        string[count++] = text[pos++];
+                    }
+                }
+
+                if (length + count + 5 > codes.length) {
+                    codes = Arrays.copyOf(codes, Math.max(length + count + 5, codes.length * 2));
+                }
+                if (i % BLOCK_SIZE == 0) {
+                    blockOffsets[i / BLOCK_SIZE] = length;
+                }
+                for (int value = count; ; value >>>= 7) {
+                    if ((value & ~0x7F) == 0) {
+                        codes[length++] = (byte) value;
+                        break;
+                    }
+                    codes[length++] = (byte) ((value & 0x7F) | 0x80);
+                }
+                System.arraycopy(string, 0, codes, length, count);
+                length += count;
+            }
+            return new CompressedTextStore(size, blockOffsets, Arrays.copyOf(codes, length),
+                    table, maxLength, offsets[size]);
+        }
+
+        //choose the symbols that save the most on a sample of the strings.
+        private SymbolTable train() {
+            //every step-th string, so the sample is spread over the whole store.
+            int step = Math.max(1, (int) ((long) offsets[size] / TRAINING_BYTES) + 1);
+            SymbolTable table = new SymbolTable(new long[0], new byte[0]);
+            for (int round = 0; round < TRAINING_ROUNDS; round++) {
+                Map<Long, int[]> counts = new HashMap<>();
+                for (int i = 0; i < size; i += step) {
+                    long previous = 0;
+                    for (int pos = offsets[i], end = offsets[i + 1]; pos < end; ) {
+                        int code = table.match(text, pos, end);
+                        long key = code >= 0 ? table.key(code) : key(text[pos] & 0xFF, 1);
+                        count(counts, key);
+                        if (previous != 0
+                                && length(previous) + length(key) <= MAX_SYMBOL_LENGTH) {
+                            count(counts, concat(previous, key));
+                        }
+                        previous = key;
+                        pos += length(key);
+                    }
+                }
+                table = best(counts);
+            }
+            return table;
+        }
+
+        private static void count(Map<Long, int[]> counts, long key) {
+            int[] count = counts.get(key);
+            if (count == null) {
+                counts.put(key, new int[] {1});
+            } else {
+                count[0]++;
+            }
+        }
+
+        //the symbols that covered the most bytes (times used, times length) in the last round.
+        private static SymbolTable best(final Map<Long, int[]> counts) {
+            List<Long> candidates = new ArrayList<>(counts.keySet());
+            Collections.sort(candidates, new Comparator<Long>() {
+                @Override
+                public int compare(Long a, Long b) {
+                    long gainA = (long) counts.get(a)[0] * length(a);
+                    long gainB = (long) counts.get(b)[0] * length(b);
+                    if (gainA != gainB) {
+                        return gainA > gainB ? -1 : 1;
+                    }
+                    return a.compareTo(b);
+                }
+            });
+            int count = Math.min(MAX_SYMBOLS, candidates.size());
+            long[] symbols = new long[count];
+            byte[] lengths = new byte[count];
+            for (int i = 0; i < count; i++) {
+                long key = candidates.get(i);
+                symbols[i] = key & 0xFFFFFFFFFFFFFFL;
+                lengths[i] = (byte) length(key);
+            }
+            return new SymbolTable(symbols, lengths);
+        }
+
+        //a symbol and its length packed into one long: bytes in the low 56 bits, lowest
+        //first, and the length in the top byte.
+        private static long key(long bytes, int length) {
+            return bytes | ((long) length << 56);
+        }
+
+        private static int length(long key) {
+            return (int) (key >>> 56);
+        }
+
+        private static long concat(long first, long second) {
+            int length = length(first);
+            return key((first & 0xFFFFFFFFFFFFFFL)
+                    | ((second & 0xFFFFFFFFFFFFFFL) << (8 * length)), length + length(second));
+        }
+    }
+
+    /**
+     * A symbol table, with the symbols grouped by first byte (longest first) for matching.
+     */
+    private static class SymbolTable {
+        final long[] symbols;
+        final byte[] lengths;
+
+        //the codes of the symbols starting with byte b are byFirst[firstStart[b]] to
+        //byFirst[firstStart[b + 1]] (exclusive), longest first
+        private final int[] firstStart = new int[257];
+        private final int[] byFirst;
+
+        SymbolTable(long[] symbols, byte[] lengths) {
+            this.symbols = symbols;
+            this.lengths = lengths;
+
+            //counting sort by first byte, then by length within each first byte.
+            for (long symbol : symbols) {
+                firstStart[(int) (symbol & 0xFF) + 1]++;
+            }
+            for (int b = 0; b < 256; b++) {
+                firstStart[b + 1] += firstStart[b];
+            }
+            byFirst = new int[symbols.length];
+            int[] next = Arrays.copyOf(firstStart, 256);
+            for (int length = MAX_SYMBOL_LENGTH; length > 0; length--) {
+                for (int code = 0; code < symbols.length; code++) {
+                    if (lengths[code] == length) {
+                        byFirst[next[(int) (symbols[code] & 0xFF)]++] = code;
+                    }
+                }
+            }
+        }
+
+        //the code of the longest symbol that matches text at pos (before end), or -1.
+        int match(byte[] text, int pos, int end) {
+            int first = text[pos] & 0xFF;
+            int from = firstStart[first];
+            int to = firstStart[first + 1];
+            if (from == to) {
+                return -1;
+            }
+
+            //the next bytes of text, lowest first, as a symbol would hold them.
+            int available = Math.min(MAX_SYMBOL_LENGTH, end - pos);
+            long window = 0;
+            for (int k = available - 1; k >= 0; k--) {
+                window = (window << 8) | (text[pos + k] & 0xFF);
+            }
+            for (int i = from; i < to; i++) {
+                int code = byFirst[i];
+                int length = lengths[code];
+                if (length <= available
+                        && (window & ((1L << (8 * length)) - 1)) == symbols[code]) {
+                    return code;
+                }
+            }
+            return -1;
+        }
+
+        long key(int code) {
+            return symbols[code] | ((long) lengths[code] << 56);
+        }
+    }
+}
@@ -0,0 +1,467 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: ConcurrentQuizEngine.java
+ *
+ * A true/false quiz game with the same rules as QuizEngine that any number of threads can
+ * play, navigate and read at once.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A true/false quiz game with the same rules as QuizEngine that any number of threads can
+ * play, navigate and read at once (for example the UI, a timer, an autosave worker and a
+ * scoring service), without locks.
+ *
+ * The current question, the number of questions answered and the score are packed into one
+ * long, so each change to them is a single compareAndSet and a reader always sees the three
+ * from the same moment. Each question has three bits, answered, correct and first correct,
+ * side by side in an AtomicLongArray (16 questions per word), so an answer sets them with one
+ * compareAndSet. Whichever thread sets a question's answered bit first gives the answer that is
+ * scored, and sets its first correct bit; every other answer to that question is a re-answer,
+ * which only changes its correct bit, exactly as in QuizEngine. So however many threads race
+ * to answer, each question is scored once and the score is exact.
+ *
+ * An answer sets its question's bits first and then counts them in the packed state, so for a
+ * moment the bits can be ahead of the counts; saveState() waits until they agree.
+ *
+ * Only true/false questions are supported, since their given answer follows from the correct
+ * bit; games with other question types should use QuizEngine. Games hold at most
+ * MAX_QUESTIONS questions.
+ *
+ * @author Alex Ball
+ */
+public class ConcurrentQuizEngine {
+    /**
+     * The most questions a game can hold.
+     */
+    public static final int MAX_QUESTIONS = (1 << 21) - 1;
+
+    //layout of the packed state: the current question in the low 21 bits, then the number
+    //answered, then the score.
+    private static final int FIELD_BITS = 21;
+    private static final long FIELD_MASK = (1L << FIELD_BITS) - 1;
+    private static final long ANSWERED_ONE = 1L << FIELD_BITS;
+    private static final long SCORE_ONE = 1L << (2 * FIELD_BITS);
+
+    //the bank that this game's questions come from.
+    private final QuestionBank bank;
+
+    //the question numbers (in bank) of the questions used for this game.
+    private final int[] questions;
+
+    //the number of questions in this game.
+    private final int numQuestions;
+
+    //the current question, number answered and score, packed as described above.
+    private final AtomicLong state = new AtomicLong();
+
+    //four bits per question (the last unused): bit 4i is set once question i is answered,
+    //bit 4i + 1 if it was answered correctly the last time it was answered, and bit 4i + 2 if
+    //it was answered correctly the first time.
+    private final AtomicLongArray marks;
+
+    //told about each first answer, on the answering thread; may be null.
+    private volatile AnswerListener answerListener;
+
+    /**
+     * Constructor that creates a new game with score 0 on the first question, asking the
+     * given questions in order.
+     *
+     * @param bank The bank the questions come from.
+     * @param questions The question numbers (in bank) to ask. The array is used directly, not
+     * copied.
+     *
+     * @throws IllegalArgumentException Throws IllegalArgumentException if a question is not
+     * true/false, or there are more than MAX_QUESTIONS.
+     */
+    public ConcurrentQuizEngine(QuestionBank bank, int[] questions) {
+        if (questions.length > MAX_QUESTIONS) {
+            throw new IllegalArgumentException("A game cannot have more than " + MAX_QUESTIONS
+                    + " questions.");
+        }
+        if (!QuizEngine.allTrueFalse(bank, questions)) {
+            throw new IllegalArgumentException("Only true/false questions can be played "
+                    + "concurrently.");
+        }
+        this.bank = bank;
+        this.questions = questions;
+        numQuestions = questions.length;
+        marks = new AtomicLongArray((numQuestions + 15) >>> 4);
+    }
+
+    /**
+     * Restores a game saved with saveState() (by this class or by QuizEngine, for a true/false
+     * game).
+     *
+     * @param bank The bank the game's questions come from.
+     * @param questions The game's question numbers. The array is used directly, not copied.
+     * @param state The game's state, as returned by saveState().
+     *
+     * @throws IllegalArgumentException Throws IllegalArgumentException if the state was not
+     * saved from a game with these questions, they are not all in the bank, or they are not
+     * all true/false.
+     *
+     * @return The restored game.
+     */
+    public static ConcurrentQuizEngine restore(QuestionBank bank, int[] questions,
+                                               long[] state) {
+        //QuizEngine checks that the state is consistent.
+        QuizEngine.restore(bank, questions, state);
+
+        ConcurrentQuizEngine engine = new ConcurrentQuizEngine(bank, questions);
+        int words = Bits.words(engine.numQuestions);
+        for (int i = 0; i < engine.numQuestions; i++) {
+            if ((state[QuizEngine.STATE_HEADER + (i >>> 6)] & (1L << i)) != 0) {
+                boolean correct = (state[QuizEngine.STATE_HEADER + words + (i >>> 6)]
+                        & (1L << i)) != 0;
+                boolean firstCorrect = (state[QuizEngine.STATE_HEADER + 2 * words + (i >>> 6)]
+                        & (1L << i)) != 0;
+                engine.marks.set(i >>> 4, engine.marks.get(i >>> 4) | answeredBit(i)
+                        | (correct ? correctBit(i) : 0)
+                        | (firstCorrect ? firstCorrectBit(i) : 0));
+            }
+        }
+        engine.state.set(pack((int) state[1], (int) state[3], (int) state[2]));
+        return engine;
+    }
+
+    /**
+     * Returns this game's progress in the same layout as QuizEngine.saveState(), so either
+     * class can restore it. The state is consistent: if answers are being given while it is
+     * saved, it includes each one either completely or not at all.
+     *
+     * @return The game's state.
+     */
+    public long[] saveState() {
+        int words = Bits.words(numQuestions);
+        long[] saved = new long[QuizEngine.STATE_HEADER + 3 * words];
+        while (true) {
+            long before = state.get();
+            int answeredCount = 0;
+            for (int i = 0; i < words; i++) {
+                saved[QuizEngine.STATE_HEADER + i] = 0;
+                saved[QuizEngine.STATE_HEADER + words + i] = 0;
+                saved[QuizEngine.STATE_HEADER + 2 * words + i] = 0;
+            }
+            for (int i = 0; i < numQuestions; i++) {
+                long bits = marks.get(i >>> 4);
+                if ((bits & answeredBit(i)) != 0) {
+                    answeredCount++;
+                    saved[QuizEngine.STATE_HEADER + (i >>> 6)] |= 1L << i;
+                    if ((bits & correctBit(i)) != 0) {
+                        saved[QuizEngine.STATE_HEADER + words + (i >>> 6)] |= 1L << i;
+                    }
+                    if ((bits & firstCorrectBit(i)) != 0) {
+                        saved[QuizEngine.STATE_HEADER + 2 * words + (i >>> 6)] |= 1L << i;
+                    }
+                }
+            }
+
+            //the bits and counts agree only once every answer seen has been counted.
+            if (state.get() == before && answeredCount == answeredCount(before)) {
+                saved[0] = QuizEngine.STATE_VERSION;
+                saved[1] = cursor(before);
+                saved[2] = score(before);
+                saved[3] = answeredCount;
+                return saved;
+            }
+        }
+    }
+
+    /**
+     * Sets the listener that is told about each question the first time it is answered. The
+     * listener is called on the answering thread, so it must be thread-safe itself.
+     *
+     * @param listener The listener, or null for none.
+     */
+    public void setAnswerListener(AnswerListener listener) {
+        answerListener = listener;
+    }
+
+    /**
+     * Returns the bank that this game's questions come from.
+     *
+     * @return The question bank.
+     */
+    public QuestionBank getBank() {
+        return bank;
+    }
+
+    /**
+     * Returns the question numbers (in the bank) of this game's questions, in order.
+     *
+     * @return A copy of the game's question numbers.
+     */
+    public int[] getQuestionNumbers() {
+        return questions.clone();
+    }
+
+    /**
+     * Returns the number of questions in this game.
+     *
+     * @return The number of questions in this game.
+     */
+    public int getNumQuestions() {
+        return numQuestions;
+    }
+
+    /**
+     * Returns the user's score.
+     *
+     * @return The score.
+     */
+    public int getScore() {
+        return score(state.get());
+    }
+
+    /**
+     * Returns the number of questions answered.
+     *
+     * @return The number of questions answered.
+     */
+    public int getNumQuestionsAnswered() {
+        return answeredCount(state.get());
+    }
+
+    /**
+     * Returns the position (from 0) of the current question in the game.
+     *
+     * @return The current question's position.
+     */
+    public int getGameQuestionNum() {
+        return cursor(state.get());
+    }
+
+    /**
+     * Returns the question number (in the bank) of the question at the given position.
+     *
+     * @param position The position of the question in this game, from 0.
+     *
+     * @return The question number.
+     */
+    public int getQuestionNumber(int position) {
+        return questions[position];
+    }
+
+    /**
+     * Returns the question number (in the bank) of the current question.
+     *
+     * @return The current question's number.
+     */
+    public int getCurrentQuestionNumber() {
+        return questions[getGameQuestionNum()];
+    }
+
+    /**
+     * Returns the text of the current question, read from the bank.
+     *
+     * @return The current question's text.
+     */
+    public String getCurrentQuestionText() {
+        return bank.getQuestionText(getCurrentQuestionNumber());
+    }
+
+    /**
+     * Returns true if the question at the given position has been answered.
+     *
+     * @param position The position of the question in this game, from 0.
+     *
+     * @return True if the question has been answered.
+     */
+    public boolean isAnswered(int position) {
+        checkPosition(position);
+        return (marks.get(position >>> 4) & answeredBit(position)) != 0;
+    }
+
+    /**
+     * Returns true if the question at the given position was answered correctly the last time
+     * it was answered.
+     *
+     * @param position The position of the question in this game, from 0.
+     *
+     * @return True if the question was answered correctly.
+     */
+    public boolean isAnsweredCorrectly(int position) {
+        checkPosition(position);
+        return (marks.get(position >>> 4) & correctBit(position)) != 0;
+    }
+
+    /**
+     * Returns true if the question at the given position was answered correctly the first
+     * time it was answered, the answer that was scored.
+     *
+     * @param position The position of the question in this game, from 0.
+     *
+     * @return True if the first answer was correct.
+     */
+    public boolean isFirstAnswerCorrect(int position) {
+        checkPosition(position);
+        return (marks.get(position >>> 4) & firstCorrectBit(position)) != 0;
+    }
+
+    /**
+     * Answers the current question and moves on to the next one, as QuizEngine.answerQuestion
+     * does. If another thread moves on first, this answer still goes to the question that was
+     * current when it was given.
+     *
+     * @param answer The user's answer.
+     *
+     * @throws IllegalStateException Throws IllegalStateException if called when
+     * the game is already over.
+     *
+     * @return True if the user was correct, false otherwise.
+     */
+    public boolean answerQuestion(boolean answer) {
+        return answer(cursor(state.get()), answer, true);
+    }
+
+    /**
+     * Answers the question at the given position without moving the current question, e.g.
+     * for a service scoring answers that arrive out of order. Only the first answer to each
+     * question is scored.
+     *
+     * @param position The position of the question in this game, from 0.
+     * @param answer The user's answer.
+     *
+     * @throws IllegalStateException Throws IllegalStateException if called when
+     * the game is already over.
+     *
+     * @return True if the user was correct, false otherwise.
+     */
+    public boolean answerQuestionAt(int position, boolean answer) {
+        checkPosition(position);
+        return answer(position, answer, false);
+    }
+
+    //answer the question at position, and move on from it if asked to and it is still the
+    //current question.
+    private boolean answer(int position, boolean answer, boolean advance) {
+        if (isGameOver()) {
+            throw new IllegalStateException("Cannot answer questions when game is over.");
+        }
+        boolean result = answer == bank.getCorrectAnswer(questions[position]);
+
+        //set the question's bits; the thread that sets the answered bit gives the first answer.
+        int word = position >>> 4;
+        long answeredBit = answeredBit(position);
+        long correctBit = correctBit(position);
+        boolean first;
+        while (true) {
+            long bits = marks.get(word);
+            first = (bits & answeredBit) == 0;
+            long updated = result ? bits | answeredBit | correctBit
+                    : (bits | answeredBit) & ~correctBit;
+            if (first && result) {
+                updated |= firstCorrectBit(position);
+            }
+            if (updated == bits || marks.compareAndSet(word, bits, updated)) {
+                break;
+            }
+        }
+
+        //count a first answer, and move on.
+        while (true) {
+            long current = state.get();
+            long updated = current;
+            if (first) {
+                updated += result ? ANSWERED_ONE + SCORE_ONE : ANSWERED_ONE;
+            }
+            if (advance && cursor(current) == position && position < numQuestions - 1) {
+                updated++;
+            }
+            if (updated == current || state.compareAndSet(current, updated)) {
+                break;
+            }
+        }
+
+        AnswerListener listener = answerListener;
+        if (first && listener != null) {
+            listener.onAnswer(questions[position], result);
+        }
+        return result;
+    }
+
+    /**
+     * Advance to the next question without answering the current one.
+     * Returns true if successful, false otherwise.
+     *
+     * @return True if successful, false otherwise.
+     */
+    public boolean nextQuestion() {
+        while (true) {
+            long current = state.get();
+            if (cursor(current) >= numQuestions - 1) {
+                return false;
+            }
+            if (state.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Go back to the previous question without answering the current one.
+     * Returns true if successful, false otherwise.
+     *
+     * @return True if successful, false otherwise.
+     */
+    public boolean previousQuestion() {
+        while (true) {
+            long current = state.get();
+            if (cursor(current) <= 0) {
+                return false;
+            }
+            if (state.compareAndSet(current, current - 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns true if the game is over: every question has been answered.
+     *
+     * @return True if the user has answered every question, false otherwise.
+     */
+    public boolean isGameOver() {
+        return answeredCount(state.get()) >= numQuestions;
+    }
+
+    private static long pack(int cursor, int answeredCount, int score) {
+        return cursor | (long) answeredCount << FIELD_BITS | (long) score << (2 * FIELD_BITS);
+    }
+
+    private static int cursor(long packed) {
+        return (int) (packed & FIELD_MASK);
+    }
+
+    private static int answeredCount(long packed) {
+        return (int) ((packed >>> FIELD_BITS) & FIELD_MASK);
+    }
+
+    private static int score(long packed) {
+        return (int) (packed >>> (2 * FIELD_BITS));
+    }
+
+    private static long answeredBit(int position) {
+        return 1L << ((position & 15) << 2);
+    }
+
+    private static long correctBit(int position) {
+        return 2L << ((position & 15) << 2);
+    }
+
+    private static long firstCorrectBit(int position) {
+        return 4L << ((position & 15) << 2);
+    }
+
+    private void checkPosition(int position) {
+        if (position < 0 || position >= numQuestions) {
+            throw new IndexOutOfBoundsException("Position " + position
+                    + " is not in a game of " + numQuestions + " questions.");
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: FenwickTree.java
+ *
+ * A Fenwick (binary indexed) tree of long weights, for weighted random selection.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+/**
+ * A Fenwick (binary indexed) tree of non-negative long weights. Changing a weight and finding
+ * the item that a running total falls on both take O(log n), which makes it possible to draw
+ * weighted random items while the weights keep changing.
+ *
+ * @author Alex Ball
+ */
+public class FenwickTree {
+    //tree[i] (1-based) holds the sum of weights (i - lowbit(i), i]
+    private final long[] tree;
+
+    //the weight of each item, so single weights can be read in O(1)
+    private final long[] weights;
+
+    //the highest power of two not above the size, for find()
+    private final int topBit;
+
+    /**
+     * Constructor that creates a tree of the given size with every weight 0.
+     *
+     * @param size The number of items.
+     */
+    public FenwickTree(int size) {
+        tree = new long[size + 1];
+        weights = new long[size];
+        topBit = size == 0 ? 0 : Integer.highestOneBit(size);
+    }
+
+    /**
+     * Constructor that creates a tree holding the given weights, in O(n).
+     *
+     * @param initialWeights The weight of each item. The array is copied.
+     */
+    public FenwickTree(long[] initialWeights) {
+        this(initialWeights.length);
+        System.arraycopy(initialWeights, 0, weights, 0, weights.length);
+        for (int i = 1; i < tree.length; i++) {
+            tree[i] += weights[i - 1];
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    /**
+     * Returns the number of items.
+     *
+     * @return The number of items.
+     */
+    public int size() {
+        return weights.length;
+    }
+
+    /**
+     * Returns the weight of the given item.
+     *
+     * @param index The item.
+     *
+     * @return Its weight.
+     */
+    public long get(int index) {
+        return weights[index];
+    }
+
+    /**
+     * Sets the weight of the given item.
+     *
+     * @param index The item.
+     * @param weight Its new weight; must not be negative.
+     */
+    public void set(int index, long weight) {
+        long delta = weight - weights[index];
+        weights[index] = weight;
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Returns the sum of all weights.
+     *
+     * @return The total weight.
+     */
+    public long total() {
+        return prefixSum(weights.length);
+    }
+
+    /**
+     * Returns the sum of the weights of items 0 (inclusive) to end (exclusive).
+     *
+     * @param end The end of the range.
+     *
+     * @return The sum of the weights in the range.
+     */
+    public long prefixSum(int end) {
+        long sum = 0;
+        for (int i = end; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the item that the given running total falls on: the smallest index whose
+     * prefixSum(index + 1) is greater than target. Drawing target uniformly from
+     * [0, total()) selects each item with probability proportional to its weight.
+     *
+     * @param target A running total, from 0 (inclusive) to total() (exclusive).
+     *
+     * @return The item the total falls on.
+     */
+    public int find(long target) {
+        int position = 0;
+        for (int step = topBit; step > 0; step >>= 1) {
+            int next = position + step;
+            if (next < tree.length && tree[next] <= target) {
+                position = next;
+                target -= tree[next];
+            }
+        }
+        return position;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: FloydQuestionSampler.java
+ *
+ * QuestionSampler that uses Floyd's algorithm to choose distinct questions in O(count) time,
+ * no matter how large the question list is or how close count gets to it.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * QuestionSampler that uses Floyd's algorithm to choose distinct questions in O(count) time,
+ * no matter how large the question list is or how close count gets to it. Chosen question
+ * numbers are tracked in a primitive open-addressing hash set that is reused between calls,
+ * so a sample only allocates when a game is larger than any previous one.
+ *
+ * This class is not thread safe; use one sampler per thread.
+ *
+ * @author Alex Ball
+ */
+public class FloydQuestionSampler implements QuestionSampler {
+    //marks an empty slot in the hash set (question numbers are never negative)
+    private static final int EMPTY = -1;
+
+    //random object used for randomly selecting questions.
+    private final Random rand;
+
+    //open-addressing hash set of the question numbers chosen so far; length is a power of two.
+    private int[] chosen = new int[0];
+
+    /**
+     * Constructor that creates a sampler with an unpredictable seed.
+     */
+    public FloydQuestionSampler() {
+        rand = new Random();
+    }
+
+    /**
+     * Constructor that creates a sampler with the given seed. Two samplers with the same seed
+     * choose the same questions in the same order.
+     *
+     * @param seed The seed for the random number generator.
+     */
+    public FloydQuestionSampler(long seed) {
+        rand = new Random(seed);
+    }
+
+    /**
+     * Reseeds the sampler, so that it chooses the same questions as a new sampler created with
+     * the given seed would. Lets one sampler reconstruct many seeded games.
+     *
+     * @param seed The seed for the random number generator.
+     */
+    public void setSeed(long seed) {
+        rand.setSeed(seed);
+    }
+
+    @Override
+    public void sample(int bankSize, int count, int[] out) {
+        if (count < 0 || count > bankSize || count > out.length) {
+            throw new IllegalArgumentException("Cannot choose " + count + " questions from "
+                    + bankSize + " into an array of length " + out.length + ".");
+        }
+
+        int mask = prepareChosen(count);
+
+        //Floyd's algorithm: for each j in [bankSize - count, bankSize), pick t in [0, j].
+        //if t was already chosen, j cannot have been (it was out of range until now), so
+        //choose j instead. Every count-subset comes out equally likely.
+        int n = 0;
+        for (int j = bankSize - count; j < bankSize; j++) {
+            int t = rand.nextInt(j + 1);
+            if (!addChosen(t, mask)) {
+                t = j;
+                addChosen(j, mask);
+            }
+            out[n++] = t;
+        }
+
+        //Floyd's algorithm picks a uniform subset but not a uniform order, so shuffle the
+        //chosen questions (Fisher-Yates) to randomize the order they are asked in.
+        for (int i = count - 1; i > 0; i--) {
+            int swap = rand.nextInt(i + 1);
+            int temp = out[i];
+            out[i] = out[swap];
+            out[swap] = temp;
+        }
+    }
+
+    /**
+     * Clears the hash set, growing it if needed to hold count question numbers at a load
+     * factor of at most one half. Returns the mask used to map hashes to slots.
+     */
+    private int prepareChosen(int count) {
+        int capacity = Integer.highestOneBit(Math.max(count, 1) * 2 - 1) << 1;
+        if (chosen.length < capacity) {
+            chosen = new int[capacity];
+        }
+
+        //only the slots we are about to use need clearing.
+        Arrays.fill(chosen, 0, capacity, EMPTY);
+        return capacity - 1;
+    }
+
+    /**
+     * Adds the question number to the hash set. Returns true if it was added, false if it
+     * was already there.
+     */
+    private boolean addChosen(int questionNumber, int mask) {
+        //multiplicative hashing spreads consecutive question numbers across the table.
+        int slot = (questionNumber * 0x9E3779B9) & mask;
+        while (chosen[slot] != EMPTY) {
+            if (chosen[slot] == questionNumber) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        chosen[slot] = questionNumber;
+        return true;
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: GamePool.java
+ *
+ * A warm pool of games whose questions have already been chosen, so starting the next game
+ * takes microseconds and allocates nothing.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A warm pool of games whose questions have already been chosen, so starting the next game
+ * ("play again") takes microseconds and allocates nothing. The pool is refilled in the
+ * background on the given executor; finished games handed back with recycle() are started
+ * again in place (see QuizEngine.reset and QuizTimer.reset) rather than reallocated, so a
+ * player going from game to game produces no garbage once the pool is warm.
+ *
+ * Every game in a pool has the same number of questions, chosen by a FloydQuestionSampler
+ * from the whole bank or from a subset of it. Games from the whole bank are seeded, so they
+ * can be recorded with ReplayRecorder.startSeeded. Games that choose questions from a changing
+ * source, such as an AdaptiveQuestionSampler or a ReviewScheduler, cannot be chosen ahead of
+ * time and do not belong in a pool.
+ *
+ * take() and recycle() may be called from any thread. Hits, misses and refill times are
+ * recorded in QuizMetrics.
+ *
+ * @author Alex Ball
+ */
+public class GamePool {
+    /**
+     * Number of games kept ready, unless another is given.
+     */
+    public static final int DEFAULT_CAPACITY = 2;
+
+    //seeds for the games' samplers; Random is thread safe.
+    private static final Random seeds = new Random();
+
+    private final QuestionBank bank;
+
+    //the question numbers games are chosen from, or null for the whole bank
+    private final QuestionIdSet questions;
+
+    private final int numQuestions;
+    private final int capacity;
+    private final Executor refiller;
+
+    //games ready to be taken, and finished games waiting to be started again
+    private final ArrayBlockingQueue<Game> ready;
+    private final ArrayBlockingQueue<Game> spare;
+
+    //true while a refill is queued or running, so there is never more than one.
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    //chooses the questions of refilled games; only used by the refill task, and the flag
+    //above keeps that to one thread at a time.
+    private final FloydQuestionSampler sampler = new FloydQuestionSampler(0);
+
+    private final Runnable refillTask = new Runnable() {
+        @Override
+        public void run() {
+            long startTime = System.nanoTime();
+            int made = 0;
+            try {
+                while (ready.size() < capacity) {
+                    Game game = make(spare.poll(), sampler);
+                    made++;
+                    if (!ready.offer(game)) {
+                        spare.offer(game);
+                        break;
+                    }
+                }
+            } finally {
+                refilling.set(false);
+            }
+            if (made > 0) {
+                QuizMetrics.GAME_POOL_REFILL.recordSince(startTime);
+            }
+
+            //a game taken after the loop ended, but before the flag was cleared, would
+            //otherwise not be replaced.
+            refill();
+        }
+    };
+
+    /**
+     * Constructor that creates an empty pool of games from the whole bank. Call refill() to
+     * start filling it.
+     *
+     * @param bank The bank to choose questions from.
+     * @param numQuestions The number of questions in each game (fewer if the bank is smaller).
+     * @param capacity The number of games to keep ready.
+     * @param refiller The executor the pool is refilled on, usually a background thread.
+     */
+    public GamePool(QuestionBank bank, int numQuestions, int capacity, Executor refiller) {
+        this(bank, null, numQuestions, capacity, refiller);
+    }
+
+    /**
+     * Constructor that creates an empty pool of games from a subset of the bank, such as the
+     * questions matching a TagIndex query. Call refill() to start filling it.
+     *
+     * @param bank The bank the questions come from.
+     * @param questions The question numbers (in bank) to choose from, or null for the whole
+     * bank.
+     * @param numQuestions The number of questions in each game (fewer if the subset is
+     * smaller).
+     * @param capacity The number of games to keep ready.
+     * @param refiller The executor the pool is refilled on, usually a background thread.
+     */
+    public GamePool(QuestionBank bank, QuestionIdSet questions, int numQuestions, int capacity,
+                    Executor refiller) {
+        if (numQuestions < 0 || capacity < 1) {
+            throw new IllegalArgumentException("Invalid game pool size.");
+        }
+        this.bank = bank;
+        this.questions = questions;
+        this.numQuestions = Math.min(numQuestions,
+                questions != null ? questions.cardinality() : bank.size());
+        this.capacity = capacity;
+        this.refiller = refiller;
+        ready = new ArrayBlockingQueue<>(capacity);
+        spare = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Returns a new game, ready to play: one from the pool if there is one waiting, or else
+     * one made now. Either way, the pool starts refilling in the background.
+     *
+     * @return The game.
+     */
+    public Game take() {
+        long startTime = System.nanoTime();
+        Game game = ready.poll();
+        if (game != null) {
+            QuizMetrics.GAME_POOL_HITS.incrementAndGet();
+        } else {
+            QuizMetrics.GAME_POOL_MISSES.incrementAndGet();
+            game = make(null, new FloydQuestionSampler(0));
+        }
+        refill();
+        QuizMetrics.GAME_POOL_TAKE.recordSince(startTime);
+        return game;
+    }
+
+    /**
+     * Hands back a game taken from this pool, to be started again in the background. The
+     * caller must not use the game, its engine or its timer afterwards.
+     *
+     * @param game The finished game.
+     *
+     * @return True if the game was kept for reuse, false if it was dropped (it came from
+     * another pool, or enough games are already waiting to be reused).
+     */
+    public boolean recycle(Game game) {
+        if (game.pool != this || !spare.offer(game)) {
+            return false;
+        }
+        refill();
+        return true;
+    }
+
+    /**
+     * Starts filling the pool in the background, if it is not full and is not being filled
+     * already.
+     */
+    public void refill() {
+        if (ready.size() < capacity && refilling.compareAndSet(false, true)) {
+            refiller.execute(refillTask);
+        }
+    }
+
+    /**
+     * Returns the number of games ready to be taken.
+     *
+     * @return The number of games ready.
+     */
+    public int size() {
+        return ready.size();
+    }
+
+    /**
+     * Returns the bank the pool's games are played from.
+     *
+     * @return The question bank.
+     */
+    public QuestionBank getBank() {
+        return bank;
+    }
+
+    //start a finished game again with new questions, or make a new game if there is none.
+    private Game make(Game game, FloydQuestionSampler gameSampler) {
+        long seed = seeds.nextLong();
+        gameSampler.setSeed(seed);
+        if (game == null) {
+            game = new Game(this, questions == null
+                    ? QuizEngine.newGame(bank, gameSampler, numQuestions)
+                    : QuizEngine.newGame(bank, questions, gameSampler, numQuestions));
+        } else {
+            if (questions == null) {
+                game.engine.reset(gameSampler);
+            } else {
+                game.engine.reset(questions, gameSampler);
+            }
+            if (game.timer != null) {
+                game.timer.reset();
+            }
+        }
+        game.seed = seed;
+        return game;
+    }
+
+    /**
+     * A game from a pool: its engine, the seed its questions were chosen with, and the timer
+     * it was last played with, which are all reused when the game is recycled.
+     */
+    public static final class Game {
+        private final GamePool pool;
+        private final QuizEngine engine;
+        private long seed;
+        private QuizTimer timer;
+
+        Game(GamePool pool, QuizEngine engine) {
+            this.pool = pool;
+            this.engine = engine;
+        }
+
+        /**
+         * Returns the game itself.
+         *
+         * @return The game's engine.
+         */
+        public QuizEngine getEngine() {
+            return engine;
+        }
+
+        /**
+         * Returns true if the game's questions were chosen from the whole bank by
+         * <code>new FloydQuestionSampler(getSeed())</code>, so it can be recorded with
+         * ReplayRecorder.startSeeded.
+         *
+         * @return True if the game is seeded.
+         */
+        public boolean isSeeded() {
+            return pool.questions == null;
+        }
+
+        /**
+         * Returns the seed the game's questions were chosen with.
+         *
+         * @return The seed.
+         */
+        public long getSeed() {
+            return seed;
+        }
+
+        /**
+         * Returns a stopped timer for the game with the given limits: the timer it was last
+         * played with, if the limits are the same, or else a new one that is kept with the
+         * game from now on.
+         *
+         * @param questionLimitNanos The time allowed for each question, in nanoseconds, or
+         * QuizTimer.NO_LIMIT.
+         * @param gameLimitNanos The time allowed for the whole game, in nanoseconds, or
+         * QuizTimer.NO_LIMIT.
+         *
+         * @return The game's timer.
+         */
+        public QuizTimer getTimer(long questionLimitNanos, long gameLimitNanos) {
+            if (timer == null || timer.getQuestionLimit() != questionLimitNanos
+                    || timer.getGameLimit() != gameLimitNanos) {
+                timer = new QuizTimer(engine, questionLimitNanos, gameLimitNanos);
+            }
+            return timer;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: GameReplayer.java
+ *
+ * Rebuilds games from the replay logs written by ReplayRecorder, by playing every logged
+ * answer and move through a new QuizEngine.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+/**
+ * Rebuilds games from the replay logs written by ReplayRecorder, by playing every logged
+ * answer and move through a new QuizEngine, so the engine's rules decide the score rather than
+ * the log. Comparing that score with the one the log claims (see verify()) catches logs that
+ * were edited, or games scored by a client that does not follow the rules.
+ *
+ * Replaying is decoded straight from the log's bytes, and seeded games choose their questions
+ * with one FloydQuestionSampler that is reseeded for each log; the only allocations are the
+ * game itself. Each log is checked as it is read, and one that could not have been recorded
+ * (truncated, a question out of range, an answer of the wrong kind, a move past either end of
+ * the game, or anything after the end) is rejected with an IllegalArgumentException.
+ *
+ * This class is not thread safe; use one replayer per thread.
+ *
+ * @author Alex Ball
+ */
+public class GameReplayer {
+    private final QuestionBank bank;
+
+    //chooses the questions of seeded games; reseeded for each one.
+    private final FloydQuestionSampler sampler = new FloydQuestionSampler(0);
+
+    //the log being read, and the position of the next byte in it.
+    private byte[] log;
+    private int pos;
+    private int end;
+
+    //the score claimed by the last log, or -1 if it did not end.
+    private int claimedScore = -1;
+
+    /**
+     * Constructor that creates a replayer for games played from the given bank.
+     *
+     * @param bank The bank the logged games were played from.
+     */
+    public GameReplayer(QuestionBank bank) {
+        this.bank = bank;
+    }
+
+    /**
+     * Replays a whole log.
+     *
+     * @param log The log, as written by ReplayRecorder.
+     *
+     * @throws IllegalArgumentException Throws IllegalArgumentException if the log is
+     * malformed, or was not recorded from a bank of this size.
+     *
+     * @return The game, in the state it was in when the log ended.
+     */
+    public QuizEngine replay(byte[] log) {
+        return replay(log, 0, log.length);
+    }
+
+    /**
+     * Replays the log in log[offset, offset + length).
+     *
+     * @param log The array holding the log.
+     * @param offset The position of the log in the array.
+     * @param length The length of the log in bytes.
+     *
+     * @throws IllegalArgumentException Throws IllegalArgumentException if the log is
+     * malformed, or was not recorded from a bank of this size.
+     *
+     * @return The game, in the state it was in when the log ended.
+     */
+    public QuizEngine replay(byte[] log, int offset, int length) {
+        this.log = log;
+        pos = offset;
+        end = offset + length;
+        claimedScore = -1;
+        try {
+            QuizEngine game = new QuizEngine(bank, readQuestions());
+            while (pos < end) {
+                int event = log[pos++];
+                switch (event) {
+                    case ReplayRecorder.EVENT_ANSWER_FALSE:
+                        answer(game, 0);
+                        break;
+                    case ReplayRecorder.EVENT_ANSWER_TRUE:
+                        answer(game, 1);
+                        break;
+                    case ReplayRecorder.EVENT_ANSWER:
+                        answer(game, readVarint());
+                        break;
+                    case ReplayRecorder.EVENT_NEXT:
+                        if (!game.nextQuestion()) {
+                            throw new IllegalArgumentException("Replay log moves past the "
+                                    + "last question.");
+                        }
+                        break;
+                    case ReplayRecorder.EVENT_PREVIOUS:
+                        if (!game.previousQuestion()) {
+                            throw new IllegalArgumentException("Replay log moves before the "
+                                    + "first question.");
+                        }
+                        break;
+                    case ReplayRecorder.EVENT_END:
+                        long score = readVarint();
+                        if (pos != end || score < 0 || score > game.getNumQuestions()) {
+                            throw new IllegalArgumentException("Corrupt end of replay log.");
+                        }
+                        claimedScore = (int) score;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown replay event " + event + ".");
+                }
+            }
+            return game;
+        } catch (IllegalStateException e) {
+            //an answer the engine would not have taken, e.g. after the game was over.
+            throw new IllegalArgumentException("Replay log answers out of turn.", e);
+        } finally {
+            this.log = null;
+        }
+    }
+
+    /**
+     * Replays the log in log[offset, offset + length) and returns true if it ended, and the
+     * score it claims is the score the replayed game earned.
+     *
+     * @param log The array holding the log.
+     * @param offset The position of the log in the array.
+     * @param length The length of the log in bytes.
+     *
+     * @throws IllegalArgumentException Throws IllegalArgumentException if the log is
+     * malformed, or was not recorded from a bank of this size.
+     *
+     * @return True if the claimed score is right, false if it is wrong or missing.
+     */
+    public boolean verify(byte[] log, int offset, int length) {
+        QuizEngine game = replay(log, offset, length);
+        return claimedScore >= 0 && claimedScore == game.getScore();
+    }
+
+    /**
+     * Returns the score claimed by the END event of the last log replayed, or -1 if it had
+     * none (the game was not finished when the log was saved).
+     *
+     * @return The claimed score, or -1.
+     */
+    public int getClaimedScore() {
+        return claimedScore;
+    }
+
+    //read the header and return the game's question numbers.
+    private int[] readQuestions() {
+        if (pos >= end || log[pos] != ReplayRecorder.FORMAT_VERSION) {
+            throw new IllegalArgumentException("Not a replay log, or an unsupported version.");
+        }
+        pos++;
+        if (readVarint() != bank.size()) {
+            throw new IllegalArgumentException("Replay log is for a different question bank.");
+        }
+        if (end - pos < 8) {
+            throw new IllegalArgumentException("Replay log is truncated.");
+        }
+        long seed = 0;
+        for (int i = 0; i < 8; i++) {
+            seed = (seed << 8) | (log[pos++] & 0xFF);
+        }
+        long flags = readVarint();
+        long numQuestions = readVarint();
+        if (numQuestions < 0 || numQuestions > bank.size()
+                || (flags & ~ReplayRecorder.FLAG_QUESTIONS_LISTED) != 0) {
+            throw new IllegalArgumentException("Corrupt replay log header.");
+        }
+
+        int[] questions = new int[(int) numQuestions];
+        if ((flags & ReplayRecorder.FLAG_QUESTIONS_LISTED) == 0) {
+            sampler.setSeed(seed);
+            sampler.sample(bank.size(), questions.length, questions);
+        } else {
+            for (int i = 0; i < questions.length; i++) {
+                long question = readVarint();
+                if (question < 0 || question >= bank.size()) {
+                    throw new IllegalArgumentException("Question " + question
+                            + " is not in the bank.");
+                }
+                questions[i] = (int) question;
+            }
+        }
+        return questions;
+    }
+
+    //answer the current question the way the player would have, for its type.
+    private static void answer(QuizEngine game, long answer) {
+        if (game.isGameOver()) {
+            throw new IllegalArgumentException("Replay log answers after the game is over.");
+        }
+        switch (game.getCurrentQuestionType()) {
+            case QuestionType.TRUE_FALSE:
+                if (answer != 0 && answer != 1) {
+                    throw new IllegalArgumentException("Not a true/false answer.");
+                }
+                game.answerQuestion(answer == 1);
+                break;
+            case QuestionType.SINGLE_CHOICE:
+                if ((answer >>> 31) != 0) {
+                    throw new IllegalArgumentException("Not a choice.");
+                }
+                game.answerChoice((int) answer);
+                break;
+            case QuestionType.MULTI_SELECT:
+                game.answerChoices(answer);
+                break;
+            case QuestionType.NUMERIC:
+                game.answerNumber(Double.longBitsToDouble(answer));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown question type.");
+        }
+    }
+
+    //read an unsigned varint (see ReplayRecorder).
+    private long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (pos >= end) {
+                throw new IllegalArgumentException("Replay log is truncated.");
+            }
+            int b = log[pos++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Corrupt varint in replay log.");
+    }
+}
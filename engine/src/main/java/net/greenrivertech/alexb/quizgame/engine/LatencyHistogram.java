@@ -0,0 +1,192 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: LatencyHistogram.java
+ *
+ * A lock-free histogram of latencies (or any non-negative long values) with log-linear buckets.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of latencies (or any non-negative long values) with log-linear
+ * buckets, in the style of HdrHistogram: each power of two is split into SUB_BUCKETS equal
+ * buckets, so any recorded value is known to within about 3%, from nanoseconds to hours, in a
+ * fixed 15 KB of counters. Recording is a few shifts and one atomic increment, never blocks
+ * and never allocates, so it is safe on hot paths and from any thread.
+ *
+ * Percentiles report the upper edge of the bucket the percentile falls in.
+ *
+ * @author Alex Ball
+ */
+public class LatencyHistogram {
+    //each power of two is split into 2^SUB_BUCKET_BITS buckets
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    //values below SUB_BUCKETS get a bucket each; each higher power of two gets SUB_BUCKETS
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Constructor that creates an empty histogram.
+     *
+     * @param name The name the histogram is reported under.
+     */
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the name the histogram is reported under.
+     *
+     * @return The histogram's name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records one value. Negative values are recorded as 0.
+     *
+     * @param value The value, e.g. a latency in nanoseconds.
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * Records the time since the given System.nanoTime() reading.
+     *
+     * @param startNanos The System.nanoTime() value when the timed operation started.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns the number of values recorded.
+     *
+     * @return The number of values recorded.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Returns the largest value recorded, or 0 if none have been.
+     *
+     * @return The largest value.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values, or 0 if none have been.
+     *
+     * @return The mean value.
+     */
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    /**
+     * Returns the value at the given percentile (0 to 100) of the recorded values, to within
+     * the bucket precision, or 0 if none have been recorded. Values recorded while this runs
+     * may or may not be included.
+     *
+     * @param percentile The percentile, e.g. 50 for the median or 99.
+     *
+     * @return The value at that percentile.
+     */
+    public long getPercentile(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperEdge(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Clears every recorded value. Not atomic with respect to concurrent recording.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    /**
+     * Appends this histogram's summary to out as one JSON object, e.g.
+     * <code>{"name":"engine.answer","count":12,"mean":410.5,"p50":383,...}</code>.
+     *
+     * @param out Where to append the summary.
+     */
+    public void appendJson(StringBuilder out) {
+        out.append("{\"name\":\"").append(name)
+                .append("\",\"count\":").append(getCount())
+                .append(",\"mean\":").append(getMean())
+                .append(",\"p50\":").append(getPercentile(50))
+                .append(",\"p90\":").append(getPercentile(90))
+                .append(",\"p99\":").append(getPercentile(99))
+                .append(",\"p999\":").append(getPercentile(99.9))
+                .append(",\"max\":").append(getMax())
+                .append('}');
+    }
+
+    //the bucket a value falls in.
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    //the largest value that falls in the given bucket.
+    static long upperEdge(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
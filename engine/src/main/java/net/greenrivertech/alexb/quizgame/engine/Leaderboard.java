@@ -0,0 +1,445 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: Leaderboard.java
+ *
+ * Ranks game results, answering "what rank is this result" and "what are the top results" in
+ * O(log n) while results keep being added from any number of threads.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ranks game results, answering "what rank is this result" and "what are the top results" in
+ * O(log n) while results keep being added from any number of threads.
+ *
+ * Results are ordered by score (highest first), then by the number of questions answered
+ * (fewest first, so a timed game that scored the same with fewer answers ranks higher). A
+ * result's rank is one more than the number of results strictly better than it, so equal
+ * results share a rank.
+ *
+ * Scores and questions answered are small, bounded numbers, so rather than keep every result
+ * in a tree, the leaderboard counts results per (score, answered) bucket, in best-first order,
+ * in a Fenwick tree of atomic counters: adding a result increments O(log b) counters and
+ * ranking sums O(log b) of them, for b = (maxQuestions + 1)^2 buckets, however many results
+ * there are. Only the best topCapacity results are kept as entries, in a concurrent skip
+ * list, for top-K reads. Memory is a few bytes per bucket plus the top entries, so ten
+ * million results take no more space than ten.
+ *
+ * Nothing is locked: every counter is atomic, so an add is never lost, but a rank or
+ * snapshot taken while other threads are adding may count some of their results and not
+ * others.
+ *
+ * @author Alex Ball
+ */
+public class Leaderboard {
+    /**
+     * Number of top results kept, unless another is given.
+     */
+    public static final int DEFAULT_TOP_CAPACITY = 100;
+
+    //first bytes of a snapshot ("QSLB") and its format version
+    private static final int MAGIC = 0x51534c42;
+    private static final int FORMAT_VERSION = 1;
+
+    //the most questions a ranked game can have
+    private final int maxQuestions;
+
+    //the number of top results kept as entries
+    private final int topCapacity;
+
+    //results per bucket, and a Fenwick tree over them (tree[i], 1-based, holds the sum of
+    //counts (i - lowbit(i), i]); buckets are in best-first order (see bucket())
+    private final AtomicLongArray counts;
+    private final AtomicLongArray tree;
+
+    //the number of results
+    private final AtomicLong size = new AtomicLong();
+
+    //the best results, best first, and how many there are (ConcurrentSkipListSet.size() is
+    //O(n))
+    private final ConcurrentSkipListSet<Entry> top = new ConcurrentSkipListSet<>();
+    private final AtomicInteger topSize = new AtomicInteger();
+
+    //breaks ties between otherwise equal entries, so the set keeps them all
+    private final AtomicLong nextId = new AtomicLong();
+
+    /**
+     * Constructor that creates an empty leaderboard that keeps the DEFAULT_TOP_CAPACITY best
+     * results.
+     *
+     * @param maxQuestions The most questions a ranked game can have.
+     */
+    public Leaderboard(int maxQuestions) {
+        this(maxQuestions, DEFAULT_TOP_CAPACITY);
+    }
+
+    /**
+     * Constructor that creates an empty leaderboard.
+     *
+     * @param maxQuestions The most questions a ranked game can have.
+     * @param topCapacity The number of best results kept for top().
+     */
+    public Leaderboard(int maxQuestions, int topCapacity) {
+        if (maxQuestions < 0 || maxQuestions > 4095 || topCapacity < 0) {
+            throw new IllegalArgumentException("Invalid leaderboard size.");
+        }
+        this.maxQuestions = maxQuestions;
+        this.topCapacity = topCapacity;
+        int buckets = (maxQuestions + 1) * (maxQuestions + 1);
+        counts = new AtomicLongArray(buckets);
+        tree = new AtomicLongArray(buckets + 1);
+    }
+
+    /**
+     * Adds a game's result, e.g. QuizModel.getScore() and getNumQuestionsAnswered().
+     *
+     * @param score The number of questions answered correctly.
+     * @param numQuestionsAnswered The number of questions answered.
+     * @param timeMillis When the game was played, in milliseconds since the epoch.
+     *
+     * @throws IllegalArgumentException Throws IllegalArgumentException if the score is more
+     * than the number answered, or that is more than maxQuestions.
+     *
+     * @return The result's rank, counting the result itself.
+     */
+    public long add(int score, int numQuestionsAnswered, long timeMillis) {
+        int bucket = bucket(score, numQuestionsAnswered);
+        counts.incrementAndGet(bucket);
+        for (int i = bucket + 1; i < tree.length(); i += i & -i) {
+            tree.incrementAndGet(i);
+        }
+        size.incrementAndGet();
+
+        //only results that would make the top are kept as entries.
+        if (topCapacity > 0) {
+            Entry entry = new Entry(score, numQuestionsAnswered, timeMillis,
+                    nextId.getAndIncrement());
+            Entry worst = topSize.get() >= topCapacity ? lastOrNull() : null;
+            if (worst == null || entry.compareTo(worst) < 0) {
+                top.add(entry);
+                if (topSize.incrementAndGet() > topCapacity && top.pollLast() != null) {
+                    topSize.decrementAndGet();
+                }
+            }
+        }
+        return rank(score, numQuestionsAnswered);
+    }
+
+    /**
+     * Returns the rank a result would have: one more than the number of results that are
+     * strictly better.
+     *
+     * @param score The number of questions answered correctly.
+     * @param numQuestionsAnswered The number of questions answered.
+     *
+     * @throws IllegalArgumentException Throws IllegalArgumentException if the score is more
+     * than the number answered, or that is more than maxQuestions.
+     *
+     * @return The rank, from 1.
+     */
+    public long rank(int score, int numQuestionsAnswered) {
+        //the results in the buckets before this one.
+        long better = 0;
+        for (int i = bucket(score, numQuestionsAnswered); i > 0; i -= i & -i) {
+            better += tree.get(i);
+        }
+        return better + 1;
+    }
+
+    /**
+     * Returns the number of results with the given score and number answered.
+     *
+     * @param score The number of questions answered correctly.
+     * @param numQuestionsAnswered The number of questions answered.
+     *
+     * @return The number of such results.
+     */
+    public long count(int score, int numQuestionsAnswered) {
+        return counts.get(bucket(score, numQuestionsAnswered));
+    }
+
+    /**
+     * Returns the number of results.
+     *
+     * @return The number of results.
+     */
+    public long size() {
+        return size.get();
+    }
+
+    /**
+     * Returns the most questions a ranked game can have.
+     *
+     * @return The most questions.
+     */
+    public int getMaxQuestions() {
+        return maxQuestions;
+    }
+
+    /**
+     * Returns the best results, best first; results that are equal are in the order they
+     * were added.
+     *
+     * @param k The most results to return; only the best topCapacity are kept.
+     *
+     * @return A new list of at most k results.
+     */
+    public List<Entry> top(int k) {
+        List<Entry> entries = new ArrayList<>(Math.min(k, topCapacity));
+        Iterator<Entry> iterator = top.iterator();
+        while (entries.size() < k && iterator.hasNext()) {
+            entries.add(iterator.next());
+        }
+        return entries;
+    }
+
+    /**
+     * Saves a compact snapshot of the leaderboard: the count in each bucket and the top
+     * entries, in a few bytes per bucket. The snapshot is written to a temporary file which
+     * then replaces the file, so a crash leaves either the old snapshot or the new one. Results
+     * can be added while this runs (see the class comment).
+     *
+     * @param file The file to write.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(File file) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + counts.length());
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(maxQuestions);
+        data.writeLong(nextId.get());
+
+        //most buckets are empty, or nearly, so each count is a varint.
+        for (int i = 0; i < counts.length(); i++) {
+            writeVarint(data, counts.get(i));
+        }
+        List<Entry> entries = top(topCapacity);
+        writeVarint(data, entries.size());
+        for (Entry entry : entries) {
+            writeVarint(data, entry.score);
+            writeVarint(data, entry.numQuestionsAnswered);
+            data.writeLong(entry.timeMillis);
+            writeVarint(data, entry.id);
+        }
+        data.flush();
+
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            FileOutputStream out = new FileOutputStream(temp);
+            try {
+                out.write(bytes.toByteArray());
+
+                //the rename must not land before the data does.
+                out.getFD().sync();
+            } finally {
+                out.close();
+            }
+
+            if (!temp.renameTo(file)) {
+                //renameTo does not replace an existing file on every platform.
+                if (!file.delete() || !temp.renameTo(file)) {
+                    throw new IOException("Cannot replace " + file + ".");
+                }
+            }
+        } finally {
+            temp.delete();
+        }
+    }
+
+    /**
+     * Loads a snapshot saved with write.
+     *
+     * @param file The file to read.
+     * @param topCapacity The number of best results to keep for top().
+     *
+     * @throws IOException If the file cannot be read or is not a valid snapshot.
+     *
+     * @return The leaderboard.
+     */
+    public static Leaderboard read(File file, int topCapacity) throws IOException {
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException(file + " is not a leaderboard.");
+            }
+            int maxQuestions = in.readInt();
+            if (maxQuestions < 0 || maxQuestions > 4095) {
+                throw new IOException("Corrupt leaderboard header in " + file + ".");
+            }
+            Leaderboard leaderboard = new Leaderboard(maxQuestions, topCapacity);
+            leaderboard.nextId.set(in.readLong());
+
+            //counts, then the tree built from them in O(b).
+            long total = 0;
+            int buckets = leaderboard.counts.length();
+            long[] tree = new long[buckets + 1];
+            for (int i = 0; i < buckets; i++) {
+                long count = readVarint(in, file);
+                leaderboard.counts.set(i, count);
+                total += count;
+                tree[i + 1] += count;
+                int parent = (i + 1) + ((i + 1) & -(i + 1));
+                if (parent <= buckets) {
+                    tree[parent] += tree[i + 1];
+                }
+            }
+            for (int i = 1; i <= buckets; i++) {
+                leaderboard.tree.set(i, tree[i]);
+            }
+            leaderboard.size.set(total);
+
+            long entries = readVarint(in, file);
+            for (long i = 0; i < entries; i++) {
+                long score = readVarint(in, file);
+                long answered = readVarint(in, file);
+                long timeMillis = in.readLong();
+                long id = readVarint(in, file);
+                if (score > answered || answered > maxQuestions) {
+                    throw new IOException("Corrupt leaderboard entry in " + file + ".");
+                }
+                if (i < topCapacity) {
+                    leaderboard.top.add(new Entry((int) score, (int) answered, timeMillis, id));
+                    leaderboard.topSize.incrementAndGet();
+                }
+            }
+            return leaderboard;
+        } catch (EOFException e) {
+            throw new EOFException("Leaderboard " + file + " is truncated.");
+        } finally {
+            in.close();
+        }
+    }
+
+    //the bucket of a result: better results come first, so the results better than a bucket
+    //are those in the buckets before it.
+    private int bucket(int score, int numQuestionsAnswered) {
+        if (score < 0 || score > numQuestionsAnswered || numQuestionsAnswered > maxQuestions) {
+            throw new IllegalArgumentException("Score " + score + " of "
+                    + numQuestionsAnswered + " cannot be ranked (at most " + maxQuestions
+                    + " questions).");
+        }
+        return (maxQuestions - score) * (maxQuestions + 1) + numQuestionsAnswered;
+    }
+
+    private Entry lastOrNull() {
+        try {
+            return top.last();
+        } catch (NoSuchElementException e) {
+            return null;
+        }
+    }
+
+    private static void writeVarint(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarint(InputStream in, File file) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 63; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Leaderboard " + file + " is truncated.");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt leaderboard number in " + file + ".");
+    }
+
+    /**
+     * One of the top results.
+     */
+    public static final class Entry implements Comparable<Entry> {
+        private final int score;
+        private final int numQuestionsAnswered;
+        private final long timeMillis;
+        private final long id;
+
+        Entry(int score, int numQuestionsAnswered, long timeMillis, long id) {
+            this.score = score;
+            this.numQuestionsAnswered = numQuestionsAnswered;
+            this.timeMillis = timeMillis;
+            this.id = id;
+        }
+
+        /**
+         * Returns the number of questions answered correctly.
+         *
+         * @return The score.
+         */
+        public int getScore() {
+            return score;
+        }
+
+        /**
+         * Returns the number of questions answered.
+         *
+         * @return The number answered.
+         */
+        public int getNumQuestionsAnswered() {
+            return numQuestionsAnswered;
+        }
+
+        /**
+         * Returns when the game was played, in milliseconds since the epoch.
+         *
+         * @return The time played.
+         */
+        public long getTimeMillis() {
+            return timeMillis;
+        }
+
+        //best first: highest score, then fewest answered, then the earliest added.
+        @Override
+        public int compareTo(Entry other) {
+            if (score != other.score) {
+                return score > other.score ? -1 : 1;
+            }
+            if (numQuestionsAnswered != other.numQuestionsAnswered) {
+                return numQuestionsAnswered < other.numQuestionsAnswered ? -1 : 1;
+            }
+            if (id != other.id) {
+                return id < other.id ? -1 : 1;
+            }
+            return 0;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Entry && compareTo((Entry) other) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (id ^ (id >>> 32));
+        }
+    }
+}
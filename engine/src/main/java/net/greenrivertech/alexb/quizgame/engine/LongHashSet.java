@@ -0,0 +1,110 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: LongHashSet.java
+ *
+ * A set of longs in a single open-addressing table.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+/**
+ * A set of longs in a single open-addressing table (linear probing, at most 3/4 full), so each
+ * member costs 8 to 16 bytes and no objects. Members cannot be removed.
+ *
+ * @author Alex Ball
+ */
+final class LongHashSet {
+    //0 marks an empty slot, so 0 itself is tracked separately
+    private long[] table;
+    private boolean containsZero;
+    private int size;
+
+    /**
+     * Constructor that creates an empty set sized for the given number of members.
+     */
+    LongHashSet(int expectedSize) {
+        int capacity = 16;
+        while (capacity * 3L / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        table = new long[capacity];
+    }
+
+    /**
+     * Returns the number of members.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if the value is a member.
+     */
+    boolean contains(long value) {
+        if (value == 0) {
+            return containsZero;
+        }
+        int mask = table.length - 1;
+        for (int slot = slot(value, mask); table[slot] != 0; slot = (slot + 1) & mask) {
+            if (table[slot] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the value, returning true if it was not already a member.
+     */
+    boolean add(long value) {
+        if (value == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+
+        int mask = table.length - 1;
+        int slot = slot(value, mask);
+        while (table[slot] != 0) {
+            if (table[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = value;
+        size++;
+
+        if (size > table.length * 3L / 4) {
+            grow();
+        }
+        return true;
+    }
+
+    private void grow() {
+        long[] old = table;
+        table = new long[old.length * 2];
+        int mask = table.length - 1;
+        for (long value : old) {
+            if (value != 0) {
+                int slot = slot(value, mask);
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = value;
+            }
+        }
+    }
+
+    //spread the bits of the value (MurmurHash3's finalizer) so nearby values do not cluster.
+    private static int slot(long value, int mask) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return (int) value & mask;
+    }
+}
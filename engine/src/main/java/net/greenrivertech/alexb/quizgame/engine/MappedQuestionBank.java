@@ -0,0 +1,197 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: MappedQuestionBank.java
+ *
+ * QuestionBank that reads a question pack file in place through a memory mapping.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * QuestionBank that reads a question pack file (see QuestionPack) in place through a memory
+ * mapping. Opening a pack checks its header and index table, so a damaged pack is rejected
+ * then rather than part way through a game; question text is decoded from UTF-8 only when it
+ * is asked for, and the operating system pages in just the parts of the file that are used.
+ *
+ * Packs only hold true/false questions, so the other question types never come up here.
+ *
+ * @author Alex Ball
+ */
+public class MappedQuestionBank implements QuestionBank {
+    //the whole pack file
+    private final MappedByteBuffer buffer;
+
+    //the pack version from the header
+    private final int packVersion;
+
+    //the number of questions in the pack
+    private final int size;
+
+    //file offsets of the answer bitmap and string heap
+    private final int answersOffset;
+    private final int heapOffset;
+
+    private MappedQuestionBank(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+
+        if (buffer.capacity() < QuestionPack.HEADER_SIZE
+                || buffer.getInt(0) != QuestionPack.MAGIC) {
+            throw new IOException("Not a question pack.");
+        }
+        if (buffer.getInt(4) != QuestionPack.FORMAT_VERSION) {
+            throw new IOException("Unsupported question pack format " + buffer.getInt(4) + ".");
+        }
+
+        packVersion = buffer.getInt(8);
+        size = buffer.getInt(12);
+        long answers = buffer.getLong(16);
+        long heap = buffer.getLong(24);
+
+        //make sure the header agrees with itself and with the file length, so that reads
+        //further in can trust it.
+        if (size < 0
+                || answers != QuestionPack.HEADER_SIZE + 4L * (size + 1)
+                || heap != answers + 8L * Bits.words(size)
+                || heap > buffer.capacity()) {
+            throw new IOException("Corrupt question pack header.");
+        }
+        answersOffset = (int) answers;
+        heapOffset = (int) heap;
+
+        if (heapOffset + (long) textOffset(size) > buffer.capacity()) {
+            throw new IOException("Question pack is truncated.");
+        }
+
+        //check every index entry as well, so a corrupt entry is found now rather than by a
+        //later getQuestionText, which could not recover from it.
+        int heapLength = buffer.capacity() - heapOffset;
+        int previous = 0;
+        if (textOffset(0) != 0) {
+            throw new IOException("Corrupt question pack index.");
+        }
+        for (int i = 1; i <= size; i++) {
+            int offset = textOffset(i);
+            if (offset < previous || offset > heapLength) {
+                throw new IOException("Corrupt question pack index at question " + (i - 1)
+                        + ".");
+            }
+            previous = offset;
+        }
+    }
+
+    /**
+     * Opens the question pack in the given file. The file must not be changed while the bank
+     * is in use; replace it with a new file instead.
+     *
+     * @param file The question pack file.
+     *
+     * @return A bank that reads the questions in the pack.
+     *
+     * @throws IOException If the file cannot be read or is not a valid question pack.
+     */
+    public static MappedQuestionBank open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Question pack is too large to map.");
+            }
+
+            //the mapping stays valid after the file is closed.
+            return new MappedQuestionBank(
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Returns the pack version from the pack's header.
+     *
+     * @return The pack version.
+     */
+    public int getPackVersion() {
+        return packVersion;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getQuestionText(int questionNumber) {
+        checkQuestionNumber(questionNumber);
+        int start = textOffset(questionNumber);
+        int length = textOffset(questionNumber + 1) - start;
+
+        //read with absolute gets so concurrent readers never share a buffer position.
+        byte[] bytes = new byte[length];
+        int position = heapOffset + start;
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(position + i);
+        }
+        return new String(bytes, QuestionPack.CHARSET);
+    }
+
+    @Override
+    public boolean getCorrectAnswer(int questionNumber) {
+        checkQuestionNumber(questionNumber);
+        long word = buffer.getLong(answersOffset + 8 * (questionNumber >>> 6));
+        return (word & (1L << questionNumber)) != 0;
+    }
+
+    @Override
+    public int getQuestionType(int questionNumber) {
+        checkQuestionNumber(questionNumber);
+        return QuestionType.TRUE_FALSE;
+    }
+
+    @Override
+    public long getAnswerKey(int questionNumber) {
+        return getCorrectAnswer(questionNumber) ? 1 : 0;
+    }
+
+    @Override
+    public double getRangeMin(int questionNumber) {
+        checkQuestionNumber(questionNumber);
+        return Double.NaN;
+    }
+
+    @Override
+    public double getRangeMax(int questionNumber) {
+        checkQuestionNumber(questionNumber);
+        return Double.NaN;
+    }
+
+    @Override
+    public int getChoiceCount(int questionNumber) {
+        checkQuestionNumber(questionNumber);
+        return 0;
+    }
+
+    @Override
+    public String getChoiceText(int questionNumber, int choice) {
+        checkQuestionNumber(questionNumber);
+        throw new IndexOutOfBoundsException("Question " + questionNumber
+                + " has no choice " + choice + ".");
+    }
+
+    //returns the heap offset of the given question's text, from the index table.
+    private int textOffset(int questionNumber) {
+        return buffer.getInt(QuestionPack.HEADER_SIZE + 4 * questionNumber);
+    }
+
+    private void checkQuestionNumber(int questionNumber) {
+        if (questionNumber < 0 || questionNumber >= size) {
+            throw new IndexOutOfBoundsException("Question number " + questionNumber
+                    + " is not in a pack of " + size + " questions.");
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: PatchedQuestionBank.java
+ *
+ * QuestionBank that reads a question pack with the patches applied since it was written.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * QuestionBank that reads a question pack (see MappedQuestionBank) with the patches applied
+ * since it was written (see QuestionPatch). The patches are kept, composed into one, in an
+ * overlay file next to the pack whose name ends in OVERLAY_SUFFIX; questions the overlay
+ * changes or adds are read from it, and every other question from the pack. Looking a
+ * question up in the overlay is a binary search over the changed questions only.
+ *
+ * Removed questions can still be read, so saved games that asked them can be restored, but
+ * should not be asked in new games; getLiveQuestions returns the ones that may be.
+ *
+ * @author Alex Ball
+ */
+public class PatchedQuestionBank implements QuestionBank {
+    /**
+     * Suffix added to a question pack's file name for its overlay of applied patches.
+     */
+    public static final String OVERLAY_SUFFIX = ".overlay";
+
+    private final MappedQuestionBank pack;
+    private final QuestionPatch overlay;
+
+    /**
+     * Constructor that applies an overlay to a pack.
+     *
+     * @param pack The question pack.
+     * @param overlay The patches applied since the pack was written, composed into one.
+     *
+     * @throws IllegalArgumentException If the overlay does not apply to the pack.
+     */
+    public PatchedQuestionBank(MappedQuestionBank pack, QuestionPatch overlay) {
+        if (!appliesTo(overlay, pack)) {
+            throw new IllegalArgumentException("Overlay applies to version "
+                    + overlay.getFromVersion() + ", not pack version " + pack.getPackVersion()
+                    + ".");
+        }
+        this.pack = pack;
+        this.overlay = overlay;
+    }
+
+    /**
+     * Opens a question pack and its overlay, if it has one. An overlay that was made for
+     * another version of the pack (one since replaced) is ignored.
+     *
+     * @param packFile The question pack file.
+     *
+     * @throws IOException If the pack or overlay cannot be read.
+     *
+     * @return The patched bank.
+     */
+    public static PatchedQuestionBank open(File packFile) throws IOException {
+        MappedQuestionBank pack = MappedQuestionBank.open(packFile);
+        QuestionPatch overlay = readOverlay(packFile, pack);
+        return new PatchedQuestionBank(pack, overlay);
+    }
+
+    //the pack's overlay, or an empty one if it has none that applies.
+    static QuestionPatch readOverlay(File packFile, MappedQuestionBank pack) throws IOException {
+        File overlayFile = overlayFile(packFile);
+        if (overlayFile.exists()) {
+            QuestionPatch overlay = QuestionPatch.read(overlayFile);
+            if (appliesTo(overlay, pack)) {
+                return overlay;
+            }
+        }
+        return QuestionPatch.empty(pack.getPackVersion(), pack.size());
+    }
+
+    /**
+     * Returns the overlay file of a question pack.
+     *
+     * @param packFile The question pack file.
+     *
+     * @return The overlay file, which may not exist.
+     */
+    public static File overlayFile(File packFile) {
+        return new File(packFile.getPath() + OVERLAY_SUFFIX);
+    }
+
+    private static boolean appliesTo(QuestionPatch overlay, MappedQuestionBank pack) {
+        return overlay.getFromVersion() == pack.getPackVersion()
+                && overlay.getFromSize() == pack.size();
+    }
+
+    /**
+     * Returns the version of the pack with its patches applied.
+     *
+     * @return The pack version.
+     */
+    public int getPackVersion() {
+        return overlay.getToVersion();
+    }
+
+    /**
+     * Returns the version of the pack file itself, before any patches.
+     *
+     * @return The pack file's version.
+     */
+    public int getBasePackVersion() {
+        return pack.getPackVersion();
+    }
+
+    /**
+     * Returns the patches applied to the pack, composed into one.
+     *
+     * @return The overlay.
+     */
+    public QuestionPatch getOverlay() {
+        return overlay;
+    }
+
+    /**
+     * Returns true if the given question has been removed.
+     *
+     * @param questionNumber The question number.
+     *
+     * @return True if the question is removed.
+     */
+    public boolean isRemoved(int questionNumber) {
+        return overlay.isRemoved(questionNumber);
+    }
+
+    /**
+     * Returns the questions that have not been removed, or null if none have been (every
+     * question may be asked).
+     *
+     * @return The questions that may be asked, or null.
+     */
+    public QuestionIdSet getLiveQuestions() {
+        if (overlay.getRemovedCount() == 0) {
+            return null;
+        }
+        int[] removed = overlay.getRemoved();
+        QuestionIdSet.Builder builder = new QuestionIdSet.Builder();
+        int next = 0;
+        for (int i = 0; i < size(); i++) {
+            if (next < removed.length && removed[next] == i) {
+                next++;
+            } else {
+                builder.add(i);
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public int size() {
+        return overlay.getToSize();
+    }
+
+    @Override
+    public String getQuestionText(int questionNumber) {
+        int i = find(questionNumber);
+        return i >= 0 ? overlay.getText(i) : pack.getQuestionText(questionNumber);
+    }
+
+    @Override
+    public boolean getCorrectAnswer(int questionNumber) {
+        int i = find(questionNumber);
+        return i >= 0 ? overlay.getAnswer(i) : pack.getCorrectAnswer(questionNumber);
+    }
+
+    @Override
+    public int getQuestionType(int questionNumber) {
+        checkQuestionNumber(questionNumber);
+        return QuestionType.TRUE_FALSE;
+    }
+
+    @Override
+    public long getAnswerKey(int questionNumber) {
+        return getCorrectAnswer(questionNumber) ? 1 : 0;
+    }
+
+    @Override
+    public double getRangeMin(int questionNumber) {
+        checkQuestionNumber(questionNumber);
+        return Double.NaN;
+    }
+
+    @Override
+    public double getRangeMax(int questionNumber) {
+        checkQuestionNumber(questionNumber);
+        return Double.NaN;
+    }
+
+    @Override
+    public int getChoiceCount(int questionNumber) {
+        checkQuestionNumber(questionNumber);
+        return 0;
+    }
+
+    @Override
+    public String getChoiceText(int questionNumber, int choice) {
+        checkQuestionNumber(questionNumber);
+        throw new IndexOutOfBoundsException("Question " + questionNumber
+                + " has no choice " + choice + ".");
+    }
+
+    //the question's position in the overlay, or a negative number if the pack has it.
+    private int find(int questionNumber) {
+        checkQuestionNumber(questionNumber);
+        return overlay.getChangedCount() == 0 ? -1 : overlay.indexOf(questionNumber);
+    }
+
+    private void checkQuestionNumber(int questionNumber) {
+        if (questionNumber < 0 || questionNumber >= size()) {
+            throw new IndexOutOfBoundsException("Question number " + questionNumber
+                    + " is not in a pack of " + size() + " questions.");
+        }
+    }
+}
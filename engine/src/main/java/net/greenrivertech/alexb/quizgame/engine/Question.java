@@ -0,0 +1,235 @@
+/*
+ * Author: Alex Ball
+ * Date: 04/19/2016
+ * Filename: Question.java
+ *
+ * This class represents a question for the Quiz Game. Question objects contain a question
+ * string (the actual question) and the correct answer for that question.
+ *
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+/**
+ * This class represents a question for the Quiz Game. Question objects contain a question
+ * string (the actual question) and the correct answer for that question. Questions that are
+ * not true/false also have a type (see QuestionType), and their answers are encoded in a long
+ * the way QuestionType describes.
+ *
+ * @author Alex Ball
+ */
+public class Question {
+    //the question text (question statement)
+    private String question;
+
+    //what kind of question is this? (one of the QuestionType constants)
+    private int type;
+
+    //what is the correct answer to this question? (encoded for its type)
+    private long answerKey;
+
+    //the range of correct answers, for numeric questions
+    private double rangeMin;
+    private double rangeMax;
+
+    //the choices, for single choice and multi-select questions
+    private String[] choices;
+
+    //has this question been answered yet?
+    private boolean isAnswered;
+
+    //if it was answered, what was the answer? (encoded for its type)
+    private long answer;
+
+    /**
+     * Constructor that builds a new true/false Question with the given question string and
+     * answer.
+     *
+     * @param question The question itself, as a string.
+     * @param correctAnswer The correct answer to this question.
+     */
+    public Question(String question, boolean correctAnswer) {
+        this(question, QuestionType.TRUE_FALSE, correctAnswer ? 1 : 0, Double.NaN, Double.NaN,
+                new String[0]);
+    }
+
+    /**
+     * Constructor that builds a new Question of any type.
+     *
+     * @param question The question itself, as a string.
+     * @param type The question's type; one of the QuestionType constants.
+     * @param answerKey The correct answer, encoded for the question's type.
+     * @param rangeMin The smallest correct answer, for numeric questions.
+     * @param rangeMax The largest correct answer, for numeric questions.
+     * @param choices The choices, for single choice and multi-select questions (otherwise
+     * empty). The array is copied.
+     */
+    public Question(String question, int type, long answerKey, double rangeMin,
+                    double rangeMax, String[] choices) {
+        this.question = question;
+        this.type = type;
+        this.answerKey = answerKey;
+        this.rangeMin = rangeMin;
+        this.rangeMax = rangeMax;
+        this.choices = choices.clone();
+        this.isAnswered = false;
+        this.answer = 0;
+    }
+
+    /**
+     * Returns the question string.
+     *
+     * @return The question string.
+     */
+    public String getQuestion() {
+        return question;
+    }
+
+    /**
+     * Returns the question's type; one of the QuestionType constants.
+     *
+     * @return The question's type.
+     */
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * Returns the correct answer for this question, if it is a true/false question (false
+     * otherwise).
+     *
+     * @return The correct answer for this question.
+     */
+    public boolean getCorrectAnswer() {
+        return type == QuestionType.TRUE_FALSE && answerKey == 1;
+    }
+
+    /**
+     * Returns the correct answer for this question, encoded for its type (0 for numeric
+     * questions; see getRangeMin and getRangeMax).
+     *
+     * @return The encoded correct answer.
+     */
+    public long getAnswerKey() {
+        return answerKey;
+    }
+
+    /**
+     * Returns the smallest correct answer, if this is a numeric question (NaN otherwise).
+     *
+     * @return The bottom of the range of correct answers.
+     */
+    public double getRangeMin() {
+        return rangeMin;
+    }
+
+    /**
+     * Returns the largest correct answer, if this is a numeric question (NaN otherwise).
+     *
+     * @return The top of the range of correct answers.
+     */
+    public double getRangeMax() {
+        return rangeMax;
+    }
+
+    /**
+     * Returns the number of choices this question has (0 for true/false and numeric
+     * questions).
+     *
+     * @return The number of choices.
+     */
+    public int getChoiceCount() {
+        return choices.length;
+    }
+
+    /**
+     * Returns the text of one of this question's choices.
+     *
+     * @param choice The choice's index, from 0 to getChoiceCount() - 1.
+     *
+     * @return The choice's text.
+     */
+    public String getChoice(int choice) {
+        return choices[choice];
+    }
+
+    /**
+     * Returns true if this question has been answered, false otherwise.
+     *
+     * @return True if this question has been answered, false otherwise.
+     */
+    public boolean isAnswered() {
+        return isAnswered;
+    }
+
+    /**
+     * Answers this true/false question with the given answer. If it is the correct answer,
+     * return true. Otherwise, return false.
+     *
+     * @param answer The answer to this question; correct if it matches the correctAnswer.
+     *
+     * @return True if the answer matches the correctAnswer, false otherwise.
+     */
+    public boolean answerQuestion(boolean answer) {
+        return answer(answer ? 1 : 0);
+    }
+
+    /**
+     * Answers this question with an answer encoded for its type (see QuestionType). If it is
+     * a correct answer, return true. Otherwise, return false.
+     *
+     * @param answer The encoded answer to this question.
+     *
+     * @return True if the answer is correct, false otherwise.
+     */
+    public boolean answer(long answer) {
+        this.answer = answer;
+        isAnswered = true;
+        return getIsCorrectlyAnswered();
+    }
+
+    /**
+     * Returns the answer that was given to this true/false question. Throws an
+     * IllegalStateException if called before answering this question.
+     *
+     * @return The answer that was given to this question.
+     *
+     * @throws IllegalStateException If called before answering this question.
+     */
+    public boolean getAnswer() {
+        return getGivenAnswer() == 1;
+    }
+
+    /**
+     * Returns the answer that was given to this question, encoded for its type. Throws an
+     * IllegalStateException if called before answering this question.
+     *
+     * @return The encoded answer that was given to this question.
+     *
+     * @throws IllegalStateException If called before answering this question.
+     */
+    public long getGivenAnswer() {
+        if (!isAnswered) {
+            throw new IllegalStateException("Cannot get answer from unanswered question!");
+        }
+
+        return answer;
+    }
+
+    /**
+     * Returns true if the answer given to this question is correct.
+     *
+     * @return True if the answer given to this question is correct.
+     */
+    public boolean getIsCorrectlyAnswered() {
+        return QuestionType.isCorrect(type, answerKey, rangeMin, rangeMax, answer);
+    }
+
+    /**
+     * Returns a copy of this question.
+     *
+     * @return A copy of this question.
+     */
+    public Question copyQuestion() {
+        return new Question(question, type, answerKey, rangeMin, rangeMax, choices);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: QuestionBank.java
+ *
+ * A read-only collection of true/false questions that games choose their questions from.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+/**
+ * A read-only collection of questions that games choose their questions from. Questions are
+ * identified by their question number, from 0 (inclusive) to size() (exclusive). Each question
+ * has a type (see QuestionType) and an answer key encoded the way answers to that type are.
+ *
+ * @author Alex Ball
+ */
+public interface QuestionBank {
+
+    /**
+     * Returns the number of questions in this bank.
+     *
+     * @return The number of questions in this bank.
+     */
+    int size();
+
+    /**
+     * Returns the question string for the given question number.
+     *
+     * @param questionNumber The question number.
+     *
+     * @return The question string.
+     */
+    String getQuestionText(int questionNumber);
+
+    /**
+     * Returns the correct answer for the given true/false question (false for questions of
+     * other types).
+     *
+     * @param questionNumber The question number.
+     *
+     * @return The correct answer for the question.
+     */
+    boolean getCorrectAnswer(int questionNumber);
+
+    /**
+     * Returns the type of the given question: one of the QuestionType constants.
+     *
+     * @param questionNumber The question number.
+     *
+     * @return The question's type.
+     */
+    int getQuestionType(int questionNumber);
+
+    /**
+     * Returns the correct answer to the given question, encoded as described in QuestionType:
+     * 1 or 0 for true/false, the correct choice's index, or the mask of correct choices. 0 for
+     * numeric questions, whose answers are ranges; see getRangeMin and getRangeMax.
+     *
+     * @param questionNumber The question number.
+     *
+     * @return The question's encoded answer key.
+     */
+    long getAnswerKey(int questionNumber);
+
+    /**
+     * Returns the smallest correct answer to the given numeric question (NaN for other types).
+     *
+     * @param questionNumber The question number.
+     *
+     * @return The bottom of the question's range.
+     */
+    double getRangeMin(int questionNumber);
+
+    /**
+     * Returns the largest correct answer to the given numeric question (NaN for other types).
+     *
+     * @param questionNumber The question number.
+     *
+     * @return The top of the question's range.
+     */
+    double getRangeMax(int questionNumber);
+
+    /**
+     * Returns the number of choices the given question has (0 for true/false and numeric
+     * questions).
+     *
+     * @param questionNumber The question number.
+     *
+     * @return The number of choices.
+     */
+    int getChoiceCount(int questionNumber);
+
+    /**
+     * Returns the text of one of the given question's choices.
+     *
+     * @param questionNumber The question number.
+     * @param choice The choice's index, from 0 to getChoiceCount() - 1.
+     *
+     * @throws IndexOutOfBoundsException If the question has no such choice.
+     *
+     * @return The choice's text.
+     */
+    String getChoiceText(int questionNumber, int choice);
+}
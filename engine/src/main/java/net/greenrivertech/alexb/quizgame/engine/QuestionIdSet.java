@@ -0,0 +1,555 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: QuestionIdSet.java
+ *
+ * An immutable, compressed set of question numbers.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * An immutable, compressed set of question numbers, laid out like a Roaring bitmap: the
+ * numbers are grouped by their high 16 bits, and each group of up to 65536 is stored either as
+ * a sorted array of the low 16 bits (2 bytes per number, for groups of up to 4096 numbers) or
+ * as a 65536-bit bitmap (8 KB, for denser groups). Intersections and unions work a group at a
+ * time without decompressing, and select(rank) finds the rank-th smallest number in
+ * O(log groups) plus a short scan within the group, which is what filtered sampling needs.
+ *
+ * Query results are short-lived, so intersecting two bitmaps keeps the result as a bitmap
+ * unless it is very sparse (SPARSE_MAX numbers or fewer); turning a bitmap back into an array
+ * costs far more than the and itself.
+ *
+ * Sets are built in increasing order with a Builder, or from and() and or().
+ *
+ * @author Alex Ball
+ */
+public final class QuestionIdSet {
+    /**
+     * The empty set.
+     */
+    public static final QuestionIdSet EMPTY = new QuestionIdSet(new char[0], new Container[0]);
+
+    //groups with more numbers than this are stored as bitmaps
+    static final int ARRAY_MAX = 4096;
+
+    //bitmaps made by and() or or() with this many numbers or fewer are turned into arrays
+    static final int SPARSE_MAX = ARRAY_MAX / 16;
+
+    //container types in the binary form
+    private static final int ARRAY = 0;
+    private static final int BITMAP = 1;
+
+    //the high 16 bits of each group, in increasing order, and the group's low 16 bits
+    private final char[] keys;
+    private final Container[] containers;
+
+    //the number of members in groups before each group, for select(); one extra at the end
+    private final int[] ranks;
+
+    private QuestionIdSet(char[] keys, Container[] containers) {
+        this.keys = keys;
+        this.containers = containers;
+        ranks = new int[containers.length + 1];
+        for (int i = 0; i < containers.length; i++) {
+            ranks[i + 1] = ranks[i] + containers[i].cardinality;
+        }
+    }
+
+    /**
+     * Returns the number of question numbers in the set.
+     *
+     * @return The set's size.
+     */
+    public int cardinality() {
+        return ranks[containers.length];
+    }
+
+    /**
+     * Returns true if the question number is in the set.
+     *
+     * @param questionNumber The question number.
+     *
+     * @return True if it is in the set.
+     */
+    public boolean contains(int questionNumber) {
+        int group = Arrays.binarySearch(keys, (char) (questionNumber >>> 16));
+        return questionNumber >= 0 && group >= 0
+                && containers[group].contains((char) questionNumber);
+    }
+
+    /**
+     * Returns the question number with the given rank: select(0) is the smallest number in the
+     * set, select(cardinality() - 1) the largest.
+     *
+     * @param rank The rank, from 0 to cardinality() - 1.
+     *
+     * @throws IndexOutOfBoundsException If rank is out of range.
+     *
+     * @return The question number with that rank.
+     */
+    public int select(int rank) {
+        if (rank < 0 || rank >= cardinality()) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " of " + cardinality());
+        }
+
+        //find the last group that starts at or before rank.
+        int low = 0;
+        int high = containers.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (ranks[mid] <= rank) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return keys[low] << 16 | containers[low].select(rank - ranks[low]);
+    }
+
+    /**
+     * Returns the question numbers that are in both this set and the other.
+     *
+     * @param other The other set.
+     *
+     * @return The intersection.
+     */
+    public QuestionIdSet and(QuestionIdSet other) {
+        char[] newKeys = new char[Math.min(keys.length, other.keys.length)];
+        Container[] newContainers = new Container[newKeys.length];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container both = containers[i].and(other.containers[j]);
+                if (both.cardinality > 0) {
+                    newKeys[n] = keys[i];
+                    newContainers[n++] = both;
+                }
+                i++;
+                j++;
+            }
+        }
+        return new QuestionIdSet(Arrays.copyOf(newKeys, n), Arrays.copyOf(newContainers, n));
+    }
+
+    /**
+     * Returns the question numbers that are in this set, the other, or both.
+     *
+     * @param other The other set.
+     *
+     * @return The union.
+     */
+    public QuestionIdSet or(QuestionIdSet other) {
+        char[] newKeys = new char[keys.length + other.keys.length];
+        Container[] newContainers = new Container[newKeys.length];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length || j < other.keys.length) {
+            if (j >= other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+                newKeys[n] = keys[i];
+                newContainers[n++] = containers[i++];
+            } else if (i >= keys.length || keys[i] > other.keys[j]) {
+                newKeys[n] = other.keys[j];
+                newContainers[n++] = other.containers[j++];
+            } else {
+                newKeys[n] = keys[i];
+                newContainers[n++] = containers[i++].or(other.containers[j++]);
+            }
+        }
+        return new QuestionIdSet(Arrays.copyOf(newKeys, n), Arrays.copyOf(newContainers, n));
+    }
+
+    /**
+     * Returns every question number in the set, in increasing order.
+     *
+     * @return The set's members.
+     */
+    public int[] toArray() {
+        int[] out = new int[cardinality()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = select(i);
+        }
+        return out;
+    }
+
+    /**
+     * Writes the set in a compact binary form that read() understands.
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(containers.length);
+        for (int i = 0; i < containers.length; i++) {
+            out.writeChar(keys[i]);
+            containers[i].write(out);
+        }
+    }
+
+    /**
+     * Reads a set written by write().
+     */
+    static QuestionIdSet read(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > 65536) {
+            throw new IOException("Corrupt question id set.");
+        }
+        char[] keys = new char[count];
+        Container[] containers = new Container[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = in.readChar();
+            if (i > 0 && keys[i] <= keys[i - 1]) {
+                throw new IOException("Corrupt question id set.");
+            }
+            containers[i] = Container.read(in);
+        }
+        return new QuestionIdSet(keys, containers);
+    }
+
+    /**
+     * Builds a QuestionIdSet from question numbers added in increasing order.
+     */
+    public static class Builder {
+        private char[] keys = new char[4];
+        private Container[] containers = new Container[4];
+        private int size;
+
+        //the group being filled: its key, and its values while it is small enough for an array
+        private int currentKey = -1;
+        private char[] values = new char[16];
+        private long[] words;
+        private int count;
+        private int last = -1;
+
+        /**
+         * Adds a question number. Numbers must be added in increasing order; adding the last
+         * number again does nothing.
+         *
+         * @param questionNumber The question number, at least 0.
+         *
+         * @throws IllegalArgumentException If the number is negative or smaller than the last
+         * one added.
+         *
+         * @return This builder.
+         */
+        public Builder add(int questionNumber) {
+            if (questionNumber < 0 || questionNumber < last) {
+                throw new IllegalArgumentException("Question numbers must be added in "
+                        + "increasing order: " + questionNumber + " after " + last + ".");
+            }
+            if (questionNumber == last) {
+                return this;
+            }
+            last = questionNumber;
+
+            int key = questionNumber >>> 16;
+            if (key != currentKey) {
+                closeGroup();
+                currentKey = key;
+            }
+
+            char low = (char) questionNumber;
+            if (words != null) {
+                words[low >>> 6] |= 1L << low;
+            } else if (count < ARRAY_MAX) {
+                if (count == values.length) {
+                    values = Arrays.copyOf(values, count * 2);
+                }
+                values[count] = low;
+            } else {
+                words = new long[1024];
+                for (int i = 0; i < count; i++) {
+                    words[values[i] >>> 6] |= 1L << values[i];
+                }
+                words[low >>> 6] |= 1L << low;
+            }
+            count++;
+            return this;
+        }
+
+        /**
+         * Returns the set of every question number added so far.
+         *
+         * @return The set.
+         */
+        public QuestionIdSet build() {
+            if (count == 0) {
+                return new QuestionIdSet(Arrays.copyOf(keys, size),
+                        Arrays.copyOf(containers, size));
+            }
+
+            //include the group being filled, without closing it, so more can be added.
+            char[] builtKeys = Arrays.copyOf(keys, size + 1);
+            Container[] builtContainers = Arrays.copyOf(containers, size + 1);
+            builtKeys[size] = (char) currentKey;
+            builtContainers[size] = currentGroup();
+            return new QuestionIdSet(builtKeys, builtContainers);
+        }
+
+        //store the group being filled, if there is one.
+        private void closeGroup() {
+            if (count == 0) {
+                return;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                containers = Arrays.copyOf(containers, size * 2);
+            }
+            keys[size] = (char) currentKey;
+            containers[size++] = currentGroup();
+            words = null;
+            count = 0;
+        }
+
+        private Container currentGroup() {
+            return words != null ? new BitmapContainer(words.clone(), count)
+                    : new ArrayContainer(Arrays.copyOf(values, count));
+        }
+    }
+
+    //the low 16 bits of the members of one group.
+    private abstract static class Container {
+        final int cardinality;
+
+        Container(int cardinality) {
+            this.cardinality = cardinality;
+        }
+
+        abstract boolean contains(char value);
+
+        abstract char select(int rank);
+
+        abstract Container and(Container other);
+
+        abstract Container or(Container other);
+
+        abstract void write(DataOutput out) throws IOException;
+
+        static Container read(DataInput in) throws IOException {
+            int type = in.readByte();
+            int cardinality = in.readInt();
+            if (cardinality <= 0 || cardinality > 65536) {
+                throw new IOException("Corrupt question id set.");
+            }
+            if (type == ARRAY) {
+                char[] values = new char[cardinality];
+                for (int i = 0; i < cardinality; i++) {
+                    values[i] = in.readChar();
+                }
+                return new ArrayContainer(values);
+            } else if (type != BITMAP) {
+                throw new IOException("Corrupt question id set.");
+            }
+            long[] words = new long[1024];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = in.readLong();
+            }
+            return new BitmapContainer(words, cardinality);
+        }
+
+        //a bitmap container for the given bitmap, or an array one if it is very sparse.
+        static Container fromWords(long[] words) {
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            if (cardinality > SPARSE_MAX) {
+                return new BitmapContainer(words, cardinality);
+            }
+            char[] values = new char[cardinality];
+            int n = 0;
+            for (int i = 0; i < words.length; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    values[n++] = (char) (i << 6 | Long.numberOfTrailingZeros(word));
+                }
+            }
+            return new ArrayContainer(values);
+        }
+    }
+
+    //up to ARRAY_MAX members as a sorted array.
+    private static final class ArrayContainer extends Container {
+        final char[] values;
+
+        ArrayContainer(char[] values) {
+            super(values.length);
+            this.values = values;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, value) >= 0;
+        }
+
+        @Override
+        char select(int rank) {
+            return values[rank];
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] both = new char[cardinality];
+            int n = 0;
+            if (other instanceof ArrayContainer) {
+                char[] otherValues = ((ArrayContainer) other).values;
+                int i = 0;
+                int j = 0;
+                while (i < values.length && j < otherValues.length) {
+                    if (values[i] < otherValues[j]) {
+                        i++;
+                    } else if (values[i] > otherValues[j]) {
+                        j++;
+                    } else {
+                        both[n++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (char value : values) {
+                    if (other.contains(value)) {
+                        both[n++] = value;
+                    }
+                }
+            }
+            return new ArrayContainer(Arrays.copyOf(both, n));
+        }
+
+        @Override
+        Container or(Container other) {
+            if (!(other instanceof ArrayContainer)) {
+                return other.or(this);
+            }
+            char[] otherValues = ((ArrayContainer) other).values;
+            if (values.length + otherValues.length > ARRAY_MAX) {
+                long[] words = new long[1024];
+                for (char value : values) {
+                    words[value >>> 6] |= 1L << value;
+                }
+                for (char value : otherValues) {
+                    words[value >>> 6] |= 1L << value;
+                }
+                return fromWords(words);
+            }
+
+            char[] either = new char[values.length + otherValues.length];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < values.length || j < otherValues.length) {
+                if (j >= otherValues.length
+                        || (i < values.length && values[i] < otherValues[j])) {
+                    either[n++] = values[i++];
+                } else if (i >= values.length || values[i] > otherValues[j]) {
+                    either[n++] = otherValues[j++];
+                } else {
+                    either[n++] = values[i++];
+                    j++;
+                }
+            }
+            return new ArrayContainer(Arrays.copyOf(either, n));
+        }
+
+        @Override
+        void write(DataOutput out) throws IOException {
+            out.writeByte(ARRAY);
+            out.writeInt(cardinality);
+            for (char value : values) {
+                out.writeChar(value);
+            }
+        }
+    }
+
+    //members as a 65536-bit bitmap; used for more than ARRAY_MAX members (or more than
+    //SPARSE_MAX, for query results).
+    private static final class BitmapContainer extends Container {
+        final long[] words;
+
+        //the number of members before each block of 64 words, so select() scans one block
+        final char[] blockRanks = new char[16];
+
+        BitmapContainer(long[] words, int cardinality) {
+            super(cardinality);
+            this.words = words;
+            int rank = 0;
+            for (int block = 0; block < 16; block++) {
+                blockRanks[block] = (char) rank;
+                for (int i = block << 6; i < (block + 1) << 6; i++) {
+                    rank += Long.bitCount(words[i]);
+                }
+            }
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        char select(int rank) {
+            int block = 15;
+            while (blockRanks[block] > rank) {
+                block--;
+            }
+            rank -= blockRanks[block];
+            for (int i = block << 6; i < words.length; i++) {
+                int bits = Long.bitCount(words[i]);
+                if (rank < bits) {
+                    long word = words[i];
+                    for (int k = 0; k < rank; k++) {
+                        word &= word - 1;
+                    }
+                    return (char) (i << 6 | Long.numberOfTrailingZeros(word));
+                }
+                rank -= bits;
+            }
+            throw new IndexOutOfBoundsException();
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            long[] both = new long[1024];
+            for (int i = 0; i < both.length; i++) {
+                both[i] = words[i] & otherWords[i];
+            }
+            return fromWords(both);
+        }
+
+        @Override
+        Container or(Container other) {
+            long[] either = words.clone();
+            if (other instanceof ArrayContainer) {
+                for (char value : ((ArrayContainer) other).values) {
+                    either[value >>> 6] |= 1L << value;
+                }
+            } else {
+                long[] otherWords = ((BitmapContainer) other).words;
+                for (int i = 0; i < either.length; i++) {
+                    either[i] |= otherWords[i];
+                }
+            }
+            return fromWords(either);
+        }
+
+        @Override
+        void write(DataOutput out) throws IOException {
+            out.writeByte(BITMAP);
+            out.writeInt(cardinality);
+            for (long word : words) {
+                out.writeLong(word);
+            }
+        }
+    }
+}
@@ -0,0 +1,545 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: QuestionImporter.java
+ *
+ * Streams questions from CSV or JSON lines sources into a question pack, skipping duplicates
+ * and invalid entries.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams questions from CSV or JSON lines sources into a question pack (see
+ * QuestionPackWriter). Sources are read one line at a time and each question is written as
+ * soon as it is parsed, so memory does not grow with the size of the source beyond the
+ * writer's 4 bytes per question and 8 to 16 bytes per question for the duplicate index.
+ *
+ * Two questions are duplicates if their text is the same after normalizing it (ignoring case,
+ * leading and trailing whitespace, and runs of whitespace); only the first is kept. The index
+ * holds a 64-bit hash of each normalized question rather than the text, so with millions of
+ * questions there is a vanishingly small (about n^2 / 2^65) chance of a question being
+ * wrongly dropped as a duplicate.
+ *
+ * Invalid entries (malformed lines, answers other than true or false, empty or overlong
+ * questions, or questions containing control characters) are skipped and counted, and the
+ * first MAX_REPORTED_ERRORS of them are described in getErrors().
+ *
+ * CSV lines have the format read by QuestionPackWriter.convertCsv. JSON lines hold one object
+ * per line with a "question" string, an "answer" (true, false, "true" or "false") and
+ * optionally "tags", an array of tag strings:
+ * <code>{"question": "Is water wet?", "answer": true, "tags": ["science", "easy"]}</code>.
+ * Other members are ignored. If any question has tags, a TagIndex for the pack is written
+ * next to it.
+ *
+ * @author Alex Ball
+ */
+public class QuestionImporter implements Closeable {
+    /**
+     * The formats questions can be imported from.
+     */
+    public enum Format {
+        /**
+         * One question per line: the question, a comma, and true or false.
+         */
+        CSV,
+
+        /**
+         * One JSON object per line, with "question" and "answer" members.
+         */
+        JSON_LINES;
+
+        /**
+         * Returns the format for a file, based on its name: JSON_LINES for .jsonl and .json
+         * files, otherwise CSV.
+         *
+         * @param fileName The file's name.
+         *
+         * @return The file's format.
+         */
+        public static Format forFileName(String fileName) {
+            String lower = fileName.toLowerCase(Locale.US);
+            return lower.endsWith(".jsonl") || lower.endsWith(".json") ? JSON_LINES : CSV;
+        }
+    }
+
+    /**
+     * The longest question (in chars) that will be imported.
+     */
+    public static final int MAX_QUESTION_LENGTH = 1000;
+
+    /**
+     * The number of invalid entries that are described in getErrors(); the rest are only
+     * counted.
+     */
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    //FNV-1a 64-bit constants, for hashing normalized text
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final QuestionPackWriter writer;
+
+    //where the pack's tag index goes, and the tags of the questions imported so far
+    private final File tagFile;
+    private final TagIndex.Builder tags;
+
+    //hashes of the normalized text of every question imported so far
+    private final LongHashSet seen = new LongHashSet(1024);
+
+    private long linesRead;
+    private long duplicates;
+    private long invalid;
+    private final List<String> errors = new ArrayList<String>();
+
+    //the result of the last successful parse; reused so parsing allocates only the question
+    private String parsedQuestion;
+    private boolean parsedAnswer;
+    private final List<String> parsedTags = new ArrayList<String>();
+
+    //reused while decoding JSON strings
+    private final StringBuilder jsonString = new StringBuilder();
+
+    /**
+     * Constructor that starts a new pack that will be written to the given file.
+     *
+     * @param destination The file to write the pack to. It is replaced when finish() is called.
+     * @param packVersion The pack version to record in the header.
+     *
+     * @throws IOException If the pack cannot be started.
+     */
+    public QuestionImporter(File destination, int packVersion) throws IOException {
+        writer = new QuestionPackWriter(destination, packVersion);
+        tagFile = new File(destination.getPath() + TagIndex.FILE_SUFFIX);
+        tags = new TagIndex.Builder(packVersion);
+    }
+
+    /**
+     * Imports every question from a source. May be called more than once to merge several
+     * sources into one pack; duplicates are detected across all of them.
+     *
+     * @param source The source. It is read line by line, not all at once.
+     * @param format The source's format.
+     *
+     * @throws IOException If the source cannot be read or the pack cannot be written.
+     */
+    public void importFrom(BufferedReader source, Format format) throws IOException {
+        String line;
+        long lineNumber = 0;
+        while ((line = source.readLine()) != null) {
+            lineNumber++;
+            linesRead++;
+            if (line.trim().isEmpty() || (format == Format.CSV && line.startsWith("#"))) {
+                continue;
+            }
+
+            parsedTags.clear();
+            String error = format == Format.CSV ? parseCsv(line) : parseJson(line);
+            if (error == null) {
+                error = validate(parsedQuestion);
+            }
+            if (error != null) {
+                invalid++;
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add("Line " + lineNumber + ": " + error);
+                }
+            } else if (!seen.add(normalizedHash(parsedQuestion))) {
+                duplicates++;
+            } else {
+                for (String tag : parsedTags) {
+                    tags.add(writer.size(), tag);
+                }
+                writer.add(parsedQuestion, parsedAnswer);
+            }
+        }
+    }
+
+    /**
+     * Writes the finished pack to the destination file, replacing any pack already there, and
+     * then its tag index (if any question has tags).
+     *
+     * @throws IOException If the pack cannot be written.
+     */
+    public void finish() throws IOException {
+        writer.finish();
+        if (!tags.isEmpty()) {
+            tags.build().write(tagFile);
+        } else {
+            //an index left from an older pack would not match this one.
+            tagFile.delete();
+        }
+    }
+
+    /**
+     * Discards the pack if finish() was not called; otherwise does nothing.
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * Returns the number of lines read from every source, including blank lines.
+     *
+     * @return The number of lines read.
+     */
+    public long getLinesRead() {
+        return linesRead;
+    }
+
+    /**
+     * Returns the number of questions written to the pack.
+     *
+     * @return The number of questions imported.
+     */
+    public int getImported() {
+        return writer.size();
+    }
+
+    /**
+     * Returns the number of questions skipped because an earlier question had the same
+     * normalized text.
+     *
+     * @return The number of duplicates skipped.
+     */
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Returns the number of invalid entries skipped.
+     *
+     * @return The number of invalid entries.
+     */
+    public long getInvalid() {
+        return invalid;
+    }
+
+    /**
+     * Returns descriptions of the first MAX_REPORTED_ERRORS invalid entries.
+     *
+     * @return The errors, in the order they were found.
+     */
+    public List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * Returns a 64-bit hash of the question's text, ignoring case, leading and trailing
+     * whitespace, and the length of whitespace runs. Nothing is allocated.
+     *
+     * @param question The question's text.
+     *
+     * @return The hash of its normalized text.
+     */
+    public static long normalizedHash(String question) {
+        long hash = FNV_OFFSET;
+        boolean started = false;
+        boolean pendingSpace = false;
+        for (int i = 0; i < question.length(); i++) {
+            char c = question.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = started;
+                continue;
+            }
+            if (pendingSpace) {
+                hash = (hash ^ ' ') * FNV_PRIME;
+                pendingSpace = false;
+            }
+            started = true;
+
+            c = Character.toLowerCase(Character.toUpperCase(c));
+            hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    //returns why the question cannot be imported, or null if it can.
+    private static String validate(String question) {
+        if (question.isEmpty()) {
+            return "question is empty.";
+        }
+        if (question.length() > MAX_QUESTION_LENGTH) {
+            return "question is longer than " + MAX_QUESTION_LENGTH + " characters.";
+        }
+        for (int i = 0; i < question.length(); i++) {
+            if (Character.isISOControl(question.charAt(i))) {
+                return "question contains a control character.";
+            }
+        }
+        return null;
+    }
+
+    //parse a CSV line into parsedQuestion and parsedAnswer, returning an error or null.
+    private String parseCsv(String line) {
+        int comma = line.lastIndexOf(',');
+        if (comma < 0) {
+            return "missing answer.";
+        }
+
+        String question = line.substring(0, comma).trim();
+        if (question.length() >= 2 && question.startsWith("\"") && question.endsWith("\"")) {
+            question = question.substring(1, question.length() - 1).replace("\"\"", "\"");
+        }
+
+        String answer = line.substring(comma + 1).trim();
+        if (answer.equalsIgnoreCase("true")) {
+            parsedAnswer = true;
+        } else if (answer.equalsIgnoreCase("false")) {
+            parsedAnswer = false;
+        } else {
+            return "answer must be true or false.";
+        }
+        parsedQuestion = question;
+        return null;
+    }
+
+    //parse a JSON object into parsedQuestion, parsedAnswer and parsedTags, returning an error
+    //or null. only flat objects whose values are strings, numbers, true, false or null are
+    //accepted, apart from the tags array.
+    private String parseJson(String line) {
+        String question = null;
+        int answer = -1;
+        int pos = skipSpace(line, 0);
+        if (pos >= line.length() || line.charAt(pos) != '{') {
+            return "expected a JSON object.";
+        }
+        pos = skipSpace(line, pos + 1);
+        if (pos < line.length() && line.charAt(pos) == '}') {
+            return "missing question.";
+        }
+
+        while (true) {
+            pos = readJsonString(line, pos);
+            if (pos < 0) {
+                return "malformed member name.";
+            }
+            String name = jsonString.toString();
+            pos = skipSpace(line, pos);
+            if (pos >= line.length() || line.charAt(pos) != ':') {
+                return "expected ':' after \"" + name + "\".";
+            }
+            pos = skipSpace(line, pos + 1);
+            if (pos >= line.length()) {
+                return "missing value for \"" + name + "\".";
+            }
+
+            char c = line.charAt(pos);
+            if (c == '[' && name.equals("tags")) {
+                pos = readJsonTags(line, pos);
+                if (pos < 0) {
+                    return "tags must be an array of tags without spaces.";
+                }
+            } else if (c == '"') {
+                pos = readJsonString(line, pos);
+                if (pos < 0) {
+                    return "malformed string for \"" + name + "\".";
+                }
+                if (name.equals("question")) {
+                    question = jsonString.toString();
+                } else if (name.equals("answer")) {
+                    answer = parseAnswer(jsonString.toString());
+                }
+            } else {
+                int end = pos;
+                while (end < line.length() && ",} \t".indexOf(line.charAt(end)) < 0) {
+                    end++;
+                }
+                String literal = line.substring(pos, end);
+                if (literal.isEmpty() || c == '{' || c == '[') {
+                    return "unsupported value for \"" + name + "\".";
+                }
+                if (name.equals("answer")) {
+                    answer = parseAnswer(literal);
+                } else if (name.equals("question")) {
+                    return "question must be a string.";
+                }
+                pos = end;
+            }
+
+            pos = skipSpace(line, pos);
+            if (pos >= line.length()) {
+                return "unterminated object.";
+            }
+            if (line.charAt(pos) == '}') {
+                break;
+            }
+            if (line.charAt(pos) != ',') {
+                return "expected ',' or '}'.";
+            }
+            pos = skipSpace(line, pos + 1);
+        }
+
+        if (skipSpace(line, pos + 1) != line.length()) {
+            return "unexpected text after object.";
+        }
+        if (question == null) {
+            return "missing question.";
+        }
+        if (answer < 0) {
+            return "answer must be true or false.";
+        }
+        parsedQuestion = question.trim();
+        parsedAnswer = answer == 1;
+        return null;
+    }
+
+    //read a JSON array of tag strings starting at pos into parsedTags, returning the position
+    //after it, or -1 if it is malformed or holds an invalid tag.
+    private int readJsonTags(String line, int pos) {
+        pos = skipSpace(line, pos + 1);
+        if (pos < line.length() && line.charAt(pos) == ']') {
+            return pos + 1;
+        }
+        while (true) {
+            pos = readJsonString(line, pos);
+            if (pos < 0 || !TagIndex.isValidTag(jsonString.toString())) {
+                return -1;
+            }
+            parsedTags.add(jsonString.toString());
+            pos = skipSpace(line, pos);
+            if (pos >= line.length()) {
+                return -1;
+            }
+            if (line.charAt(pos) == ']') {
+                return pos + 1;
+            }
+            if (line.charAt(pos) != ',') {
+                return -1;
+            }
+            pos = skipSpace(line, pos + 1);
+        }
+    }
+
+    //1 for true, 0 for false, -1 for anything else.
+    private static int parseAnswer(String answer) {
+        if (answer.equalsIgnoreCase("true")) {
+            return 1;
+        } else if (answer.equalsIgnoreCase("false")) {
+            return 0;
+        }
+        return -1;
+    }
+
+    private static int skipSpace(String line, int pos) {
+        while (pos < line.length() && Character.isWhitespace(line.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    //decode the JSON string starting at pos into jsonString, returning the position after its
+    //closing quote, or -1 if it is malformed.
+    private int readJsonString(String line, int pos) {
+        if (pos >= line.length() || line.charAt(pos) != '"') {
+            return -1;
+        }
+        jsonString.setLength(0);
+        pos++;
+        while (pos < line.length()) {
+            char c = line.charAt(pos++);
+            if (c == '"') {
+                return pos;
+            }
+            if (c != '\\') {
+                jsonString.append(c);
+                continue;
+            }
+            if (pos >= line.length()) {
+                return -1;
+            }
+            char escape = line.charAt(pos++);
+            switch (escape) {
+                case '"':
+                case '\\':
+                case '/':
+                    jsonString.append(escape);
+                    break;
+                case 'b':
+                    jsonString.append('\b');
+                    break;
+                case 'f':
+                    jsonString.append('\f');
+                    break;
+                case 'n':
+                    jsonString.append('\n');
+                    break;
+                case 'r':
+                    jsonString.append('\r');
+                    break;
+                case 't':
+                    jsonString.append('\t');
+                    break;
+                case 'u':
+                    if (pos + 4 > line.length()) {
+                        return -1;
+                    }
+                    try {
+                        String hex = line.substring(pos, pos + 4);
+                        jsonString.append((char) Integer.parseInt(hex, 16));
+                    } catch (NumberFormatException e) {
+                        return -1;
+                    }
+                    pos += 4;
+                    break;
+                default:
+                    return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Command line importer:
+     * <code>QuestionImporter destination.qpk version source...</code>. Each source is read as
+     * JSON lines if its name ends in .jsonl or .json, otherwise as CSV.
+     *
+     * @param args The destination pack file, its pack version, and one or more sources.
+     *
+     * @throws IOException If the import fails.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: QuestionImporter destination.qpk version source...");
+            System.exit(2);
+        }
+
+        long startTime = System.nanoTime();
+        QuestionImporter importer = new QuestionImporter(new File(args[0]),
+                Integer.parseInt(args[1]));
+        try {
+            for (int i = 2; i < args.length; i++) {
+                BufferedReader source = new BufferedReader(new InputStreamReader(
+                        new FileInputStream(args[i]), QuestionPack.CHARSET), 64 * 1024);
+                try {
+                    importer.importFrom(source, Format.forFileName(args[i]));
+                } finally {
+                    source.close();
+                }
+            }
+            importer.finish();
+        } finally {
+            importer.close();
+        }
+
+        for (String error : importer.getErrors()) {
+            System.err.println(error);
+        }
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        System.out.printf(Locale.US,
+                "Read %d lines in %.2f s (%.0f lines/s): %d imported, %d duplicates, %d invalid.%n",
+                importer.getLinesRead(), seconds, importer.getLinesRead() / seconds,
+                importer.getImported(), importer.getDuplicates(), importer.getInvalid());
+    }
+}
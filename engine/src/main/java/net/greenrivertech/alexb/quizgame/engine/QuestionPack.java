@@ -0,0 +1,57 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: QuestionPack.java
+ *
+ * Constants describing the binary question pack file format.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+import java.nio.charset.Charset;
+
+/**
+ * Constants describing the binary question pack file format. A pack is laid out so it can be
+ * memory-mapped and read in place (see MappedQuestionBank); all numbers are big-endian.
+ *
+ * <pre>
+ * header (HEADER_SIZE bytes)
+ *     int   MAGIC
+ *     int   FORMAT_VERSION
+ *     int   pack version (increases each time the pack's content changes)
+ *     int   question count n
+ *     long  offset of the answer bitmap
+ *     long  offset of the string heap
+ * index table (n + 1 ints, starting right after the header)
+ *     the text of question i is heap bytes [index[i], index[i + 1])
+ * answer bitmap ((n + 63) / 64 longs)
+ *     bit i (of word i / 64) is the correct answer to question i
+ * string heap
+ *     all question text, UTF-8 encoded, back to back
+ * </pre>
+ *
+ * @author Alex Ball
+ */
+public final class QuestionPack {
+    /**
+     * The first four bytes of every pack ("QPAK").
+     */
+    public static final int MAGIC = 0x5150414B;
+
+    /**
+     * The version of the file format described here.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    /**
+     * The size of the header, in bytes. The index table starts here.
+     */
+    public static final int HEADER_SIZE = 32;
+
+    /**
+     * The charset that question text is stored in.
+     */
+    public static final Charset CHARSET = Charset.forName("UTF-8");
+
+    private QuestionPack() {
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: QuestionPackUpdater.java
+ *
+ * Brings an installed question pack up to date with the patches in an update source.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Brings an installed question pack up to date with the patches in an update source. The
+ * source is a directory of patch files named by QuestionPatch.fileName (e.g. "4-5.qpatch"),
+ * standing in for a download server; any patches that lead on from the pack's current version
+ * are applied in turn, taking the longest step available each time.
+ *
+ * The pack file is never rewritten. The patches are composed with the pack's overlay (see
+ * PatchedQuestionBank) in memory, and the new overlay replaces the old one in a single rename
+ * once every patch has been read, so an update costs time proportional to the patches and the
+ * overlay rather than the pack, and a reader sees either the old version or the new one, never
+ * a mix. A bad patch leaves the pack as it was.
+ *
+ * @author Alex Ball
+ */
+public class QuestionPackUpdater {
+    private final File packFile;
+
+    //the number of patches applied by the last update
+    private int patchesApplied;
+
+    /**
+     * Constructor that creates an updater for a question pack.
+     *
+     * @param packFile The question pack file.
+     */
+    public QuestionPackUpdater(File packFile) {
+        this.packFile = packFile;
+    }
+
+    /**
+     * Applies every patch in the source that leads on from the pack's current version.
+     *
+     * @param source The directory of patch files.
+     *
+     * @throws IOException If the pack, its overlay or a patch cannot be read, or the new
+     * overlay cannot be written. The pack is unchanged.
+     *
+     * @return The pack version after the update.
+     */
+    public int update(File source) throws IOException {
+        patchesApplied = 0;
+        MappedQuestionBank pack = MappedQuestionBank.open(packFile);
+        QuestionPatch overlay = PatchedQuestionBank.readOverlay(packFile, pack);
+
+        File patchFile;
+        while ((patchFile = findPatch(source, overlay.getToVersion())) != null) {
+            QuestionPatch patch = QuestionPatch.read(patchFile);
+
+            //the search goes by file name, so a patch whose header says otherwise could be
+            //found again and again without the version ever moving on.
+            if (!patchFile.getName().equals(QuestionPatch.fileName(patch.getFromVersion(),
+                    patch.getToVersion()))) {
+                throw new IOException("Patch " + patchFile + " does not match its file name.");
+            }
+            try {
+                overlay = overlay.then(patch);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Patch " + patchFile + " does not fit the pack.", e);
+            }
+            patchesApplied++;
+        }
+
+        if (patchesApplied > 0) {
+            overlay.write(PatchedQuestionBank.overlayFile(packFile));
+        }
+        return overlay.getToVersion();
+    }
+
+    /**
+     * Returns the number of patches applied by the last update.
+     *
+     * @return The number of patches applied.
+     */
+    public int getPatchesApplied() {
+        return patchesApplied;
+    }
+
+    //the patch in the source from the given version to the latest version, or null.
+    private static File findPatch(File source, int fromVersion) {
+        String[] names = source.list();
+        if (names == null) {
+            return null;
+        }
+        String prefix = fromVersion + "-";
+        File best = null;
+        int bestVersion = fromVersion;
+        for (String name : names) {
+            if (!name.startsWith(prefix) || !name.endsWith(QuestionPatch.FILE_SUFFIX)) {
+                continue;
+            }
+            try {
+                int toVersion = Integer.parseInt(name.substring(prefix.length(),
+                        name.length() - QuestionPatch.FILE_SUFFIX.length()));
+                if (toVersion > bestVersion) {
+                    bestVersion = toVersion;
+                    best = new File(source, name);
+                }
+            } catch (NumberFormatException e) {
+                //not a patch file
+            }
+        }
+        return best;
+    }
+}
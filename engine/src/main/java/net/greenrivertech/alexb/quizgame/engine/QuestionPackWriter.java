@@ -0,0 +1,265 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: QuestionPackWriter.java
+ *
+ * Writes question pack files one question at a time, and converts plain text (CSV) question
+ * lists into packs.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Writes question pack files (see QuestionPack) one question at a time. Question text is
+ * streamed to a temporary heap file as it is added, so only 4 bytes and 1 bit per question are
+ * held in memory. The finished pack is written next to the destination and renamed into place,
+ * so readers never see a partly written pack.
+ *
+ * This class also converts CSV question lists into packs; see convertCsv.
+ *
+ * @author Alex Ball
+ */
+public class QuestionPackWriter implements Closeable {
+    //where the finished pack goes
+    private final File destination;
+
+    //the pack version written to the header
+    private final int packVersion;
+
+    //temporary file that holds the string heap while questions are added
+    private final File heapFile;
+    private final OutputStream heap;
+
+    //the number of questions added so far
+    private int size;
+
+    //heap offset of each question's text, plus the end of the heap
+    private int[] textOffsets = new int[1024];
+
+    //correct answers, one bit per question
+    private long[] correctAnswers = new long[16];
+
+    //true once finish() or close() has been called
+    private boolean closed;
+
+    /**
+     * Constructor that starts a new pack that will be written to the given file.
+     *
+     * @param destination The file to write the pack to. It is replaced when finish() is called.
+     * @param packVersion The pack version to record in the header.
+     *
+     * @throws IOException If the temporary heap file cannot be created.
+     */
+    public QuestionPackWriter(File destination, int packVersion) throws IOException {
+        this.destination = destination;
+        this.packVersion = packVersion;
+        heapFile = new File(destination.getPath() + ".heap");
+        heap = new BufferedOutputStream(new FileOutputStream(heapFile), 64 * 1024);
+    }
+
+    /**
+     * Returns the number of questions added so far.
+     *
+     * @return The number of questions added so far.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a question to the pack. Its question number is the number of questions added
+     * before it.
+     *
+     * @param question The question itself, as a string.
+     * @param correctAnswer The correct answer to this question.
+     *
+     * @throws IOException If the question cannot be written.
+     */
+    public void add(String question, boolean correctAnswer) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Cannot add questions to a finished pack.");
+        }
+
+        byte[] bytes = question.getBytes(QuestionPack.CHARSET);
+        long end = (long) textOffsets[size] + bytes.length;
+        if (end > Integer.MAX_VALUE) {
+            throw new IOException("Question pack string heap is full.");
+        }
+
+        if (size + 2 > textOffsets.length) {
+            textOffsets = Arrays.copyOf(textOffsets, textOffsets.length * 2);
+        }
+        if (Bits.words(size + 1) > correctAnswers.length) {
+            correctAnswers = Arrays.copyOf(correctAnswers, correctAnswers.length * 2);
+        }
+
+        heap.write(bytes);
+        textOffsets[size + 1] = (int) end;
+        Bits.set(correctAnswers, size, correctAnswer);
+        size++;
+    }
+
+    /**
+     * Writes the finished pack to the destination file, replacing any pack already there.
+     *
+     * @throws IOException If the pack cannot be written.
+     */
+    public void finish() throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Pack is already finished.");
+        }
+        closed = true;
+        heap.close();
+
+        File temp = new File(destination.getPath() + ".tmp");
+        try {
+            long answersOffset = QuestionPack.HEADER_SIZE + 4L * (size + 1);
+            long heapOffset = answersOffset + 8L * Bits.words(size);
+
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temp), 64 * 1024));
+            try {
+                out.writeInt(QuestionPack.MAGIC);
+                out.writeInt(QuestionPack.FORMAT_VERSION);
+                out.writeInt(packVersion);
+                out.writeInt(size);
+                out.writeLong(answersOffset);
+                out.writeLong(heapOffset);
+                for (int i = 0; i <= size; i++) {
+                    out.writeInt(textOffsets[i]);
+                }
+                for (int i = 0; i < Bits.words(size); i++) {
+                    out.writeLong(correctAnswers[i]);
+                }
+                copy(heapFile, out);
+            } finally {
+                out.close();
+            }
+
+            if (!temp.renameTo(destination)) {
+                //renameTo does not replace an existing file on every platform.
+                if (!destination.delete() || !temp.renameTo(destination)) {
+                    throw new IOException("Cannot replace " + destination + ".");
+                }
+            }
+        } finally {
+            heapFile.delete();
+            temp.delete();
+        }
+    }
+
+    /**
+     * Discards the pack if finish() was not called; otherwise does nothing.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            heap.close();
+            heapFile.delete();
+        }
+    }
+
+    private static void copy(File from, OutputStream to) throws IOException {
+        InputStream in = new FileInputStream(from);
+        try {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                to.write(buffer, 0, read);
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Converts a CSV question list into a question pack. Each line holds a question and its
+     * answer, separated by the last comma on the line: <code>Is water wet?,true</code>. The
+     * question may be quoted (with "" for a literal quote) if it contains quotes. Blank lines
+     * and lines starting with # are skipped.
+     *
+     * @param csv The CSV source. It is read line by line, not all at once.
+     * @param destination The file to write the pack to.
+     * @param packVersion The pack version to record in the header.
+     *
+     * @return The number of questions written.
+     *
+     * @throws IOException If the source cannot be read, has a malformed line, or the pack
+     * cannot be written.
+     */
+    public static int convertCsv(BufferedReader csv, File destination, int packVersion)
+            throws IOException {
+        QuestionPackWriter writer = new QuestionPackWriter(destination, packVersion);
+        try {
+            String line;
+            int lineNumber = 0;
+            while ((line = csv.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                int comma = line.lastIndexOf(',');
+                if (comma < 0) {
+                    throw new IOException("Line " + lineNumber + ": missing answer.");
+                }
+
+                String question = line.substring(0, comma).trim();
+                String answer = line.substring(comma + 1).trim();
+                if (question.length() >= 2 && question.startsWith("\"")
+                        && question.endsWith("\"")) {
+                    question = question.substring(1, question.length() - 1).replace("\"\"", "\"");
+                }
+
+                if (answer.equalsIgnoreCase("true")) {
+                    writer.add(question, true);
+                } else if (answer.equalsIgnoreCase("false")) {
+                    writer.add(question, false);
+                } else {
+                    throw new IOException("Line " + lineNumber + ": answer must be true or false.");
+                }
+            }
+            writer.finish();
+            return writer.size();
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Command line converter: <code>QuestionPackWriter source.csv destination.qpk [version]</code>.
+     *
+     * @param args The source CSV file, the destination pack file, and an optional pack version.
+     *
+     * @throws IOException If the conversion fails.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: QuestionPackWriter source.csv destination.qpk [version]");
+            System.exit(2);
+        }
+
+        int version = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        BufferedReader csv = new BufferedReader(
+                new InputStreamReader(new FileInputStream(args[0]), QuestionPack.CHARSET));
+        try {
+            int count = convertCsv(csv, new File(args[1]), version);
+            System.out.println("Wrote " + count + " questions to " + args[1] + ".");
+        } finally {
+            csv.close();
+        }
+    }
+}
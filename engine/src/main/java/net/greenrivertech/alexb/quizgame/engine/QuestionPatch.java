@@ -0,0 +1,593 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: QuestionPatch.java
+ *
+ * The changes between two versions of a question pack.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The changes between two versions of a question pack: the questions removed, the questions
+ * whose text or answer changed, and the questions added, with the new text as a small string
+ * heap of its own. Question numbers never change from version to version: added questions are
+ * numbered after the last question of the older version, and removed questions keep their
+ * number (and text, so saved games can still be restored) but should not be asked again.
+ *
+ * Patches compose: a patch from version 1 to 2 followed by one from 2 to 3 makes one patch
+ * from 1 to 3, in time proportional to the two patches, not to the pack. An installed pack
+ * keeps the composition of every patch applied since it was written as an overlay file next
+ * to it (see PatchedQuestionBank and QuestionPackUpdater), so the pack itself is never
+ * rewritten.
+ *
+ * <pre>
+ * header
+ *     int   MAGIC
+ *     int   FORMAT_VERSION
+ *     int   from version, int to version
+ *     int   from size, int to size (question counts)
+ *     int   removed count r, int changed count c, int heap length h
+ * removed question numbers (r ints, increasing)
+ * changed question numbers (c ints, increasing; every added question is one)
+ * answer bitmap ((c + 63) / 64 longs; bit i is the answer to changed question i)
+ * text offsets (c + 1 ints; changed question i is heap bytes [offset[i], offset[i + 1]))
+ * string heap (h bytes of UTF-8)
+ * </pre>
+ *
+ * Patches are immutable.
+ *
+ * @author Alex Ball
+ */
+public final class QuestionPatch {
+    /**
+     * Suffix of patch files in an update source; see fileName.
+     */
+    public static final String FILE_SUFFIX = ".qpatch";
+
+    /**
+     * The first four bytes of every patch file ("QPAT").
+     */
+    public static final int MAGIC = 0x51504154;
+
+    /**
+     * The version of the file format described here.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    private final int fromVersion;
+    private final int toVersion;
+    private final int fromSize;
+    private final int toSize;
+
+    //removed question numbers, increasing
+    private final int[] removed;
+
+    //changed question numbers, increasing, with their answers and text
+    private final int[] changed;
+    private final long[] answers;
+    private final int[] textOffsets;
+    private final byte[] heap;
+
+    private QuestionPatch(int fromVersion, int toVersion, int fromSize, int toSize, int[] removed,
+                          int[] changed, long[] answers, int[] textOffsets, byte[] heap) {
+        this.fromVersion = fromVersion;
+        this.toVersion = toVersion;
+        this.fromSize = fromSize;
+        this.toSize = toSize;
+        this.removed = removed;
+        this.changed = changed;
+        this.answers = answers;
+        this.textOffsets = textOffsets;
+        this.heap = heap;
+    }
+
+    /**
+     * Returns the patch that changes nothing in the given version of a pack.
+     *
+     * @param version The pack version.
+     * @param size The number of questions in that version.
+     *
+     * @return The empty patch.
+     */
+    public static QuestionPatch empty(int version, int size) {
+        return new QuestionPatch(version, version, size, size, new int[0], new int[0],
+                new long[0], new int[1], new byte[0]);
+    }
+
+    /**
+     * Returns the name a patch between two versions has in an update source, e.g.
+     * "4-5.qpatch".
+     *
+     * @param fromVersion The version the patch applies to.
+     * @param toVersion The version it makes.
+     *
+     * @return The file name.
+     */
+    public static String fileName(int fromVersion, int toVersion) {
+        return fromVersion + "-" + toVersion + FILE_SUFFIX;
+    }
+
+    /**
+     * Returns the pack version this patch applies to.
+     *
+     * @return The version before the patch.
+     */
+    public int getFromVersion() {
+        return fromVersion;
+    }
+
+    /**
+     * Returns the pack version this patch makes.
+     *
+     * @return The version after the patch.
+     */
+    public int getToVersion() {
+        return toVersion;
+    }
+
+    /**
+     * Returns the number of questions in the version this patch applies to.
+     *
+     * @return The number of questions before the patch.
+     */
+    public int getFromSize() {
+        return fromSize;
+    }
+
+    /**
+     * Returns the number of questions (including removed ones) in the version this patch
+     * makes.
+     *
+     * @return The number of questions after the patch.
+     */
+    public int getToSize() {
+        return toSize;
+    }
+
+    /**
+     * Returns the number of questions this patch removes.
+     *
+     * @return The number of removed questions.
+     */
+    public int getRemovedCount() {
+        return removed.length;
+    }
+
+    /**
+     * Returns the number of questions this patch adds or changes.
+     *
+     * @return The number of added and changed questions.
+     */
+    public int getChangedCount() {
+        return changed.length;
+    }
+
+    /**
+     * Returns true if this patch removes the given question.
+     *
+     * @param questionNumber The question number.
+     *
+     * @return True if the question is removed.
+     */
+    public boolean isRemoved(int questionNumber) {
+        return Arrays.binarySearch(removed, questionNumber) >= 0;
+    }
+
+    /**
+     * Returns the removed question numbers, in increasing order.
+     *
+     * @return A new array of removed question numbers.
+     */
+    public int[] getRemoved() {
+        return removed.clone();
+    }
+
+    //the position of a question among the changed questions, or a negative number if this
+    //patch does not change it.
+    int indexOf(int questionNumber) {
+        return Arrays.binarySearch(changed, questionNumber);
+    }
+
+    //the text of changed question i.
+    String getText(int i) {
+        return new String(heap, textOffsets[i], textOffsets[i + 1] - textOffsets[i],
+                QuestionPack.CHARSET);
+    }
+
+    //the answer to changed question i.
+    boolean getAnswer(int i) {
+        return Bits.get(answers, i);
+    }
+
+    /**
+     * Returns the patch that makes the same changes as this patch followed by next. Takes
+     * time proportional to the size of the two patches.
+     *
+     * @param next A patch that applies to the version this patch makes.
+     *
+     * @throws IllegalArgumentException If next does not apply to this patch's version.
+     *
+     * @return The combined patch.
+     */
+    public QuestionPatch then(QuestionPatch next) {
+        if (next.fromVersion != toVersion || next.fromSize != toSize) {
+            throw new IllegalArgumentException("Patch to version " + next.toVersion
+                    + " applies to version " + next.fromVersion + " (" + next.fromSize
+                    + " questions), not version " + toVersion + " (" + toSize + " questions).");
+        }
+
+        //removed questions: both lists, merged.
+        int[] mergedRemoved = new int[removed.length + next.removed.length];
+        int count = 0;
+        int a = 0;
+        int b = 0;
+        while (a < removed.length || b < next.removed.length) {
+            int id;
+            if (b == next.removed.length
+                    || (a < removed.length && removed[a] < next.removed[b])) {
+                id = removed[a++];
+            } else if (a == removed.length || next.removed[b] < removed[a]) {
+                id = next.removed[b++];
+            } else {
+                id = removed[a++];
+                b++;
+            }
+            mergedRemoved[count++] = id;
+        }
+        mergedRemoved = Arrays.copyOf(mergedRemoved, count);
+
+        //changed questions: both lists merged, taking next's version of questions both change.
+        //the heap is rebuilt from the text that is still used.
+        int[] mergedChanged = new int[changed.length + next.changed.length];
+        long[] mergedAnswers = new long[Bits.words(mergedChanged.length)];
+        int[] mergedOffsets = new int[mergedChanged.length + 1];
+        byte[] mergedHeap = new byte[heap.length + next.heap.length];
+        count = 0;
+        a = 0;
+        b = 0;
+        while (a < changed.length || b < next.changed.length) {
+            QuestionPatch from;
+            int i;
+            if (b == next.changed.length
+                    || (a < changed.length && changed[a] < next.changed[b])) {
+                from = this;
+                i = a++;
+            } else {
+                if (a < changed.length && changed[a] == next.changed[b]) {
+                    a++;
+                }
+                from = next;
+                i = b++;
+            }
+            int start = from.textOffsets[i];
+            int length = from.textOffsets[i + 1] - start;
+            System.arraycopy(from.heap, start, mergedHeap, mergedOffsets[count], length);
+            mergedChanged[count] = from.changed[i];
+            Bits.set(mergedAnswers, count, from.getAnswer(i));
+            mergedOffsets[count + 1] = mergedOffsets[count] + length;
+            count++;
+        }
+
+        return new QuestionPatch(fromVersion, next.toVersion, fromSize, next.toSize,
+                mergedRemoved, Arrays.copyOf(mergedChanged, count),
+                Arrays.copyOf(mergedAnswers, Bits.words(count)),
+                Arrays.copyOf(mergedOffsets, count + 1),
+                Arrays.copyOf(mergedHeap, mergedOffsets[count]));
+    }
+
+    /**
+     * Returns the patch from one version of a bank to the next, matching questions by
+     * number: questions whose text or answer differ are changed, questions after the end of
+     * the older bank are added, and if the newer bank is smaller, the questions past its end
+     * are removed. This reads every question in both banks, so it is meant for publishing
+     * updates, not for devices.
+     *
+     * @param from The older bank.
+     * @param fromVersion The older bank's version.
+     * @param to The newer bank.
+     * @param toVersion The newer bank's version.
+     *
+     * @return The patch.
+     */
+    public static QuestionPatch diff(QuestionBank from, int fromVersion, QuestionBank to,
+                                     int toVersion) {
+        Builder builder = new Builder(fromVersion, toVersion, from.size());
+        int common = Math.min(from.size(), to.size());
+        for (int i = 0; i < common; i++) {
+            String text = to.getQuestionText(i);
+            boolean answer = to.getCorrectAnswer(i);
+            if (answer != from.getCorrectAnswer(i) || !text.equals(from.getQuestionText(i))) {
+                builder.change(i, text, answer);
+            }
+        }
+        for (int i = common; i < from.size(); i++) {
+            builder.remove(i);
+        }
+        for (int i = common; i < to.size(); i++) {
+            builder.add(to.getQuestionText(i), to.getCorrectAnswer(i));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Writes the patch to a file, replacing it atomically (write-then-rename).
+     *
+     * @param file The file to write.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(File file) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            FileOutputStream fileOut = new FileOutputStream(temp);
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(fileOut, 64 * 1024));
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(fromVersion);
+                out.writeInt(toVersion);
+                out.writeInt(fromSize);
+                out.writeInt(toSize);
+                out.writeInt(removed.length);
+                out.writeInt(changed.length);
+                out.writeInt(heap.length);
+                for (int id : removed) {
+                    out.writeInt(id);
+                }
+                for (int id : changed) {
+                    out.writeInt(id);
+                }
+                for (long word : answers) {
+                    out.writeLong(word);
+                }
+                for (int offset : textOffsets) {
+                    out.writeInt(offset);
+                }
+                out.write(heap);
+
+                //the rename must not land before the data does.
+                out.flush();
+                fileOut.getFD().sync();
+            } finally {
+                out.close();
+            }
+
+            if (!temp.renameTo(file)) {
+                //renameTo does not replace an existing file on every platform.
+                if (!file.delete() || !temp.renameTo(file)) {
+                    throw new IOException("Cannot replace " + file + ".");
+                }
+            }
+        } finally {
+            temp.delete();
+        }
+    }
+
+    /**
+     * Reads a patch written by write(), checking that it is consistent.
+     *
+     * @param file The file to read.
+     *
+     * @throws IOException If the file cannot be read or is not a valid patch.
+     *
+     * @return The patch.
+     */
+    public static QuestionPatch read(File file) throws IOException {
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException(file + " is not a question patch.");
+            }
+            int fromVersion = in.readInt();
+            int toVersion = in.readInt();
+            int fromSize = in.readInt();
+            int toSize = in.readInt();
+            int removedCount = in.readInt();
+            int changedCount = in.readInt();
+            int heapLength = in.readInt();
+            if (toVersion <= fromVersion || fromSize < 0 || toSize < fromSize
+                    || removedCount < 0 || removedCount > toSize
+                    || changedCount < toSize - fromSize || changedCount > toSize
+                    || heapLength < 0 || heapLength > file.length()) {
+                throw new IOException("Corrupt question patch header in " + file + ".");
+            }
+
+            int[] removed = readIncreasing(in, removedCount, toSize, file);
+            int[] changed = readIncreasing(in, changedCount, toSize, file);
+            //every added question has to be there, and they are the last ones.
+            if (toSize > fromSize && changed[changedCount - (toSize - fromSize)] < fromSize) {
+                throw new IOException("Question patch " + file + " is missing added questions.");
+            }
+            long[] answers = new long[Bits.words(changedCount)];
+            for (int i = 0; i < answers.length; i++) {
+                answers[i] = in.readLong();
+            }
+            int[] textOffsets = new int[changedCount + 1];
+            for (int i = 0; i <= changedCount; i++) {
+                textOffsets[i] = in.readInt();
+                if (i == 0 ? textOffsets[i] != 0 : textOffsets[i] < textOffsets[i - 1]) {
+                    throw new IOException("Corrupt question patch text offsets in " + file + ".");
+                }
+            }
+            if (textOffsets[changedCount] != heapLength) {
+                throw new IOException("Corrupt question patch text offsets in " + file + ".");
+            }
+            byte[] heap = new byte[heapLength];
+            in.readFully(heap);
+            if (in.read() >= 0) {
+                throw new IOException("Question patch " + file + " has trailing bytes.");
+            }
+            return new QuestionPatch(fromVersion, toVersion, fromSize, toSize, removed, changed,
+                    answers, textOffsets, heap);
+        } finally {
+            in.close();
+        }
+    }
+
+    //read count strictly increasing question numbers below size.
+    private static int[] readIncreasing(DataInputStream in, int count, int size, File file)
+            throws IOException {
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = in.readInt();
+            if (ids[i] < 0 || ids[i] >= size || (i > 0 && ids[i] <= ids[i - 1])) {
+                throw new IOException("Corrupt question numbers in question patch " + file + ".");
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Command line patch maker: <code>QuestionPatch old.qpk new.qpk updateDirectory</code>.
+     * Writes the patch from the old pack to the new one into the update directory, named for
+     * the two packs' versions.
+     *
+     * @param args The old and new pack files, and the directory to write the patch to.
+     *
+     * @throws IOException If a pack cannot be read or the patch cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: QuestionPatch old.qpk new.qpk updateDirectory");
+            System.exit(2);
+        }
+
+        MappedQuestionBank from = MappedQuestionBank.open(new File(args[0]));
+        MappedQuestionBank to = MappedQuestionBank.open(new File(args[1]));
+        QuestionPatch patch = diff(from, from.getPackVersion(), to, to.getPackVersion());
+        File file = new File(args[2], fileName(patch.fromVersion, patch.toVersion));
+        patch.write(file);
+        System.out.println("Wrote " + file + ": " + patch.removed.length + " removed, "
+                + patch.changed.length + " added or changed, " + file.length() + " bytes.");
+    }
+
+    /**
+     * Builds a QuestionPatch from individual changes.
+     */
+    public static class Builder {
+        private final int fromVersion;
+        private final int toVersion;
+        private final int fromSize;
+        private int toSize;
+
+        private final TreeMap<Integer, String> texts = new TreeMap<Integer, String>();
+        private final TreeMap<Integer, Boolean> changedAnswers = new TreeMap<Integer, Boolean>();
+        private final TreeMap<Integer, Boolean> removed = new TreeMap<Integer, Boolean>();
+
+        /**
+         * Constructor that starts a patch to a pack.
+         *
+         * @param fromVersion The version the patch applies to.
+         * @param toVersion The version it makes; must be greater than fromVersion.
+         * @param fromSize The number of questions in the version the patch applies to.
+         */
+        public Builder(int fromVersion, int toVersion, int fromSize) {
+            if (toVersion <= fromVersion || fromSize < 0) {
+                throw new IllegalArgumentException("A patch must go from version "
+                        + fromVersion + " to a later one.");
+            }
+            this.fromVersion = fromVersion;
+            this.toVersion = toVersion;
+            this.fromSize = fromSize;
+            this.toSize = fromSize;
+        }
+
+        /**
+         * Removes a question.
+         *
+         * @param questionNumber The question number.
+         *
+         * @return This builder.
+         */
+        public Builder remove(int questionNumber) {
+            checkQuestionNumber(questionNumber);
+            removed.put(questionNumber, Boolean.TRUE);
+            return this;
+        }
+
+        /**
+         * Changes a question's text and answer.
+         *
+         * @param questionNumber The question number.
+         * @param question The new question text.
+         * @param correctAnswer The new correct answer.
+         *
+         * @return This builder.
+         */
+        public Builder change(int questionNumber, String question, boolean correctAnswer) {
+            checkQuestionNumber(questionNumber);
+            texts.put(questionNumber, question);
+            changedAnswers.put(questionNumber, correctAnswer);
+            return this;
+        }
+
+        /**
+         * Adds a question after the last one.
+         *
+         * @param question The question text.
+         * @param correctAnswer The correct answer.
+         *
+         * @return The new question's number.
+         */
+        public int add(String question, boolean correctAnswer) {
+            int questionNumber = toSize++;
+            texts.put(questionNumber, question);
+            changedAnswers.put(questionNumber, correctAnswer);
+            return questionNumber;
+        }
+
+        /**
+         * Builds the patch.
+         *
+         * @return The patch.
+         */
+        public QuestionPatch build() {
+            int[] removedIds = new int[removed.size()];
+            int i = 0;
+            for (int id : removed.keySet()) {
+                removedIds[i++] = id;
+            }
+
+            int count = texts.size();
+            byte[][] encoded = new byte[count][];
+            int[] changed = new int[count];
+            long[] answers = new long[Bits.words(count)];
+            int[] textOffsets = new int[count + 1];
+            i = 0;
+            for (Map.Entry<Integer, String> entry : texts.entrySet()) {
+                changed[i] = entry.getKey();
+                Bits.set(answers, i, changedAnswers.get(entry.getKey()));
+                encoded[i] = entry.getValue().getBytes(QuestionPack.CHARSET);
+                textOffsets[i + 1] = textOffsets[i] + encoded[i].length;
+                i++;
+            }
+            byte[] heap = new byte[textOffsets[count]];
+            for (i = 0; i < count; i++) {
+                System.arraycopy(encoded[i], 0, heap, textOffsets[i], encoded[i].length);
+            }
+            return new QuestionPatch(fromVersion, toVersion, fromSize, toSize, removedIds,
+                    changed, answers, textOffsets, heap);
+        }
+
+        private void checkQuestionNumber(int questionNumber) {
+            if (questionNumber < 0 || questionNumber >= toSize) {
+                throw new IndexOutOfBoundsException("Question number " + questionNumber
+                        + " is not in a pack of " + toSize + " questions.");
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: QuestionSampler.java
+ *
+ * Strategy for choosing which questions from the full question list are used in a game.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+/**
+ * Strategy for choosing which questions from the full question list are used in a game.
+ * Implementations pick distinct question numbers (indices into the full question list).
+ *
+ * @author Alex Ball
+ */
+public interface QuestionSampler {
+
+    /**
+     * Fills the first count slots of out with distinct question numbers between 0 (inclusive)
+     * and bankSize (exclusive), in random order.
+     *
+     * @param bankSize The number of questions to choose from.
+     * @param count The number of questions to choose.
+     * @param out The array that receives the chosen question numbers.
+     *
+     * @throws IllegalArgumentException If count is negative, larger than bankSize, or larger
+     * than out.length.
+     */
+    void sample(int bankSize, int count, int[] out);
+}
@@ -0,0 +1,130 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: QuestionType.java
+ *
+ * The kinds of question a bank can hold, and how answers to each are encoded and checked.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+/**
+ * The kinds of question a bank can hold, and how answers to each are encoded and checked.
+ * Types are small int tags rather than classes, and every answer is encoded in one long, so
+ * checking an answer is a switch and a comparison, with no per-question objects or virtual
+ * calls:
+ * <ul>
+ * <li>TRUE_FALSE: 1 for true, 0 for false.</li>
+ * <li>SINGLE_CHOICE: the index of the chosen choice.</li>
+ * <li>MULTI_SELECT: a bitmask of the chosen choices (bit i for choice i), so at most
+ * MAX_CHOICES choices. Only exactly the right set of choices is correct.</li>
+ * <li>NUMERIC: the bits of the given double (Double.doubleToLongBits). Correct if it is
+ * within the question's range, inclusive.</li>
+ * </ul>
+ *
+ * @author Alex Ball
+ */
+public final class QuestionType {
+    /**
+     * A true or false question.
+     */
+    public static final int TRUE_FALSE = 0;
+
+    /**
+     * A question with several choices, one of which is correct.
+     */
+    public static final int SINGLE_CHOICE = 1;
+
+    /**
+     * A question with several choices, any number of which are correct.
+     */
+    public static final int MULTI_SELECT = 2;
+
+    /**
+     * A question whose answer is a number within a range.
+     */
+    public static final int NUMERIC = 3;
+
+    /**
+     * The most choices a question can have.
+     */
+    public static final int MAX_CHOICES = 64;
+
+    private QuestionType() {
+    }
+
+    /**
+     * Returns true if the encoded answer is correct for the given question.
+     *
+     * @param bank The bank the question is in.
+     * @param questionNumber The question number.
+     * @param answer The answer, encoded for the question's type.
+     *
+     * @return True if the answer is correct.
+     */
+    public static boolean isCorrect(QuestionBank bank, int questionNumber, long answer) {
+        if (bank.getQuestionType(questionNumber) == NUMERIC) {
+            return inRange(answer, bank.getRangeMin(questionNumber),
+                    bank.getRangeMax(questionNumber));
+        }
+        return answer == bank.getAnswerKey(questionNumber);
+    }
+
+    /**
+     * Returns true if the encoded answer is correct for a question with the given type and
+     * answer key (or range, for numeric questions).
+     *
+     * @param type The question's type.
+     * @param answerKey The question's encoded answer key.
+     * @param rangeMin The smallest correct answer, for numeric questions.
+     * @param rangeMax The largest correct answer, for numeric questions.
+     * @param answer The answer, encoded for the question's type.
+     *
+     * @return True if the answer is correct.
+     */
+    public static boolean isCorrect(int type, long answerKey, double rangeMin, double rangeMax,
+                                    long answer) {
+        if (type == NUMERIC) {
+            return inRange(answer, rangeMin, rangeMax);
+        }
+        return answer == answerKey;
+    }
+
+    //NaN is never in range, since every comparison with it is false.
+    private static boolean inRange(long answer, double rangeMin, double rangeMax) {
+        double value = Double.longBitsToDouble(answer);
+        return value >= rangeMin && value <= rangeMax;
+    }
+
+    /**
+     * Returns a mask with a bit set for each of the first choiceCount choices.
+     *
+     * @param choiceCount The number of choices, up to MAX_CHOICES.
+     *
+     * @return The mask of every choice.
+     */
+    public static long allChoices(int choiceCount) {
+        return choiceCount >= MAX_CHOICES ? -1L : (1L << choiceCount) - 1;
+    }
+
+    /**
+     * Returns the name of a question type, for messages.
+     *
+     * @param type The question type.
+     *
+     * @return The type's name.
+     */
+    public static String name(int type) {
+        switch (type) {
+            case TRUE_FALSE:
+                return "true/false";
+            case SINGLE_CHOICE:
+                return "single choice";
+            case MULTI_SELECT:
+                return "multi-select";
+            case NUMERIC:
+                return "numeric";
+            default:
+                return "unknown (" + type + ")";
+        }
+    }
+}
@@ -0,0 +1,753 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: QuizEngine.java
+ *
+ * The rules of a quiz game, independent of Android: a user has a score, which they increase
+ * by correctly answering questions.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+import java.util.Arrays;
+
+/**
+ * The rules of a quiz game, independent of Android: a user has a score, which they increase
+ * by correctly answering questions. The app's QuizModel fragment wraps one of these; tests,
+ * benchmarks and simulations can use it directly on a plain JVM.
+ *
+ * A game only holds the question numbers of its questions plus one bit per question for whether
+ * it was answered, one for whether it was answered correctly and one for whether its first
+ * (scored) answer was correct; question text and correct
+ * answers are read from the shared QuestionBank. Games with questions that are not true/false
+ * also keep each answer given, encoded in a long as QuestionType describes, so checking any
+ * answer is a type switch and a primitive comparison.
+ *
+ * @author Alex Ball
+ */
+public class QuizEngine {
+    //the bank that this game's questions come from.
+    private final QuestionBank bank;
+
+    //the question numbers (in bank) of the questions used for this game.
+    private final int[] questions;
+
+    //which of this game's questions have been answered, one bit per question.
+    private final long[] answered;
+
+    //which of this game's questions were answered correctly (the last time they were
+    //answered), one bit per question.
+    private final long[] correct;
+
+    //which of this game's questions were answered correctly the first time, the answer that
+    //is scored, one bit per question.
+    private final long[] firstCorrect;
+
+    //the answers given to this game's questions, encoded for their types; null if every
+    //question is true/false, since then the answer follows from the correct bit.
+    private long[] givenAnswers;
+
+    //The number of questions in this quiz
+    private final int numQuestions;
+
+    //text of each of this game's questions, decoded from the bank on first use, so going
+    //back to a question does not decode (and allocate) its text again.
+    private final String[] questionTexts;
+
+    //the user's score; the number of correctly answered questions for this game.
+    private int score;
+
+    //the question number that the user is on (used for ordering the questions; user may be
+    //on 1st question (0), or 3rd question (2),etc.)
+    private int gameQuestionNum;
+
+    //The number of questions that the user has answered in this game.
+    private int numQuestionsAnswered;
+
+    //told about each first answer; may be null.
+    private AnswerListener answerListener;
+
+    //records each answer and move for replay; may be null.
+    private ReplayRecorder replayRecorder;
+
+    //layout of the array returned by saveState(): a header of STATE_HEADER longs, followed by
+    //the answered bits, the correct bits, the first correct bits and then (if any question is
+    //not true/false) the given answers. ConcurrentQuizEngine saves the same layout.
+    static final long STATE_VERSION = 3;
+    static final int STATE_HEADER = 4;
+
+    /**
+     * Constructor that creates a new game with score 0 and gameQuestionNum 0 (first question),
+     * asking the given questions in order.
+     *
+     * @param bank The bank the questions come from.
+     * @param questions The question numbers (in bank) to ask. The array is used directly, not
+     * copied.
+     */
+    public QuizEngine(QuestionBank bank, int[] questions) {
+        this.bank = bank;
+        this.questions = questions;
+        numQuestions = questions.length;
+        answered = new long[Bits.words(numQuestions)];
+        correct = new long[Bits.words(numQuestions)];
+        firstCorrect = new long[Bits.words(numQuestions)];
+        givenAnswers = allTrueFalse(bank, questions) ? null : new long[numQuestions];
+        questionTexts = new String[numQuestions];
+        score = 0;
+        gameQuestionNum = 0;
+        numQuestionsAnswered = 0;
+    }
+
+    /**
+     * Creates a new game that asks numQuestions randomly chosen questions from the bank (or
+     * every question, if the bank is smaller than that).
+     *
+     * @param bank The bank to choose questions from.
+     * @param sampler The sampler that chooses questions from the bank.
+     * @param numQuestions The number of questions in the game.
+     *
+     * @return The new game.
+     */
+    public static QuizEngine newGame(QuestionBank bank, QuestionSampler sampler,
+                                     int numQuestions) {
+        long startTime = System.nanoTime();
+
+        //Only the question numbers are kept; text and answers stay in the shared bank.
+        int[] chosen = new int[Math.min(numQuestions, bank.size())];
+        sampler.sample(bank.size(), chosen.length, chosen);
+        QuizEngine engine = new QuizEngine(bank, chosen);
+
+        QuizMetrics.NEW_GAME.recordSince(startTime);
+        return engine;
+    }
+
+    /**
+     * Creates a new game that asks numQuestions randomly chosen questions from a subset of the
+     * bank, such as the questions matching a TagIndex query (or every question in the subset,
+     * if it is smaller than that). The sampler chooses ranks within the subset, which are
+     * turned into question numbers with QuestionIdSet.select, so the bank is never scanned.
+     *
+     * @param bank The bank the questions come from.
+     * @param pool The question numbers (in bank) to choose from.
+     * @param sampler The sampler that chooses questions from the pool.
+     * @param numQuestions The number of questions in the game.
+     *
+     * @return The new game.
+     */
+    public static QuizEngine newGame(QuestionBank bank, QuestionIdSet pool,
+                                     QuestionSampler sampler, int numQuestions) {
+        long startTime = System.nanoTime();
+
+        int[] chosen = new int[Math.min(numQuestions, pool.cardinality())];
+        sampler.sample(pool.cardinality(), chosen.length, chosen);
+        for (int i = 0; i < chosen.length; i++) {
+            chosen[i] = pool.select(chosen[i]);
+        }
+        QuizEngine engine = new QuizEngine(bank, chosen);
+
+        QuizMetrics.NEW_GAME.recordSince(startTime);
+        return engine;
+    }
+
+    /**
+     * Starts this game again with numQuestions new questions chosen from the whole bank,
+     * reusing its arrays rather than allocating a new game (see GamePool). The score, answers
+     * and position are cleared, and the answer listener and replay recorder are removed.
+     *
+     * @param sampler The sampler that chooses questions from the bank.
+     *
+     * @throws IllegalArgumentException If the bank has fewer questions than this game.
+     */
+    public void reset(QuestionSampler sampler) {
+        long startTime = System.nanoTime();
+        sampler.sample(bank.size(), numQuestions, questions);
+        clear();
+        QuizMetrics.NEW_GAME.recordSince(startTime);
+    }
+
+    /**
+     * Starts this game again with numQuestions new questions chosen from a subset of the bank,
+     * reusing its arrays rather than allocating a new game (see GamePool). The score, answers
+     * and position are cleared, and the answer listener and replay recorder are removed.
+     *
+     * @param pool The question numbers (in bank) to choose from.
+     * @param sampler The sampler that chooses questions from the pool.
+     *
+     * @throws IllegalArgumentException If the pool has fewer questions than this game.
+     */
+    public void reset(QuestionIdSet pool, QuestionSampler sampler) {
+        long startTime = System.nanoTime();
+        sampler.sample(pool.cardinality(), numQuestions, questions);
+        for (int i = 0; i < numQuestions; i++) {
+            questions[i] = pool.select(questions[i]);
+        }
+        clear();
+        QuizMetrics.NEW_GAME.recordSince(startTime);
+    }
+
+    //forget everything about the old questions. The given answers are only kept if a new
+    //question needs them, so saveState() has the same layout as for a new game.
+    private void clear() {
+        Arrays.fill(answered, 0);
+        Arrays.fill(correct, 0);
+        Arrays.fill(firstCorrect, 0);
+        Arrays.fill(questionTexts, null);
+        if (allTrueFalse(bank, questions)) {
+            givenAnswers = null;
+        } else if (givenAnswers == null) {
+            givenAnswers = new long[numQuestions];
+        } else {
+            Arrays.fill(givenAnswers, 0);
+        }
+        score = 0;
+        gameQuestionNum = 0;
+        numQuestionsAnswered = 0;
+        answerListener = null;
+        replayRecorder = null;
+    }
+
+    /**
+     * Restores a game saved with saveState(). This copies a few words of bits and checks that
+     * the state is consistent; nothing is read from the bank, so it takes microseconds even
+     * for large games.
+     *
+     * @param bank The bank the game's questions come from.
+     * @param questions The game's question numbers, as returned by getQuestionNumbers(). The
+     * array is used directly, not copied.
+     * @param state The game's state, as returned by saveState().
+     *
+     * @throws IllegalArgumentException Throws IllegalArgumentException if the state was not
+     * saved from a game with these questions, or they are not all in the bank.
+     *
+     * @return The restored game.
+     */
+    public static QuizEngine restore(QuestionBank bank, int[] questions, long[] state) {
+        QuizEngine engine = new QuizEngine(bank, questions);
+        int words = engine.answered.length;
+        int given = engine.givenAnswers != null ? engine.numQuestions : 0;
+        if (state.length != STATE_HEADER + 3 * words + given || state[0] != STATE_VERSION) {
+            throw new IllegalArgumentException("Not a saved state for this game.");
+        }
+        for (int question : questions) {
+            if (question < 0 || question >= bank.size()) {
+                throw new IllegalArgumentException("Question " + question + " is not in the bank.");
+            }
+        }
+
+        System.arraycopy(state, STATE_HEADER, engine.answered, 0, words);
+        System.arraycopy(state, STATE_HEADER + words, engine.correct, 0, words);
+        System.arraycopy(state, STATE_HEADER + 2 * words, engine.firstCorrect, 0, words);
+        if (given > 0) {
+            System.arraycopy(state, STATE_HEADER + 3 * words, engine.givenAnswers, 0, given);
+        }
+        engine.gameQuestionNum = (int) state[1];
+        engine.score = (int) state[2];
+        engine.numQuestionsAnswered = (int) state[3];
+
+        //the counts must agree with the bits.
+        int answeredCount = 0;
+        int firstCorrectCount = 0;
+        for (int i = 0; i < words; i++) {
+            answeredCount += Long.bitCount(engine.answered[i]);
+            firstCorrectCount += Long.bitCount(engine.firstCorrect[i]);
+            if ((engine.correct[i] & ~engine.answered[i]) != 0
+                    || (engine.firstCorrect[i] & ~engine.answered[i]) != 0) {
+                throw new IllegalArgumentException("Saved state is inconsistent.");
+            }
+        }
+        if (engine.numQuestionsAnswered != answeredCount
+                || engine.score != firstCorrectCount
+                || engine.gameQuestionNum < 0
+                || engine.gameQuestionNum >= Math.max(1, engine.numQuestions)) {
+            throw new IllegalArgumentException("Saved state is inconsistent.");
+        }
+        return engine;
+    }
+
+    /**
+     * Returns this game's progress (which questions have been answered and which correctly,
+     * the first time and the last, the current question, score and number answered) packed
+     * into a new array of 4 + 3 * ceil(numQuestions / 64) longs, e.g. 28 longs for a 500
+     * question game, plus one
+     * long per question for the answers given if the game has questions that are not
+     * true/false. Together with getQuestionNumbers(), this is everything restore() needs to
+     * rebuild the game.
+     *
+     * @return The game's state.
+     */
+    public long[] saveState() {
+        int words = answered.length;
+        int given = givenAnswers != null ? numQuestions : 0;
+        long[] state = new long[STATE_HEADER + 3 * words + given];
+        state[0] = STATE_VERSION;
+        state[1] = gameQuestionNum;
+        state[2] = score;
+        state[3] = numQuestionsAnswered;
+        System.arraycopy(answered, 0, state, STATE_HEADER, words);
+        System.arraycopy(correct, 0, state, STATE_HEADER + words, words);
+        System.arraycopy(firstCorrect, 0, state, STATE_HEADER + 2 * words, words);
+        if (given > 0) {
+            System.arraycopy(givenAnswers, 0, state, STATE_HEADER + 3 * words, given);
+        }
+        return state;
+    }
+
+    /**
+     * Sets the listener that is told about each question the first time it is answered.
+     *
+     * @param listener The listener, or null for none.
+     */
+    public void setAnswerListener(AnswerListener listener) {
+        answerListener = listener;
+    }
+
+    /**
+     * Sets the recorder that logs every answer, and every move to the next or previous
+     * question, so the game can be replayed (see GameReplayer). Moves are recorded here rather
+     * than by the caller, so moves made by a QuizTimer are logged too.
+     *
+     * @param recorder The recorder, or null for none.
+     */
+    public void setReplayRecorder(ReplayRecorder recorder) {
+        replayRecorder = recorder;
+    }
+
+    /**
+     * Returns the bank that this game's questions come from.
+     *
+     * @return The question bank.
+     */
+    public QuestionBank getBank() {
+        return bank;
+    }
+
+    /**
+     * Returns the question numbers (in the question bank) of this game's questions, in the
+     * order they are asked.
+     *
+     * @return A copy of this game's question numbers.
+     */
+    public int[] getQuestionNumbers() {
+        return questions.clone();
+    }
+
+    /**
+     * Returns the number of questions in this game.
+     *
+     * @return The number of questions in this game.
+     */
+    public int getNumQuestions() {
+        return numQuestions;
+    }
+
+    /**
+     * Returns the current score (number of correctly answered questions).
+     *
+     * @return Current score.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Returns the number of questions that have been answered.
+     *
+     * @return The number of questions that have been answered.
+     */
+    public int getNumQuestionsAnswered() {
+        return numQuestionsAnswered;
+    }
+
+    /**
+     * Returns the position of the current question in this game (0 for the first question).
+     *
+     * @return The position of the current question.
+     */
+    public int getGameQuestionNum() {
+        return gameQuestionNum;
+    }
+
+    /**
+     * Returns the question number (in the question bank) of the question at the given
+     * position in this game.
+     *
+     * @param position The position in this game (0 for the first question).
+     *
+     * @return The question number.
+     */
+    public int getQuestionNumber(int position) {
+        return questions[position];
+    }
+
+    /**
+     * Returns true if the question at the given position in this game has been answered.
+     *
+     * @param position The position in this game (0 for the first question).
+     *
+     * @return True if the question has been answered, false otherwise.
+     */
+    public boolean isAnswered(int position) {
+        return Bits.get(answered, position);
+    }
+
+    /**
+     * Returns true if the question at the given position in this game has been answered
+     * correctly.
+     *
+     * @param position The position in this game (0 for the first question).
+     *
+     * @return True if the question has been answered correctly, false otherwise.
+     */
+    public boolean isAnsweredCorrectly(int position) {
+        return Bits.get(correct, position);
+    }
+
+    /**
+     * Returns true if the question at the given position in this game was answered correctly
+     * the first time it was answered. Only the first answer is scored, so this is what the
+     * question added to the score; isAnsweredCorrectly() follows any later answers.
+     *
+     * @param position The position in this game (0 for the first question).
+     *
+     * @return True if the first answer was correct, false otherwise.
+     */
+    public boolean isFirstAnswerCorrect(int position) {
+        return Bits.get(firstCorrect, position);
+    }
+
+    /**
+     * Returns the type of the question at the given position in this game; one of the
+     * QuestionType constants.
+     *
+     * @param position The position in this game (0 for the first question).
+     *
+     * @return The question's type.
+     */
+    public int getQuestionType(int position) {
+        if (givenAnswers == null) {
+            return QuestionType.TRUE_FALSE;
+        }
+        return bank.getQuestionType(questions[position]);
+    }
+
+    /**
+     * Returns the answer given to the question at the given position in this game, encoded
+     * for its type as QuestionType describes.
+     *
+     * @param position The position in this game (0 for the first question).
+     *
+     * @throws IllegalStateException Throws IllegalStateException if the question has not
+     * been answered.
+     *
+     * @return The encoded answer.
+     */
+    public long getGivenAnswer(int position) {
+        if (!Bits.get(answered, position)) {
+            throw new IllegalStateException("Question " + position + " has not been answered.");
+        }
+        if (givenAnswers != null) {
+            return givenAnswers[position];
+        }
+
+        //a true/false answer is the correct one if it was correct, and the other otherwise.
+        boolean correctAnswer = bank.getCorrectAnswer(questions[position]);
+        return correctAnswer == Bits.get(correct, position) ? 1 : 0;
+    }
+
+    /**
+     * Returns a copy of the current question, including whether (and how) it was answered.
+     * Changes to the copy do not affect this game.
+     *
+     * @return A copy of the current question.
+     */
+    public Question getCurrentQuestion() {
+        int questionNumber = getCurrentQuestionNumber();
+        String[] choices = new String[bank.getChoiceCount(questionNumber)];
+        for (int i = 0; i < choices.length; i++) {
+            choices[i] = bank.getChoiceText(questionNumber, i);
+        }
+        Question question = new Question(getCurrentQuestionText(),
+                bank.getQuestionType(questionNumber), bank.getAnswerKey(questionNumber),
+                bank.getRangeMin(questionNumber), bank.getRangeMax(questionNumber), choices);
+        if (isCurrentQuestionAnswered()) {
+            question.answer(getGivenAnswer(gameQuestionNum));
+        }
+        return question;
+    }
+
+    /**
+     * Returns the type of the current question; one of the QuestionType constants.
+     *
+     * @return The current question's type.
+     */
+    public int getCurrentQuestionType() {
+        return getQuestionType(gameQuestionNum);
+    }
+
+    /**
+     * Returns the question number (in the question bank) of the current question.
+     *
+     * @return The question number of the current question.
+     */
+    public int getCurrentQuestionNumber() {
+        return questions[gameQuestionNum];
+    }
+
+    /**
+     * Returns the current question.
+     *
+     * @return The current question
+     */
+    public String getCurrentQuestionText() {
+        String text = questionTexts[gameQuestionNum];
+        if (text == null) {
+            text = bank.getQuestionText(getCurrentQuestionNumber());
+            questionTexts[gameQuestionNum] = text;
+        }
+        return text;
+    }
+
+    /**
+     * Returns true if the current question has been answered, false otherwise.
+     *
+     * @return True if the current question has been answered, false otherwise.
+     */
+    public boolean isCurrentQuestionAnswered() {
+        return Bits.get(answered, gameQuestionNum);
+    }
+
+    /**
+     * Returns true if the current question has been correctly answered, false otherwise.
+     *
+     * @return True if the current question has been correctly answered, false otherwise.
+     */
+    public boolean isCurrentQuestionAnsweredCorrectly() {
+        return Bits.get(correct, gameQuestionNum);
+    }
+
+    /**
+     * Returns whether the current question has been answered, and if so whether correctly.
+     * This does not allocate.
+     *
+     * @return The answer state of the current question.
+     */
+    public AnswerState getCurrentAnswerState() {
+        if (!isCurrentQuestionAnswered()) {
+            return AnswerState.UNANSWERED;
+        }
+        return isCurrentQuestionAnsweredCorrectly() ? AnswerState.CORRECT : AnswerState.WRONG;
+    }
+
+    /**
+     * Takes the user's answer to the current (true/false) question and compares it to the
+     * correct answer. If they match, then the user's score increments and this method returns
+     * true. Otherwise, this method returns false. Either way, move on to next question and
+     * increment numQuestionsAnswered.
+     *
+     * @param answer The user's answer.
+     *
+     * @throws IllegalStateException Throws IllegalStateException if called when
+     * the game is already over, or the current question is not a true/false question.
+     *
+     * @return True if the user was correct, false otherwise.
+     */
+    public boolean answerQuestion(boolean answer) {
+        checkAnswerType(QuestionType.TRUE_FALSE);
+        return answer(answer ? 1 : 0);
+    }
+
+    /**
+     * Answers the current (single choice) question with the given choice; otherwise the same
+     * as answerQuestion.
+     *
+     * @param choice The index of the user's choice.
+     *
+     * @throws IllegalStateException Throws IllegalStateException if called when
+     * the game is already over, or the current question is not a single choice question.
+     * @throws IllegalArgumentException Throws IllegalArgumentException if the question has
+     * no such choice.
+     *
+     * @return True if the user was correct, false otherwise.
+     */
+    public boolean answerChoice(int choice) {
+        checkAnswerType(QuestionType.SINGLE_CHOICE);
+        if (choice < 0 || choice >= bank.getChoiceCount(getCurrentQuestionNumber())) {
+            throw new IllegalArgumentException("The current question has no choice " + choice
+                    + ".");
+        }
+        return answer(choice);
+    }
+
+    /**
+     * Answers the current (multi-select) question with the given choices; otherwise the same
+     * as answerQuestion. Only exactly the right set of choices is correct.
+     *
+     * @param choices The user's choices, as a bitmask (bit i for choice i).
+     *
+     * @throws IllegalStateException Throws IllegalStateException if called when
+     * the game is already over, or the current question is not a multi-select question.
+     * @throws IllegalArgumentException Throws IllegalArgumentException if choices includes
+     * choices the question does not have.
+     *
+     * @return True if the user was correct, false otherwise.
+     */
+    public boolean answerChoices(long choices) {
+        checkAnswerType(QuestionType.MULTI_SELECT);
+        long allChoices = QuestionType.allChoices(bank.getChoiceCount(getCurrentQuestionNumber()));
+        if ((choices & ~allChoices) != 0) {
+            throw new IllegalArgumentException("Choices include choices that do not exist.");
+        }
+        return answer(choices);
+    }
+
+    /**
+     * Answers the current (numeric) question with the given number; otherwise the same as
+     * answerQuestion. The answer is correct if it is within the question's range.
+     *
+     * @param number The user's answer.
+     *
+     * @throws IllegalStateException Throws IllegalStateException if called when
+     * the game is already over, or the current question is not a numeric question.
+     * @throws IllegalArgumentException Throws IllegalArgumentException if number is NaN.
+     *
+     * @return True if the user was correct, false otherwise.
+     */
+    public boolean answerNumber(double number) {
+        checkAnswerType(QuestionType.NUMERIC);
+        if (Double.isNaN(number)) {
+            throw new IllegalArgumentException("Answer is not a number.");
+        }
+        return answer(Double.doubleToLongBits(number));
+    }
+
+    //throw if the current question cannot be answered with an answer of the given type.
+    private void checkAnswerType(int type) {
+        //if the game is over, then a question cannot be answered.
+        if (isGameOver()) {
+            throw new IllegalStateException("Cannot answer questions when game is over.");
+        }
+
+        int currentType = getCurrentQuestionType();
+        if (currentType != type) {
+            throw new IllegalStateException("The current question is a "
+                    + QuestionType.name(currentType) + " question, not "
+                    + QuestionType.name(type) + ".");
+        }
+    }
+
+    //answer the current question with an answer already checked against its type, and move
+    //on to the next question.
+    private boolean answer(long answer) {
+        int questionNumber = getCurrentQuestionNumber();
+
+        //check the answer; true/false only games skip the type switch.
+        boolean result;
+        if (givenAnswers == null) {
+            result = (answer == 1) == bank.getCorrectAnswer(questionNumber);
+        } else {
+            result = QuestionType.isCorrect(bank, questionNumber, answer);
+            givenAnswers[gameQuestionNum] = answer;
+        }
+
+        //if the user already answered the question, their score should not increase for
+        //answering correctly this time.
+        boolean noScore = false;
+
+        //the user answered a question; increment numQuestionsAnswered if this
+        //question was not already answered.
+        if (!isCurrentQuestionAnswered()) {
+            noScore = true;
+            numQuestionsAnswered++;
+        }
+
+        //record the user's answer.
+        Bits.set(answered, gameQuestionNum, true);
+        Bits.set(correct, gameQuestionNum, result);
+
+        //only incrase score if this is the first time the question has been answered.
+        if (result && noScore) {
+            score++;
+            Bits.set(firstCorrect, gameQuestionNum, true);
+        }
+
+        //tell the listener about first answers (the ones that count).
+        if (noScore && answerListener != null) {
+            answerListener.onAnswer(questionNumber, result);
+        }
+        if (replayRecorder != null) {
+            replayRecorder.recordAnswer(answer);
+        }
+
+        //advance to the next question; the answer implies the move, so it is not recorded.
+        advance();
+
+        //return result (true if user was correct, false otherwise).
+        return result;
+    }
+
+    /**
+     * Advance to the next question without answering the current one.
+     * Returns true if successful, false otherwise.
+     *
+     * @return True if successful, false otherwise.
+     */
+    public boolean nextQuestion() {
+        boolean moved = advance();
+        if (moved && replayRecorder != null) {
+            replayRecorder.recordMove(true);
+        }
+        return moved;
+    }
+
+    //move to the next question, if there is one.
+    private boolean advance() {
+        //if this is the last question, do not advance, and return false.
+        if (gameQuestionNum >= numQuestions - 1) {
+            return false;
+        }
+
+        //if this is not the last question, advance to the next question and return true.
+        gameQuestionNum++;
+        return true;
+    }
+
+    /**
+     * Go back to the previous question without answering the current one.
+     * Returns true if successful, false otherwise.
+     *
+     * @return True if successful, false otherwise.
+     */
+    public boolean previousQuestion() {
+        //if this is the first question, do not go back, and return false.
+        if (gameQuestionNum <= 0) {
+            return false;
+        }
+
+        //if this is not the first question, go back to the previous question and return true.
+        gameQuestionNum--;
+        if (replayRecorder != null) {
+            replayRecorder.recordMove(false);
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the game is over. The game is considered over when the user has
+     * answered numQuestions questions (whether they are correct or not).
+     *
+     * @return True if the user has answered enough questions, false otherwise.
+     */
+    public boolean isGameOver() {
+        return numQuestionsAnswered >= numQuestions;
+    }
+
+    //returns true if every one of the given questions is a true/false question.
+    static boolean allTrueFalse(QuestionBank bank, int[] questions) {
+        for (int question : questions) {
+            if (question >= 0 && question < bank.size()
+                    && bank.getQuestionType(question) != QuestionType.TRUE_FALSE) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
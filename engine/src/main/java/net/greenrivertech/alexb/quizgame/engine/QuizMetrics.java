@@ -0,0 +1,130 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: QuizMetrics.java
+ *
+ * The latency histograms and counters that the quiz game records as it runs.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The latency histograms and counters that the quiz game records as it runs. They are plain
+ * static fields so hot paths record without any lookup; everything is lock-free and
+ * allocation-free to record. Latencies are in nanoseconds.
+ *
+ * snapshot() writes everything out as JSON lines (one object per metric), for dumping to a
+ * file or logcat and comparing p50/p99 across builds.
+ *
+ * @author Alex Ball
+ */
+public final class QuizMetrics {
+    /**
+     * Loading the question bank and starting a game, until the game is ready to play.
+     */
+    public static final LatencyHistogram MODEL_LOAD = new LatencyHistogram("app.modelLoad");
+
+    /**
+     * Rebuilding a saved game (after the app's process was killed) from its saved state.
+     */
+    public static final LatencyHistogram STATE_RESTORE = new LatencyHistogram("app.stateRestore");
+
+    /**
+     * Choosing the questions for a new game and setting it up.
+     */
+    public static final LatencyHistogram NEW_GAME = new LatencyHistogram("engine.newGame");
+
+    /**
+     * Answering a question (scoring it and moving on).
+     */
+    public static final LatencyHistogram ANSWER = new LatencyHistogram("engine.answer");
+
+    /**
+     * Moving to the next or previous question.
+     */
+    public static final LatencyHistogram NAVIGATE = new LatencyHistogram("engine.navigate");
+
+    /**
+     * From creating the question screen until the first question is drawn.
+     */
+    public static final LatencyHistogram FIRST_QUESTION =
+            new LatencyHistogram("app.firstQuestion");
+
+    /**
+     * From the game ending until the score summary screen is drawn.
+     */
+    public static final LatencyHistogram SCORE_SUMMARY_TRANSITION =
+            new LatencyHistogram("app.scoreSummaryTransition");
+
+    /**
+     * How long the user took to answer each question in timed games, recorded when the game
+     * ends (see QuizTimer.recordResponseTimes).
+     */
+    public static final LatencyHistogram RESPONSE_TIME = new LatencyHistogram("game.responseTime");
+
+    /**
+     * Taking a game from a GamePool, whether it was waiting there or had to be made.
+     */
+    public static final LatencyHistogram GAME_POOL_TAKE = new LatencyHistogram("pool.take");
+
+    /**
+     * Refilling a GamePool in the background, from the first game made until it is full.
+     */
+    public static final LatencyHistogram GAME_POOL_REFILL = new LatencyHistogram("pool.refill");
+
+    /**
+     * Number of games finished.
+     */
+    public static final AtomicLong GAMES_FINISHED = new AtomicLong();
+
+    /**
+     * Number of games taken from a GamePool that were waiting there.
+     */
+    public static final AtomicLong GAME_POOL_HITS = new AtomicLong();
+
+    /**
+     * Number of games taken from a GamePool that was empty, so had to be made on the spot.
+     */
+    public static final AtomicLong GAME_POOL_MISSES = new AtomicLong();
+
+    //every histogram, in reporting order
+    private static final LatencyHistogram[] HISTOGRAMS = {MODEL_LOAD, STATE_RESTORE,
+            NEW_GAME, ANSWER, NAVIGATE, FIRST_QUESTION, SCORE_SUMMARY_TRANSITION, RESPONSE_TIME,
+            GAME_POOL_TAKE, GAME_POOL_REFILL};
+
+    private QuizMetrics() {
+    }
+
+    /**
+     * Appends every metric to out as JSON lines: one line per histogram (see
+     * LatencyHistogram.appendJson) plus one for the counters, each tagged with the given time.
+     *
+     * @param out Where to append the lines.
+     * @param timeMillis The time of the snapshot, in milliseconds since the epoch.
+     */
+    public static void snapshot(StringBuilder out, long timeMillis) {
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            out.append("{\"time\":").append(timeMillis).append(",\"histogram\":");
+            histogram.appendJson(out);
+            out.append("}\n");
+        }
+        out.append("{\"time\":").append(timeMillis)
+                .append(",\"counters\":{\"gamesFinished\":").append(GAMES_FINISHED.get())
+                .append(",\"gamePoolHits\":").append(GAME_POOL_HITS.get())
+                .append(",\"gamePoolMisses\":").append(GAME_POOL_MISSES.get())
+                .append("}}\n");
+    }
+
+    /**
+     * Clears every metric.
+     */
+    public static void reset() {
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+        GAMES_FINISHED.set(0);
+        GAME_POOL_HITS.set(0);
+        GAME_POOL_MISSES.set(0);
+    }
+}
@@ -0,0 +1,532 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: QuizTimer.java
+ *
+ * Time limits for a quiz game: a deadline for each question and one for the whole game.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+import java.util.Arrays;
+
+/**
+ * Time limits for a quiz game (a QuizEngine): a limit on the time spent on each question and
+ * one on the whole game. When a question's time runs out it expires (it can no longer be
+ * answered, and scores nothing) and the game moves on to the next question that can still be
+ * answered; when the game's time runs out, or every question is answered or expired, the
+ * game is finished.
+ *
+ * The timer does not run anything by itself. Every method takes the current time from a
+ * monotonic clock (System.nanoTime) as now, and getNextDeadline() says when expire() next
+ * needs to be called, so one scheduler can drive the whole game: after each change, schedule
+ * a single wake-up at the next deadline (replacing the previous one). Deadlines are absolute,
+ * so a late wake-up never delays the ones after it.
+ *
+ * The time spent on each question is kept in a long per question, which is frozen when the
+ * question is answered and is then its response time. Time only counts while the question is
+ * shown and the timer is running, so leaving a question and coming back to it does not reset
+ * its clock.
+ *
+ * @author Alex Ball
+ */
+public class QuizTimer {
+    /**
+     * Limit that means no limit.
+     */
+    public static final long NO_LIMIT = 0;
+
+    /**
+     * Points for each correct answer in getSpeedScore().
+     */
+    public static final int BASE_POINTS = 100;
+
+    /**
+     * Most extra points for a correct answer in getSpeedScore(), for answering instantly.
+     */
+    public static final int SPEED_BONUS_POINTS = 100;
+
+    //layout of the array returned by saveState(): a header of STATE_HEADER longs, followed by
+    //the expired bits, the first-answer-correct bits and then the time spent on each question.
+    private static final long STATE_VERSION = 2;
+    private static final int STATE_HEADER = 5;
+
+    //the game being timed.
+    private final QuizEngine game;
+
+    //the limits, in nanoseconds (NO_LIMIT for none).
+    private final long questionLimit;
+    private final long gameLimit;
+
+    //time spent on each of the game's questions, in nanoseconds, not counting the current
+    //stretch (since shownSince) of the question being timed.
+    private final long[] elapsed;
+
+    //which of the game's questions have expired, one bit per question.
+    private final long[] expired;
+
+    //which of the game's questions were answered correctly the first time, one bit per
+    //question. This is taken when the question stops being timed, as its time is, since the
+    //engine's correct bits follow later answers too, which are not scored.
+    private final long[] firstCorrect;
+
+    //the number of expired questions.
+    private int numExpired;
+
+    //true once the game's time has run out.
+    private boolean gameExpired;
+
+    //game time used before the timer was last started, in nanoseconds.
+    private long gameElapsed;
+
+    //true while the timer is running, and when it was last started.
+    private boolean running;
+    private long runningSince;
+
+    //the position of the question being timed (the current question, if it can still be
+    //answered), or -1 if none; and when it started being timed.
+    private int timedPosition = -1;
+    private long shownSince;
+
+    /**
+     * Constructor that creates a timer for the given game. The timer is stopped; start() it
+     * when the game is shown.
+     *
+     * @param game The game to time.
+     * @param questionLimitNanos The time allowed for each question, in nanoseconds, or
+     * NO_LIMIT.
+     * @param gameLimitNanos The time allowed for the whole game, in nanoseconds, or NO_LIMIT.
+     *
+     * @throws IllegalArgumentException If either limit is negative.
+     */
+    public QuizTimer(QuizEngine game, long questionLimitNanos, long gameLimitNanos) {
+        if (questionLimitNanos < 0 || gameLimitNanos < 0) {
+            throw new IllegalArgumentException("Time limits cannot be negative.");
+        }
+        this.game = game;
+        this.questionLimit = questionLimitNanos;
+        this.gameLimit = gameLimitNanos;
+        elapsed = new long[game.getNumQuestions()];
+        expired = new long[Bits.words(game.getNumQuestions())];
+        firstCorrect = new long[Bits.words(game.getNumQuestions())];
+    }
+
+    /**
+     * Clears every time and expiry, for when the game is started again with new questions (see
+     * QuizEngine.reset). The timer is stopped; start() it when the game is shown.
+     */
+    public void reset() {
+        Arrays.fill(elapsed, 0);
+        Arrays.fill(expired, 0);
+        Arrays.fill(firstCorrect, 0);
+        numExpired = 0;
+        gameExpired = false;
+        gameElapsed = 0;
+        running = false;
+        runningSince = 0;
+        timedPosition = -1;
+        shownSince = 0;
+    }
+
+    /**
+     * Restores a timer saved with saveState(), for the given (restored) game. The timer is
+     * stopped; start() it when the game is shown.
+     *
+     * @param game The game the timer was saved with.
+     * @param state The timer's state, as returned by saveState().
+     *
+     * @throws IllegalArgumentException Throws IllegalArgumentException if the state was not
+     * saved from a timer for this game.
+     *
+     * @return The restored timer.
+     */
+    public static QuizTimer restore(QuizEngine game, long[] state) {
+        int numQuestions = game.getNumQuestions();
+        int words = Bits.words(numQuestions);
+        if (state.length != STATE_HEADER + 2 * words + numQuestions
+                || state[0] != STATE_VERSION
+                || state[1] < 0 || state[2] < 0 || state[3] < 0) {
+            throw new IllegalArgumentException("Not a saved timer for this game.");
+        }
+
+        QuizTimer timer = new QuizTimer(game, state[1], state[2]);
+        timer.gameElapsed = state[3];
+        timer.gameExpired = state[4] != 0;
+        System.arraycopy(state, STATE_HEADER, timer.expired, 0, words);
+        System.arraycopy(state, STATE_HEADER + words, timer.firstCorrect, 0, words);
+        System.arraycopy(state, STATE_HEADER + 2 * words, timer.elapsed, 0, numQuestions);
+
+        //answered questions cannot also have expired, and only answered questions can have
+        //been answered correctly.
+        for (int i = 0; i < numQuestions; i++) {
+            if (Bits.get(timer.firstCorrect, i) && !game.isAnswered(i)) {
+                throw new IllegalArgumentException("Saved timer is inconsistent.");
+            }
+            if (timer.isExpired(i)) {
+                if (game.isAnswered(i)) {
+                    throw new IllegalArgumentException("Saved timer is inconsistent.");
+                }
+                timer.numExpired++;
+            }
+            if (timer.elapsed[i] < 0) {
+                throw new IllegalArgumentException("Saved timer is inconsistent.");
+            }
+        }
+        return timer;
+    }
+
+    /**
+     * Returns this timer's state (limits, time used and expired questions) packed into a new
+     * array of 5 + 2 * ceil(numQuestions / 64) + numQuestions longs, for restore().
+     *
+     * @param now The current time (System.nanoTime).
+     *
+     * @return The timer's state.
+     */
+    public long[] saveState(long now) {
+        int words = expired.length;
+        long[] state = new long[STATE_HEADER + 2 * words + elapsed.length];
+        state[0] = STATE_VERSION;
+        state[1] = questionLimit;
+        state[2] = gameLimit;
+        state[3] = getGameTimeUsed(now);
+        state[4] = gameExpired ? 1 : 0;
+        System.arraycopy(expired, 0, state, STATE_HEADER, words);
+        System.arraycopy(firstCorrect, 0, state, STATE_HEADER + words, words);
+        System.arraycopy(elapsed, 0, state, STATE_HEADER + 2 * words, elapsed.length);
+        if (timedPosition >= 0) {
+            state[STATE_HEADER + 2 * words + timedPosition] += now - shownSince;
+        }
+        return state;
+    }
+
+    /**
+     * Starts (or resumes) the clocks, timing the current question.
+     *
+     * @param now The current time (System.nanoTime).
+     */
+    public void start(long now) {
+        if (running) {
+            return;
+        }
+        running = true;
+        runningSince = now;
+        timeCurrentQuestion(now);
+    }
+
+    /**
+     * Stops the clocks, e.g. while the game is not on screen. No time is used until start()
+     * is called again.
+     *
+     * @param now The current time (System.nanoTime).
+     */
+    public void stop(long now) {
+        if (!running) {
+            return;
+        }
+        stopTimingQuestion(now);
+        gameElapsed += now - runningSince;
+        running = false;
+    }
+
+    /**
+     * Returns true if the clocks are running.
+     *
+     * @return True if the timer has been started and not stopped.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Tells the timer that the game has changed: a question was answered, or the game moved
+     * to another question. Call this after each change, with the time the change was made, so
+     * the time up to then is charged to the question that was shown.
+     *
+     * @param now The time of the change (System.nanoTime).
+     */
+    public void update(long now) {
+        if (!running) {
+            return;
+        }
+        stopTimingQuestion(now);
+        timeCurrentQuestion(now);
+    }
+
+    /**
+     * Expires the current question if its time has run out, moving the game on to the next
+     * question that can still be answered (see QuizEngine.nextQuestion), and finishes the game
+     * if its time has run out. Call this at (or after) getNextDeadline().
+     *
+     * @param now The current time (System.nanoTime).
+     *
+     * @return True if a question or the game expired.
+     */
+    public boolean expire(long now) {
+        if (!running || isFinished()) {
+            return false;
+        }
+
+        if (gameLimit != NO_LIMIT && getGameTimeUsed(now) >= gameLimit) {
+            stopTimingQuestion(now);
+            gameExpired = true;
+            return true;
+        }
+
+        if (timedPosition >= 0 && questionLimit != NO_LIMIT
+                && elapsed[timedPosition] + now - shownSince >= questionLimit) {
+            int position = timedPosition;
+            timedPosition = -1;
+            elapsed[position] = questionLimit;
+            Bits.set(expired, position, true);
+            numExpired++;
+
+            //move on to the next question that can be answered, or back to an earlier one if
+            //there are none after this one.
+            while (!isAnswerable(game.getGameQuestionNum()) && game.nextQuestion()) {
+                //keep going
+            }
+            while (!isAnswerable(game.getGameQuestionNum()) && game.previousQuestion()) {
+                //keep going
+            }
+            timeCurrentQuestion(now);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns when expire() next needs to be called: the earlier of the current question's
+     * deadline and the game's, or Long.MAX_VALUE if neither can expire (the timer is stopped,
+     * the game is finished, or there are no limits).
+     *
+     * @return The next deadline (System.nanoTime).
+     */
+    public long getNextDeadline() {
+        if (!running || isFinished()) {
+            return Long.MAX_VALUE;
+        }
+        long deadline = Long.MAX_VALUE;
+        if (gameLimit != NO_LIMIT) {
+            deadline = runningSince + gameLimit - gameElapsed;
+        }
+        if (timedPosition >= 0 && questionLimit != NO_LIMIT) {
+            deadline = Math.min(deadline, shownSince + questionLimit - elapsed[timedPosition]);
+        }
+        return deadline;
+    }
+
+    /**
+     * Returns when a countdown showing the time left in whole ticks (e.g. seconds) next
+     * changes: the next deadline, or the next time either time left crosses a multiple of
+     * tickNanos, whichever is sooner. Waking up then keeps a countdown display exact with one
+     * wake-up per tick.
+     *
+     * @param now The current time (System.nanoTime).
+     * @param tickNanos The length of a tick, in nanoseconds.
+     *
+     * @return The next time the countdown changes (System.nanoTime), or Long.MAX_VALUE if the
+     * timer is not counting down.
+     */
+    public long getNextTick(long now, long tickNanos) {
+        long deadline = getNextDeadline();
+        if (deadline == Long.MAX_VALUE) {
+            return deadline;
+        }
+        long next = deadline;
+        long questionLeft = getQuestionTimeLeft(now);
+        if (questionLeft > 0 && questionLeft != Long.MAX_VALUE) {
+            next = Math.min(next, now + (questionLeft - 1) % tickNanos + 1);
+        }
+        long gameLeft = getGameTimeLeft(now);
+        if (gameLeft > 0 && gameLeft != Long.MAX_VALUE) {
+            next = Math.min(next, now + (gameLeft - 1) % tickNanos + 1);
+        }
+        return next;
+    }
+
+    /**
+     * Returns the time left to answer the current question, in nanoseconds: 0 if it has
+     * expired or the game is finished, or Long.MAX_VALUE if there is no question limit.
+     *
+     * @param now The current time (System.nanoTime).
+     *
+     * @return The current question's time left.
+     */
+    public long getQuestionTimeLeft(long now) {
+        if (questionLimit == NO_LIMIT) {
+            return Long.MAX_VALUE;
+        }
+        if (isFinished()) {
+            return 0;
+        }
+        int position = game.getGameQuestionNum();
+        long spent = elapsed[position];
+        if (position == timedPosition) {
+            spent += now - shownSince;
+        }
+        return isExpired(position) ? 0 : Math.max(0, questionLimit - spent);
+    }
+
+    /**
+     * Returns the time left in the game, in nanoseconds: 0 if it has run out, or
+     * Long.MAX_VALUE if there is no game limit.
+     *
+     * @param now The current time (System.nanoTime).
+     *
+     * @return The game's time left.
+     */
+    public long getGameTimeLeft(long now) {
+        if (gameLimit == NO_LIMIT) {
+            return Long.MAX_VALUE;
+        }
+        return gameExpired ? 0 : Math.max(0, gameLimit - getGameTimeUsed(now));
+    }
+
+    /**
+     * Returns the time the game has been played for, in nanoseconds, not counting time while
+     * the timer was stopped.
+     *
+     * @param now The current time (System.nanoTime).
+     *
+     * @return The game time used.
+     */
+    public long getGameTimeUsed(long now) {
+        return running ? gameElapsed + now - runningSince : gameElapsed;
+    }
+
+    /**
+     * Returns the time allowed for each question, in nanoseconds, or NO_LIMIT.
+     *
+     * @return The question time limit.
+     */
+    public long getQuestionLimit() {
+        return questionLimit;
+    }
+
+    /**
+     * Returns the time allowed for the whole game, in nanoseconds, or NO_LIMIT.
+     *
+     * @return The game time limit.
+     */
+    public long getGameLimit() {
+        return gameLimit;
+    }
+
+    /**
+     * Returns true if the question at the given position ran out of time before it was
+     * answered.
+     *
+     * @param position The position in the game (0 for the first question).
+     *
+     * @return True if the question has expired.
+     */
+    public boolean isExpired(int position) {
+        return Bits.get(expired, position);
+    }
+
+    /**
+     * Returns the number of questions that ran out of time before they were answered.
+     *
+     * @return The number of expired questions.
+     */
+    public int getNumExpired() {
+        return numExpired;
+    }
+
+    /**
+     * Returns true if the game's time has run out.
+     *
+     * @return True if the game expired.
+     */
+    public boolean isGameExpired() {
+        return gameExpired;
+    }
+
+    /**
+     * Returns true if the game is finished: every question has been answered or has expired,
+     * or the game's time has run out.
+     *
+     * @return True if the game is finished.
+     */
+    public boolean isFinished() {
+        return gameExpired
+                || game.getNumQuestionsAnswered() + numExpired >= game.getNumQuestions();
+    }
+
+    /**
+     * Returns the response time of the question at the given position: how long it was shown
+     * for before it was first answered, in nanoseconds; or -1 if it has not been answered.
+     *
+     * @param position The position in the game (0 for the first question).
+     *
+     * @return The response time, or -1.
+     */
+    public long getResponseTime(int position) {
+        return game.isAnswered(position) ? elapsed[position] : -1;
+    }
+
+    /**
+     * Records the response time of every answered question in the given histogram.
+     *
+     * @param histogram The histogram to record in.
+     */
+    public void recordResponseTimes(LatencyHistogram histogram) {
+        for (int i = 0; i < elapsed.length; i++) {
+            if (game.isAnswered(i)) {
+                histogram.record(elapsed[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the game's speed-weighted score: BASE_POINTS for each question whose first
+     * answer was correct (the answers QuizEngine scores), plus up to SPEED_BONUS_POINTS in
+     * proportion to how much of the question's time was left when it was answered (no bonus
+     * if there is no question limit). Answering a question again does not change its points.
+     *
+     * @return The speed-weighted score.
+     */
+    public int getSpeedScore() {
+        long points = 0;
+        for (int i = 0; i < elapsed.length; i++) {
+            if (Bits.get(firstCorrect, i)) {
+                points += BASE_POINTS;
+                if (questionLimit != NO_LIMIT) {
+                    long left = Math.max(0, questionLimit - elapsed[i]);
+                    points += (long) ((double) SPEED_BONUS_POINTS * left / questionLimit);
+                }
+            }
+        }
+        return (int) points;
+    }
+
+    //returns true if the question at the given position can still be answered (and so is
+    //timed while it is shown).
+    private boolean isAnswerable(int position) {
+        return !game.isAnswered(position) && !Bits.get(expired, position);
+    }
+
+    //start timing the current question, if it can still be answered.
+    private void timeCurrentQuestion(long now) {
+        int position = game.getGameQuestionNum();
+        if (!isFinished() && isAnswerable(position)) {
+            timedPosition = position;
+            shownSince = now;
+        } else {
+            timedPosition = -1;
+        }
+    }
+
+    //charge the time since it was shown to the question being timed, and stop timing it. If
+    //it was just answered (its first answer, since answered questions are not timed), keep
+    //whether that answer was correct.
+    private void stopTimingQuestion(long now) {
+        if (timedPosition >= 0) {
+            elapsed[timedPosition] += now - shownSince;
+            if (game.isAnswered(timedPosition)) {
+                Bits.set(firstCorrect, timedPosition, game.isAnsweredCorrectly(timedPosition));
+            }
+            timedPosition = -1;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: ReplayRecorder.java
+ *
+ * Records a game as a compact replay log: how its questions were chosen, then every answer
+ * and move, so GameReplayer can play it again and check its score.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Records a game as a compact replay log: how its questions were chosen, then every answer
+ * and move, so GameReplayer can play it again and check its score.
+ *
+ * A log starts with a header: the format version (one byte), the bank size, the sampler's
+ * seed (eight bytes), a flags varint and the number of questions. If the game was not chosen
+ * by a seeded FloydQuestionSampler from the whole bank (FLAG_QUESTIONS_LISTED), the question
+ * numbers follow as varints. Then comes one event per answer or move: a one byte tag, followed
+ * by the answer as a varint if it is not 0 or 1 (so answers to true/false and two-choice
+ * questions take a single byte), and an END event with the score the player was given. A
+ * seeded three question true/false game takes about 20 bytes.
+ *
+ * Events are written into a byte array that is reused from game to game, so recording only
+ * allocates when a log is longer than any before it. Attach the recorder with start() or
+ * startSeeded(); the engine then records its own answers and moves, including moves a
+ * QuizTimer makes.
+ *
+ * This class is not thread safe; use it from the thread that plays the game.
+ *
+ * @author Alex Ball
+ */
+public class ReplayRecorder {
+    /**
+     * Version of the log format, written as the first byte of every log.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    //header flag: the question numbers are listed, rather than chosen from the seed.
+    static final int FLAG_QUESTIONS_LISTED = 1;
+
+    //event tags
+    static final int EVENT_ANSWER_FALSE = 0;
+    static final int EVENT_ANSWER_TRUE = 1;
+    static final int EVENT_NEXT = 2;
+    static final int EVENT_PREVIOUS = 3;
+    static final int EVENT_ANSWER = 4;
+    static final int EVENT_END = 5;
+
+    //the log so far, in buffer[0, length).
+    private byte[] buffer;
+    private int length;
+
+    //the game being recorded; null if none.
+    private QuizEngine game;
+
+    /**
+     * Constructor that creates a recorder with room for a typical short game.
+     */
+    public ReplayRecorder() {
+        this(64);
+    }
+
+    /**
+     * Constructor that creates a recorder whose buffer starts with the given capacity. The
+     * buffer grows as needed.
+     *
+     * @param initialCapacity The initial buffer size in bytes.
+     */
+    public ReplayRecorder(int initialCapacity) {
+        buffer = new byte[Math.max(initialCapacity, 16)];
+    }
+
+    /**
+     * Starts recording a new game whose questions were chosen by
+     * <code>new FloydQuestionSampler(seed)</code> from the whole bank (as
+     * QuizEngine.newGame(bank, sampler, n) does). Only the seed is logged, not the questions;
+     * GameReplayer chooses them again from it. Any earlier log is discarded.
+     *
+     * @param game The game to record, before any of its questions have been answered.
+     * @param seed The seed its questions were chosen with.
+     */
+    public void startSeeded(QuizEngine game, long seed) {
+        writeHeader(game, seed, 0);
+    }
+
+    /**
+     * Starts recording a new game whose questions were chosen some other way (from a pool,
+     * adaptively or for review), logging its question numbers. Any earlier log is discarded.
+     *
+     * @param game The game to record, before any of its questions have been answered.
+     */
+    public void start(QuizEngine game) {
+        writeHeader(game, 0, FLAG_QUESTIONS_LISTED);
+        for (int i = 0; i < game.getNumQuestions(); i++) {
+            writeVarint(game.getQuestionNumber(i));
+        }
+    }
+
+    /**
+     * Carries on recording a game that was restored (e.g. with QuizEngine.restore) along with
+     * the log recorded so far, as returned by toByteArray().
+     *
+     * @param game The restored game.
+     * @param log The game's log so far. It is copied.
+     */
+    public void resume(QuizEngine game, byte[] log) {
+        length = 0;
+        ensureCapacity(log.length);
+        System.arraycopy(log, 0, buffer, 0, log.length);
+        length = log.length;
+        attach(game);
+    }
+
+    /**
+     * Ends the log with the game's score (the score the player was given, which a replay
+     * should reproduce) and stops recording. Does nothing if no game is being recorded.
+     */
+    public void finish() {
+        if (game != null) {
+            ensureCapacity(1);
+            buffer[length++] = EVENT_END;
+            writeVarint(game.getScore());
+            game.setReplayRecorder(null);
+            game = null;
+        }
+    }
+
+    /**
+     * Returns true if a game is being recorded (it was started and not finished).
+     *
+     * @return True if recording.
+     */
+    public boolean isRecording() {
+        return game != null;
+    }
+
+    /**
+     * Returns the buffer the log is written into; the log is its first getLength() bytes. The
+     * buffer is reused (and may be replaced) when the next game is recorded.
+     *
+     * @return The log buffer.
+     */
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Returns the length of the log in bytes.
+     *
+     * @return The log length.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns a copy of the log.
+     *
+     * @return The log.
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * Writes the log to the stream, preceded by its length as a varint, so many logs can be
+     * appended to one file and read back one at a time.
+     *
+     * @param out The stream to write to.
+     *
+     * @throws IOException Throws IOException if the stream cannot be written.
+     */
+    public void writeFramed(OutputStream out) throws IOException {
+        writeFramed(out, buffer, 0, length);
+    }
+
+    /**
+     * Writes a log (e.g. a copy taken with toByteArray()) to the stream the way
+     * writeFramed(OutputStream) does.
+     *
+     * @param out The stream to write to.
+     * @param log The array holding the log.
+     * @param offset The position of the log in the array.
+     * @param length The length of the log in bytes.
+     *
+     * @throws IOException Throws IOException if the stream cannot be written.
+     */
+    public static void writeFramed(OutputStream out, byte[] log, int offset, int length)
+            throws IOException {
+        int value = length;
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+        out.write(log, offset, length);
+    }
+
+    //called by the engine when the current question is answered.
+    void recordAnswer(long answer) {
+        ensureCapacity(1);
+        if (answer == 0) {
+            buffer[length++] = EVENT_ANSWER_FALSE;
+        } else if (answer == 1) {
+            buffer[length++] = EVENT_ANSWER_TRUE;
+        } else {
+            buffer[length++] = EVENT_ANSWER;
+            writeVarint(answer);
+        }
+    }
+
+    //called by the engine when it moves to the next (or previous) question.
+    void recordMove(boolean forward) {
+        ensureCapacity(1);
+        buffer[length++] = (byte) (forward ? EVENT_NEXT : EVENT_PREVIOUS);
+    }
+
+    private void writeHeader(QuizEngine game, long seed, int flags) {
+        length = 0;
+        buffer[length++] = FORMAT_VERSION;
+        writeVarint(game.getBank().size());
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[length++] = (byte) (seed >>> shift);
+        }
+        writeVarint(flags);
+        writeVarint(game.getNumQuestions());
+        attach(game);
+    }
+
+    private void attach(QuizEngine game) {
+        if (this.game != null && this.game != game) {
+            this.game.setReplayRecorder(null);
+        }
+        this.game = game;
+        game.setReplayRecorder(this);
+    }
+
+    //write an unsigned varint: seven bits a byte, low bits first, high bit set on all but
+    //the last byte.
+    private void writeVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[length++] = (byte) value;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+}
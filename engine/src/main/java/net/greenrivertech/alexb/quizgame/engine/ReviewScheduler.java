@@ -0,0 +1,603 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: ReviewScheduler.java
+ *
+ * QuestionSampler that schedules questions for spaced review, asking each one again when it is due.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * QuestionSampler that schedules questions for spaced review with the SM-2 algorithm: every
+ * question the user has answered has an interval (in days), an ease factor and a count of
+ * correct answers in a row, and is due again one interval after it was last answered. A right
+ * answer stretches the interval (1 day, then 6, then the last interval times the ease); a
+ * wrong one starts it again at 1 day and lowers the ease.
+ *
+ * A game is made of the questions that are due, most overdue first, then questions that have
+ * never been asked, in bank order, and then, if the bank has nothing else left, the questions
+ * due soonest. Answered questions are kept in a binary heap ordered by due time, with each
+ * question's place in the heap indexed so an answer can move it in O(log n); choosing a game
+ * of k questions costs O(k log n), however large the bank. Questions can be excluded (e.g. ones
+ * a patch has removed from the pack); they are never asked, whether due or new.
+ *
+ * The schedule is saved with write and loaded with read. Only answered questions are stored,
+ * in question order with every number written as a variable-length integer, so a question
+ * takes about 8 bytes. The header holds a bank id chosen by the caller, so a schedule is not
+ * applied to the questions of another bank (see getBankId). Methods are synchronized, like
+ * AdaptiveQuestionSampler's.
+ *
+ * @author Alex Ball
+ */
+public class ReviewScheduler implements QuestionSampler, AnswerListener {
+    /**
+     * The SM-2 grade (0 to 5) given to a right answer.
+     */
+    public static final int QUALITY_CORRECT = 4;
+
+    /**
+     * The SM-2 grade (0 to 5) given to a wrong answer.
+     */
+    public static final int QUALITY_WRONG = 2;
+
+    /**
+     * The ease factor of a question that has not been answered yet, in thousandths.
+     */
+    public static final int INITIAL_EASE = 2500;
+
+    /**
+     * The lowest ease factor, in thousandths.
+     */
+    public static final int MIN_EASE = 1300;
+
+    /**
+     * The longest interval between reviews, in days.
+     */
+    public static final int MAX_INTERVAL_DAYS = 36500;
+
+    //first bytes of a saved schedule ("QSRS") and its format version
+    private static final int MAGIC = 0x51535253;
+    private static final int FORMAT_VERSION = 2;
+
+    //due times are kept in whole minutes since the epoch
+    private static final long MINUTE_MILLIS = 60 * 1000;
+    private static final int DAY_MINUTES = 24 * 60;
+
+    //heapIndex values for questions that are not in the heap
+    private static final int NOT_SCHEDULED = -1;
+    private static final int CHOSEN = -2;
+    private static final int EXCLUDED = -3;
+
+    private final Random rand;
+
+    //identifies the bank the schedule is for
+    private final int bankId;
+
+    //per-question schedule; only meaningful for questions in the heap
+    private final int[] intervalDays;
+    private final short[] ease;
+    private final short[] repetitions;
+    private final int[] dueMinute;
+
+    //answered questions, as a binary min-heap on dueMinute
+    private final int[] heap;
+    private int heapSize;
+
+    //each question's position in the heap, NOT_SCHEDULED, EXCLUDED, or CHOSEN while sampling
+    private final int[] heapIndex;
+
+    //the number of excluded questions
+    private int excludedCount;
+
+    //every question below this one has been answered
+    private int firstNew;
+
+    /**
+     * Constructor that creates a schedule for a bank none of whose questions have been
+     * answered.
+     *
+     * @param bankSize The number of questions in the bank.
+     */
+    public ReviewScheduler(int bankSize) {
+        this(bankSize, new Random());
+    }
+
+    /**
+     * Constructor that creates a schedule, with bank id 0, for a bank none of whose questions
+     * have been answered.
+     *
+     * @param bankSize The number of questions in the bank.
+     * @param rand The random number generator that shuffles each game; seed it for
+     * reproducible games.
+     */
+    public ReviewScheduler(int bankSize, Random rand) {
+        this(bankSize, 0, rand);
+    }
+
+    /**
+     * Constructor that creates a schedule for a bank none of whose questions have been
+     * answered.
+     *
+     * @param bankSize The number of questions in the bank.
+     * @param bankId A number that identifies the bank, saved with the schedule.
+     * @param rand The random number generator that shuffles each game; seed it for
+     * reproducible games.
+     */
+    public ReviewScheduler(int bankSize, int bankId, Random rand) {
+        this.rand = rand;
+        this.bankId = bankId;
+        intervalDays = new int[bankSize];
+        ease = new short[bankSize];
+        repetitions = new short[bankSize];
+        dueMinute = new int[bankSize];
+        heap = new int[bankSize];
+        heapIndex = new int[bankSize];
+        Arrays.fill(heapIndex, NOT_SCHEDULED);
+    }
+
+    /**
+     * Returns the number of questions this scheduler chooses from.
+     *
+     * @return The bank size.
+     */
+    public int size() {
+        return heap.length;
+    }
+
+    /**
+     * Returns the number that identifies the bank the schedule is for, as given when it was
+     * created. A schedule read back with another bank id belongs to other questions and
+     * should not be used.
+     *
+     * @return The bank id.
+     */
+    public int getBankId() {
+        return bankId;
+    }
+
+    /**
+     * Returns the number of questions that have been answered, and so have a review date.
+     *
+     * @return The number of scheduled questions.
+     */
+    public synchronized int getScheduledCount() {
+        return heapSize;
+    }
+
+    /**
+     * Returns true if the given question has been answered, and so has a review date.
+     *
+     * @param questionNumber The question number.
+     *
+     * @return True if the question is scheduled.
+     */
+    public synchronized boolean isScheduled(int questionNumber) {
+        return heapIndex[questionNumber] >= 0;
+    }
+
+    /**
+     * Returns when the given question is next due, to the minute.
+     *
+     * @param questionNumber The question number.
+     *
+     * @return The due time in milliseconds since the epoch, or -1 if the question has never
+     * been answered.
+     */
+    public synchronized long getDueTime(int questionNumber) {
+        return isScheduled(questionNumber)
+                ? dueMinute[questionNumber] * MINUTE_MILLIS : -1;
+    }
+
+    /**
+     * Returns the given question's current interval between reviews.
+     *
+     * @param questionNumber The question number.
+     *
+     * @return The interval in days, or 0 if the question has never been answered.
+     */
+    public synchronized int getIntervalDays(int questionNumber) {
+        return isScheduled(questionNumber) ? intervalDays[questionNumber] : 0;
+    }
+
+    /**
+     * Returns the given question's ease factor: how much its interval grows after each right
+     * answer.
+     *
+     * @param questionNumber The question number.
+     *
+     * @return The ease factor in thousandths (e.g. 2500 for 2.5).
+     */
+    public synchronized int getEase(int questionNumber) {
+        return isScheduled(questionNumber) ? ease[questionNumber] : INITIAL_EASE;
+    }
+
+    /**
+     * Stops the given question from being asked, e.g. because a patch has removed it. Its
+     * schedule is dropped, and later answers to it are ignored.
+     *
+     * @param questionNumber The question number.
+     */
+    public synchronized void exclude(int questionNumber) {
+        int position = heapIndex[questionNumber];
+        if (position == EXCLUDED) {
+            return;
+        }
+        if (position >= 0) {
+            //move the last question into its place in the heap.
+            heapSize--;
+            if (position < heapSize) {
+                int moved = heap[heapSize];
+                heap[position] = moved;
+                heapIndex[moved] = position;
+                siftUp(position);
+                siftDown(heapIndex[moved]);
+            }
+        }
+        heapIndex[questionNumber] = EXCLUDED;
+        excludedCount++;
+    }
+
+    @Override
+    public void onAnswer(int questionNumber, boolean correct) {
+        review(questionNumber, correct ? QUALITY_CORRECT : QUALITY_WRONG,
+                System.currentTimeMillis());
+    }
+
+    /**
+     * Records a review of a question and schedules the next one, using SM-2.
+     *
+     * @param questionNumber The question number.
+     * @param quality How well the user knew the answer, from 0 (not at all) to 5 (perfectly);
+     * 3 or more is a pass.
+     * @param nowMillis The time of the review, in milliseconds since the epoch.
+     *
+     * @throws IllegalArgumentException If the quality is not between 0 and 5.
+     */
+    public synchronized void review(int questionNumber, int quality, long nowMillis) {
+        if (quality < 0 || quality > 5) {
+            throw new IllegalArgumentException("Quality " + quality + " is not from 0 to 5.");
+        }
+        if (heapIndex[questionNumber] == EXCLUDED) {
+            return;
+        }
+        boolean scheduled = heapIndex[questionNumber] >= 0;
+        int interval = scheduled ? intervalDays[questionNumber] : 0;
+        int reps = scheduled ? repetitions[questionNumber] : 0;
+        int questionEase = scheduled ? ease[questionNumber] : INITIAL_EASE;
+
+        if (quality >= 3) {
+            if (reps == 0) {
+                interval = 1;
+            } else if (reps == 1) {
+                interval = 6;
+            } else {
+                interval = (int) Math.min(MAX_INTERVAL_DAYS,
+                        ((long) interval * questionEase + 500) / 1000);
+            }
+            reps = Math.min(Short.MAX_VALUE, reps + 1);
+        } else {
+            interval = 1;
+            reps = 0;
+        }
+        //EF' = EF + 0.1 - (5 - q) * (0.08 + (5 - q) * 0.02), in thousandths.
+        int miss = 5 - quality;
+        questionEase = Math.max(MIN_EASE,
+                Math.min(Short.MAX_VALUE, questionEase + 100 - miss * (80 + miss * 20)));
+
+        intervalDays[questionNumber] = interval;
+        repetitions[questionNumber] = (short) reps;
+        ease[questionNumber] = (short) questionEase;
+        schedule(questionNumber, minute(nowMillis) + interval * DAY_MINUTES);
+    }
+
+    @Override
+    public void sample(int bankSize, int count, int[] out) {
+        sample(bankSize, count, out, System.currentTimeMillis());
+    }
+
+    /**
+     * Fills the first count slots of out with the questions to ask at the given time: the
+     * ones that are due, then new ones, then the ones due soonest, in random order.
+     *
+     * @param bankSize The number of questions to choose from; must be this scheduler's size.
+     * @param count The number of questions to choose.
+     * @param out The array that receives the chosen question numbers.
+     * @param nowMillis The time of the game, in milliseconds since the epoch.
+     *
+     * @throws IllegalArgumentException If bankSize is not this scheduler's size, or count is
+     * negative, larger than the number of questions that are not excluded, or larger than
+     * out.length.
+     */
+    public synchronized void sample(int bankSize, int count, int[] out, long nowMillis) {
+        if (bankSize != heap.length) {
+            throw new IllegalArgumentException("Scheduler is for a bank of " + heap.length
+                    + " questions, not " + bankSize + ".");
+        }
+        if (count < 0 || count > bankSize - excludedCount || count > out.length) {
+            throw new IllegalArgumentException("Cannot choose " + count + " questions from "
+                    + (bankSize - excludedCount) + " into an array of length " + out.length
+                    + ".");
+        }
+        int now = minute(nowMillis);
+        int chosen = 0;
+
+        //questions that are due, most overdue first.
+        while (chosen < count && heapSize > 0 && dueMinute[heap[0]] <= now) {
+            out[chosen++] = take();
+        }
+
+        //then questions that have never been asked.
+        while (firstNew < heap.length && heapIndex[firstNew] != NOT_SCHEDULED) {
+            firstNew++;
+        }
+        for (int i = firstNew; chosen < count && i < heap.length; i++) {
+            if (heapIndex[i] == NOT_SCHEDULED) {
+                out[chosen++] = i;
+            }
+        }
+
+        //then, if the whole bank has been asked, the questions due soonest.
+        while (chosen < count) {
+            out[chosen++] = take();
+        }
+
+        //put the taken questions back, and shuffle the game.
+        for (int i = 0; i < count; i++) {
+            if (heapIndex[out[i]] == CHOSEN) {
+                push(out[i]);
+            }
+        }
+        for (int i = count - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int swap = out[i];
+            out[i] = out[j];
+            out[j] = swap;
+        }
+    }
+
+    /**
+     * Saves the schedule to a file, replacing it in a single rename once the new schedule is
+     * written, so a crash leaves either the old schedule or the new one.
+     *
+     * @param file The file to write.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(File file) throws IOException {
+        //encode under the lock, and write without it, so answers are not held up by the disk.
+        byte[] encoded;
+        synchronized (this) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + 8 * heapSize);
+            DataOutputStream out = new DataOutputStream(bytes);
+            int base = Integer.MAX_VALUE;
+            for (int i = 0; i < heapSize; i++) {
+                base = Math.min(base, dueMinute[heap[i]]);
+            }
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(bankId);
+            out.writeInt(heap.length);
+            out.writeInt(heapSize);
+            out.writeInt(heapSize > 0 ? base : 0);
+
+            //questions in order, each as the gap from the previous one.
+            int previous = -1;
+            for (int i = 0; i < heap.length; i++) {
+                if (heapIndex[i] >= 0) {
+                    writeVarint(out, i - previous - 1);
+                    writeVarint(out, intervalDays[i]);
+                    writeVarint(out, ease[i]);
+                    writeVarint(out, repetitions[i]);
+                    writeVarint(out, dueMinute[i] - base);
+                    previous = i;
+                }
+            }
+            out.flush();
+            encoded = bytes.toByteArray();
+        }
+
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            FileOutputStream out = new FileOutputStream(temp);
+            try {
+                out.write(encoded);
+
+                //the rename must not land before the data does.
+                out.getFD().sync();
+            } finally {
+                out.close();
+            }
+
+            if (!temp.renameTo(file)) {
+                //renameTo does not replace an existing file on every platform.
+                if (!file.delete() || !temp.renameTo(file)) {
+                    throw new IOException("Cannot replace " + file + ".");
+                }
+            }
+        } finally {
+            temp.delete();
+        }
+    }
+
+    /**
+     * Loads a schedule saved with write for a bank of the given size. If the bank has changed
+     * size since, questions past its end are dropped and new questions are unanswered. The
+     * schedule keeps the bank id it was saved with; check it with getBankId.
+     *
+     * @param file The file to read.
+     * @param bankSize The number of questions in the bank.
+     * @param rand The random number generator that shuffles each game.
+     *
+     * @throws IOException If the file cannot be read or is not a valid schedule.
+     *
+     * @return The schedule.
+     */
+    public static ReviewScheduler read(File file, int bankSize, Random rand)
+            throws IOException {
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException(file + " is not a review schedule.");
+            }
+            int savedBankId = in.readInt();
+            int savedSize = in.readInt();
+            int count = in.readInt();
+            int base = in.readInt();
+            if (savedSize < 0 || count < 0 || count > savedSize) {
+                throw new IOException("Corrupt review schedule header in " + file + ".");
+            }
+
+            ReviewScheduler scheduler = new ReviewScheduler(bankSize, savedBankId, rand);
+            int questionNumber = -1;
+            for (int i = 0; i < count; i++) {
+                questionNumber += readVarint(in, file) + 1;
+                int interval = readVarint(in, file);
+                int questionEase = readVarint(in, file);
+                int reps = readVarint(in, file);
+                long due = (long) base + readVarint(in, file);
+                if (questionNumber < 0 || questionNumber >= savedSize
+                        || interval < 1 || interval > MAX_INTERVAL_DAYS
+                        || questionEase < MIN_EASE || questionEase > Short.MAX_VALUE
+                        || reps > Short.MAX_VALUE || due > Integer.MAX_VALUE) {
+                    throw new IOException("Corrupt review schedule entry in " + file + ".");
+                }
+                if (questionNumber < bankSize) {
+                    scheduler.intervalDays[questionNumber] = interval;
+                    scheduler.ease[questionNumber] = (short) questionEase;
+                    scheduler.repetitions[questionNumber] = (short) reps;
+                    scheduler.dueMinute[questionNumber] = (int) due;
+                    scheduler.heap[scheduler.heapSize++] = questionNumber;
+                }
+            }
+            if (in.read() >= 0) {
+                throw new IOException("Review schedule " + file + " has trailing bytes.");
+            }
+
+            //build the heap bottom up, in O(n).
+            for (int i = 0; i < scheduler.heapSize; i++) {
+                scheduler.heapIndex[scheduler.heap[i]] = i;
+            }
+            for (int i = scheduler.heapSize / 2 - 1; i >= 0; i--) {
+                scheduler.siftDown(i);
+            }
+            return scheduler;
+        } finally {
+            in.close();
+        }
+    }
+
+    //set a question's due time, adding it to the heap or moving it within it.
+    private void schedule(int questionNumber, int due) {
+        int position = heapIndex[questionNumber];
+        dueMinute[questionNumber] = due;
+        if (position < 0) {
+            push(questionNumber);
+        } else {
+            siftUp(position);
+            siftDown(heapIndex[questionNumber]);
+        }
+    }
+
+    private void push(int questionNumber) {
+        heap[heapSize] = questionNumber;
+        heapIndex[questionNumber] = heapSize;
+        heapSize++;
+        siftUp(heapSize - 1);
+    }
+
+    //remove the question due soonest from the heap, marking it CHOSEN.
+    private int take() {
+        int top = heap[0];
+        heapSize--;
+        if (heapSize > 0) {
+            heap[0] = heap[heapSize];
+            heapIndex[heap[0]] = 0;
+            siftDown(0);
+        }
+        heapIndex[top] = CHOSEN;
+        return top;
+    }
+
+    private void siftUp(int position) {
+        int questionNumber = heap[position];
+        int due = dueMinute[questionNumber];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (dueMinute[heap[parent]] <= due) {
+                break;
+            }
+            heap[position] = heap[parent];
+            heapIndex[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = questionNumber;
+        heapIndex[questionNumber] = position;
+    }
+
+    private void siftDown(int position) {
+        int questionNumber = heap[position];
+        int due = dueMinute[questionNumber];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && dueMinute[heap[child + 1]] < dueMinute[heap[child]]) {
+                child++;
+            }
+            if (due <= dueMinute[heap[child]]) {
+                break;
+            }
+            heap[position] = heap[child];
+            heapIndex[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = questionNumber;
+        heapIndex[questionNumber] = position;
+    }
+
+    private static int minute(long millis) {
+        return (int) (millis / MINUTE_MILLIS);
+    }
+
+    //write a non-negative int in 7-bit groups, low group first.
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarint(InputStream in, File file) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Review schedule " + file + " is truncated.");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new IOException("Corrupt review schedule number in " + file + ".");
+    }
+}
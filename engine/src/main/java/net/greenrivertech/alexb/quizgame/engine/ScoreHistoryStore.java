@@ -0,0 +1,647 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: ScoreHistoryStore.java
+ *
+ * Keeps the results of every game played, across sessions, in append-only log files.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the results of every game played, across sessions, in append-only log files.
+ *
+ * Each game is appended to games.log as a fixed 24-byte record (time, score, questions
+ * answered, questions in the game, number of answers), and each of its answers to answers.log
+ * as a fixed 4-byte record (question number and whether it was correct). Running totals (games
+ * played, best score, mean score and per-question accuracy) are kept in memory, so reading them
+ * is O(1) however long the history is. Every CHECKPOINT_INTERVAL games the totals are saved to
+ * summary.bin along with the log lengths they cover; opening the store reads that checkpoint and
+ * replays only the log records written after it.
+ *
+ * Question numbers only mean something within one bank, so the per-question counts are kept
+ * for the bank of the latest game, named by a bank id chosen by the caller. When a game from
+ * another bank is recorded, a bank record (the new bank id with the top bit set) is written to
+ * answers.log and the per-question counts start again.
+ *
+ * All file access happens on one background thread: opening returns at once, and recording a
+ * game only updates the in-memory totals and queues the game. Queued games are written (and
+ * fsynced) in batches.
+ *
+ * @author Alex Ball
+ */
+public class ScoreHistoryStore implements Closeable {
+    /**
+     * Name of the log of game records.
+     */
+    public static final String GAMES_LOG = "games.log";
+
+    /**
+     * Name of the log of answer records.
+     */
+    public static final String ANSWERS_LOG = "answers.log";
+
+    /**
+     * Name of the checkpoint file.
+     */
+    public static final String SUMMARY_FILE = "summary.bin";
+
+    /**
+     * Number of games written between checkpoints.
+     */
+    public static final int CHECKPOINT_INTERVAL = 1000;
+
+    //sizes of the fixed log records, in bytes
+    private static final int GAME_RECORD_SIZE = 24;
+    private static final int ANSWER_RECORD_SIZE = 4;
+
+    //first bytes of the checkpoint file ("QSHS") and its format version
+    private static final int SUMMARY_MAGIC = 0x51534853;
+    private static final int SUMMARY_VERSION = 2;
+
+    //top bit of an answers.log record that starts the answers of another bank
+    private static final int BANK_RECORD = 0x80000000;
+
+    private final File directory;
+
+    //the one thread that loads, writes and checkpoints
+    private final ExecutorService writer = Executors.newSingleThreadExecutor();
+
+    //totals including every recorded game, read by the UI; guarded by this
+    private Totals live = new Totals();
+
+    //true once the history on disk has been read; guarded by this
+    private boolean loaded;
+
+    //games recorded before loading finished, to be added to live once it has; guarded by this
+    private final List<GameRecord> unapplied = new ArrayList<>();
+
+    //games recorded but not yet written; guarded by this
+    private List<GameRecord> pending = new ArrayList<>();
+
+    //true if a write is queued on the writer thread; guarded by this
+    private boolean writeQueued;
+
+    //writer thread only: totals covering exactly what is in the logs, and the open logs
+    private Totals durable;
+    private FileChannel gamesLog;
+    private FileChannel answersLog;
+    private int gamesSinceCheckpoint;
+
+    private ScoreHistoryStore(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Opens the score history in the given directory, creating it if needed. The history is
+     * read in the background; until then, the totals only include games recorded since.
+     *
+     * @param directory The directory that holds the history files.
+     *
+     * @return The store.
+     */
+    public static ScoreHistoryStore open(File directory) {
+        final ScoreHistoryStore store = new ScoreHistoryStore(directory);
+        store.writer.execute(new Runnable() {
+            @Override
+            public void run() {
+                store.load();
+            }
+        });
+        return store;
+    }
+
+    /**
+     * Records the result of a finished (or abandoned) game. Only the game's score and answers
+     * are copied; the totals are updated immediately and the files are written in the
+     * background.
+     *
+     * @param game The game to record.
+     * @param bankId A number that identifies the bank the game was played from; not negative.
+     * @param timeMillis When the game was played, in milliseconds since the epoch.
+     *
+     * @throws IllegalArgumentException If bankId is negative.
+     */
+    public void record(QuizEngine game, int bankId, long timeMillis) {
+        if (bankId < 0) {
+            throw new IllegalArgumentException("Bank id " + bankId + " is negative.");
+        }
+        GameRecord record = new GameRecord(game, bankId, timeMillis);
+
+        synchronized (this) {
+            if (loaded) {
+                live.addGame(record);
+            } else {
+                unapplied.add(record);
+            }
+
+            pending.add(record);
+            if (!writeQueued) {
+                writeQueued = true;
+                writer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        writePending();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Returns true once the history on disk has been read.
+     *
+     * @return True if the totals include the saved history.
+     */
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Returns the number of games played.
+     *
+     * @return The number of games played.
+     */
+    public synchronized long getGamesPlayed() {
+        return live.gamesPlayed;
+    }
+
+    /**
+     * Returns the best score of any game, or 0 if no games have been played.
+     *
+     * @return The best score.
+     */
+    public synchronized int getBestScore() {
+        return live.bestScore;
+    }
+
+    /**
+     * Returns the mean score over all games, or 0 if no games have been played.
+     *
+     * @return The mean score.
+     */
+    public synchronized double getMeanScore() {
+        return live.gamesPlayed == 0 ? 0 : (double) live.totalScore / live.gamesPlayed;
+    }
+
+    /**
+     * Returns the fraction of all answered questions that were answered correctly, or 0 if
+     * no questions have been answered.
+     *
+     * @return The overall accuracy.
+     */
+    public synchronized double getAccuracy() {
+        return live.totalAnswered == 0 ? 0 : (double) live.totalScore / live.totalAnswered;
+    }
+
+    /**
+     * Returns the bank id of the latest game recorded, which the per-question counts are for.
+     *
+     * @return The bank id.
+     */
+    public synchronized int getBankId() {
+        return live.bankId;
+    }
+
+    /**
+     * Returns how many times the question with the given question number has been answered.
+     *
+     * @param questionNumber The question number in the bank.
+     *
+     * @return How many times the question has been answered.
+     */
+    public synchronized int getTimesAnswered(int questionNumber) {
+        return questionNumber < live.timesAnswered.length ? live.timesAnswered[questionNumber] : 0;
+    }
+
+    /**
+     * Returns how many times the question with the given question number has been answered
+     * correctly.
+     *
+     * @param questionNumber The question number in the bank.
+     *
+     * @return How many times the question has been answered correctly.
+     */
+    public synchronized int getTimesCorrect(int questionNumber) {
+        return questionNumber < live.timesCorrect.length ? live.timesCorrect[questionNumber] : 0;
+    }
+
+    /**
+     * Copies the per-question counts for the given bank into the given arrays, indexed by
+     * question number. Questions beyond the end of the arrays are left out; entries for
+     * questions that have never been answered are set to 0, as are all of them if the latest
+     * game was from another bank.
+     *
+     * @param bankId The bank id the counts are wanted for.
+     * @param timesAnswered Receives how many times each question has been answered.
+     * @param timesCorrect Receives how many times each question has been answered correctly.
+     */
+    public synchronized void getQuestionCounts(int bankId, int[] timesAnswered,
+                                               int[] timesCorrect) {
+        int known = bankId == live.bankId
+                ? Math.min(timesAnswered.length, live.timesAnswered.length) : 0;
+        System.arraycopy(live.timesAnswered, 0, timesAnswered, 0, known);
+        System.arraycopy(live.timesCorrect, 0, timesCorrect, 0, known);
+        Arrays.fill(timesAnswered, known, timesAnswered.length, 0);
+        Arrays.fill(timesCorrect, known, timesCorrect.length, 0);
+    }
+
+    /**
+     * Blocks until every game recorded so far has been written to disk.
+     *
+     * @throws IOException If waiting was interrupted.
+     */
+    public void flush() throws IOException {
+        try {
+            writer.submit(new Runnable() {
+                @Override
+                public void run() {
+                    writePending();
+                }
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while flushing score history.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Cannot flush score history.", e.getCause());
+        }
+    }
+
+    /**
+     * Writes every recorded game and a checkpoint, then closes the files. Blocks until done.
+     */
+    @Override
+    public void close() throws IOException {
+        writer.execute(new Runnable() {
+            @Override
+            public void run() {
+                writePending();
+                checkpoint();
+                closeLogs();
+            }
+        });
+        writer.shutdown();
+        try {
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing score history.", e);
+        }
+    }
+
+    //writer thread: read the checkpoint and replay the logs after it.
+    private void load() {
+        Totals totals = new Totals();
+        long gamesCovered = 0;
+        long answersCovered = 0;
+
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Cannot create " + directory + ".");
+            }
+
+            File summary = new File(directory, SUMMARY_FILE);
+            if (summary.isFile()) {
+                DataInputStream in = new DataInputStream(
+                        new BufferedInputStream(new FileInputStream(summary)));
+                try {
+                    if (in.readInt() == SUMMARY_MAGIC && in.readInt() == SUMMARY_VERSION) {
+                        gamesCovered = in.readLong();
+                        answersCovered = in.readLong();
+                        totals.read(in);
+                    }
+                } catch (IOException e) {
+                    //a bad checkpoint only costs a full replay.
+                    totals = new Totals();
+                    gamesCovered = 0;
+                    answersCovered = 0;
+                } finally {
+                    in.close();
+                }
+            }
+
+            gamesLog = openLog(GAMES_LOG, GAME_RECORD_SIZE);
+            answersLog = openLog(ANSWERS_LOG, ANSWER_RECORD_SIZE);
+            if (gamesCovered > gamesLog.size() || answersCovered > answersLog.size()) {
+                //the logs are shorter than the checkpoint says; trust the logs.
+                totals = new Totals();
+                gamesCovered = 0;
+                answersCovered = 0;
+            }
+
+            replayGames(totals, gamesCovered);
+            replayAnswers(totals, answersCovered);
+        } catch (IOException e) {
+            //keep going without history; new games are still counted in memory.
+            closeLogs();
+        }
+
+        durable = totals;
+        synchronized (this) {
+            live = totals.copy();
+            for (GameRecord record : unapplied) {
+                live.addGame(record);
+            }
+            unapplied.clear();
+            loaded = true;
+        }
+    }
+
+    //open a log for appending, cutting off any partial record left by a crash.
+    private FileChannel openLog(String name, int recordSize) throws IOException {
+        FileChannel channel = new RandomAccessFile(new File(directory, name), "rw").getChannel();
+        long size = channel.size() - channel.size() % recordSize;
+        channel.truncate(size);
+        channel.position(size);
+        return channel;
+    }
+
+    private void replayGames(Totals totals, long from) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(GAME_RECORD_SIZE * 1024);
+        long position = from;
+        while (position < gamesLog.size()) {
+            buffer.clear();
+            position += gamesLog.read(buffer, position);
+            buffer.flip();
+            while (buffer.remaining() >= GAME_RECORD_SIZE) {
+                buffer.getLong();
+                int score = buffer.getInt();
+                int numAnswered = buffer.getInt();
+                buffer.getInt();
+                buffer.getInt();
+                totals.addGameTotals(score, numAnswered);
+            }
+        }
+    }
+
+    private void replayAnswers(Totals totals, long from) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(ANSWER_RECORD_SIZE * 4096);
+        long position = from;
+        while (position < answersLog.size()) {
+            buffer.clear();
+            position += answersLog.read(buffer, position);
+            buffer.flip();
+            while (buffer.remaining() >= ANSWER_RECORD_SIZE) {
+                int answer = buffer.getInt();
+                if ((answer & BANK_RECORD) != 0) {
+                    totals.setBank(answer & ~BANK_RECORD);
+                } else {
+                    totals.addAnswer(answer >>> 1, (answer & 1) != 0);
+                }
+            }
+        }
+    }
+
+    //writer thread: append every pending game to the logs and fsync them.
+    private void writePending() {
+        List<GameRecord> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new ArrayList<>();
+            writeQueued = false;
+        }
+        if (batch.isEmpty() || gamesLog == null) {
+            return;
+        }
+
+        //the answers, plus a bank record wherever the bank changes.
+        int numAnswers = 0;
+        int bankId = durable.bankId;
+        for (GameRecord record : batch) {
+            if (record.bankId != bankId) {
+                numAnswers++;
+                bankId = record.bankId;
+            }
+            numAnswers += record.answers.length;
+        }
+
+        ByteBuffer games = ByteBuffer.allocate(GAME_RECORD_SIZE * batch.size());
+        ByteBuffer answers = ByteBuffer.allocate(ANSWER_RECORD_SIZE * numAnswers);
+        bankId = durable.bankId;
+        for (GameRecord record : batch) {
+            if (record.bankId != bankId) {
+                answers.putInt(BANK_RECORD | record.bankId);
+                bankId = record.bankId;
+            }
+            games.putLong(record.timeMillis);
+            games.putInt(record.score);
+            games.putInt(record.numAnswered);
+            games.putInt(record.numQuestions);
+            games.putInt(record.answers.length);
+            for (int answer : record.answers) {
+                answers.putInt(answer);
+            }
+        }
+        games.flip();
+        answers.flip();
+
+        try {
+            //answers first: a crash in between leaves answers without their game, which only
+            //nudges per-question accuracy, rather than a game without its answers.
+            while (answers.hasRemaining()) {
+                answersLog.write(answers);
+            }
+            answersLog.force(false);
+            while (games.hasRemaining()) {
+                gamesLog.write(games);
+            }
+            gamesLog.force(false);
+        } catch (IOException e) {
+            //the games are still counted in memory; stop writing rather than corrupt the logs.
+            closeLogs();
+            return;
+        }
+
+        for (GameRecord record : batch) {
+            durable.addGame(record);
+        }
+        gamesSinceCheckpoint += batch.size();
+        if (gamesSinceCheckpoint >= CHECKPOINT_INTERVAL) {
+            checkpoint();
+        }
+    }
+
+    //writer thread: save the durable totals and the log lengths they cover.
+    private void checkpoint() {
+        if (gamesLog == null) {
+            return;
+        }
+
+        File temp = new File(directory, SUMMARY_FILE + ".tmp");
+        try {
+            FileOutputStream file = new FileOutputStream(temp);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file));
+            try {
+                out.writeInt(SUMMARY_MAGIC);
+                out.writeInt(SUMMARY_VERSION);
+                out.writeLong(gamesLog.size());
+                out.writeLong(answersLog.size());
+                durable.write(out);
+                out.flush();
+                file.getFD().sync();
+            } finally {
+                out.close();
+            }
+            if (!temp.renameTo(new File(directory, SUMMARY_FILE))) {
+                throw new IOException("Cannot replace " + SUMMARY_FILE + ".");
+            }
+            gamesSinceCheckpoint = 0;
+        } catch (IOException e) {
+            //the logs are intact; the next open just replays more of them.
+            temp.delete();
+        }
+    }
+
+    private void closeLogs() {
+        try {
+            if (gamesLog != null) {
+                gamesLog.close();
+            }
+            if (answersLog != null) {
+                answersLog.close();
+            }
+        } catch (IOException e) {
+            //nothing more can be done.
+        }
+        gamesLog = null;
+        answersLog = null;
+    }
+
+    //the result of one game, copied out of its QuizEngine.
+    private static class GameRecord {
+        final int bankId;
+        final long timeMillis;
+        final int score;
+        final int numAnswered;
+        final int numQuestions;
+
+        //one entry per answered question: question number << 1 | 1 if its first (scored)
+        //answer was correct
+        final int[] answers;
+
+        GameRecord(QuizEngine game, int bankId, long timeMillis) {
+            this.bankId = bankId;
+            this.timeMillis = timeMillis;
+            score = game.getScore();
+            numAnswered = game.getNumQuestionsAnswered();
+            numQuestions = game.getNumQuestions();
+
+            answers = new int[numAnswered];
+            int n = 0;
+            for (int i = 0; i < numQuestions && n < numAnswered; i++) {
+                if (game.isAnswered(i)) {
+                    answers[n++] = game.getQuestionNumber(i) << 1
+                            | (game.isFirstAnswerCorrect(i) ? 1 : 0);
+                }
+            }
+        }
+    }
+
+    //running totals over a set of games.
+    private static class Totals {
+        long gamesPlayed;
+        int bestScore;
+        long totalScore;
+        long totalAnswered;
+
+        //the bank the per-question counts are for
+        int bankId;
+        int[] timesAnswered = new int[0];
+        int[] timesCorrect = new int[0];
+
+        void addGame(GameRecord record) {
+            addGameTotals(record.score, record.numAnswered);
+            setBank(record.bankId);
+            for (int answer : record.answers) {
+                addAnswer(answer >>> 1, (answer & 1) != 0);
+            }
+        }
+
+        void addGameTotals(int score, int numAnswered) {
+            gamesPlayed++;
+            bestScore = Math.max(bestScore, score);
+            totalScore += score;
+            totalAnswered += numAnswered;
+        }
+
+        //the per-question counts of another bank start again.
+        void setBank(int id) {
+            if (id != bankId) {
+                bankId = id;
+                timesAnswered = new int[0];
+                timesCorrect = new int[0];
+            }
+        }
+
+        void addAnswer(int questionNumber, boolean correct) {
+            if (questionNumber >= timesAnswered.length) {
+                int length = Math.max(questionNumber + 1, timesAnswered.length * 2);
+                timesAnswered = Arrays.copyOf(timesAnswered, length);
+                timesCorrect = Arrays.copyOf(timesCorrect, length);
+            }
+            timesAnswered[questionNumber]++;
+            if (correct) {
+                timesCorrect[questionNumber]++;
+            }
+        }
+
+        Totals copy() {
+            Totals copy = new Totals();
+            copy.gamesPlayed = gamesPlayed;
+            copy.bestScore = bestScore;
+            copy.totalScore = totalScore;
+            copy.totalAnswered = totalAnswered;
+            copy.bankId = bankId;
+            copy.timesAnswered = timesAnswered.clone();
+            copy.timesCorrect = timesCorrect.clone();
+            return copy;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeLong(gamesPlayed);
+            out.writeInt(bestScore);
+            out.writeLong(totalScore);
+            out.writeLong(totalAnswered);
+            out.writeInt(bankId);
+            out.writeInt(timesAnswered.length);
+            for (int i = 0; i < timesAnswered.length; i++) {
+                out.writeInt(timesAnswered[i]);
+                out.writeInt(timesCorrect[i]);
+            }
+        }
+
+        void read(DataInputStream in) throws IOException {
+            gamesPlayed = in.readLong();
+            bestScore = in.readInt();
+            totalScore = in.readLong();
+            totalAnswered = in.readLong();
+            bankId = in.readInt();
+            int length = in.readInt();
+            timesAnswered = new int[length];
+            timesCorrect = new int[length];
+            for (int i = 0; i < length; i++) {
+                timesAnswered[i] = in.readInt();
+                timesCorrect[i] = in.readInt();
+            }
+        }
+    }
+}
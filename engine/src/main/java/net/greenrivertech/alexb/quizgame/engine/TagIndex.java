@@ -0,0 +1,287 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: TagIndex.java
+ *
+ * An inverted index from tags (categories) to the questions that have them.
+ */
+package net.greenrivertech.alexb.quizgame.engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An inverted index from tags (categories such as "science" or "easy") to the questions that
+ * have them, each as a compressed QuestionIdSet. Queries combine tags with AND and OR, e.g.
+ * <code>science AND easy</code> or <code>history OR geography AND hard</code> (AND binds more
+ * tightly than OR), by intersecting and uniting the sets; the bank itself is never scanned.
+ *
+ * Tags are case-insensitive and cannot contain whitespace. An index is kept next to its
+ * question pack in a file whose name ends in FILE_SUFFIX, and records the pack version it was
+ * built for so a stale index can be ignored.
+ *
+ * @author Alex Ball
+ */
+public class TagIndex {
+    /**
+     * Suffix added to a question pack's file name for its tag index.
+     */
+    public static final String FILE_SUFFIX = ".tags";
+
+    /**
+     * The index with no tags.
+     */
+    public static final TagIndex EMPTY = new TagIndex(0, new HashMap<String, QuestionIdSet>());
+
+    //"QTAG", the first 4 bytes of every tag index file
+    private static final int MAGIC = 0x51544147;
+    private static final int FORMAT_VERSION = 1;
+
+    //the version of the question pack the index was built for
+    private final int packVersion;
+
+    private final Map<String, QuestionIdSet> index;
+
+    private TagIndex(int packVersion, Map<String, QuestionIdSet> index) {
+        this.packVersion = packVersion;
+        this.index = index;
+    }
+
+    /**
+     * Returns the version of the question pack this index was built for.
+     *
+     * @return The pack version.
+     */
+    public int getPackVersion() {
+        return packVersion;
+    }
+
+    /**
+     * Returns every tag in the index, in alphabetical order.
+     *
+     * @return The tags.
+     */
+    public List<String> getTags() {
+        List<String> tags = new ArrayList<String>(index.keySet());
+        Collections.sort(tags);
+        return tags;
+    }
+
+    /**
+     * Returns the questions with the given tag.
+     *
+     * @param tag The tag.
+     *
+     * @return The questions with the tag; empty if no question has it.
+     */
+    public QuestionIdSet get(String tag) {
+        QuestionIdSet ids = index.get(tag.toLowerCase(Locale.US));
+        return ids != null ? ids : QuestionIdSet.EMPTY;
+    }
+
+    /**
+     * Returns the questions matching a query: tags joined by AND and OR (in any case), where
+     * AND binds more tightly than OR, e.g. <code>science AND easy OR trivia</code>.
+     *
+     * @param query The query.
+     *
+     * @throws IllegalArgumentException If the query is empty or malformed.
+     *
+     * @return The matching questions.
+     */
+    public QuestionIdSet query(String query) {
+        String[] tokens = query.trim().split("\\s+");
+        QuestionIdSet result = null;
+        QuestionIdSet term = null;
+        boolean expectTag = true;
+        for (String token : tokens) {
+            if (expectTag) {
+                if (token.isEmpty() || isOperator(token)) {
+                    throw new IllegalArgumentException("Expected a tag in \"" + query + "\".");
+                }
+                term = term == null ? get(token) : term.and(get(token));
+            } else if (token.equalsIgnoreCase("OR")) {
+                result = result == null ? term : result.or(term);
+                term = null;
+            } else if (!token.equalsIgnoreCase("AND")) {
+                throw new IllegalArgumentException("Expected AND or OR in \"" + query + "\".");
+            }
+            expectTag = !expectTag;
+        }
+        if (expectTag) {
+            throw new IllegalArgumentException("Query \"" + query + "\" ends with an operator.");
+        }
+        return result == null ? term : result.or(term);
+    }
+
+    private static boolean isOperator(String token) {
+        return token.equalsIgnoreCase("AND") || token.equalsIgnoreCase("OR");
+    }
+
+    /**
+     * Writes the index to a file, replacing it atomically (write-then-rename).
+     *
+     * @param file The file to write.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(File file) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temp), 64 * 1024));
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(packVersion);
+                List<String> tags = getTags();
+                out.writeInt(tags.size());
+                for (String tag : tags) {
+                    out.writeUTF(tag);
+                    index.get(tag).write(out);
+                }
+            } finally {
+                out.close();
+            }
+
+            if (!temp.renameTo(file)) {
+                //renameTo does not replace an existing file on every platform.
+                if (!file.delete() || !temp.renameTo(file)) {
+                    throw new IOException("Cannot replace " + file + ".");
+                }
+            }
+        } finally {
+            temp.delete();
+        }
+    }
+
+    /**
+     * Reads an index written by write().
+     *
+     * @param file The file to read.
+     *
+     * @throws IOException If the file cannot be read or is not a tag index.
+     *
+     * @return The index.
+     */
+    public static TagIndex read(File file) throws IOException {
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException(file + " is not a tag index.");
+            }
+            int packVersion = in.readInt();
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IOException("Corrupt tag index " + file + ".");
+            }
+            Map<String, QuestionIdSet> index = new HashMap<String, QuestionIdSet>();
+            for (int i = 0; i < count; i++) {
+                String tag = in.readUTF();
+                index.put(tag, QuestionIdSet.read(in));
+            }
+            return new TagIndex(packVersion, index);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Builds a TagIndex from the tags of each question, added in increasing question number
+     * order.
+     */
+    public static class Builder {
+        private final int packVersion;
+        private final Map<String, QuestionIdSet.Builder> builders =
+                new HashMap<String, QuestionIdSet.Builder>();
+
+        /**
+         * Constructor that starts an empty index.
+         *
+         * @param packVersion The version of the question pack the index is for.
+         */
+        public Builder(int packVersion) {
+            this.packVersion = packVersion;
+        }
+
+        /**
+         * Tags a question. For each tag, questions must be added in increasing order.
+         *
+         * @param questionNumber The question number.
+         * @param tag The tag, without whitespace.
+         *
+         * @throws IllegalArgumentException If the tag is empty, contains whitespace, or is
+         * AND or OR, or the question number is out of order.
+         *
+         * @return This builder.
+         */
+        public Builder add(int questionNumber, String tag) {
+            if (!isValidTag(tag)) {
+                throw new IllegalArgumentException("Invalid tag \"" + tag + "\".");
+            }
+            String key = tag.toLowerCase(Locale.US);
+            QuestionIdSet.Builder ids = builders.get(key);
+            if (ids == null) {
+                ids = new QuestionIdSet.Builder();
+                builders.put(key, ids);
+            }
+            ids.add(questionNumber);
+            return this;
+        }
+
+        /**
+         * Returns true if no question has been tagged.
+         *
+         * @return True if the index would be empty.
+         */
+        public boolean isEmpty() {
+            return builders.isEmpty();
+        }
+
+        /**
+         * Returns the index of every tag added so far.
+         *
+         * @return The index.
+         */
+        public TagIndex build() {
+            Map<String, QuestionIdSet> index = new HashMap<String, QuestionIdSet>();
+            for (Map.Entry<String, QuestionIdSet.Builder> entry : builders.entrySet()) {
+                index.put(entry.getKey(), entry.getValue().build());
+            }
+            return new TagIndex(packVersion, index);
+        }
+    }
+
+    /**
+     * Returns true if the string can be used as a tag: it is not empty, is not AND or OR, and
+     * has no whitespace.
+     *
+     * @param tag The possible tag.
+     *
+     * @return True if it is a valid tag.
+     */
+    public static boolean isValidTag(String tag) {
+        if (tag.isEmpty() || isOperator(tag)) {
+            return false;
+        }
+        for (int i = 0; i < tag.length(); i++) {
+            if (Character.isWhitespace(tag.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
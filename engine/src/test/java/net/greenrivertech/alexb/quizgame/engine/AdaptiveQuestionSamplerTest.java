@@ -0,0 +1,92 @@
+package net.greenrivertech.alexb.quizgame.engine;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for AdaptiveQuestionSampler and FenwickTree.
+ */
+public class AdaptiveQuestionSamplerTest {
+    @Test
+    public void fenwickTree_findMatchesPrefixSums() throws Exception {
+        long[] weights = {3, 0, 5, 1, 0, 0, 7};
+        FenwickTree tree = new FenwickTree(weights);
+        assertEquals(16, tree.total());
+
+        long running = 0;
+        for (int i = 0; i < weights.length; i++) {
+            for (long target = running; target < running + weights[i]; target++) {
+                assertEquals(i, tree.find(target));
+            }
+            running += weights[i];
+        }
+
+        tree.set(6, 0);
+        assertEquals(9, tree.total());
+        assertEquals(3, tree.find(8));
+    }
+
+    @Test
+    public void sample_isDistinctAndFavoursMissedQuestions() throws Exception {
+        AdaptiveQuestionSampler sampler = new AdaptiveQuestionSampler(new int[10],
+                new int[10], new Random(3));
+        for (int i = 0; i < 50; i++) {
+            sampler.onAnswer(4, false);
+            sampler.onAnswer(5, true);
+        }
+        assertTrue(sampler.getWeight(4) > sampler.getWeight(0));
+        assertTrue(sampler.getWeight(5) < sampler.getWeight(0));
+
+        int[] out = new int[3];
+        int timesFour = 0;
+        int timesFive = 0;
+        for (int game = 0; game < 1000; game++) {
+            sampler.sample(10, 3, out);
+            assertTrue(out[0] != out[1] && out[1] != out[2] && out[0] != out[2]);
+            for (int questionNumber : out) {
+                timesFour += questionNumber == 4 ? 1 : 0;
+                timesFive += questionNumber == 5 ? 1 : 0;
+            }
+        }
+        assertTrue(timesFour > 5 * timesFive);
+    }
+
+    @Test
+    public void sample_neverChoosesExcludedQuestions() throws Exception {
+        AdaptiveQuestionSampler sampler = new AdaptiveQuestionSampler(new int[6],
+                new int[6], new Random(4));
+        sampler.exclude(1);
+        sampler.exclude(4);
+        sampler.onAnswer(4, false);
+        assertEquals(0, sampler.getWeight(4));
+
+        int[] out = new int[4];
+        for (int game = 0; game < 100; game++) {
+            sampler.sample(6, 4, out);
+            for (int questionNumber : out) {
+                assertTrue(questionNumber != 1 && questionNumber != 4);
+            }
+        }
+    }
+
+    @Test
+    public void quizEngine_reportsFirstAnswersToListener() throws Exception {
+        QuestionBank bank = new ColumnarQuestionBank.Builder()
+                .add("Is water wet?", true)
+                .add("Is fire cold?", false)
+                .build();
+        AdaptiveQuestionSampler sampler = new AdaptiveQuestionSampler(bank.size());
+        QuizEngine game = new QuizEngine(bank, new int[] {1, 0});
+        game.setAnswerListener(sampler);
+
+        long before = sampler.getWeight(1);
+        game.answerQuestion(true);
+        game.previousQuestion();
+        game.answerQuestion(false);
+        assertTrue(sampler.getWeight(1) > before);
+        assertEquals(sampler.getWeight(0), before);
+    }
+}
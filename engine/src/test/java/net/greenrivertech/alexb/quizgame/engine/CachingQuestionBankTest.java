@@ -0,0 +1,113 @@
+package net.greenrivertech.alexb.quizgame.engine;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for CachingQuestionBank.
+ */
+public class CachingQuestionBankTest {
+    //every question's text is 10 chars, so each entry takes ENTRY_OVERHEAD + 20 bytes
+    private static final int ENTRY_BYTES = CachingQuestionBank.ENTRY_OVERHEAD + 20;
+
+    private static QuestionBank bank(int size) {
+        ColumnarQuestionBank.Builder builder = new ColumnarQuestionBank.Builder();
+        for (int i = 0; i < size; i++) {
+            builder.add(String.format("Question%02d", i % 100), i % 2 == 0);
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void lru_evictsLeastRecentlyUsed() throws Exception {
+        CachingQuestionBank cache = new CachingQuestionBank(bank(10), 3 * ENTRY_BYTES,
+                CachingQuestionBank.Policy.LRU);
+        assertEquals("Question00", cache.getQuestionText(0));
+        cache.getQuestionText(1);
+        cache.getQuestionText(2);
+        cache.getQuestionText(0);
+        cache.getQuestionText(3);
+
+        assertTrue(cache.isCached(0));
+        assertFalse(cache.isCached(1));
+        assertEquals(3, cache.getCachedCount());
+        assertEquals(3L * ENTRY_BYTES, cache.getSizeBytes());
+        assertEquals(1, cache.getHits());
+        assertEquals(4, cache.getMisses());
+        assertEquals(1, cache.getEvictions());
+        assertTrue(cache.getCorrectAnswer(0));
+    }
+
+    @Test
+    public void lfu_keepsFrequentlyUsed() throws Exception {
+        CachingQuestionBank cache = new CachingQuestionBank(bank(10), 3 * ENTRY_BYTES,
+                CachingQuestionBank.Policy.LFU);
+        for (int i = 0; i < 3; i++) {
+            cache.getQuestionText(0);
+            cache.getQuestionText(1);
+        }
+        cache.getQuestionText(2);
+        cache.getQuestionText(3);
+        cache.getQuestionText(4);
+
+        assertTrue(cache.isCached(0));
+        assertTrue(cache.isCached(1));
+        assertTrue(cache.isCached(4));
+        assertFalse(cache.isCached(2));
+    }
+
+    @Test
+    public void tinyLfu_survivesScans() throws Exception {
+        CachingQuestionBank cache = new CachingQuestionBank(bank(100000), 200L * ENTRY_BYTES,
+                CachingQuestionBank.Policy.TINY_LFU);
+
+        //100 popular questions, read often, interleaved with a long scan of one-off reads.
+        Random random = new Random(5);
+        for (int i = 0; i < 20000; i++) {
+            cache.getQuestionText(random.nextInt(100));
+            cache.getQuestionText(1000 + i);
+        }
+
+        int popularCached = 0;
+        for (int i = 0; i < 100; i++) {
+            if (cache.isCached(i)) {
+                popularCached++;
+            }
+        }
+        assertTrue("popular questions cached: " + popularCached, popularCached >= 90);
+        assertTrue(cache.getSizeBytes() <= 200L * ENTRY_BYTES);
+    }
+
+    @Test
+    public void policies_stayWithinBudget() throws Exception {
+        for (CachingQuestionBank.Policy policy : CachingQuestionBank.Policy.values()) {
+            CachingQuestionBank cache = new CachingQuestionBank(bank(5000), 50L * ENTRY_BYTES,
+                    policy);
+            Random random = new Random(3);
+            for (int i = 0; i < 50000; i++) {
+                int q = (int) Math.min(4999, Math.abs(random.nextGaussian()) * 200);
+                assertEquals(String.format("Question%02d", q % 100), cache.getQuestionText(q));
+                assertTrue(policy + " over budget", cache.getSizeBytes() <= 50L * ENTRY_BYTES);
+            }
+            assertEquals(50000, cache.getHits() + cache.getMisses());
+            assertTrue(policy + " hit rate " + cache.getHitRate(), cache.getHitRate() > 0.1);
+        }
+    }
+
+    @Test
+    public void prefetch_makesNextReadAHit() throws Exception {
+        CachingQuestionBank cache = new CachingQuestionBank(bank(10), 10 * ENTRY_BYTES,
+                CachingQuestionBank.Policy.TINY_LFU);
+        cache.prefetch(4);
+        cache.prefetch(-1);
+        cache.prefetch(10);
+        assertEquals(0, cache.getMisses());
+
+        assertEquals("Question04", cache.getQuestionText(4));
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+}
@@ -0,0 +1,95 @@
+package net.greenrivertech.alexb.quizgame.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ColumnarQuestionBank.
+ */
+public class ColumnarQuestionBankTest {
+    @Test
+    public void build_keepsTextAndAnswers() throws Exception {
+        ColumnarQuestionBank.Builder builder = new ColumnarQuestionBank.Builder();
+        for (int i = 0; i < 1000; i++) {
+            builder.add("Is " + i + " even?", i % 2 == 0);
+        }
+        builder.add("", true);
+        QuestionBank bank = builder.build();
+
+        assertEquals(1001, bank.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("Is " + i + " even?", bank.getQuestionText(i));
+            assertEquals(i % 2 == 0, bank.getCorrectAnswer(i));
+        }
+        assertEquals("", bank.getQuestionText(1000));
+        assertTrue(bank.getCorrectAnswer(1000));
+    }
+
+    @Test
+    public void compressText_keepsTextInLessMemory() throws Exception {
+        ColumnarQuestionBank.Builder plain = new ColumnarQuestionBank.Builder();
+        ColumnarQuestionBank.Builder compressed = new ColumnarQuestionBank.Builder().compressText();
+        for (int i = 0; i < 5000; i++) {
+            String text = "Is " + i + " an even number, or an odd number?";
+            plain.add(text, i % 2 == 0);
+            compressed.addSingleChoice(text, new String[] {"even", "odd"}, i % 2);
+        }
+        ColumnarQuestionBank plainBank = plain.build();
+        ColumnarQuestionBank compressedBank = compressed.build();
+
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(plainBank.getQuestionText(i), compressedBank.getQuestionText(i));
+            assertEquals("odd", compressedBank.getChoiceText(i, 1));
+        }
+        assertTrue(compressedBank.getTextSizeInBytes() * 4 < plainBank.getTextSizeInBytes());
+    }
+
+    @Test
+    public void build_keepsEveryQuestionType() throws Exception {
+        ColumnarQuestionBank.Builder builder = new ColumnarQuestionBank.Builder();
+        for (int i = 0; i < 40; i++) {
+            builder.add("Is " + i + " even?", i % 2 == 0);
+        }
+        builder.addSingleChoice("Which is a primary colour?", new String[] {"red", "pink"}, 0)
+                .addMultiSelect("Which are even?", new String[] {"1", "2", "3", "4"}, 0xA)
+                .addNumeric("How many legs does a spider have?", 8, 8)
+                .add("Is water wet?", true);
+        QuestionBank bank = builder.build();
+
+        assertEquals(44, bank.size());
+        assertEquals(QuestionType.TRUE_FALSE, bank.getQuestionType(2));
+        assertEquals(1, bank.getAnswerKey(2));
+        assertEquals(0, bank.getAnswerKey(3));
+        assertEquals(0, bank.getChoiceCount(3));
+
+        assertEquals(QuestionType.SINGLE_CHOICE, bank.getQuestionType(40));
+        assertEquals(2, bank.getChoiceCount(40));
+        assertEquals("pink", bank.getChoiceText(40, 1));
+        assertEquals(0, bank.getAnswerKey(40));
+
+        assertEquals(QuestionType.MULTI_SELECT, bank.getQuestionType(41));
+        assertEquals("4", bank.getChoiceText(41, 3));
+        assertEquals(0xA, bank.getAnswerKey(41));
+
+        assertEquals(QuestionType.NUMERIC, bank.getQuestionType(42));
+        assertEquals(8.0, bank.getRangeMin(42), 0.0);
+        assertEquals(8.0, bank.getRangeMax(42), 0.0);
+        assertTrue(Double.isNaN(bank.getRangeMin(41)));
+        assertEquals(0, bank.getChoiceCount(42));
+
+        assertEquals(QuestionType.TRUE_FALSE, bank.getQuestionType(43));
+        assertTrue(bank.getCorrectAnswer(43));
+        assertEquals("Is water wet?", bank.getQuestionText(43));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addMultiSelect_rejectsMissingChoices() throws Exception {
+        new ColumnarQuestionBank.Builder().addMultiSelect("Which?", new String[] {"a", "b"}, 4);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getQuestionText_outOfRangeThrows() throws Exception {
+        new ColumnarQuestionBank.Builder().add("Is water wet?", true).build().getQuestionText(1);
+    }
+}
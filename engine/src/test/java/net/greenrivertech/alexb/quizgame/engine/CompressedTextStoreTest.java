@@ -0,0 +1,69 @@
+package net.greenrivertech.alexb.quizgame.engine;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for CompressedTextStore.
+ */
+public class CompressedTextStoreTest {
+    private static final String[] SUBJECTS = {"water", "fire", "ice", "a deer", "a dolphin",
+            "a potato", "the moon", "a prime number", "Paris", "the Pacific Ocean"};
+    private static final String[] PREDICATES = {"wet", "hot", "cold", "able to fly",
+            "a fruit", "made of cheese", "even", "in Europe", "the largest", "a mammal"};
+
+    @Test
+    public void get_roundTripsEveryString() throws Exception {
+        String[] strings = {"Is water wet?", "", "Caf\u00e9 au lait?", "\u65e5\u672c\u8a9e",
+                "Smile \ud83d\ude00!", "Is water wet?", "\u0000\u00ff\u0100",
+                "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa"};
+        CompressedTextStore.Builder builder = new CompressedTextStore.Builder();
+        for (String string : strings) {
+            builder.add(string);
+        }
+        CompressedTextStore store = builder.build();
+
+        assertEquals(strings.length, store.size());
+        for (int i = 0; i < strings.length; i++) {
+            assertEquals(strings[i], store.get(i));
+        }
+    }
+
+    @Test
+    public void build_compressesRepetitiveLines() throws Exception {
+        Random rand = new Random(1);
+        String[] lines = new String[100000];
+        CompressedTextStore.Builder builder = new CompressedTextStore.Builder();
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = "Is " + SUBJECTS[rand.nextInt(SUBJECTS.length)] + " "
+                    + PREDICATES[rand.nextInt(PREDICATES.length)] + " (#" + i + ")?";
+            builder.add(lines[i]);
+        }
+        CompressedTextStore store = builder.build();
+
+        assertTrue(store.getSymbolCount() <= 255);
+        assertTrue(store.getSizeInBytes() + " of " + store.getTextBytes(),
+                store.getSizeInBytes() * 2 < store.getTextBytes());
+        for (int i = 0; i < lines.length; i += 7) {
+            assertEquals(lines[i], store.get(i));
+        }
+    }
+
+    @Test
+    public void build_handlesEmptyStore() throws Exception {
+        CompressedTextStore store = new CompressedTextStore.Builder().build();
+        assertEquals(0, store.size());
+        assertEquals(0, store.getTextBytes());
+
+        store = new CompressedTextStore.Builder().add("").add("").build();
+        assertEquals("", store.get(1));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void get_rejectsIndexOutOfRange() throws Exception {
+        new CompressedTextStore.Builder().add("Is fire hot?").build().get(1);
+    }
+}
@@ -0,0 +1,242 @@
+package net.greenrivertech.alexb.quizgame.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ConcurrentQuizEngine.
+ */
+public class ConcurrentQuizEngineTest {
+    private static QuestionBank bank(int size) {
+        ColumnarQuestionBank.Builder builder = new ColumnarQuestionBank.Builder();
+        for (int i = 0; i < size; i++) {
+            builder.add("Question " + i, i % 3 != 0);
+        }
+        return builder.build();
+    }
+
+    private static int[] firstQuestions(int count) {
+        int[] questions = new int[count];
+        for (int i = 0; i < count; i++) {
+            questions[i] = i;
+        }
+        return questions;
+    }
+
+    //counts first answers, from any thread.
+    private static class CountingListener implements AnswerListener {
+        final AtomicInteger answers = new AtomicInteger();
+        final AtomicInteger correct = new AtomicInteger();
+
+        @Override
+        public void onAnswer(int questionNumber, boolean isCorrect) {
+            answers.incrementAndGet();
+            if (isCorrect) {
+                correct.incrementAndGet();
+            }
+        }
+    }
+
+    //run each task on its own thread, all starting together, and rethrow the first failure.
+    private static void runTogether(List<Runnable> tasks) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (final Runnable task : tasks) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        task.run();
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+    }
+
+    @Test
+    public void singleThread_matchesQuizEngine() throws Exception {
+        QuestionBank bank = bank(40);
+        int[] questions = firstQuestions(40);
+        QuizEngine plain = new QuizEngine(bank, questions);
+        ConcurrentQuizEngine concurrent = new ConcurrentQuizEngine(bank, questions);
+
+        //wander around the game, then go back to the start and answer the rest in order.
+        Random rand = new Random(5);
+        for (int step = 0; step < 200; step++) {
+            int move = rand.nextInt(4);
+            if (move == 0) {
+                assertEquals(plain.previousQuestion(), concurrent.previousQuestion());
+            } else if (move == 1) {
+                assertEquals(plain.nextQuestion(), concurrent.nextQuestion());
+            } else {
+                boolean answer = rand.nextBoolean();
+                assertEquals(plain.answerQuestion(answer), concurrent.answerQuestion(answer));
+            }
+            assertEquals(plain.getGameQuestionNum(), concurrent.getGameQuestionNum());
+            assertEquals(plain.getScore(), concurrent.getScore());
+        }
+        while (plain.previousQuestion()) {
+            assertTrue(concurrent.previousQuestion());
+        }
+        assertFalse(concurrent.previousQuestion());
+        while (!plain.isGameOver()) {
+            boolean answer = rand.nextBoolean();
+            assertEquals(plain.answerQuestion(answer), concurrent.answerQuestion(answer));
+            assertEquals(plain.getScore(), concurrent.getScore());
+        }
+        assertTrue(concurrent.isGameOver());
+        assertArrayEquals(plain.saveState(), concurrent.saveState());
+
+        ConcurrentQuizEngine restored = ConcurrentQuizEngine.restore(bank, questions,
+                plain.saveState());
+        assertArrayEquals(plain.saveState(), restored.saveState());
+        for (int i = 0; i < 40; i++) {
+            assertEquals(plain.isAnsweredCorrectly(i), restored.isAnsweredCorrectly(i));
+        }
+    }
+
+    @Test
+    public void answerQuestionAt_scoresEachQuestionOnceUnderContention() throws Exception {
+        final int size = 20000;
+        QuestionBank bank = bank(size);
+        final ConcurrentQuizEngine game = new ConcurrentQuizEngine(bank, firstQuestions(size));
+        CountingListener listener = new CountingListener();
+        game.setAnswerListener(listener);
+
+        List<Runnable> tasks = new ArrayList<Runnable>();
+        for (int t = 0; t < 8; t++) {
+            final int offset = t * 997;
+            final boolean answer = t % 2 == 0;
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < size; i++) {
+                        try {
+                            game.answerQuestionAt((i + offset) % size, answer);
+                        } catch (IllegalStateException e) {
+                            //every question has been answered
+                            return;
+                        }
+                    }
+                }
+            });
+        }
+        runTogether(tasks);
+
+        assertTrue(game.isGameOver());
+        assertEquals(size, game.getNumQuestionsAnswered());
+        assertEquals(size, listener.answers.get());
+        assertEquals(listener.correct.get(), game.getScore());
+        QuizEngine.restore(bank, firstQuestions(size), game.saveState());
+    }
+
+    @Test
+    public void answerQuestion_withNavigationStaysConsistent() throws Exception {
+        final int size = 5000;
+        QuestionBank bank = bank(size);
+        final ConcurrentQuizEngine game = new ConcurrentQuizEngine(bank, firstQuestions(size));
+        CountingListener listener = new CountingListener();
+        game.setAnswerListener(listener);
+
+        List<Runnable> tasks = new ArrayList<Runnable>();
+        for (int t = 0; t < 6; t++) {
+            final Random rand = new Random(t);
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    while (!game.isGameOver()) {
+                        try {
+                            game.answerQuestion(rand.nextBoolean());
+                        } catch (IllegalStateException e) {
+                            return;
+                        }
+                    }
+                }
+            });
+        }
+        for (int t = 0; t < 2; t++) {
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    while (!game.isGameOver()) {
+                        game.previousQuestion();
+                        int position = game.getGameQuestionNum();
+                        assertTrue(position >= 0 && position < size);
+                    }
+                }
+            });
+        }
+        runTogether(tasks);
+
+        assertEquals(size, game.getNumQuestionsAnswered());
+        assertEquals(size, listener.answers.get());
+        assertEquals(listener.correct.get(), game.getScore());
+        for (int i = 0; i < size; i++) {
+            assertTrue(game.isAnswered(i));
+        }
+    }
+
+    @Test
+    public void saveState_isConsistentWhileAnswering() throws Exception {
+        final int size = 3000;
+        final QuestionBank bank = bank(size);
+        final int[] questions = firstQuestions(size);
+        final ConcurrentQuizEngine game = new ConcurrentQuizEngine(bank, questions);
+
+        List<Runnable> tasks = new ArrayList<Runnable>();
+        for (int t = 0; t < 4; t++) {
+            final int first = t;
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = first; i < size; i += 4) {
+                        game.answerQuestionAt(i, i % 2 == 0);
+                    }
+                }
+            });
+        }
+        tasks.add(new Runnable() {
+            @Override
+            public void run() {
+                int lastAnswered = 0;
+                while (!game.isGameOver()) {
+                    //restore checks that the bits and counts agree.
+                    QuizEngine saved = QuizEngine.restore(bank, questions, game.saveState());
+                    assertTrue(saved.getNumQuestionsAnswered() >= lastAnswered);
+                    lastAnswered = saved.getNumQuestionsAnswered();
+                }
+            }
+        });
+        runTogether(tasks);
+        assertEquals(size, game.getNumQuestionsAnswered());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_rejectsOtherQuestionTypes() {
+        ColumnarQuestionBank.Builder builder = new ColumnarQuestionBank.Builder();
+        builder.add("True or false?", true);
+        builder.addNumeric("How many?", 1, 2);
+        new ConcurrentQuizEngine(builder.build(), new int[] {0, 1});
+    }
+}
@@ -0,0 +1,54 @@
+package net.greenrivertech.alexb.quizgame.engine;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for FloydQuestionSampler.
+ */
+public class FloydQuestionSamplerTest {
+    @Test
+    public void sample_isDistinctAndInRange() throws Exception {
+        FloydQuestionSampler sampler = new FloydQuestionSampler(42);
+        int[] out = new int[500];
+        sampler.sample(100000, out.length, out);
+
+        int[] sorted = out.clone();
+        Arrays.sort(sorted);
+        assertTrue(sorted[0] >= 0);
+        assertTrue(sorted[sorted.length - 1] < 100000);
+        for (int i = 1; i < sorted.length; i++) {
+            assertTrue(sorted[i] != sorted[i - 1]);
+        }
+    }
+
+    @Test
+    public void sample_wholeBankIsPermutation() throws Exception {
+        FloydQuestionSampler sampler = new FloydQuestionSampler(7);
+        int[] out = new int[1000];
+        sampler.sample(out.length, out.length, out);
+
+        Arrays.sort(out);
+        for (int i = 0; i < out.length; i++) {
+            assertEquals(i, out[i]);
+        }
+    }
+
+    @Test
+    public void sample_sameSeedIsReproducible() throws Exception {
+        int[] first = new int[20];
+        int[] second = new int[20];
+        new FloydQuestionSampler(1234).sample(50, first.length, first);
+        new FloydQuestionSampler(1234).sample(50, second.length, second);
+
+        assertArrayEquals(first, second);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sample_moreThanBankSizeThrows() throws Exception {
+        new FloydQuestionSampler().sample(3, 4, new int[4]);
+    }
+}
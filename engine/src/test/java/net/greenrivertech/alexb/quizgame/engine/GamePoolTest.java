@@ -0,0 +1,128 @@
+package net.greenrivertech.alexb.quizgame.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for GamePool.
+ */
+public class GamePoolTest {
+    //runs refills at once, on the calling thread.
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @Test
+    public void take_hitsOnceRefilled() throws Exception {
+        QuestionBank bank = trueFalseBank(100);
+        GamePool pool = new GamePool(bank, 5, 2, DIRECT);
+        pool.refill();
+        assertEquals(2, pool.size());
+
+        QuizMetrics.reset();
+        GamePool.Game game = pool.take();
+        assertEquals(1, QuizMetrics.GAME_POOL_HITS.get());
+        assertEquals(0, QuizMetrics.GAME_POOL_MISSES.get());
+        assertEquals(2, pool.size());
+        assertEquals(1, QuizMetrics.GAME_POOL_REFILL.getCount());
+
+        //a seeded game can be logged by its seed and replayed.
+        assertTrue(game.isSeeded());
+        QuizEngine engine = game.getEngine();
+        assertEquals(5, engine.getNumQuestions());
+        ReplayRecorder recorder = new ReplayRecorder();
+        recorder.startSeeded(engine, game.getSeed());
+        while (!engine.isGameOver()) {
+            engine.answerQuestion(true);
+        }
+        recorder.finish();
+        GameReplayer replayer = new GameReplayer(bank);
+        QuizEngine replayed = replayer.replay(recorder.toByteArray());
+        assertArrayEquals(engine.getQuestionNumbers(), replayed.getQuestionNumbers());
+        assertEquals(engine.getScore(), replayer.getClaimedScore());
+    }
+
+    @Test
+    public void recycle_startsGameAgainInPlace() throws Exception {
+        GamePool pool = new GamePool(trueFalseBank(100), 5, 1, DIRECT);
+        pool.refill();
+        GamePool.Game first = pool.take();
+        QuizEngine engine = first.getEngine();
+        QuizTimer timer = first.getTimer(1000, QuizTimer.NO_LIMIT);
+        assertSame(timer, first.getTimer(1000, QuizTimer.NO_LIMIT));
+        timer.start(0);
+        assertTrue(timer.expire(5000));
+        engine.answerQuestion(true);
+        assertEquals(1, timer.getNumExpired());
+        assertEquals(1, engine.getNumQuestionsAnswered());
+
+        //the recycled game comes back after the one already waiting, started again.
+        assertTrue(pool.recycle(first));
+        GamePool.Game second = pool.take();
+        assertNotSame(first, second);
+        GamePool.Game third = pool.take();
+        assertSame(first, third);
+        assertSame(engine, third.getEngine());
+        assertEquals(0, engine.getNumQuestionsAnswered());
+        assertEquals(0, engine.getScore());
+        assertEquals(0, engine.getGameQuestionNum());
+        assertSame(timer, third.getTimer(1000, QuizTimer.NO_LIMIT));
+        assertFalse(timer.isRunning());
+        assertEquals(0, timer.getNumExpired());
+        assertEquals(1000, timer.getQuestionTimeLeft(0));
+
+        //games from another pool are not kept.
+        GamePool other = new GamePool(trueFalseBank(100), 5, 1, DIRECT);
+        assertFalse(other.recycle(second));
+    }
+
+    @Test
+    public void take_missesWhenEmpty() throws Exception {
+        final List<Runnable> queued = new ArrayList<>();
+        Executor later = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                queued.add(command);
+            }
+        };
+        QuestionIdSet questions = new QuestionIdSet.Builder().add(2).add(5).add(7).build();
+        GamePool pool = new GamePool(trueFalseBank(10), questions, 5, 3, later);
+
+        QuizMetrics.reset();
+        GamePool.Game game = pool.take();
+        pool.take();
+        assertEquals(2, QuizMetrics.GAME_POOL_MISSES.get());
+        assertEquals(2, QuizMetrics.GAME_POOL_TAKE.getCount());
+        assertFalse(game.isSeeded());
+
+        //only questions from the subset, and no more than it has.
+        assertEquals(3, game.getEngine().getNumQuestions());
+        for (int i = 0; i < 3; i++) {
+            assertTrue(questions.contains(game.getEngine().getQuestionNumber(i)));
+        }
+
+        //one refill is queued however many games are taken, and it fills the pool.
+        assertEquals(1, queued.size());
+        queued.remove(0).run();
+        assertEquals(3, pool.size());
+        assertTrue(queued.isEmpty());
+        pool.take();
+        assertEquals(1, QuizMetrics.GAME_POOL_HITS.get());
+    }
+
+    private static QuestionBank trueFalseBank(int size) {
+        ColumnarQuestionBank.Builder builder = new ColumnarQuestionBank.Builder();
+        for (int i = 0; i < size; i++) {
+            builder.add("Question " + i + "?", i % 2 == 0);
+        }
+        return builder.build();
+    }
+}
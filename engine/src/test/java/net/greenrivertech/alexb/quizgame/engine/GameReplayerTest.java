@@ -0,0 +1,208 @@
+package net.greenrivertech.alexb.quizgame.engine;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ReplayRecorder and GameReplayer.
+ */
+public class GameReplayerTest {
+    private static final QuestionBank MIXED = new ColumnarQuestionBank.Builder()
+            .add("Is water wet?", true)
+            .addSingleChoice("Which is a fruit?", new String[] {"potato", "apple", "leek"}, 1)
+            .addMultiSelect("Which are prime?", new String[] {"2", "4", "5", "9"}, 0x5)
+            .addNumeric("What is pi, to 2 places?", 3.135, 3.145)
+            .build();
+
+    @Test
+    public void replay_reconstructsSeededGame() throws Exception {
+        QuestionBank bank = trueFalseBank(1000);
+        ReplayRecorder recorder = new ReplayRecorder();
+        GameReplayer replayer = new GameReplayer(bank);
+        Random rand = new Random(1);
+
+        for (int seed = 0; seed < 50; seed++) {
+            QuizEngine game = QuizEngine.newGame(bank, new FloydQuestionSampler(seed), 20);
+            recorder.startSeeded(game, seed);
+            play(game, rand);
+            recorder.finish();
+
+            QuizEngine replayed = replayer.replay(recorder.getBuffer(), 0, recorder.getLength());
+            assertArrayEquals(game.getQuestionNumbers(), replayed.getQuestionNumbers());
+            assertArrayEquals(game.saveState(), replayed.saveState());
+            assertEquals(game.getScore(), replayer.getClaimedScore());
+            assertTrue(replayer.verify(recorder.getBuffer(), 0, recorder.getLength()));
+        }
+
+        //a short game is a few bytes, and recording it does not grow the buffer.
+        byte[] buffer = recorder.getBuffer();
+        QuizEngine game = QuizEngine.newGame(bank, new FloydQuestionSampler(99), 3);
+        recorder.startSeeded(game, 99);
+        game.answerQuestion(true);
+        game.answerQuestion(false);
+        game.answerQuestion(true);
+        recorder.finish();
+        assertEquals(18, recorder.getLength());
+        assertSame(buffer, recorder.getBuffer());
+    }
+
+    @Test
+    public void replay_listedMixedGameSurvivesRestore() throws Exception {
+        QuizEngine game = new QuizEngine(MIXED, new int[] {3, 1, 0, 2});
+        ReplayRecorder recorder = new ReplayRecorder();
+        recorder.start(game);
+        game.answerNumber(3.2);
+        game.answerChoice(1);
+        assertTrue(game.previousQuestion());
+
+        //the process is killed; the game and its log are saved and restored.
+        byte[] saved = recorder.toByteArray();
+        QuizEngine restored = QuizEngine.restore(MIXED, game.getQuestionNumbers(),
+                game.saveState());
+        ReplayRecorder resumed = new ReplayRecorder(4);
+        resumed.resume(restored, saved);
+        restored.answerChoice(2);
+        restored.answerQuestion(true);
+        restored.answerChoices(0x5);
+        resumed.finish();
+        assertFalse(resumed.isRecording());
+
+        GameReplayer replayer = new GameReplayer(MIXED);
+        QuizEngine replayed = replayer.replay(resumed.toByteArray());
+        assertArrayEquals(restored.saveState(), replayed.saveState());
+        assertEquals(3, replayed.getScore());
+        assertEquals(3, replayer.getClaimedScore());
+    }
+
+    @Test
+    public void verify_rejectsWrongOrMissingScore() throws Exception {
+        QuestionBank bank = trueFalseBank(100);
+        QuizEngine game = QuizEngine.newGame(bank, new FloydQuestionSampler(5), 10);
+        ReplayRecorder recorder = new ReplayRecorder();
+        recorder.startSeeded(game, 5);
+        play(game, new Random(2));
+        recorder.finish();
+        byte[] log = recorder.toByteArray();
+        GameReplayer replayer = new GameReplayer(bank);
+        assertTrue(replayer.verify(log, 0, log.length));
+
+        //claim one more point than was earned.
+        log[log.length - 1]++;
+        assertFalse(replayer.verify(log, 0, log.length));
+
+        //a log saved before the game ended makes no claim.
+        assertFalse(replayer.verify(log, 0, log.length - 2));
+        assertEquals(-1, replayer.getClaimedScore());
+
+        //logs framed one after another in a stream.
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recorder.writeFramed(out);
+        recorder.writeFramed(out);
+        byte[] framed = out.toByteArray();
+        assertEquals(recorder.getLength(), framed[0]);
+        assertTrue(replayer.verify(framed, 2 + recorder.getLength(), recorder.getLength()));
+    }
+
+    @Test
+    public void replay_rejectsMalformedLogs() throws Exception {
+        QuizEngine game = new QuizEngine(MIXED, new int[] {0, 1});
+        ReplayRecorder recorder = new ReplayRecorder();
+        recorder.start(game);
+        game.answerQuestion(true);
+        game.answerChoice(1);
+        recorder.finish();
+        byte[] log = recorder.toByteArray();
+        GameReplayer replayer = new GameReplayer(MIXED);
+        replayer.replay(log);
+
+        //cut off in the header or in a value.
+        assertMalformed(replayer, Arrays.copyOf(log, 5));
+        assertMalformed(replayer, Arrays.copyOf(log, log.length - 1));
+        //for a different bank.
+        assertMalformed(new GameReplayer(trueFalseBank(10)), log);
+        //something after the end.
+        assertMalformed(replayer, Arrays.copyOf(log, log.length + 1));
+        //an answer after the game is over.
+        byte[] extra = Arrays.copyOf(log, log.length);
+        extra[log.length - 2] = ReplayRecorder.EVENT_ANSWER_TRUE;
+        assertMalformed(replayer, extra);
+        //an answer that is not a choice of the question (the END tag, 5, read as an answer).
+        byte[] badChoice = recorder.toByteArray();
+        badChoice[log.length - 3] = ReplayRecorder.EVENT_ANSWER;
+        assertMalformed(replayer, badChoice);
+        //moving back from the first question.
+        byte[] back = recorder.toByteArray();
+        back[log.length - 4] = ReplayRecorder.EVENT_PREVIOUS;
+        assertMalformed(replayer, back);
+        //a question that is not in the bank.
+        byte[] question = recorder.toByteArray();
+        question[13] = 9;
+        assertMalformed(replayer, question);
+    }
+
+    @Test
+    public void nextQuestion_recordsOnlyMovesThatHappen() throws Exception {
+        QuestionBank bank = trueFalseBank(3);
+        QuizEngine game = new QuizEngine(bank, new int[] {0, 1, 2});
+        ReplayRecorder recorder = new ReplayRecorder();
+        recorder.start(game);
+        int header = recorder.getLength();
+
+        assertFalse(game.previousQuestion());
+        assertTrue(game.nextQuestion());
+        assertTrue(game.nextQuestion());
+        assertFalse(game.nextQuestion());
+        assertTrue(game.previousQuestion());
+        //answering moves on by itself; that move is not logged.
+        game.answerQuestion(false);
+        assertEquals(header + 4, recorder.getLength());
+
+        //after finishing, the game is no longer recorded.
+        recorder.finish();
+        int finished = recorder.getLength();
+        game.previousQuestion();
+        assertEquals(finished, recorder.getLength());
+    }
+
+    private static void assertMalformed(GameReplayer replayer, byte[] log) {
+        try {
+            replayer.replay(log);
+            fail();
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+    }
+
+    //answer every question, with some skips and steps back along the way.
+    private static void play(QuizEngine game, Random rand) {
+        while (!game.isGameOver()) {
+            int move = rand.nextInt(6);
+            if (move == 0) {
+                if (!game.nextQuestion()) {
+                    game.previousQuestion();
+                }
+            } else if (move == 1) {
+                game.previousQuestion();
+            } else if (!game.isCurrentQuestionAnswered() || move == 2) {
+                game.answerQuestion(rand.nextBoolean());
+            } else if (!game.nextQuestion()) {
+                while (game.previousQuestion() && game.isCurrentQuestionAnswered()) {
+                    //look for a question still to answer
+                }
+            }
+        }
+    }
+
+    private static QuestionBank trueFalseBank(int size) {
+        ColumnarQuestionBank.Builder builder = new ColumnarQuestionBank.Builder();
+        for (int i = 0; i < size; i++) {
+            builder.add("Question " + i + "?", i % 3 != 0);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,53 @@
+package net.greenrivertech.alexb.quizgame.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for LatencyHistogram.
+ */
+public class LatencyHistogramTest {
+    @Test
+    public void buckets_coverEveryValueInOrder() throws Exception {
+        long[] values = {0, 1, 31, 32, 33, 63, 64, 1000, 123456789, Long.MAX_VALUE};
+        int previous = -1;
+        for (long value : values) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(bucket >= previous);
+            assertTrue(LatencyHistogram.upperEdge(bucket) >= value);
+            if (bucket > 0) {
+                assertTrue(LatencyHistogram.upperEdge(bucket - 1) < value);
+            }
+            previous = bucket;
+        }
+    }
+
+    @Test
+    public void percentiles_areWithinBucketPrecision() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        for (long i = 1; i <= 10000; i++) {
+            histogram.record(i * 1000);
+        }
+
+        assertEquals(10000, histogram.getCount());
+        assertEquals(10000000, histogram.getMax());
+        assertEquals(5000500, histogram.getMean(), 1e-6);
+        assertEquals(5000000, histogram.getPercentile(50), 5000000 * 0.04);
+        assertEquals(9900000, histogram.getPercentile(99), 9900000 * 0.04);
+        assertEquals(10000000, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void empty_reportsZero() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        histogram.record(5);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(99));
+
+        StringBuilder json = new StringBuilder();
+        histogram.appendJson(json);
+        assertTrue(json.toString().startsWith("{\"name\":\"test\",\"count\":0,"));
+    }
+}
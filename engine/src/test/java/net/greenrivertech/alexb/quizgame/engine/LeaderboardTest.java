@@ -0,0 +1,173 @@
+package net.greenrivertech.alexb.quizgame.engine;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for Leaderboard.
+ */
+public class LeaderboardTest {
+    @Test
+    public void rank_matchesSortedResults() throws Exception {
+        Leaderboard leaderboard = new Leaderboard(10, 20);
+        Random rand = new Random(1);
+        int n = 2000;
+        int[] scores = new int[n];
+        int[] answered = new int[n];
+        for (int i = 0; i < n; i++) {
+            answered[i] = rand.nextInt(11);
+            scores[i] = rand.nextInt(answered[i] + 1);
+            leaderboard.add(scores[i], answered[i], i);
+        }
+        assertEquals(n, leaderboard.size());
+
+        //count the better results the slow way.
+        for (int score = 0; score <= 10; score++) {
+            for (int num = score; num <= 10; num++) {
+                long better = 0;
+                long same = 0;
+                for (int i = 0; i < n; i++) {
+                    if (scores[i] > score || (scores[i] == score && answered[i] < num)) {
+                        better++;
+                    } else if (scores[i] == score && answered[i] == num) {
+                        same++;
+                    }
+                }
+                assertEquals(better + 1, leaderboard.rank(score, num));
+                assertEquals(same, leaderboard.count(score, num));
+            }
+        }
+    }
+
+    @Test
+    public void top_keepsBestInOrder() throws Exception {
+        Leaderboard leaderboard = new Leaderboard(3, 3);
+        assertEquals(1, leaderboard.add(1, 3, 100));
+        assertEquals(1, leaderboard.add(3, 3, 200));
+        assertEquals(2, leaderboard.add(2, 2, 300));
+        assertEquals(1, leaderboard.add(3, 3, 400));
+        assertEquals(5, leaderboard.add(0, 3, 500));
+
+        List<Leaderboard.Entry> top = leaderboard.top(10);
+        assertEquals(3, top.size());
+        assertEquals(200, top.get(0).getTimeMillis());
+        assertEquals(400, top.get(1).getTimeMillis());
+        assertEquals(2, top.get(2).getScore());
+        assertEquals(2, top.get(2).getNumQuestionsAnswered());
+        assertEquals(1, leaderboard.top(1).size());
+        assertEquals(5, leaderboard.size());
+
+        try {
+            leaderboard.add(3, 2, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+        try {
+            leaderboard.rank(4, 4);
+            fail();
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+    }
+
+    @Test
+    public void add_countsEveryResultFromManyThreads() throws Exception {
+        final Leaderboard leaderboard = new Leaderboard(5, 10);
+        final int perThread = 20000;
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int seed = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Random rand = new Random(seed);
+                    for (int i = 0; i < perThread; i++) {
+                        int answered = rand.nextInt(6);
+                        leaderboard.add(rand.nextInt(answered + 1), answered, i);
+                        leaderboard.rank(rand.nextInt(2), 5);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long total = 0;
+        for (int score = 0; score <= 5; score++) {
+            for (int answered = score; answered <= 5; answered++) {
+                total += leaderboard.count(score, answered);
+            }
+        }
+        assertEquals(threads.length * perThread, total);
+        assertEquals(total, leaderboard.size());
+        assertEquals(total + 1, leaderboard.rank(0, 5) + leaderboard.count(0, 5));
+
+        List<Leaderboard.Entry> top = leaderboard.top(100);
+        assertEquals(10, top.size());
+        for (Leaderboard.Entry entry : top) {
+            assertEquals(5, entry.getScore());
+            assertEquals(5, entry.getNumQuestionsAnswered());
+        }
+    }
+
+    @Test
+    public void write_roundTripsAndRejectsBadFiles() throws Exception {
+        Leaderboard leaderboard = new Leaderboard(10, 5);
+        Random rand = new Random(3);
+        for (int i = 0; i < 500; i++) {
+            int answered = rand.nextInt(11);
+            leaderboard.add(rand.nextInt(answered + 1), answered, i);
+        }
+        File file = File.createTempFile("leaderboard", ".bin");
+        try {
+            leaderboard.write(file);
+            Leaderboard read = Leaderboard.read(file, 5);
+            assertEquals(leaderboard.size(), read.size());
+            assertEquals(10, read.getMaxQuestions());
+            for (int score = 0; score <= 10; score++) {
+                for (int answered = score; answered <= 10; answered++) {
+                    assertEquals(leaderboard.rank(score, answered), read.rank(score, answered));
+                }
+            }
+            assertEquals(leaderboard.top(5), read.top(5));
+
+            //new results still come after the ones read.
+            read.add(10, 10, 1000);
+            assertEquals(1000, read.top(5).get(read.top(5).size() - 1).getTimeMillis());
+
+            //cut off in the top entries.
+            long length = file.length();
+            FileOutputStream out = new FileOutputStream(file, true);
+            out.getChannel().truncate(length - 3);
+            out.close();
+            assertUnreadable(file);
+
+            //something else entirely.
+            out = new FileOutputStream(file);
+            out.write(new byte[] {'Q', 'S', 'R', 'S', 0, 0, 0, 1});
+            out.close();
+            assertUnreadable(file);
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static void assertUnreadable(File file) {
+        try {
+            Leaderboard.read(file, 5);
+            fail();
+        } catch (IOException e) {
+            //expected
+        }
+    }
+}
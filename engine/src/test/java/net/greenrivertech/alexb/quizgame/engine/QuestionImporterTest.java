@@ -0,0 +1,135 @@
+package net.greenrivertech.alexb.quizgame.engine;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for QuestionImporter.
+ */
+public class QuestionImporterTest {
+    @Test
+    public void importFrom_mergesSourcesWithoutDuplicates() throws Exception {
+        File file = File.createTempFile("questions", ".qpk");
+        try {
+            String csv = "Is water wet?,true\n\"Is fire, hot?\",true\nIs  WATER wet? ,true\n";
+            String json = "{\"question\": \"Can deer fly?\", \"answer\": false}\n"
+                    + "{\"id\": 7, \"answer\": \"TRUE\", \"question\": \"  is fire,  hot?\"}\n"
+                    + "{\"question\":\"Say \\\"hi\\\" \\u00e9\",\"answer\":true,\"x\":null}\n";
+
+            QuestionImporter importer = new QuestionImporter(file, 2);
+            try {
+                importer.importFrom(new BufferedReader(new StringReader(csv)),
+                        QuestionImporter.Format.CSV);
+                importer.importFrom(new BufferedReader(new StringReader(json)),
+                        QuestionImporter.Format.JSON_LINES);
+                importer.finish();
+            } finally {
+                importer.close();
+            }
+
+            assertEquals(6, importer.getLinesRead());
+            assertEquals(4, importer.getImported());
+            assertEquals(2, importer.getDuplicates());
+            assertEquals(0, importer.getInvalid());
+
+            MappedQuestionBank bank = MappedQuestionBank.open(file);
+            assertEquals(2, bank.getPackVersion());
+            assertEquals(4, bank.size());
+            assertEquals("Is fire, hot?", bank.getQuestionText(1));
+            assertEquals("Can deer fly?", bank.getQuestionText(2));
+            assertFalse(bank.getCorrectAnswer(2));
+            assertEquals("Say \"hi\" \u00e9", bank.getQuestionText(3));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void importFrom_skipsAndReportsInvalidEntries() throws Exception {
+        File file = File.createTempFile("questions", ".qpk");
+        try {
+            String json = "{\"question\": \"Fine?\", \"answer\": true}\n"
+                    + "{\"question\": \"Maybe?\", \"answer\": \"maybe\"}\n"
+                    + "{\"answer\": true}\n"
+                    + "not json\n"
+                    + "{\"question\": \"Tab\\there?\", \"answer\": false}\n"
+                    + "{\"question\": \"Unclosed?\", \"answer\": true\n";
+
+            QuestionImporter importer = new QuestionImporter(file, 1);
+            try {
+                importer.importFrom(new BufferedReader(new StringReader(json)),
+                        QuestionImporter.Format.JSON_LINES);
+                importer.finish();
+            } finally {
+                importer.close();
+            }
+
+            assertEquals(1, importer.getImported());
+            assertEquals(5, importer.getInvalid());
+            assertEquals(5, importer.getErrors().size());
+            assertTrue(importer.getErrors().get(0).startsWith("Line 2: "));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void importFrom_writesTagIndex() throws Exception {
+        File file = File.createTempFile("questions", ".qpk");
+        File tagFile = new File(file.getPath() + TagIndex.FILE_SUFFIX);
+        try {
+            String json = "{\"question\": \"Is water wet?\", \"answer\": true, "
+                    + "\"tags\": [\"science\", \"easy\"]}\n"
+                    + "{\"question\": \"Who was first?\", \"answer\": false, \"tags\": []}\n"
+                    + "{\"question\": \"Bad tag?\", \"answer\": false, \"tags\": [\"a b\"]}\n"
+                    + "{\"tags\": [\"science\"], \"question\": \"Is ice cold?\", "
+                    + "\"answer\": true}\n";
+
+            QuestionImporter importer = new QuestionImporter(file, 5);
+            try {
+                importer.importFrom(new BufferedReader(new StringReader(json)),
+                        QuestionImporter.Format.JSON_LINES);
+                importer.finish();
+            } finally {
+                importer.close();
+            }
+
+            assertEquals(3, importer.getImported());
+            assertEquals(1, importer.getInvalid());
+            TagIndex tags = TagIndex.read(tagFile);
+            assertEquals(5, tags.getPackVersion());
+            assertArrayEquals(new int[] {0, 2}, tags.get("science").toArray());
+            assertArrayEquals(new int[] {0}, tags.query("science AND easy").toArray());
+        } finally {
+            file.delete();
+            tagFile.delete();
+        }
+    }
+
+    @Test
+    public void normalizedHash_ignoresCaseAndSpacing() throws Exception {
+        assertEquals(QuestionImporter.normalizedHash("Is water wet?"),
+                QuestionImporter.normalizedHash("  is   WATER\twet? "));
+        assertTrue(QuestionImporter.normalizedHash("Is water wet?")
+                != QuestionImporter.normalizedHash("Is waterwet?"));
+    }
+
+    @Test
+    public void longHashSet_growsAndKeepsMembers() throws Exception {
+        LongHashSet set = new LongHashSet(4);
+        for (long i = 0; i < 10000; i++) {
+            assertTrue(set.add(i * 0x9E3779B97F4A7C15L));
+        }
+        for (long i = 0; i < 10000; i++) {
+            assertFalse(set.add(i * 0x9E3779B97F4A7C15L));
+            assertTrue(set.contains(i * 0x9E3779B97F4A7C15L));
+        }
+        assertFalse(set.contains(12345));
+        assertEquals(10000, set.size());
+    }
+}
@@ -0,0 +1,105 @@
+package net.greenrivertech.alexb.quizgame.engine;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for QuestionPackWriter and MappedQuestionBank.
+ */
+public class QuestionPackTest {
+    @Test
+    public void writeThenMap_keepsTextAndAnswers() throws Exception {
+        File file = File.createTempFile("questions", ".qpk");
+        try {
+            QuestionPackWriter writer = new QuestionPackWriter(file, 3);
+            for (int i = 0; i < 200; i++) {
+                writer.add("Question " + i + " \u00e9\u2713?", i % 3 == 0);
+            }
+            writer.finish();
+
+            MappedQuestionBank bank = MappedQuestionBank.open(file);
+            assertEquals(3, bank.getPackVersion());
+            assertEquals(200, bank.size());
+            for (int i = 0; i < 200; i++) {
+                assertEquals("Question " + i + " \u00e9\u2713?", bank.getQuestionText(i));
+                assertEquals(i % 3 == 0, bank.getCorrectAnswer(i));
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void convertCsv_parsesQuotedQuestions() throws Exception {
+        File file = File.createTempFile("questions", ".qpk");
+        try {
+            String csv = "# sample\nIs water wet?,true\n\n\"Is \"\"this\"\", a question?\",FALSE\n";
+            int count = QuestionPackWriter.convertCsv(
+                    new BufferedReader(new StringReader(csv)), file, 1);
+
+            MappedQuestionBank bank = MappedQuestionBank.open(file);
+            assertEquals(2, count);
+            assertEquals("Is water wet?", bank.getQuestionText(0));
+            assertTrue(bank.getCorrectAnswer(0));
+            assertEquals("Is \"this\", a question?", bank.getQuestionText(1));
+            assertFalse(bank.getCorrectAnswer(1));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void convertCsv_rejectsBadAnswer() throws Exception {
+        File file = File.createTempFile("questions", ".qpk");
+        try {
+            QuestionPackWriter.convertCsv(new BufferedReader(new StringReader("Is it?,maybe")),
+                    file, 1);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void open_rejectsOtherFiles() throws Exception {
+        File file = File.createTempFile("questions", ".csv");
+        try {
+            FileOutputStream out = new FileOutputStream(file);
+            out.write("Is water wet?,true\nIs fire hot?,true\nIs ice cold?,true\n".getBytes());
+            out.close();
+
+            MappedQuestionBank.open(file);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void open_rejectsCorruptIndex() throws Exception {
+        File file = File.createTempFile("questions", ".qpk");
+        try {
+            QuestionPackWriter writer = new QuestionPackWriter(file, 1);
+            for (int i = 0; i < 10; i++) {
+                writer.add("Question " + i + "?", true);
+            }
+            writer.finish();
+
+            //point question 4's text past the end of the file.
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            raf.seek(QuestionPack.HEADER_SIZE + 4 * 5);
+            raf.writeInt(1 << 20);
+            raf.close();
+
+            MappedQuestionBank.open(file);
+        } finally {
+            file.delete();
+        }
+    }
+}
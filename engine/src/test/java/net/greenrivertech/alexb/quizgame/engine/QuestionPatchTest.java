@@ -0,0 +1,239 @@
+package net.greenrivertech.alexb.quizgame.engine;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for QuestionPatch, PatchedQuestionBank and QuestionPackUpdater.
+ */
+public class QuestionPatchTest {
+    //a new empty directory holding a pack of size questions at the given version.
+    private static File packDirectory(int size, int version) throws IOException {
+        File dir = File.createTempFile("pack", "");
+        assertTrue(dir.delete() && dir.mkdir());
+        QuestionPackWriter writer = new QuestionPackWriter(new File(dir, "questions.qpk"),
+                version);
+        for (int i = 0; i < size; i++) {
+            writer.add("Question " + i, i % 2 == 0);
+        }
+        writer.finish();
+        assertTrue(new File(dir, "updates").mkdir());
+        return dir;
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    @Test
+    public void update_appliesChainOfPatches() throws Exception {
+        File dir = packDirectory(100, 1);
+        try {
+            File pack = new File(dir, "questions.qpk");
+            File updates = new File(dir, "updates");
+
+            QuestionPatch.Builder first = new QuestionPatch.Builder(1, 2, 100);
+            first.remove(3).change(5, "Changed \u00e9 5", true);
+            assertEquals(100, first.add("Added 100", true));
+            first.build().write(new File(updates, QuestionPatch.fileName(1, 2)));
+
+            QuestionPatch.Builder second = new QuestionPatch.Builder(2, 3, 101);
+            second.change(5, "Changed again 5", false).change(100, "Added, changed", false)
+                    .remove(7);
+            assertEquals(101, second.add("Added 101", false));
+            second.build().write(new File(updates, QuestionPatch.fileName(2, 3)));
+
+            QuestionPackUpdater updater = new QuestionPackUpdater(pack);
+            assertEquals(3, updater.update(updates));
+            assertEquals(2, updater.getPatchesApplied());
+
+            PatchedQuestionBank bank = PatchedQuestionBank.open(pack);
+            assertEquals(3, bank.getPackVersion());
+            assertEquals(1, bank.getBasePackVersion());
+            assertEquals(102, bank.size());
+            assertEquals("Changed again 5", bank.getQuestionText(5));
+            assertFalse(bank.getCorrectAnswer(5));
+            assertEquals("Added, changed", bank.getQuestionText(100));
+            assertFalse(bank.getCorrectAnswer(100));
+            assertEquals("Added 101", bank.getQuestionText(101));
+            assertEquals("Question 6", bank.getQuestionText(6));
+            assertTrue(bank.getCorrectAnswer(6));
+
+            //removed questions can still be read, but are not live.
+            assertTrue(bank.isRemoved(3) && bank.isRemoved(7));
+            assertEquals("Question 3", bank.getQuestionText(3));
+            QuestionIdSet live = bank.getLiveQuestions();
+            assertEquals(100, live.cardinality());
+            assertFalse(live.contains(3) || live.contains(7));
+            assertTrue(live.contains(101));
+
+            //the overlay keeps only the latest text of each question.
+            assertEquals(3, bank.getOverlay().getChangedCount());
+
+            //nothing new to apply.
+            assertEquals(3, updater.update(updates));
+            assertEquals(0, updater.getPatchesApplied());
+        } finally {
+            delete(dir);
+        }
+    }
+
+    @Test
+    public void update_takesLongestStep() throws Exception {
+        File dir = packDirectory(10, 4);
+        try {
+            File pack = new File(dir, "questions.qpk");
+            File updates = new File(dir, "updates");
+            new QuestionPatch.Builder(4, 5, 10).remove(0).build()
+                    .write(new File(updates, QuestionPatch.fileName(4, 5)));
+            new QuestionPatch.Builder(4, 6, 10).remove(1).build()
+                    .write(new File(updates, QuestionPatch.fileName(4, 6)));
+
+            QuestionPackUpdater updater = new QuestionPackUpdater(pack);
+            assertEquals(6, updater.update(updates));
+            assertEquals(1, updater.getPatchesApplied());
+            PatchedQuestionBank bank = PatchedQuestionBank.open(pack);
+            assertTrue(bank.isRemoved(1));
+            assertFalse(bank.isRemoved(0));
+        } finally {
+            delete(dir);
+        }
+    }
+
+    @Test
+    public void update_badPatchLeavesPackUnchanged() throws Exception {
+        File dir = packDirectory(10, 1);
+        try {
+            File pack = new File(dir, "questions.qpk");
+            File updates = new File(dir, "updates");
+            new QuestionPatch.Builder(1, 2, 10).change(0, "Good", false).build()
+                    .write(new File(updates, QuestionPatch.fileName(1, 2)));
+
+            //the second patch was made for a pack of another size.
+            new QuestionPatch.Builder(2, 3, 12).change(1, "Bad", true).build()
+                    .write(new File(updates, QuestionPatch.fileName(2, 3)));
+
+            try {
+                new QuestionPackUpdater(pack).update(updates);
+                fail("Expected IOException");
+            } catch (IOException e) {
+                //expected
+            }
+            assertFalse(PatchedQuestionBank.overlayFile(pack).exists());
+            PatchedQuestionBank bank = PatchedQuestionBank.open(pack);
+            assertEquals(1, bank.getPackVersion());
+            assertEquals("Question 0", bank.getQuestionText(0));
+        } finally {
+            delete(dir);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void update_rejectsPatchNotMatchingItsName() throws Exception {
+        File dir = packDirectory(10, 4);
+        try {
+            File pack = new File(dir, "questions.qpk");
+            File updates = new File(dir, "updates");
+            new QuestionPatch.Builder(4, 6, 10).remove(1).build()
+                    .write(new File(updates, QuestionPatch.fileName(4, 5)));
+
+            new QuestionPackUpdater(pack).update(updates);
+        } finally {
+            delete(dir);
+        }
+    }
+
+    @Test
+    public void open_ignoresOverlayForReplacedPack() throws Exception {
+        File dir = packDirectory(10, 1);
+        try {
+            File pack = new File(dir, "questions.qpk");
+            new QuestionPatch.Builder(1, 2, 10).change(0, "Old patch", true).build()
+                    .write(PatchedQuestionBank.overlayFile(pack));
+            assertEquals("Old patch", PatchedQuestionBank.open(pack).getQuestionText(0));
+
+            QuestionPackWriter writer = new QuestionPackWriter(pack, 2);
+            writer.add("New pack", false);
+            writer.finish();
+            PatchedQuestionBank bank = PatchedQuestionBank.open(pack);
+            assertEquals(2, bank.getPackVersion());
+            assertEquals("New pack", bank.getQuestionText(0));
+            assertNull(bank.getLiveQuestions());
+        } finally {
+            delete(dir);
+        }
+    }
+
+    @Test
+    public void diff_roundTripsThroughFile() throws Exception {
+        ColumnarQuestionBank.Builder from = new ColumnarQuestionBank.Builder();
+        ColumnarQuestionBank.Builder to = new ColumnarQuestionBank.Builder();
+        for (int i = 0; i < 50; i++) {
+            from.add("Question " + i, true);
+            to.add(i == 10 ? "Reworded 10" : "Question " + i, i != 20);
+        }
+        to.add("Question 50", true);
+
+        QuestionPatch patch = QuestionPatch.diff(from.build(), 1, to.build(), 2);
+        assertEquals(3, patch.getChangedCount());
+        assertEquals(0, patch.getRemovedCount());
+
+        File file = File.createTempFile("patch", QuestionPatch.FILE_SUFFIX);
+        try {
+            patch.write(file);
+            QuestionPatch read = QuestionPatch.read(file);
+            assertEquals(50, read.getFromSize());
+            assertEquals(51, read.getToSize());
+            assertEquals("Reworded 10", read.getText(read.indexOf(10)));
+            assertFalse(read.getAnswer(read.indexOf(20)));
+            assertEquals("Question 50", read.getText(read.indexOf(50)));
+            assertTrue(read.indexOf(11) < 0);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void read_rejectsTruncatedPatch() throws Exception {
+        File file = File.createTempFile("patch", QuestionPatch.FILE_SUFFIX);
+        try {
+            new QuestionPatch.Builder(1, 2, 5).change(2, "Some text", true).build().write(file);
+            long length = file.length();
+            FileOutputStream out = new FileOutputStream(file, true);
+            out.getChannel().truncate(length - 3);
+            out.close();
+            QuestionPatch.read(file);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void read_rejectsPatchThatKeepsVersion() throws Exception {
+        File file = File.createTempFile("patch", QuestionPatch.FILE_SUFFIX);
+        try {
+            new QuestionPatch.Builder(4, 5, 5).change(2, "Some text", true).build().write(file);
+
+            //make it a patch from version 4 to version 4.
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            raf.seek(12);
+            raf.writeInt(4);
+            raf.close();
+            QuestionPatch.read(file);
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package net.greenrivertech.alexb.quizgame.engine;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that answering, navigating and reading the display state of a QuizEngine allocate
+ * nothing once the game's questions have been shown. Only the engine is measured here, not the
+ * app's QuizModel or its background prefetching. Uses HotSpot's per-thread allocation counter.
+ */
+public class QuizEngineAllocationTest {
+    private static final int NUM_QUESTIONS = 500;
+
+    @Test
+    public void answerAndNavigate_allocateNothing() throws Exception {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        ColumnarQuestionBank.Builder builder = new ColumnarQuestionBank.Builder();
+        for (int i = 0; i < NUM_QUESTIONS; i++) {
+            builder.add("Question " + i, i % 2 == 0);
+        }
+        QuizEngine game = QuizEngine.newGame(builder.build(), new FloydQuestionSampler(1),
+                NUM_QUESTIONS);
+        game.setAnswerListener(new AdaptiveQuestionSampler(NUM_QUESTIONS));
+
+        //answer every question but the last, showing each one, so the game never ends.
+        for (int i = 0; i < NUM_QUESTIONS - 1; i++) {
+            game.getCurrentQuestionText();
+            game.answerQuestion(i % 3 == 0);
+        }
+        game.getCurrentQuestionText();
+
+        //warm up, then measure the same loop. a background JIT compile can still swap in new
+        //code mid-run (which may allocate once), so keep the best of a few runs.
+        play(game, 100000);
+        long allocated = Long.MAX_VALUE;
+        int checksum = 0;
+        for (int run = 0; run < 3 && allocated != 0; run++) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            checksum = play(game, 100000);
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(threadId) - before);
+        }
+
+        assertTrue(checksum != 0);
+        assertEquals(0, allocated);
+    }
+
+    //taps through already-shown questions the way the question screen does.
+    private static int play(QuizEngine game, int taps) {
+        int checksum = 0;
+        for (int i = 0; i < taps; i++) {
+            if (!game.previousQuestion()) {
+                game.nextQuestion();
+            }
+            boolean correct = game.answerQuestion((i & 1) == 0);
+            checksum += correct ? 1 : 0;
+            checksum += game.getCurrentAnswerState().ordinal();
+            checksum += game.getCurrentQuestionText().length();
+            checksum += game.getScore() + game.getNumQuestionsAnswered();
+            checksum += game.isGameOver() ? 1 : 0;
+        }
+        return checksum;
+    }
+}
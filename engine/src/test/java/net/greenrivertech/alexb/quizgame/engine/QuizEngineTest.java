@@ -0,0 +1,194 @@
+package net.greenrivertech.alexb.quizgame.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for QuizEngine.
+ */
+public class QuizEngineTest {
+    private static final QuestionBank BANK = new ColumnarQuestionBank.Builder()
+            .add("Is water wet?", true)
+            .add("Is 5 greater than 6?", false)
+            .add("Is fire hot?", true)
+            .build();
+
+    private static final QuestionBank MIXED = new ColumnarQuestionBank.Builder()
+            .add("Is water wet?", true)
+            .addSingleChoice("Which is a fruit?", new String[] {"potato", "apple", "leek"}, 1)
+            .addMultiSelect("Which are prime?", new String[] {"2", "4", "5", "9"}, 0x5)
+            .addNumeric("What is pi, to 2 places?", 3.135, 3.145)
+            .build();
+
+    @Test
+    public void answerQuestion_scoresCorrectAnswersOnce() throws Exception {
+        QuizEngine game = new QuizEngine(BANK, new int[] {0, 1, 2});
+
+        assertTrue(game.answerQuestion(true));
+        assertTrue(game.previousQuestion());
+        assertTrue(game.answerQuestion(true));
+        assertEquals(1, game.getScore());
+        assertEquals(1, game.getNumQuestionsAnswered());
+
+        assertFalse(game.answerQuestion(true));
+        assertTrue(game.answerQuestion(true));
+        assertEquals(2, game.getScore());
+        assertTrue(game.isGameOver());
+    }
+
+    @Test
+    public void navigation_staysInsideGame() throws Exception {
+        QuizEngine game = new QuizEngine(BANK, new int[] {2, 0});
+
+        assertFalse(game.previousQuestion());
+        assertEquals("Is fire hot?", game.getCurrentQuestionText());
+        assertTrue(game.nextQuestion());
+        assertFalse(game.nextQuestion());
+        assertEquals(0, game.getCurrentQuestionNumber());
+    }
+
+    @Test
+    public void getCurrentQuestion_reflectsAnswer() throws Exception {
+        QuizEngine game = new QuizEngine(BANK, new int[] {1, 0});
+        game.answerQuestion(true);
+        game.previousQuestion();
+
+        Question question = game.getCurrentQuestion();
+        assertTrue(question.isAnswered());
+        assertTrue(question.getAnswer());
+        assertFalse(question.getIsCorrectlyAnswered());
+        assertFalse(game.isCurrentQuestionAnsweredCorrectly());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void answerQuestion_afterGameOverThrows() throws Exception {
+        QuizEngine game = QuizEngine.newGame(BANK, new FloydQuestionSampler(1), 10);
+        assertEquals(3, game.getNumQuestions());
+        while (!game.isGameOver()) {
+            game.answerQuestion(false);
+        }
+        game.answerQuestion(false);
+    }
+
+    @Test
+    public void saveState_restoresSameGame() throws Exception {
+        QuizEngine game = new QuizEngine(BANK, new int[] {1, 0, 2});
+        game.answerQuestion(false);
+        game.answerQuestion(false);
+
+        QuizEngine restored = QuizEngine.restore(BANK, game.getQuestionNumbers(),
+                game.saveState());
+        assertEquals(2, restored.getGameQuestionNum());
+        assertEquals(1, restored.getScore());
+        assertEquals(2, restored.getNumQuestionsAnswered());
+        assertTrue(restored.isAnsweredCorrectly(0));
+        assertTrue(restored.isFirstAnswerCorrect(0));
+        assertTrue(restored.isAnswered(1));
+        assertFalse(restored.isAnsweredCorrectly(1));
+        assertFalse(restored.isFirstAnswerCorrect(1));
+        assertFalse(restored.isAnswered(2));
+
+        assertTrue(restored.answerQuestion(true));
+        assertTrue(restored.isGameOver());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void restore_rejectsInconsistentState() throws Exception {
+        QuizEngine game = new QuizEngine(BANK, new int[] {1, 0, 2});
+        game.answerQuestion(true);
+        long[] state = game.saveState();
+        state[3]++;
+        QuizEngine.restore(BANK, game.getQuestionNumbers(), state);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void restore_rejectsQuestionsOutsideBank() throws Exception {
+        QuizEngine game = new QuizEngine(BANK, new int[] {1, 0, 2});
+        QuizEngine.restore(BANK, new int[] {1, 0, 3}, game.saveState());
+    }
+
+    @Test
+    public void answer_checksEachQuestionType() throws Exception {
+        QuizEngine game = new QuizEngine(MIXED, new int[] {0, 1, 2, 3});
+
+        assertEquals(QuestionType.TRUE_FALSE, game.getCurrentQuestionType());
+        assertFalse(game.answerQuestion(false));
+        assertEquals(QuestionType.SINGLE_CHOICE, game.getCurrentQuestionType());
+        assertTrue(game.answerChoice(1));
+        assertFalse(game.answerChoices(0x1));
+        assertTrue(game.answerNumber(3.14));
+
+        assertEquals(2, game.getScore());
+        assertTrue(game.isGameOver());
+        assertEquals(0, game.getGivenAnswer(0));
+        assertEquals(0x1, game.getGivenAnswer(2));
+        assertTrue(game.isAnsweredCorrectly(3));
+
+        Question question = game.getCurrentQuestion();
+        assertEquals(QuestionType.NUMERIC, question.getType());
+        assertTrue(question.getIsCorrectlyAnswered());
+    }
+
+    @Test
+    public void answer_rejectsWrongType() throws Exception {
+        QuizEngine game = new QuizEngine(MIXED, new int[] {1, 2});
+        try {
+            game.answerQuestion(true);
+            fail();
+        } catch (IllegalStateException e) {
+            //expected
+        }
+        try {
+            game.answerChoice(3);
+            fail();
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+        assertEquals(0, game.getNumQuestionsAnswered());
+    }
+
+    @Test
+    public void saveState_restoresGivenAnswers() throws Exception {
+        QuizEngine game = new QuizEngine(MIXED, new int[] {3, 2, 1});
+        game.answerNumber(3.2);
+        game.answerChoices(0x5);
+
+        QuizEngine restored = QuizEngine.restore(MIXED, game.getQuestionNumbers(),
+                game.saveState());
+        assertEquals(1, restored.getScore());
+        assertEquals(Double.doubleToLongBits(3.2), restored.getGivenAnswer(0));
+        assertEquals(0x5, restored.getGivenAnswer(1));
+        assertTrue(restored.answerChoice(1));
+        assertEquals(2, restored.getScore());
+    }
+
+    @Test
+    public void reset_startsOverInPlace() throws Exception {
+        QuizEngine game = new QuizEngine(MIXED, new int[] {1, 2});
+        game.answerChoice(1);
+        game.setReplayRecorder(new ReplayRecorder());
+        assertEquals(1, game.getScore());
+
+        //only true/false questions are left, so the given answers are dropped.
+        game.reset(new QuestionIdSet.Builder().add(0).add(3).build(), new FloydQuestionSampler(2));
+        assertEquals(0, game.getScore());
+        assertEquals(0, game.getNumQuestionsAnswered());
+        assertEquals(0, game.getGameQuestionNum());
+        assertFalse(game.isAnswered(0));
+        assertEquals(3, game.getQuestionNumber(0) + game.getQuestionNumber(1));
+
+        //the state saved after a reset is the state a new game with those questions saves.
+        while (!game.isGameOver()) {
+            if (game.getCurrentQuestionType() == QuestionType.NUMERIC) {
+                game.answerNumber(3.14);
+            } else {
+                game.answerQuestion(true);
+            }
+        }
+        assertEquals(2, game.getScore());
+        QuizEngine restored = QuizEngine.restore(MIXED, game.getQuestionNumbers(),
+                game.saveState());
+        assertArrayEquals(game.saveState(), restored.saveState());
+    }
+}
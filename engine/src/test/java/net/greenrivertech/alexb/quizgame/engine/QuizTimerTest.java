@@ -0,0 +1,136 @@
+package net.greenrivertech.alexb.quizgame.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for QuizTimer.
+ */
+public class QuizTimerTest {
+    private static final QuestionBank BANK = new ColumnarQuestionBank.Builder()
+            .add("Is water wet?", true)
+            .add("Is 5 greater than 6?", false)
+            .add("Is fire hot?", true)
+            .build();
+
+    private static final long SECOND = 1000000000L;
+
+    @Test
+    public void expire_advancesPastExpiredQuestion() throws Exception {
+        QuizEngine game = new QuizEngine(BANK, new int[] {0, 1, 2});
+        QuizTimer timer = new QuizTimer(game, 10 * SECOND, QuizTimer.NO_LIMIT);
+        timer.start(0);
+        assertEquals(10 * SECOND, timer.getNextDeadline());
+
+        assertFalse(timer.expire(10 * SECOND - 1));
+        assertTrue(timer.expire(10 * SECOND));
+        assertTrue(timer.isExpired(0));
+        assertEquals(1, game.getGameQuestionNum());
+        assertEquals(20 * SECOND, timer.getNextDeadline());
+
+        //the last question expiring goes back to the one left.
+        game.nextQuestion();
+        timer.update(12 * SECOND);
+        assertEquals(10 * SECOND, timer.getQuestionTimeLeft(12 * SECOND));
+        assertTrue(timer.expire(22 * SECOND));
+        assertEquals(1, game.getGameQuestionNum());
+        assertEquals(8 * SECOND, timer.getQuestionTimeLeft(22 * SECOND));
+
+        game.answerQuestion(false);
+        timer.update(25 * SECOND);
+        assertTrue(timer.isFinished());
+        assertEquals(5 * SECOND, timer.getResponseTime(1));
+        assertEquals(-1, timer.getResponseTime(0));
+        assertEquals(Long.MAX_VALUE, timer.getNextDeadline());
+    }
+
+    @Test
+    public void expire_finishesGameWhenGameTimeRunsOut() throws Exception {
+        QuizEngine game = new QuizEngine(BANK, new int[] {0, 1, 2});
+        QuizTimer timer = new QuizTimer(game, 10 * SECOND, 15 * SECOND);
+        timer.start(0);
+        game.answerQuestion(true);
+        timer.update(8 * SECOND);
+
+        //stopped time does not count.
+        timer.stop(9 * SECOND);
+        timer.start(100 * SECOND);
+        assertEquals(106 * SECOND, timer.getNextDeadline());
+        assertTrue(timer.expire(106 * SECOND));
+        assertTrue(timer.isGameExpired());
+        assertTrue(timer.isFinished());
+        assertFalse(game.isGameOver());
+
+        //the first answer took 8 of 10 seconds: 100 points plus 20% of the bonus.
+        assertEquals(120, timer.getSpeedScore());
+    }
+
+    @Test
+    public void getSpeedScore_ignoresAnswersAfterTheFirst() throws Exception {
+        QuizEngine game = new QuizEngine(BANK, new int[] {0, 1, 2});
+        QuizTimer timer = new QuizTimer(game, 10 * SECOND, QuizTimer.NO_LIMIT);
+        timer.start(0);
+
+        //a quick wrong answer, then the same question answered right.
+        game.answerQuestion(false);
+        timer.update(SECOND);
+        game.previousQuestion();
+        timer.update(2 * SECOND);
+        game.answerQuestion(true);
+        timer.update(3 * SECOND);
+        assertTrue(game.isAnsweredCorrectly(0));
+        assertEquals(0, game.getScore());
+        assertEquals(0, timer.getSpeedScore());
+
+        //and the other way round: a right answer after 3 of 10 seconds (one of them before the
+        //first question was answered again) keeps its points after it is changed.
+        assertEquals(1, game.getGameQuestionNum());
+        game.answerQuestion(false);
+        timer.update(5 * SECOND);
+        game.previousQuestion();
+        timer.update(6 * SECOND);
+        game.answerQuestion(true);
+        timer.update(7 * SECOND);
+        assertFalse(game.isAnsweredCorrectly(1));
+        assertEquals(1, game.getScore());
+        assertEquals(170, timer.getSpeedScore());
+
+        //the first answers survive a save and restore.
+        QuizTimer restored = QuizTimer.restore(game, timer.saveState(8 * SECOND));
+        assertEquals(timer.getSpeedScore(), restored.getSpeedScore());
+    }
+
+    @Test
+    public void getNextTick_wakesWhenCountdownChanges() throws Exception {
+        QuizEngine game = new QuizEngine(BANK, new int[] {0, 1, 2});
+        QuizTimer timer = new QuizTimer(game, 10 * SECOND, QuizTimer.NO_LIMIT);
+        timer.start(0);
+        assertEquals(SECOND, timer.getNextTick(0, SECOND));
+        assertEquals(2 * SECOND, timer.getNextTick(SECOND + 5, SECOND));
+        assertEquals(10 * SECOND, timer.getNextTick(9 * SECOND, SECOND));
+    }
+
+    @Test
+    public void saveState_restoresTimeUsed() throws Exception {
+        QuizEngine game = new QuizEngine(BANK, new int[] {0, 1, 2});
+        QuizTimer timer = new QuizTimer(game, 10 * SECOND, 30 * SECOND);
+        timer.start(0);
+        timer.expire(10 * SECOND);
+        long[] state = timer.saveState(13 * SECOND);
+
+        QuizTimer restored = QuizTimer.restore(game, state);
+        assertTrue(restored.isExpired(0));
+        assertEquals(1, restored.getNumExpired());
+        assertEquals(13 * SECOND, restored.getGameTimeUsed(0));
+        restored.start(50 * SECOND);
+        assertEquals(57 * SECOND, restored.getNextDeadline());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void restore_rejectsOtherGame() throws Exception {
+        QuizEngine game = new QuizEngine(BANK, new int[] {0, 1, 2});
+        long[] state = new QuizTimer(game, SECOND, SECOND).saveState(0);
+        QuizTimer.restore(new QuizEngine(BANK, new int[] {0, 1}), state);
+    }
+}
@@ -0,0 +1,200 @@
+package net.greenrivertech.alexb.quizgame.engine;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ReviewScheduler.
+ */
+public class ReviewSchedulerTest {
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    //some time on a day boundary, well after the epoch
+    private static final long START = 20000 * DAY;
+
+    @Test
+    public void review_followsSm2() throws Exception {
+        ReviewScheduler scheduler = new ReviewScheduler(5, new Random(1));
+        assertFalse(scheduler.isScheduled(2));
+        assertEquals(-1, scheduler.getDueTime(2));
+
+        scheduler.review(2, ReviewScheduler.QUALITY_CORRECT, START);
+        assertEquals(1, scheduler.getIntervalDays(2));
+        assertEquals(START + DAY, scheduler.getDueTime(2));
+        scheduler.review(2, ReviewScheduler.QUALITY_CORRECT, START + DAY);
+        assertEquals(6, scheduler.getIntervalDays(2));
+        scheduler.review(2, 5, START + 7 * DAY);
+        assertEquals(15, scheduler.getIntervalDays(2));
+        assertEquals(2600, scheduler.getEase(2));
+        assertEquals(START + 22 * DAY, scheduler.getDueTime(2));
+
+        //a wrong answer starts the interval again and lowers the ease, but not too far.
+        scheduler.review(2, ReviewScheduler.QUALITY_WRONG, START + 22 * DAY);
+        assertEquals(1, scheduler.getIntervalDays(2));
+        assertEquals(2280, scheduler.getEase(2));
+        for (int i = 0; i < 10; i++) {
+            scheduler.review(2, 0, START + 23 * DAY);
+        }
+        assertEquals(ReviewScheduler.MIN_EASE, scheduler.getEase(2));
+        assertEquals(1, scheduler.getScheduledCount());
+    }
+
+    @Test
+    public void sample_takesDueThenNewThenSoonest() throws Exception {
+        ReviewScheduler scheduler = new ReviewScheduler(6, new Random(2));
+        scheduler.review(0, ReviewScheduler.QUALITY_CORRECT, START);
+        scheduler.review(3, ReviewScheduler.QUALITY_CORRECT, START);
+        scheduler.review(3, ReviewScheduler.QUALITY_CORRECT, START + DAY);
+        scheduler.review(4, ReviewScheduler.QUALITY_WRONG, START + DAY);
+
+        //0 and 4 are due on day 2, 3 on day 7; 1, 2 and 5 are new.
+        int[] out = new int[6];
+        scheduler.sample(6, 4, out, START + 2 * DAY);
+        assertEquals("[0, 1, 2, 4]", sorted(out, 4));
+
+        scheduler.sample(6, 6, out, START + 2 * DAY);
+        assertEquals("[0, 1, 2, 3, 4, 5]", sorted(out, 6));
+
+        //nothing is due, so new questions come before the one due soonest.
+        scheduler.sample(6, 4, out, START);
+        assertEquals("[0, 1, 2, 5]", sorted(out, 4));
+
+        //sampling leaves the schedule as it was.
+        assertEquals(3, scheduler.getScheduledCount());
+        assertEquals(START + 7 * DAY, scheduler.getDueTime(3));
+    }
+
+    @Test
+    public void sample_neverAsksExcludedQuestions() throws Exception {
+        ReviewScheduler scheduler = new ReviewScheduler(6, new Random(4));
+        scheduler.review(0, ReviewScheduler.QUALITY_CORRECT, START);
+        scheduler.review(4, ReviewScheduler.QUALITY_WRONG, START);
+        scheduler.review(5, ReviewScheduler.QUALITY_WRONG, START);
+
+        //0 was due and 2 was new; answers to them no longer schedule them.
+        scheduler.exclude(0);
+        scheduler.exclude(2);
+        scheduler.review(0, ReviewScheduler.QUALITY_CORRECT, START);
+        assertFalse(scheduler.isScheduled(0));
+        assertEquals(2, scheduler.getScheduledCount());
+
+        int[] out = new int[6];
+        scheduler.sample(6, 4, out, START + 2 * DAY);
+        assertEquals("[1, 3, 4, 5]", sorted(out, 4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sample_rejectsMoreThanTheQuestionsLeft() throws Exception {
+        ReviewScheduler scheduler = new ReviewScheduler(6, new Random(4));
+        scheduler.exclude(1);
+        scheduler.sample(6, 6, new int[6], START);
+    }
+
+    @Test
+    public void sample_largeBankTakesMostOverdue() throws Exception {
+        int size = 100000;
+        ReviewScheduler scheduler = new ReviewScheduler(size, new Random(3));
+        Random rand = new Random(4);
+        long[] due = new long[size];
+        for (int i = 0; i < size; i++) {
+            //answer every question at some time over the last 100 days, some more than once.
+            long time = START - rand.nextInt(100) * DAY;
+            scheduler.review(i, rand.nextBoolean() ? ReviewScheduler.QUALITY_CORRECT
+                    : ReviewScheduler.QUALITY_WRONG, time);
+            if (rand.nextInt(4) == 0) {
+                scheduler.review(i, ReviewScheduler.QUALITY_CORRECT, time + DAY);
+            }
+            due[i] = scheduler.getDueTime(i);
+        }
+        long[] sortedDue = due.clone();
+        Arrays.sort(sortedDue);
+
+        int[] out = new int[50];
+        scheduler.sample(size, out.length, out, START + 1000 * DAY);
+        long[] chosenDue = new long[out.length];
+        for (int i = 0; i < out.length; i++) {
+            chosenDue[i] = due[out[i]];
+        }
+        Arrays.sort(chosenDue);
+        assertArrayEquals(Arrays.copyOf(sortedDue, out.length), chosenDue);
+    }
+
+    @Test
+    public void write_roundTripsThroughFile() throws Exception {
+        ReviewScheduler scheduler = new ReviewScheduler(1000, 7, new Random(5));
+        Random rand = new Random(6);
+        for (int i = 0; i < 300; i++) {
+            scheduler.review(rand.nextInt(1000), rand.nextInt(6), START + rand.nextInt(50) * DAY);
+        }
+
+        File file = File.createTempFile("review", ".srs");
+        try {
+            scheduler.write(file);
+            assertTrue(file.length() < 24 + 8 * scheduler.getScheduledCount());
+
+            ReviewScheduler read = ReviewScheduler.read(file, 1000, new Random(5));
+            assertEquals(7, read.getBankId());
+            assertEquals(scheduler.getScheduledCount(), read.getScheduledCount());
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(scheduler.getDueTime(i), read.getDueTime(i));
+                assertEquals(scheduler.getIntervalDays(i), read.getIntervalDays(i));
+                assertEquals(scheduler.getEase(i), read.getEase(i));
+            }
+
+            //questions due at the same time may come out of the rebuilt heap in another order.
+            int[] expected = new int[20];
+            int[] actual = new int[20];
+            scheduler.sample(1000, 20, expected, START + 30 * DAY);
+            read.sample(1000, 20, actual, START + 30 * DAY);
+            assertArrayEquals(dueTimes(scheduler, expected), dueTimes(read, actual));
+
+            //a smaller bank keeps only its own questions.
+            ReviewScheduler smaller = ReviewScheduler.read(file, 500, new Random(5));
+            for (int i = 0; i < 500; i++) {
+                assertEquals(scheduler.getDueTime(i), smaller.getDueTime(i));
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void read_rejectsTruncatedSchedule() throws Exception {
+        ReviewScheduler scheduler = new ReviewScheduler(10);
+        scheduler.review(3, 4, START);
+        scheduler.review(7, 4, START);
+        File file = File.createTempFile("review", ".srs");
+        try {
+            scheduler.write(file);
+            long length = file.length();
+            FileOutputStream out = new FileOutputStream(file, true);
+            out.getChannel().truncate(length - 2);
+            out.close();
+            ReviewScheduler.read(file, 10, new Random());
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static long[] dueTimes(ReviewScheduler scheduler, int[] questions) {
+        long[] due = new long[questions.length];
+        for (int i = 0; i < questions.length; i++) {
+            due[i] = scheduler.getDueTime(questions[i]);
+        }
+        Arrays.sort(due);
+        return due;
+    }
+
+    private static String sorted(int[] values, int count) {
+        int[] copy = Arrays.copyOf(values, count);
+        Arrays.sort(copy);
+        return Arrays.toString(copy);
+    }
+}
@@ -0,0 +1,146 @@
+package net.greenrivertech.alexb.quizgame.engine;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ScoreHistoryStore.
+ */
+public class ScoreHistoryStoreTest {
+    private static final QuestionBank BANK = new ColumnarQuestionBank.Builder()
+            .add("Is water wet?", true)
+            .add("Is 5 greater than 6?", false)
+            .add("Is fire hot?", true)
+            .build();
+
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = File.createTempFile("history", "");
+        directory.delete();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    //plays a game of every question, answering true to each.
+    private static QuizEngine playAllTrue() {
+        QuizEngine game = new QuizEngine(BANK, new int[] {0, 1, 2});
+        while (!game.isGameOver()) {
+            game.answerQuestion(true);
+        }
+        return game;
+    }
+
+    @Test
+    public void record_updatesTotalsAndSurvivesReopen() throws Exception {
+        ScoreHistoryStore store = ScoreHistoryStore.open(directory);
+        store.record(playAllTrue(), 0, 1000);
+        store.record(new QuizEngine(BANK, new int[] {1}), 0, 2000);
+        store.flush();
+
+        assertEquals(2, store.getGamesPlayed());
+        assertEquals(2, store.getBestScore());
+        assertEquals(1.0, store.getMeanScore(), 1e-9);
+        assertEquals(1, store.getTimesAnswered(1));
+        assertEquals(0, store.getTimesCorrect(1));
+        store.close();
+
+        ScoreHistoryStore reopened = ScoreHistoryStore.open(directory);
+        reopened.flush();
+        assertTrue(reopened.isLoaded());
+        assertEquals(2, reopened.getGamesPlayed());
+        assertEquals(2, reopened.getBestScore());
+        assertEquals(1, reopened.getTimesCorrect(2));
+        reopened.close();
+    }
+
+    @Test
+    public void record_countsOnlyTheFirstAnswer() throws Exception {
+        //answer wrong, go back and answer right; only the wrong answer was scored.
+        QuizEngine game = new QuizEngine(BANK, new int[] {0, 1});
+        game.answerQuestion(false);
+        game.previousQuestion();
+        game.answerQuestion(true);
+        game.answerQuestion(false);
+        assertTrue(game.isGameOver());
+        assertEquals(1, game.getScore());
+
+        ScoreHistoryStore store = ScoreHistoryStore.open(directory);
+        store.record(game, 0, 1000);
+        store.flush();
+        assertEquals(1, store.getTimesAnswered(0));
+        assertEquals(0, store.getTimesCorrect(0));
+        assertEquals(1, store.getTimesCorrect(1));
+        store.close();
+    }
+
+    @Test
+    public void record_startsQuestionCountsAgainForAnotherBank() throws Exception {
+        QuizEngine other = new QuizEngine(BANK, new int[] {2});
+        other.answerQuestion(true);
+
+        ScoreHistoryStore store = ScoreHistoryStore.open(directory);
+        store.record(playAllTrue(), 0, 1000);
+        store.record(playAllTrue(), 0, 2000);
+        store.record(other, 5, 3000);
+        store.flush();
+        assertEquals(5, store.getBankId());
+        assertEquals(0, store.getTimesAnswered(0));
+        assertEquals(1, store.getTimesAnswered(2));
+        store.close();
+
+        //read back from the log alone, without the checkpoint.
+        assertTrue(new File(directory, ScoreHistoryStore.SUMMARY_FILE).delete());
+        ScoreHistoryStore reopened = ScoreHistoryStore.open(directory);
+        reopened.flush();
+        assertEquals(3, reopened.getGamesPlayed());
+        assertEquals(5, reopened.getBankId());
+        int[] timesAnswered = new int[3];
+        int[] timesCorrect = new int[3];
+        reopened.getQuestionCounts(5, timesAnswered, timesCorrect);
+        assertArrayEquals(new int[] {0, 0, 1}, timesAnswered);
+        reopened.getQuestionCounts(0, timesAnswered, timesCorrect);
+        assertArrayEquals(new int[] {0, 0, 0}, timesAnswered);
+        reopened.close();
+    }
+
+    @Test
+    public void open_replaysLogAfterCheckpointAndDropsPartialRecords() throws Exception {
+        ScoreHistoryStore store = ScoreHistoryStore.open(directory);
+        for (int i = 0; i < ScoreHistoryStore.CHECKPOINT_INTERVAL + 5; i++) {
+            store.record(playAllTrue(), 0, i);
+        }
+        store.flush();
+
+        //simulate a crash partway through writing a game record.
+        RandomAccessFile games = new RandomAccessFile(
+                new File(directory, ScoreHistoryStore.GAMES_LOG), "rw");
+        games.seek(games.length());
+        games.write(new byte[7]);
+        games.close();
+
+        ScoreHistoryStore reopened = ScoreHistoryStore.open(directory);
+        reopened.flush();
+        assertEquals(ScoreHistoryStore.CHECKPOINT_INTERVAL + 5, reopened.getGamesPlayed());
+        assertEquals(ScoreHistoryStore.CHECKPOINT_INTERVAL + 5, reopened.getTimesAnswered(0));
+        assertEquals(2.0 / 3, reopened.getAccuracy(), 1e-9);
+        reopened.close();
+        store.close();
+    }
+}
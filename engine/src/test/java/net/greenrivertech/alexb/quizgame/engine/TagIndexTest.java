@@ -0,0 +1,145 @@
+package net.greenrivertech.alexb.quizgame.engine;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for TagIndex and QuestionIdSet.
+ */
+public class TagIndexTest {
+    //a random set of numbers below 300000, dense in some 65536 groups and sparse in others
+    private static BitSet randomBits(long seed) {
+        Random random = new Random(seed);
+        BitSet bits = new BitSet();
+        for (int i = 0; i < 300000; i++) {
+            double density = (i >>> 16) % 2 == 0 ? 0.4 : 0.01;
+            if (random.nextDouble() < density) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    private static QuestionIdSet toSet(BitSet bits) {
+        QuestionIdSet.Builder builder = new QuestionIdSet.Builder();
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            builder.add(i);
+        }
+        return builder.build();
+    }
+
+    private static void assertSameMembers(BitSet expected, QuestionIdSet actual) {
+        assertEquals(expected.cardinality(), actual.cardinality());
+        int rank = 0;
+        for (int i = expected.nextSetBit(0); i >= 0; i = expected.nextSetBit(i + 1)) {
+            assertEquals(i, actual.select(rank++));
+        }
+    }
+
+    @Test
+    public void questionIdSet_selectAndContainsMatchMembers() throws Exception {
+        BitSet bits = randomBits(1);
+        QuestionIdSet set = toSet(bits);
+        assertSameMembers(bits, set);
+        for (int i = 0; i < 300000; i += 7) {
+            assertEquals(bits.get(i), set.contains(i));
+        }
+        assertFalse(set.contains(-1));
+    }
+
+    @Test
+    public void questionIdSet_andOrMatchBitSet() throws Exception {
+        BitSet a = randomBits(2);
+        BitSet b = randomBits(3);
+        QuestionIdSet setA = toSet(a);
+        QuestionIdSet setB = toSet(b);
+
+        BitSet and = (BitSet) a.clone();
+        and.and(b);
+        assertSameMembers(and, setA.and(setB));
+
+        BitSet or = (BitSet) a.clone();
+        or.or(b);
+        assertSameMembers(or, setA.or(setB));
+
+        assertEquals(0, setA.and(QuestionIdSet.EMPTY).cardinality());
+        assertSameMembers(a, QuestionIdSet.EMPTY.or(setA));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builder_rejectsDecreasingNumbers() throws Exception {
+        new QuestionIdSet.Builder().add(5).add(3);
+    }
+
+    @Test
+    public void query_combinesTags() throws Exception {
+        TagIndex index = new TagIndex.Builder(1)
+                .add(0, "science").add(0, "easy")
+                .add(1, "Science")
+                .add(2, "history").add(2, "easy")
+                .add(3, "science").add(3, "easy")
+                .build();
+
+        assertEquals(Arrays.asList("easy", "history", "science"), index.getTags());
+        assertArrayEquals(new int[] {0, 3}, index.query("science AND easy").toArray());
+        assertArrayEquals(new int[] {0, 2, 3}, index.query("history or science and EASY")
+                .toArray());
+        assertEquals(0, index.query("art").cardinality());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void query_rejectsDanglingOperator() throws Exception {
+        new TagIndex.Builder(1).add(0, "science").build().query("science AND");
+    }
+
+    @Test
+    public void writeThenRead_keepsIndex() throws Exception {
+        File file = File.createTempFile("questions", TagIndex.FILE_SUFFIX);
+        try {
+            TagIndex.Builder builder = new TagIndex.Builder(4);
+            for (int i = 0; i < 100000; i++) {
+                builder.add(i, i % 3 == 0 ? "three" : "other");
+                if (i % 1000 == 0) {
+                    builder.add(i, "rare");
+                }
+            }
+            builder.build().write(file);
+
+            TagIndex index = TagIndex.read(file);
+            assertEquals(4, index.getPackVersion());
+            assertEquals(33334, index.get("three").cardinality());
+            assertEquals(100, index.get("rare").cardinality());
+            assertEquals(99000, index.get("rare").select(99));
+            assertEquals(34, index.query("three AND rare").cardinality());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void newGame_choosesFromPool() throws Exception {
+        ColumnarQuestionBank.Builder bank = new ColumnarQuestionBank.Builder();
+        QuestionIdSet.Builder pool = new QuestionIdSet.Builder();
+        for (int i = 0; i < 1000; i++) {
+            bank.add("Question " + i, true);
+            if (i % 10 == 0) {
+                pool.add(i);
+            }
+        }
+
+        QuizEngine game = QuizEngine.newGame(bank.build(), pool.build(),
+                new FloydQuestionSampler(9), 500);
+        assertEquals(100, game.getNumQuestions());
+        int[] questions = game.getQuestionNumbers();
+        Arrays.sort(questions);
+        for (int i = 0; i < questions.length; i++) {
+            assertEquals(i * 10, questions[i]);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: AccuracyModel.java
+ *
+ * Decides how likely a simulated player is to answer a question correctly.
+ */
+package net.greenrivertech.alexb.quizgame.server;
+
+/**
+ * Decides how likely a simulated player is to answer a question correctly. Implementations
+ * are called from many threads at once, so they must be stateless or thread safe.
+ *
+ * @author Alex Ball
+ */
+public interface AccuracyModel {
+
+    /**
+     * Returns the probability (0 to 1) that the given player answers the given question
+     * correctly.
+     *
+     * @param player The player number, from 0 to the number of simulated players.
+     * @param questionNumber The question number in the bank.
+     *
+     * @return The probability of a correct answer.
+     */
+    double probabilityCorrect(long player, int questionNumber);
+
+    /**
+     * Every player answers every question correctly with the same probability.
+     */
+    class Constant implements AccuracyModel {
+        private final double probability;
+
+        /**
+         * @param probability The probability of a correct answer.
+         */
+        public Constant(double probability) {
+            this.probability = probability;
+        }
+
+        @Override
+        public double probabilityCorrect(long player, int questionNumber) {
+            return probability;
+        }
+    }
+
+    /**
+     * Logistic (Rasch-style) model: each player has a skill and each question a difficulty,
+     * and the chance of a correct answer is 1 / (1 + e^(difficulty - skill)). Skills are spread
+     * evenly between skillMean - skillSpread and skillMean + skillSpread, derived from the
+     * player number so no per-player state is stored.
+     */
+    class Logistic implements AccuracyModel {
+        private final double skillMean;
+        private final double skillSpread;
+        private final double[] difficulty;
+
+        /**
+         * @param skillMean The average player skill.
+         * @param skillSpread How far player skills range above and below the mean.
+         * @param difficulty The difficulty of each question, indexed by question number; null
+         * for every question having difficulty 0.
+         */
+        public Logistic(double skillMean, double skillSpread, double[] difficulty) {
+            this.skillMean = skillMean;
+            this.skillSpread = skillSpread;
+            this.difficulty = difficulty;
+        }
+
+        @Override
+        public double probabilityCorrect(long player, int questionNumber) {
+            double d = difficulty == null ? 0 : difficulty[questionNumber];
+            return 1 / (1 + Math.exp(d - skill(player)));
+        }
+
+        private double skill(long player) {
+            //mix the player number (SplitMix64 finalizer) into a uniform value in [0, 1).
+            long z = player * 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            z ^= z >>> 31;
+            double uniform = (z >>> 11) * 0x1.0p-53;
+            return skillMean + skillSpread * (2 * uniform - 1);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: LeaderboardLoadGenerator.java
+ *
+ * Fills a Leaderboard with millions of results, then measures it under a mix of inserts, rank
+ * queries and top-K reads while snapshots are saved in the background.
+ */
+package net.greenrivertech.alexb.quizgame.server;
+
+import net.greenrivertech.alexb.quizgame.engine.Leaderboard;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fills a Leaderboard with millions of results, then measures it under a mix of inserts, rank
+ * queries and top-K reads while a compact snapshot is saved once a second, and checks
+ * afterwards that no insert was lost. Results are drawn the way real games score: each game
+ * answers a random number of its questions, each right with probability 0.6.
+ *
+ * @author Alex Ball
+ */
+public class LeaderboardLoadGenerator {
+    //questions per generated game, and the most a ranked game can have
+    private static final int MAX_QUESTIONS = 20;
+
+    //of every 100 operations in the mixed phase, this many are inserts and this many top-10
+    //reads; the rest are rank queries.
+    private static final int INSERT_PERCENT = 20;
+    private static final int TOP_PERCENT = 5;
+
+    private LeaderboardLoadGenerator() {
+    }
+
+    //adds one random result.
+    private static void addResult(Leaderboard leaderboard, SplittableRandom rand) {
+        int answered = 1 + rand.nextInt(MAX_QUESTIONS);
+        int score = 0;
+        for (int i = 0; i < answered; i++) {
+            if (rand.nextInt(10) < 6) {
+                score++;
+            }
+        }
+        leaderboard.add(score, answered, System.currentTimeMillis());
+    }
+
+    //runs random operations until the deadline, counting each kind. the results of the reads
+    //are summed into checksum, which main prints, so they cannot be optimized away.
+    private static void runMixed(Leaderboard leaderboard, SplittableRandom rand, long deadline,
+                                 LongAdder inserts, LongAdder ranks, LongAdder tops,
+                                 LongAdder checksum) {
+        long done = 0;
+        long rankSum = 0;
+        while ((done & 1023) != 0 || System.nanoTime() < deadline) {
+            int op = rand.nextInt(100);
+            if (op < INSERT_PERCENT) {
+                addResult(leaderboard, rand);
+                inserts.increment();
+            } else if (op < INSERT_PERCENT + TOP_PERCENT) {
+                rankSum += leaderboard.top(10).size();
+                tops.increment();
+            } else {
+                int answered = 1 + rand.nextInt(MAX_QUESTIONS);
+                rankSum += leaderboard.rank(rand.nextInt(answered + 1), answered);
+                ranks.increment();
+            }
+            done++;
+        }
+        checksum.add(rankSum);
+    }
+
+    /**
+     * Command line load test: <code>LeaderboardLoadGenerator [entries] [seconds] [threads]</code>.
+     * Adds the given number of results from all threads, then runs the mixed load for the given
+     * number of seconds, and prints the throughput of each phase and the snapshots' size and
+     * save time.
+     *
+     * @param args The number of results to fill with, the seconds of mixed load, and the
+     * number of threads.
+     *
+     * @throws IOException If a snapshot cannot be written.
+     * @throws InterruptedException If interrupted while waiting for the threads.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        final long entries = args.length > 0 ? Long.parseLong(args[0]) : 10000000L;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int threads = args.length > 2 ? Integer.parseInt(args[2])
+                : Runtime.getRuntime().availableProcessors();
+        final Leaderboard leaderboard = new Leaderboard(MAX_QUESTIONS);
+        final SplittableRandom seeds = new SplittableRandom(42);
+
+        //fill, split between the threads.
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            final long count = entries / threads + (t < entries % threads ? 1 : 0);
+            final SplittableRandom rand = seeds.split();
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (long i = 0; i < count; i++) {
+                        addResult(leaderboard, rand);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double fillSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(String.format(Locale.US, "filled %,d results in %.2f s (%,.0f/s)",
+                leaderboard.size(), fillSeconds, leaderboard.size() / fillSeconds));
+
+        //mixed load, with a snapshot saved every second.
+        final File file = File.createTempFile("leaderboard", ".bin");
+        final LongAdder snapshots = new LongAdder();
+        final LongAdder snapshotNanos = new LongAdder();
+        ScheduledExecutorService saver = Executors.newSingleThreadScheduledExecutor();
+        saver.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                long begin = System.nanoTime();
+                try {
+                    leaderboard.write(file);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                snapshotNanos.add(System.nanoTime() - begin);
+                snapshots.increment();
+            }
+        }, 1, 1, TimeUnit.SECONDS);
+
+        final LongAdder inserts = new LongAdder();
+        final LongAdder ranks = new LongAdder();
+        final LongAdder tops = new LongAdder();
+        final LongAdder checksum = new LongAdder();
+        final long deadline = System.nanoTime() + seconds * 1000000000L;
+        long before = leaderboard.size();
+        start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            final SplittableRandom rand = seeds.split();
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    runMixed(leaderboard, rand, deadline, inserts, ranks, tops, checksum);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double mixedSeconds = (System.nanoTime() - start) / 1e9;
+        saver.shutdown();
+        saver.awaitTermination(1, TimeUnit.MINUTES);
+
+        long ops = inserts.sum() + ranks.sum() + tops.sum();
+        System.out.println(String.format(Locale.US, "mixed: %,.0f ops/s with %d threads "
+                        + "(%,d inserts, %,d ranks, %,d top-10 reads; read checksum %d)",
+                ops / mixedSeconds, threads, inserts.sum(), ranks.sum(), tops.sum(),
+                checksum.sum()));
+        System.out.println(String.format(Locale.US, "%,d snapshots of %,d bytes, %.2f ms each",
+                snapshots.sum(), file.length(),
+                snapshots.sum() > 0 ? snapshotNanos.sum() / 1e6 / snapshots.sum() : 0.0));
+
+        //every insert is counted, and a final snapshot reads back whole.
+        leaderboard.write(file);
+        Leaderboard read = Leaderboard.read(file, Leaderboard.DEFAULT_TOP_CAPACITY);
+        file.delete();
+        System.out.println(String.format(Locale.US, "%,d results (%s), snapshot %s",
+                leaderboard.size(),
+                leaderboard.size() == before + inserts.sum() ? "none lost" : "LOST INSERTS",
+                read.size() == leaderboard.size()
+                        && read.rank(MAX_QUESTIONS / 2, MAX_QUESTIONS)
+                        == leaderboard.rank(MAX_QUESTIONS / 2, MAX_QUESTIONS)
+                        ? "matches" : "DIFFERS"));
+    }
+}
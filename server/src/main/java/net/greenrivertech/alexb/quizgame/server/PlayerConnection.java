@@ -0,0 +1,124 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: PlayerConnection.java
+ *
+ * One player's connection to a QuizServer, and the player's state.
+ */
+package net.greenrivertech.alexb.quizgame.server;
+
+import net.greenrivertech.alexb.quizgame.engine.QuizEngine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One player's connection to a QuizServer, and the player's state. Each connection belongs to
+ * one reactor thread, which does all of its reading and writing and owns the player's game;
+ * other threads (the round clock, broadcasting to a room) only queue messages with send().
+ *
+ * @author Alex Ball
+ */
+final class PlayerConnection {
+    //most messages queued for a player before they are dropped as too slow to keep up
+    static final int MAX_QUEUED = 256;
+
+    //bytes of unread input kept per connection; player messages are a few bytes each
+    private static final int IN_BUFFER_SIZE = 256;
+
+    final SocketChannel channel;
+    final QuizServer.Reactor reactor;
+    SelectionKey key;
+
+    //received bytes not yet handled; only used by the reactor thread
+    final ByteBuffer in = ByteBuffer.allocate(IN_BUFFER_SIZE);
+
+    //the player's room and slot in it, or null and -1 before joining; reactor thread only
+    QuizRoom room;
+    int slot = -1;
+
+    //the player's game (the room's current game, or an older one), by id; reactor thread only
+    int gameId;
+    QuizEngine game;
+
+    //true once the connection should be closed as soon as its queued messages are written
+    boolean closeAfterFlush;
+
+    //messages waiting to be written, and how many
+    private final ConcurrentLinkedQueue<ByteBuffer> outbound =
+            new ConcurrentLinkedQueue<ByteBuffer>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    //true while the connection is in its reactor's flush queue
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    //set once the connection is closed (or too far behind), so no more messages are queued
+    private volatile boolean closed;
+
+    PlayerConnection(SocketChannel channel, QuizServer.Reactor reactor) {
+        this.channel = channel;
+        this.reactor = reactor;
+    }
+
+    /**
+     * Queues a message for the player and asks the reactor to write it. Safe to call from any
+     * thread. The buffer must not be changed afterwards; shared messages should be passed as
+     * duplicates.
+     *
+     * @param message The message, ready for writing.
+     */
+    void send(ByteBuffer message) {
+        if (closed) {
+            return;
+        }
+        if (queued.incrementAndGet() > MAX_QUEUED) {
+            //the player is not reading; drop them rather than buffer without limit.
+            closed = true;
+        } else {
+            outbound.add(message);
+        }
+        if (flushRequested.compareAndSet(false, true)) {
+            reactor.requestFlush(this);
+        }
+    }
+
+    /**
+     * Writes as many queued messages as the socket takes, and asks to be told when it can take
+     * more if some are left. Reactor thread only.
+     *
+     * @throws IOException If the connection failed.
+     *
+     * @return False if the connection should be closed.
+     */
+    boolean flush() throws IOException {
+        flushRequested.set(false);
+        if (closed && !closeAfterFlush) {
+            return false;
+        }
+
+        ByteBuffer message;
+        while ((message = outbound.peek()) != null) {
+            channel.write(message);
+            if (message.hasRemaining()) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return true;
+            }
+            outbound.poll();
+            queued.decrementAndGet();
+        }
+        key.interestOps(SelectionKey.OP_READ);
+        return !closeAfterFlush;
+    }
+
+    /**
+     * Marks the connection closed, so nothing more is queued for it.
+     */
+    void markClosed() {
+        closed = true;
+    }
+}
@@ -0,0 +1,422 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: QuizLoadGenerator.java
+ *
+ * Connects many simulated players to a QuizServer and measures how fast it serves them.
+ */
+package net.greenrivertech.alexb.quizgame.server;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connects many simulated players to a QuizServer and measures how fast it serves them. Player
+ * i joins room i % rooms, then answers every question as soon as it arrives, at random. The
+ * players are split between a few threads, each driving its share of the connections with its
+ * own Selector, so one machine can simulate thousands of players.
+ *
+ * @author Alex Ball
+ */
+public class QuizLoadGenerator {
+    //bytes of unread input kept per connection at first; grown for longer questions
+    private static final int IN_BUFFER_SIZE = 1024;
+
+    private final InetSocketAddress address;
+    private final int connections;
+    private final int rooms;
+    private final int threads;
+    private final long seed;
+
+    //totals across all threads
+    private final LongAdder welcomes = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder questions = new LongAdder();
+    private final LongAdder answers = new LongAdder();
+    private final LongAdder results = new LongAdder();
+    private final LongAdder leaderboards = new LongAdder();
+
+    //when the last player was welcomed, in System.nanoTime() terms
+    private final AtomicLong lastWelcome = new AtomicLong();
+
+    /**
+     * Constructor that creates a load generator for a server.
+     *
+     * @param address The server's address.
+     * @param connections The number of players.
+     * @param rooms The number of rooms to spread the players over.
+     * @param threads The number of threads driving the players.
+     * @param seed The seed for the players' answers.
+     */
+    public QuizLoadGenerator(InetSocketAddress address, int connections, int rooms, int threads,
+                             long seed) {
+        this.address = address;
+        this.connections = connections;
+        this.rooms = rooms;
+        this.threads = Math.max(1, Math.min(threads, connections));
+        this.seed = seed;
+    }
+
+    /**
+     * What happened during a load test.
+     */
+    public static final class Report {
+        private final long welcomes;
+        private final long errors;
+        private final long questions;
+        private final long answers;
+        private final long results;
+        private final long leaderboards;
+        private final double seconds;
+        private final double connectSeconds;
+
+        Report(long welcomes, long errors, long questions, long answers, long results,
+               long leaderboards, double seconds, double connectSeconds) {
+            this.welcomes = welcomes;
+            this.errors = errors;
+            this.questions = questions;
+            this.answers = answers;
+            this.results = results;
+            this.leaderboards = leaderboards;
+            this.seconds = seconds;
+            this.connectSeconds = connectSeconds;
+        }
+
+        /**
+         * Returns the number of players that joined a room.
+         *
+         * @return The number of players welcomed.
+         */
+        public long getWelcomes() {
+            return welcomes;
+        }
+
+        /**
+         * Returns the number of ERROR messages received.
+         *
+         * @return The number of errors.
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * Returns the number of QUESTION messages received, over all players.
+         *
+         * @return The number of questions.
+         */
+        public long getQuestions() {
+            return questions;
+        }
+
+        /**
+         * Returns the number of answers sent.
+         *
+         * @return The number of answers.
+         */
+        public long getAnswers() {
+            return answers;
+        }
+
+        /**
+         * Returns the number of RESULT messages received. Answers that reach the server after
+         * their round has ended get no result.
+         *
+         * @return The number of results.
+         */
+        public long getResults() {
+            return results;
+        }
+
+        /**
+         * Returns the number of LEADERBOARD messages received, over all players.
+         *
+         * @return The number of leaderboards.
+         */
+        public long getLeaderboards() {
+            return leaderboards;
+        }
+
+        /**
+         * Returns how long the test ran.
+         *
+         * @return The test's length, in seconds.
+         */
+        public double getSeconds() {
+            return seconds;
+        }
+
+        /**
+         * Returns how fast players were connected and welcomed.
+         *
+         * @return Players welcomed per second, up to the last welcome.
+         */
+        public double getConnectionsPerSecond() {
+            return connectSeconds > 0 ? welcomes / connectSeconds : 0;
+        }
+
+        /**
+         * Returns how fast answers were scored.
+         *
+         * @return Results received per second.
+         */
+        public double getAnswersPerSecond() {
+            return seconds > 0 ? results / seconds : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "%,d players joined (%,.0f/s), %,d errors, %,d questions, %,d answers, "
+                            + "%,d results (%,.0f/s), %,d leaderboards in %.1f s",
+                    welcomes, getConnectionsPerSecond(), errors, questions, answers, results,
+                    getAnswersPerSecond(), leaderboards, seconds);
+        }
+    }
+
+    /**
+     * Connects the players and lets them play for the given time, then disconnects them.
+     *
+     * @param millis How long to play, in milliseconds.
+     * @param progress Where to print a progress line each second, or null.
+     *
+     * @throws IOException If a selector cannot be opened.
+     * @throws InterruptedException If interrupted while waiting for the players' threads.
+     *
+     * @return What happened.
+     */
+    public Report run(long millis, PrintStream progress)
+            throws IOException, InterruptedException {
+        final long start = System.nanoTime();
+        final long deadline = start + millis * 1000000L;
+
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            final Selector selector = Selector.open();
+            final int first = t;
+            Thread worker = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    drive(selector, first, deadline);
+                }
+            }, "quiz-load-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+
+        long lastResults = 0;
+        long lastTime = start;
+        long now;
+        while ((now = System.nanoTime()) < deadline) {
+            Thread.sleep(Math.min(1000, Math.max(1, (deadline - now) / 1000000L)));
+            if (progress != null && System.nanoTime() - lastTime >= 1000000000L) {
+                long time = System.nanoTime();
+                long total = results.sum();
+                progress.println(String.format(Locale.US, "%,d players, %,.0f answers/s",
+                        welcomes.sum(), (total - lastResults) * 1e9 / (time - lastTime)));
+                lastResults = total;
+                lastTime = time;
+            }
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long welcomed = lastWelcome.get();
+        return new Report(welcomes.sum(), errors.sum(), questions.sum(), answers.sum(),
+                results.sum(), leaderboards.sum(), seconds,
+                welcomed == 0 ? 0 : (welcomed - start) / 1e9);
+    }
+
+    //one simulated player's connection; only used by its thread.
+    private static final class Player {
+        final SocketChannel channel;
+        final int room;
+        ByteBuffer in = ByteBuffer.allocate(IN_BUFFER_SIZE);
+        final ArrayDeque<ByteBuffer> outbound = new ArrayDeque<ByteBuffer>();
+
+        Player(SocketChannel channel, int room) {
+            this.channel = channel;
+            this.room = room;
+        }
+    }
+
+    //connect players first, first + threads, ... and play them until the deadline.
+    private void drive(Selector selector, int first, long deadline) {
+        SplittableRandom rand = new SplittableRandom(seed + first);
+        try {
+            for (int i = first; i < connections; i += threads) {
+                SocketChannel channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                Player player = new Player(channel, i % rooms);
+                if (channel.connect(address)) {
+                    channel.register(selector, SelectionKey.OP_READ, player);
+                    send(player, channel.keyFor(selector), QuizProtocol.join(player.room));
+                } else {
+                    channel.register(selector, SelectionKey.OP_CONNECT, player);
+                }
+            }
+
+            long now;
+            while ((now = System.nanoTime()) < deadline) {
+                selector.select(Math.max(1, Math.min(100, (deadline - now) / 1000000L)));
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        handle(key, rand);
+                    } catch (IOException e) {
+                        close(key);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Load generator failed: " + e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                close(key);
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                //closing anyway
+            }
+        }
+    }
+
+    private void handle(SelectionKey key, SplittableRandom rand) throws IOException {
+        Player player = (Player) key.attachment();
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isConnectable()) {
+            player.channel.finishConnect();
+            key.interestOps(SelectionKey.OP_READ);
+            send(player, key, QuizProtocol.join(player.room));
+            return;
+        }
+        if (key.isWritable()) {
+            flush(player, key);
+        }
+        if (key.isReadable()) {
+            if (player.channel.read(player.in) < 0) {
+                close(key);
+                return;
+            }
+            read(player, key, rand);
+        }
+    }
+
+    //handle every complete frame received.
+    private void read(Player player, SelectionKey key, SplittableRandom rand) throws IOException {
+        ByteBuffer in = player.in;
+        in.flip();
+        int frameSize;
+        while ((frameSize = QuizProtocol.frameSize(in)) > 0) {
+            int frame = in.position();
+            int fields = frame + QuizProtocol.HEADER_SIZE;
+            switch (in.get(frame + 2)) {
+                case QuizProtocol.WELCOME:
+                    welcomes.increment();
+                    lastWelcome.set(System.nanoTime());
+                    break;
+                case QuizProtocol.QUESTION:
+                    questions.increment();
+                    send(player, key, QuizProtocol.answer(in.getInt(fields),
+                            in.getShort(fields + 4), rand.nextBoolean()));
+                    answers.increment();
+                    break;
+                case QuizProtocol.RESULT:
+                    results.increment();
+                    break;
+                case QuizProtocol.LEADERBOARD:
+                    leaderboards.increment();
+                    break;
+                case QuizProtocol.ERROR:
+                    errors.increment();
+                    break;
+                default:
+                    break;
+            }
+            in.position(frame + frameSize);
+        }
+
+        if (in.remaining() == in.capacity()) {
+            //a frame bigger than the buffer; make room for it.
+            int length = 2 + (in.getShort(in.position()) & 0xFFFF);
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(length, 2 * in.capacity()));
+            bigger.put(in);
+            player.in = bigger;
+        } else {
+            in.compact();
+        }
+    }
+
+    private void send(Player player, SelectionKey key, ByteBuffer message) throws IOException {
+        player.outbound.add(message);
+        flush(player, key);
+    }
+
+    private void flush(Player player, SelectionKey key) throws IOException {
+        ByteBuffer message;
+        while ((message = player.outbound.peek()) != null) {
+            player.channel.write(message);
+            if (message.hasRemaining()) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return;
+            }
+            player.outbound.poll();
+        }
+        key.interestOps(SelectionKey.OP_READ);
+    }
+
+    private void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            //closing anyway
+        }
+    }
+
+    /**
+     * Command line load test:
+     * <code>QuizLoadGenerator [host] [port] [connections] [rooms] [seconds] [threads]</code>.
+     *
+     * @param args The server's host and port, the number of players, the number of rooms, how
+     * long to play, and the number of threads.
+     *
+     * @throws IOException If the test cannot start.
+     * @throws InterruptedException If interrupted while running.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 7070;
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 5000;
+        int rooms = args.length > 3 ? Integer.parseInt(args[3]) : 16;
+        int seconds = args.length > 4 ? Integer.parseInt(args[4]) : 30;
+        int threads = args.length > 5 ? Integer.parseInt(args[5])
+                : Runtime.getRuntime().availableProcessors();
+
+        QuizLoadGenerator generator = new QuizLoadGenerator(new InetSocketAddress(host, port),
+                connections, rooms, threads, 42);
+        System.out.println(generator.run(seconds * 1000L, System.out));
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: QuizProtocol.java
+ *
+ * The binary protocol spoken between QuizServer and its players.
+ */
+package net.greenrivertech.alexb.quizgame.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * The binary protocol spoken between QuizServer and its players. Every message is one frame:
+ * an unsigned 16-bit length (of everything after it), a one byte message type, then the
+ * message's fields, big-endian. Rounds are numbered from 0 within a game.
+ *
+ * <p>Player to server:</p>
+ * <ul>
+ * <li>JOIN: int room.</li>
+ * <li>ANSWER: int game, short round, byte answer (1 for true, 0 for false).</li>
+ * </ul>
+ *
+ * <p>Server to player:</p>
+ * <ul>
+ * <li>WELCOME: int room, int slot (the player's id within the room).</li>
+ * <li>QUESTION: int game, short round, short rounds in the game, int milliseconds to answer,
+ * then the question text as a short length and UTF-8 bytes.</li>
+ * <li>RESULT: int game, short round, byte correct, int score so far.</li>
+ * <li>LEADERBOARD: int game, short round, byte count, then count pairs of int slot and int
+ * score, best first.</li>
+ * <li>GAME_OVER: int game.</li>
+ * <li>ERROR: byte code; the server closes the connection after sending it.</li>
+ * </ul>
+ *
+ * Server messages that go to a whole room are encoded once and shared, read-only, by every
+ * player's connection.
+ *
+ * @author Alex Ball
+ */
+public final class QuizProtocol {
+    /**
+     * Bytes before a frame's fields: the length and the message type.
+     */
+    public static final int HEADER_SIZE = 3;
+
+    /**
+     * The largest frame, including its header.
+     */
+    public static final int MAX_FRAME_SIZE = 2 + 0xFFFF;
+
+    /**
+     * Join a room.
+     */
+    public static final byte JOIN = 1;
+
+    /**
+     * Answer a round's question.
+     */
+    public static final byte ANSWER = 2;
+
+    /**
+     * Joined a room.
+     */
+    public static final byte WELCOME = 10;
+
+    /**
+     * A round's question.
+     */
+    public static final byte QUESTION = 11;
+
+    /**
+     * Whether an answer was correct.
+     */
+    public static final byte RESULT = 12;
+
+    /**
+     * The room's best scores after a round.
+     */
+    public static final byte LEADERBOARD = 13;
+
+    /**
+     * A game has ended; the next one starts with the next QUESTION.
+     */
+    public static final byte GAME_OVER = 14;
+
+    /**
+     * Something went wrong; the connection is about to close.
+     */
+    public static final byte ERROR = 15;
+
+    /**
+     * ERROR code: the room is full.
+     */
+    public static final byte ERROR_ROOM_FULL = 1;
+
+    /**
+     * ERROR code: the message was malformed, or not allowed at this point.
+     */
+    public static final byte ERROR_BAD_MESSAGE = 2;
+
+    //charset for question text
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private QuizProtocol() {
+    }
+
+    /**
+     * Returns the size of the complete frame at the start of in (between its position and
+     * limit), or 0 if the whole frame has not arrived yet.
+     *
+     * @param in The received bytes, ready for reading.
+     *
+     * @throws IOException If the frame is too short to hold a message type.
+     *
+     * @return The frame's size including its header, or 0.
+     */
+    public static int frameSize(ByteBuffer in) throws IOException {
+        if (in.remaining() < 2) {
+            return 0;
+        }
+        int length = in.getShort(in.position()) & 0xFFFF;
+        if (length < 1) {
+            throw new IOException("Empty frame.");
+        }
+        return in.remaining() >= 2 + length ? 2 + length : 0;
+    }
+
+    /**
+     * Encodes a JOIN message.
+     *
+     * @param room The room to join.
+     *
+     * @return The message, ready for writing.
+     */
+    public static ByteBuffer join(int room) {
+        ByteBuffer out = frame(JOIN, 4);
+        out.putInt(room);
+        return finish(out);
+    }
+
+    /**
+     * Encodes an ANSWER message.
+     *
+     * @param game The game the question is from.
+     * @param round The question's round.
+     * @param answer The answer.
+     *
+     * @return The message, ready for writing.
+     */
+    public static ByteBuffer answer(int game, int round, boolean answer) {
+        ByteBuffer out = frame(ANSWER, 7);
+        out.putInt(game).putShort((short) round).put(answer ? (byte) 1 : 0);
+        return finish(out);
+    }
+
+    /**
+     * Encodes a WELCOME message.
+     *
+     * @param room The room joined.
+     * @param slot The player's slot in the room.
+     *
+     * @return The message, ready for writing.
+     */
+    public static ByteBuffer welcome(int room, int slot) {
+        ByteBuffer out = frame(WELCOME, 8);
+        out.putInt(room).putInt(slot);
+        return finish(out);
+    }
+
+    /**
+     * Encodes a QUESTION message.
+     *
+     * @param game The game the question is from.
+     * @param round The question's round.
+     * @param rounds The number of rounds in the game.
+     * @param timeMillis The time allowed to answer, in milliseconds.
+     * @param text The question text.
+     *
+     * @return The message, ready for writing.
+     */
+    public static ByteBuffer question(int game, int round, int rounds, int timeMillis,
+                                      String text) {
+        byte[] bytes = text.getBytes(UTF_8);
+        int maxText = MAX_FRAME_SIZE - HEADER_SIZE - 14;
+        int textLength = Math.min(bytes.length, maxText);
+        ByteBuffer out = frame(QUESTION, 14 + textLength);
+        out.putInt(game).putShort((short) round).putShort((short) rounds).putInt(timeMillis)
+                .putShort((short) textLength).put(bytes, 0, textLength);
+        return finish(out);
+    }
+
+    /**
+     * Decodes the text of a QUESTION message.
+     *
+     * @param frame The whole frame, positioned at its start.
+     *
+     * @return The question text.
+     */
+    public static String questionText(ByteBuffer frame) {
+        int start = frame.position() + HEADER_SIZE + 14;
+        int length = frame.getShort(start - 2) & 0xFFFF;
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = frame.get(start + i);
+        }
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Encodes a RESULT message.
+     *
+     * @param game The game the question is from.
+     * @param round The question's round.
+     * @param correct True if the answer was correct.
+     * @param score The player's score so far in this game.
+     *
+     * @return The message, ready for writing.
+     */
+    public static ByteBuffer result(int game, int round, boolean correct, int score) {
+        ByteBuffer out = frame(RESULT, 11);
+        out.putInt(game).putShort((short) round).put(correct ? (byte) 1 : 0).putInt(score);
+        return finish(out);
+    }
+
+    /**
+     * Encodes a LEADERBOARD message.
+     *
+     * @param game The game.
+     * @param round The round just finished.
+     * @param entries Pairs of slot and score, best first.
+     *
+     * @return The message, ready for writing.
+     */
+    public static ByteBuffer leaderboard(int game, int round, int[] entries) {
+        int count = Math.min(entries.length / 2, 255);
+        ByteBuffer out = frame(LEADERBOARD, 7 + 8 * count);
+        out.putInt(game).putShort((short) round).put((byte) count);
+        for (int i = 0; i < 2 * count; i++) {
+            out.putInt(entries[i]);
+        }
+        return finish(out);
+    }
+
+    /**
+     * Encodes a GAME_OVER message.
+     *
+     * @param game The game that ended.
+     *
+     * @return The message, ready for writing.
+     */
+    public static ByteBuffer gameOver(int game) {
+        ByteBuffer out = frame(GAME_OVER, 4);
+        out.putInt(game);
+        return finish(out);
+    }
+
+    /**
+     * Encodes an ERROR message.
+     *
+     * @param code The error code.
+     *
+     * @return The message, ready for writing.
+     */
+    public static ByteBuffer error(byte code) {
+        ByteBuffer out = frame(ERROR, 1);
+        out.put(code);
+        return finish(out);
+    }
+
+    //a new buffer for a message with the given number of bytes of fields, with its header
+    //written.
+    private static ByteBuffer frame(byte type, int fieldBytes) {
+        ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + fieldBytes);
+        out.putShort((short) (1 + fieldBytes)).put(type);
+        return out;
+    }
+
+    //make a finished message ready for writing.
+    private static ByteBuffer finish(ByteBuffer out) {
+        out.flip();
+        return out;
+    }
+}
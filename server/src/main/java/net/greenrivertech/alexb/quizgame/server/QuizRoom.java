@@ -0,0 +1,276 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: QuizRoom.java
+ *
+ * A quiz room on a QuizServer: players who are asked the same questions at the same time.
+ */
+package net.greenrivertech.alexb.quizgame.server;
+
+import net.greenrivertech.alexb.quizgame.engine.FloydQuestionSampler;
+import net.greenrivertech.alexb.quizgame.engine.QuestionBank;
+import net.greenrivertech.alexb.quizgame.engine.QuizEngine;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A quiz room on a QuizServer: players who are asked the same questions at the same time.
+ * Games run back to back. Each round, the room's clock tick publishes the last round's
+ * leaderboard and broadcasts the next question; players answer until the next tick.
+ *
+ * Each player plays the room's game with their own QuizEngine (the same rules as the app),
+ * owned by their connection's reactor thread, so scoring needs no locks. What the room shares
+ * between threads is lock-free: player slots are claimed with compareAndSet, and each game's
+ * scores and per-round answer counts are atomic arrays indexed by slot and round, which the
+ * clock reads to build leaderboards while answers keep arriving.
+ *
+ * @author Alex Ball
+ */
+final class QuizRoom {
+    //number of entries in each leaderboard
+    static final int LEADERBOARD_SIZE = 10;
+
+    private final int id;
+    private final QuestionBank bank;
+    private final int rounds;
+    private final int roundMillis;
+
+    //the players, by slot (null for free slots)
+    private final AtomicReferenceArray<PlayerConnection> players;
+    private final AtomicInteger playerCount = new AtomicInteger();
+
+    //chooses each game's questions; only used by the clock thread
+    private final FloydQuestionSampler sampler;
+
+    //game ids, increasing; only used by the clock thread
+    private int nextGameId = 1;
+
+    //the game being played (null before the first tick), and that round's QUESTION message
+    private volatile Game game;
+    private volatile ByteBuffer questionMessage;
+
+    //the game id and round being played, packed into one long (see roundKey) so answers see
+    //both from the same tick; written after game, so an answer that reads game and then a
+    //key for that game knows the two match
+    private volatile long currentRound;
+
+    //the last published leaderboard: pairs of slot and score, best first
+    private volatile int[] leaderboard = new int[0];
+
+    /**
+     * One game in a room: its questions, and what has been scored so far.
+     */
+    static final class Game {
+        final int id;
+        final int[] questions;
+
+        //each slot's score in this game
+        final AtomicIntegerArray scores;
+
+        //answers (and correct answers) per round
+        final AtomicIntegerArray roundAnswers;
+        final AtomicIntegerArray roundCorrect;
+
+        Game(int id, int[] questions, int capacity) {
+            this.id = id;
+            this.questions = questions;
+            scores = new AtomicIntegerArray(capacity);
+            roundAnswers = new AtomicIntegerArray(questions.length);
+            roundCorrect = new AtomicIntegerArray(questions.length);
+        }
+    }
+
+    QuizRoom(int id, QuestionBank bank, int capacity, int rounds, int roundMillis, long seed) {
+        this.id = id;
+        this.bank = bank;
+        this.rounds = Math.min(rounds, bank.size());
+        this.roundMillis = roundMillis;
+        players = new AtomicReferenceArray<PlayerConnection>(capacity);
+        sampler = new FloydQuestionSampler(seed);
+    }
+
+    int getId() {
+        return id;
+    }
+
+    int getPlayerCount() {
+        return playerCount.get();
+    }
+
+    /**
+     * Returns the game being played, or null before the first round.
+     */
+    Game getGame() {
+        return game;
+    }
+
+    /**
+     * Returns the last published leaderboard, as pairs of slot and score, best first.
+     */
+    int[] getLeaderboard() {
+        return leaderboard.clone();
+    }
+
+    /**
+     * Adds a player to the first free slot, welcomes them and sends them the current question.
+     * Called on the player's reactor thread.
+     *
+     * @return The player's slot, or -1 if the room is full.
+     */
+    int join(PlayerConnection player) {
+        for (int slot = 0; slot < players.length(); slot++) {
+            if (players.get(slot) == null && players.compareAndSet(slot, null, player)) {
+                playerCount.incrementAndGet();
+                player.room = this;
+                player.slot = slot;
+
+                //a slot's score may be left over from an earlier player.
+                Game current = game;
+                if (current != null) {
+                    current.scores.set(slot, 0);
+                }
+
+                player.send(QuizProtocol.welcome(id, slot));
+                ByteBuffer question = questionMessage;
+                if (question != null) {
+                    player.send(question.duplicate());
+                }
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes a player from the room. Called on the player's reactor thread.
+     */
+    void leave(PlayerConnection player) {
+        if (players.compareAndSet(player.slot, player, null)) {
+            playerCount.decrementAndGet();
+            Game current = game;
+            if (current != null) {
+                current.scores.set(player.slot, 0);
+            }
+        }
+    }
+
+    /**
+     * Scores a player's answer to the current round's question and sends them the result.
+     * Answers to other rounds or games, and second answers, are ignored. Called on the
+     * player's reactor thread.
+     *
+     * @return True if the answer was scored.
+     */
+    boolean answer(PlayerConnection player, int gameId, int answerRound, boolean answer) {
+        Game current = game;
+        if (current == null || current.id != gameId
+                || currentRound != roundKey(gameId, answerRound)) {
+            return false;
+        }
+
+        //the player's engine follows the room's game, skipping rounds they did not answer.
+        if (player.gameId != gameId) {
+            player.game = new QuizEngine(bank, current.questions);
+            player.gameId = gameId;
+        }
+        QuizEngine playerGame = player.game;
+        while (playerGame.getGameQuestionNum() < answerRound && playerGame.nextQuestion()) {
+            //skip unanswered rounds
+        }
+        if (playerGame.getGameQuestionNum() != answerRound || playerGame.isAnswered(answerRound)) {
+            return false;
+        }
+
+        boolean correct = playerGame.answerQuestion(answer);
+        current.scores.set(player.slot, playerGame.getScore());
+        current.roundAnswers.incrementAndGet(answerRound);
+        if (correct) {
+            current.roundCorrect.incrementAndGet(answerRound);
+        }
+        player.send(QuizProtocol.result(gameId, answerRound, correct, playerGame.getScore()));
+        return true;
+    }
+
+    /**
+     * Ends the current round: publishes its leaderboard, then starts the next round (or, after
+     * the last round, ends the game and starts a new one) and broadcasts its question. Called
+     * by the server's clock, one tick per round.
+     */
+    void tick() {
+        Game current = game;
+        int round = (int) currentRound;
+        int nextRound;
+        if (current != null) {
+            publishLeaderboard(current, round);
+        }
+        if (current == null || round >= current.questions.length - 1) {
+            if (current != null) {
+                broadcast(QuizProtocol.gameOver(current.id));
+            }
+            int[] questions = QuizEngine.newGame(bank, sampler, rounds).getQuestionNumbers();
+            current = new Game(nextGameId++, questions, players.length());
+            game = current;
+            nextRound = 0;
+        } else {
+            nextRound = round + 1;
+        }
+
+        ByteBuffer question = QuizProtocol.question(current.id, nextRound,
+                current.questions.length, roundMillis,
+                bank.getQuestionText(current.questions[nextRound]));
+        questionMessage = question;
+        currentRound = roundKey(current.id, nextRound);
+        broadcast(question);
+    }
+
+    //the game id and round packed into one long.
+    private static long roundKey(int gameId, int round) {
+        return ((long) gameId << 32) | (round & 0xFFFFFFFFL);
+    }
+
+    //work out the best scores in the game so far and send them to the room.
+    private void publishLeaderboard(Game current, int finishedRound) {
+        //keep the best LEADERBOARD_SIZE in order, by insertion; the room is scanned once.
+        int[] bestSlots = new int[LEADERBOARD_SIZE];
+        int[] bestScores = new int[LEADERBOARD_SIZE];
+        int count = 0;
+        for (int slot = 0; slot < players.length(); slot++) {
+            if (players.get(slot) == null) {
+                continue;
+            }
+            int score = current.scores.get(slot);
+            if (count == LEADERBOARD_SIZE && score <= bestScores[count - 1]) {
+                continue;
+            }
+            int i = count < LEADERBOARD_SIZE ? count++ : count - 1;
+            while (i > 0 && bestScores[i - 1] < score) {
+                bestScores[i] = bestScores[i - 1];
+                bestSlots[i] = bestSlots[i - 1];
+                i--;
+            }
+            bestScores[i] = score;
+            bestSlots[i] = slot;
+        }
+
+        int[] entries = new int[2 * count];
+        for (int i = 0; i < count; i++) {
+            entries[2 * i] = bestSlots[i];
+            entries[2 * i + 1] = bestScores[i];
+        }
+        leaderboard = entries;
+        broadcast(QuizProtocol.leaderboard(current.id, finishedRound, entries));
+    }
+
+    //send a message to every player in the room; the bytes are shared.
+    private void broadcast(ByteBuffer message) {
+        for (int slot = 0; slot < players.length(); slot++) {
+            PlayerConnection player = players.get(slot);
+            if (player != null) {
+                player.send(message.duplicate());
+            }
+        }
+    }
+}
@@ -0,0 +1,573 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: QuizServer.java
+ *
+ * Hosts shared quiz rooms for many players over a small binary protocol, using NIO selectors.
+ */
+package net.greenrivertech.alexb.quizgame.server;
+
+import net.greenrivertech.alexb.quizgame.engine.MappedQuestionBank;
+import net.greenrivertech.alexb.quizgame.engine.QuestionBank;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hosts shared quiz rooms (see QuizRoom) for many players over a small binary protocol (see
+ * QuizProtocol). Each room plays games back to back with the same rules as the app, one round
+ * per tick of the server's clock.
+ *
+ * Connections are accepted on one thread and handed out round-robin to a few reactor threads,
+ * each running its own Selector; a reactor does all the reading and writing for its
+ * connections and scores their answers, so thousands of players need only a handful of
+ * threads. One clock thread ticks every room. Messages from the clock (questions and
+ * leaderboards) are queued on each player's connection and the player's reactor is woken to
+ * write them.
+ *
+ * @author Alex Ball
+ */
+public class QuizServer implements Closeable {
+    private final QuestionBank bank;
+    private final QuizRoom[] rooms;
+    private final int roundMillis;
+    private final Reactor[] reactors;
+
+    private ServerSocketChannel serverChannel;
+    private Thread acceptor;
+    private ScheduledExecutorService clock;
+    private volatile boolean running;
+
+    //counts for monitoring and load tests
+    private final LongAdder connectionsAccepted = new LongAdder();
+    private final LongAdder connectionsOpen = new LongAdder();
+    private final LongAdder answersScored = new LongAdder();
+
+    private QuizServer(Builder builder) throws IOException {
+        bank = builder.bank;
+        roundMillis = builder.roundMillis;
+        rooms = new QuizRoom[builder.rooms];
+        for (int i = 0; i < rooms.length; i++) {
+            rooms[i] = new QuizRoom(i, bank, builder.roomCapacity, builder.rounds, roundMillis,
+                    builder.seed + i);
+        }
+        reactors = new Reactor[builder.reactors];
+        for (int i = 0; i < reactors.length; i++) {
+            reactors[i] = new Reactor(i);
+        }
+    }
+
+    /**
+     * Builds a QuizServer.
+     */
+    public static class Builder {
+        private final QuestionBank bank;
+        private int rooms = 16;
+        private int roomCapacity = 1024;
+        private int rounds = 10;
+        private int roundMillis = 5000;
+        private int reactors = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        private long seed = System.nanoTime();
+
+        /**
+         * Constructor that starts building a server whose games come from the given bank. The
+         * bank must only hold true/false questions.
+         *
+         * @param bank The question bank.
+         */
+        public Builder(QuestionBank bank) {
+            this.bank = bank;
+        }
+
+        /**
+         * Sets the number of rooms (16 by default). Rooms are numbered from 0.
+         *
+         * @param rooms The number of rooms.
+         *
+         * @return This builder.
+         */
+        public Builder rooms(int rooms) {
+            this.rooms = rooms;
+            return this;
+        }
+
+        /**
+         * Sets the most players in one room (1024 by default).
+         *
+         * @param roomCapacity The room capacity.
+         *
+         * @return This builder.
+         */
+        public Builder roomCapacity(int roomCapacity) {
+            this.roomCapacity = roomCapacity;
+            return this;
+        }
+
+        /**
+         * Sets the number of questions in each game (10 by default).
+         *
+         * @param rounds The number of rounds per game.
+         *
+         * @return This builder.
+         */
+        public Builder rounds(int rounds) {
+            this.rounds = rounds;
+            return this;
+        }
+
+        /**
+         * Sets how long each round lasts (5 seconds by default).
+         *
+         * @param roundMillis The round length, in milliseconds.
+         *
+         * @return This builder.
+         */
+        public Builder roundMillis(int roundMillis) {
+            this.roundMillis = roundMillis;
+            return this;
+        }
+
+        /**
+         * Sets the number of reactor threads (half the cores by default).
+         *
+         * @param reactors The number of reactor threads.
+         *
+         * @return This builder.
+         */
+        public Builder reactors(int reactors) {
+            this.reactors = reactors;
+            return this;
+        }
+
+        /**
+         * Sets the seed that the rooms' question choices are derived from.
+         *
+         * @param seed The seed.
+         *
+         * @return This builder.
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Builds the server. It does not accept connections until it is started.
+         *
+         * @throws IOException If the reactors' selectors cannot be opened.
+         *
+         * @return The new server.
+         */
+        public QuizServer build() throws IOException {
+            if (rooms < 1 || roomCapacity < 1 || rounds < 1 || roundMillis < 1 || reactors < 1) {
+                throw new IllegalArgumentException("Server settings must be positive.");
+            }
+            return new QuizServer(this);
+        }
+    }
+
+    /**
+     * Starts accepting players on the given address and starts the rooms' clock.
+     *
+     * @param address The address to listen on; port 0 picks a free port (see getPort).
+     *
+     * @throws IOException If the address cannot be bound.
+     */
+    public void start(InetSocketAddress address) throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        serverChannel.bind(address, 4096);
+        running = true;
+
+        for (Reactor reactor : reactors) {
+            reactor.thread.start();
+        }
+        acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                accept();
+            }
+        }, "quiz-acceptor");
+        acceptor.start();
+
+        clock = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, "quiz-clock");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        for (final QuizRoom room : rooms) {
+            clock.scheduleAtFixedRate(new Runnable() {
+                @Override
+                public void run() {
+                    room.tick();
+                }
+            }, 0, roundMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return The port.
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Returns the number of connections accepted since the server started.
+     *
+     * @return The number of connections accepted.
+     */
+    public long getConnectionsAccepted() {
+        return connectionsAccepted.sum();
+    }
+
+    /**
+     * Returns the number of connections open now.
+     *
+     * @return The number of open connections.
+     */
+    public long getConnectionsOpen() {
+        return connectionsOpen.sum();
+    }
+
+    /**
+     * Returns the number of answers scored since the server started.
+     *
+     * @return The number of answers scored.
+     */
+    public long getAnswersScored() {
+        return answersScored.sum();
+    }
+
+    /**
+     * Returns the number of rooms.
+     *
+     * @return The number of rooms.
+     */
+    public int getRoomCount() {
+        return rooms.length;
+    }
+
+    /**
+     * Returns the number of players in a room.
+     *
+     * @param room The room number.
+     *
+     * @return The number of players in the room.
+     */
+    public int getPlayerCount(int room) {
+        return rooms[room].getPlayerCount();
+    }
+
+    /**
+     * Returns a room's last published leaderboard, as pairs of player slot and score, best
+     * first.
+     *
+     * @param room The room number.
+     *
+     * @return The room's leaderboard.
+     */
+    public int[] getLeaderboard(int room) {
+        return rooms[room].getLeaderboard();
+    }
+
+    /**
+     * Stops the server and closes every connection.
+     *
+     * @throws IOException If the listening socket cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if (clock != null) {
+            clock.shutdownNow();
+        }
+        if (serverChannel != null) {
+            serverChannel.close();
+        }
+        for (Reactor reactor : reactors) {
+            reactor.selector.wakeup();
+        }
+        try {
+            if (acceptor != null) {
+                acceptor.join();
+            }
+            for (Reactor reactor : reactors) {
+                reactor.thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //accept connections until the server is closed, handing them to the reactors in turn.
+    private void accept() {
+        int next = 0;
+        while (running) {
+            SocketChannel channel = null;
+            try {
+                channel = serverChannel.accept();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            } catch (IOException e) {
+                //a connection that cannot be set up is dropped, not leaked.
+                if (channel != null) {
+                    try {
+                        channel.close();
+                    } catch (IOException closeFailure) {
+                        //closing anyway
+                    }
+                }
+                if (running) {
+                    System.err.println("Cannot accept connection: " + e);
+                }
+                continue;
+            }
+            connectionsAccepted.increment();
+            connectionsOpen.increment();
+            reactors[next].add(channel);
+            next = (next + 1) % reactors.length;
+        }
+    }
+
+    //handle one complete frame from a player.
+    private void handle(PlayerConnection player, ByteBuffer frame) {
+        byte type = frame.get(frame.position() + 2);
+        int fields = frame.position() + QuizProtocol.HEADER_SIZE;
+        int size = frame.remaining();
+        if (type == QuizProtocol.JOIN && size == QuizProtocol.HEADER_SIZE + 4
+                && player.room == null) {
+            int room = frame.getInt(fields);
+            if (room < 0 || room >= rooms.length) {
+                refuse(player, QuizProtocol.ERROR_BAD_MESSAGE);
+            } else if (rooms[room].join(player) < 0) {
+                refuse(player, QuizProtocol.ERROR_ROOM_FULL);
+            }
+        } else if (type == QuizProtocol.ANSWER && size == QuizProtocol.HEADER_SIZE + 7
+                && player.room != null) {
+            if (player.room.answer(player, frame.getInt(fields), frame.getShort(fields + 4),
+                    frame.get(fields + 6) != 0)) {
+                answersScored.increment();
+            }
+        } else {
+            refuse(player, QuizProtocol.ERROR_BAD_MESSAGE);
+        }
+    }
+
+    //send an error and close the connection once it is written.
+    private void refuse(PlayerConnection player, byte code) {
+        player.send(QuizProtocol.error(code));
+        player.closeAfterFlush = true;
+    }
+
+    /**
+     * One reactor thread: a selector and the connections registered with it.
+     */
+    final class Reactor implements Runnable {
+        final Selector selector;
+        final Thread thread;
+
+        //channels accepted for this reactor, waiting to be registered
+        private final ConcurrentLinkedQueue<SocketChannel> newChannels =
+                new ConcurrentLinkedQueue<SocketChannel>();
+
+        //connections with messages queued by other threads
+        private final ConcurrentLinkedQueue<PlayerConnection> flushQueue =
+                new ConcurrentLinkedQueue<PlayerConnection>();
+
+        Reactor(int index) throws IOException {
+            selector = Selector.open();
+            thread = new Thread(this, "quiz-reactor-" + index);
+        }
+
+        //hand an accepted channel to this reactor.
+        void add(SocketChannel channel) {
+            newChannels.add(channel);
+            selector.wakeup();
+        }
+
+        //ask this reactor to write a connection's queued messages.
+        void requestFlush(PlayerConnection player) {
+            flushQueue.add(player);
+            if (Thread.currentThread() != thread) {
+                selector.wakeup();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    selector.select();
+                } catch (IOException e) {
+                    System.err.println("Selector failed: " + e);
+                    break;
+                }
+                registerNewChannels();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    PlayerConnection player = (PlayerConnection) key.attachment();
+                    try {
+                        if (key.isValid() && key.isWritable() && !player.flush()) {
+                            close(player);
+                            continue;
+                        }
+                        if (key.isValid() && key.isReadable() && !read(player)) {
+                            close(player);
+                        }
+                    } catch (IOException e) {
+                        close(player);
+                    }
+                }
+
+                PlayerConnection player;
+                while ((player = flushQueue.poll()) != null) {
+                    try {
+                        if (player.key != null && player.key.isValid() && !player.flush()) {
+                            close(player);
+                        }
+                    } catch (IOException e) {
+                        close(player);
+                    }
+                }
+            }
+
+            //the server is closing.
+            for (SelectionKey key : selector.keys()) {
+                close((PlayerConnection) key.attachment());
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                //closing anyway
+            }
+        }
+
+        private void registerNewChannels() {
+            SocketChannel channel;
+            while ((channel = newChannels.poll()) != null) {
+                PlayerConnection player = new PlayerConnection(channel, this);
+                try {
+                    player.key = channel.register(selector, SelectionKey.OP_READ, player);
+                } catch (IOException e) {
+                    close(player);
+                }
+            }
+        }
+
+        //read what has arrived and handle every complete frame; false if the connection
+        //should be closed.
+        private boolean read(PlayerConnection player) throws IOException {
+            if (player.channel.read(player.in) < 0) {
+                return false;
+            }
+            ByteBuffer in = player.in;
+            in.flip();
+            int frameSize;
+            while (!player.closeAfterFlush && (frameSize = QuizProtocol.frameSize(in)) > 0) {
+                int end = in.position() + frameSize;
+                ByteBuffer frame = in.duplicate();
+                frame.limit(end);
+                handle(player, frame);
+                in.position(end);
+            }
+            if (in.remaining() == in.capacity()) {
+                //a frame bigger than any player message
+                return false;
+            }
+            in.compact();
+            return true;
+        }
+
+        private void close(PlayerConnection player) {
+            if (!player.channel.isOpen()) {
+                return;
+            }
+            player.markClosed();
+            if (player.room != null) {
+                player.room.leave(player);
+                player.room = null;
+            }
+            if (player.key != null) {
+                player.key.cancel();
+            }
+            try {
+                player.channel.close();
+            } catch (IOException e) {
+                //closing anyway
+            }
+            connectionsOpen.decrement();
+        }
+    }
+
+    /**
+     * Command line server:
+     * <code>QuizServer [port] [rooms] [roundMillis] [reactors] [pack.qpk | bankSize]</code>.
+     * Prints the open connections and answers per second every 5 seconds until killed.
+     *
+     * @param args The port, number of rooms, round length, number of reactor threads, and
+     * either a question pack or the size of a generated bank.
+     *
+     * @throws IOException If the server cannot start.
+     * @throws InterruptedException If interrupted while running.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+        int rooms = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int roundMillis = args.length > 2 ? Integer.parseInt(args[2]) : 5000;
+        Builder builder = new Builder(loadBank(args.length > 4 ? args[4] : "10000"))
+                .rooms(rooms).roundMillis(roundMillis);
+        if (args.length > 3) {
+            builder.reactors(Integer.parseInt(args[3]));
+        }
+
+        QuizServer server = builder.build();
+        server.start(new InetSocketAddress(port));
+        System.out.println("Quiz server listening on port " + server.getPort());
+
+        long lastAnswers = 0;
+        long lastTime = System.nanoTime();
+        while (true) {
+            Thread.sleep(5000);
+            long now = System.nanoTime();
+            long answers = server.getAnswersScored();
+            System.out.println(String.format(Locale.US,
+                    "%,d connections open, %,.0f answers/s",
+                    server.getConnectionsOpen(), (answers - lastAnswers) * 1e9 / (now - lastTime)));
+            lastAnswers = answers;
+            lastTime = now;
+        }
+    }
+
+    //open a question pack, or generate a bank if the argument is a number.
+    private static QuestionBank loadBank(String packOrSize) throws IOException {
+        if (new File(packOrSize).isFile()) {
+            return MappedQuestionBank.open(new File(packOrSize));
+        }
+        return QuizSimulator.generatedBank(Integer.parseInt(packOrSize));
+    }
+}
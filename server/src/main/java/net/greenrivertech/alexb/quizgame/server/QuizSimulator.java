@@ -0,0 +1,224 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: QuizSimulator.java
+ *
+ * Plays large numbers of simulated quiz games in parallel to measure question difficulty.
+ */
+package net.greenrivertech.alexb.quizgame.server;
+
+import net.greenrivertech.alexb.quizgame.engine.ColumnarQuestionBank;
+import net.greenrivertech.alexb.quizgame.engine.FloydQuestionSampler;
+import net.greenrivertech.alexb.quizgame.engine.MappedQuestionBank;
+import net.greenrivertech.alexb.quizgame.engine.QuestionBank;
+import net.greenrivertech.alexb.quizgame.engine.QuizEngine;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plays large numbers of simulated quiz games in parallel to measure question difficulty.
+ * Each simulated player plays one game with the real QuizEngine rules, answering each question
+ * correctly with the probability given by an AccuracyModel. Players are split into batches
+ * that run on a fork-join pool; batches share nothing but striped counters, so throughput
+ * grows almost linearly with the number of cores.
+ *
+ * Runs are reproducible: the same seed gives the same games regardless of the number of
+ * threads.
+ *
+ * @author Alex Ball
+ */
+public class QuizSimulator {
+    //players per fork-join leaf task; large enough to amortize task overhead.
+    private static final int BATCH_SIZE = 1024;
+
+    private final QuestionBank bank;
+    private final int questionsPerGame;
+    private final AccuracyModel accuracyModel;
+    private final long seed;
+
+    /**
+     * Constructor that creates a simulator for games played from the given bank.
+     *
+     * @param bank The bank games choose their questions from.
+     * @param questionsPerGame The number of questions in each game.
+     * @param accuracyModel How likely each player is to answer each question correctly.
+     * @param seed The seed that all randomness in a run is derived from.
+     */
+    public QuizSimulator(QuestionBank bank, int questionsPerGame, AccuracyModel accuracyModel,
+                         long seed) {
+        this.bank = bank;
+        this.questionsPerGame = Math.min(questionsPerGame, bank.size());
+        this.accuracyModel = accuracyModel;
+        this.seed = seed;
+    }
+
+    /**
+     * Simulates the given number of players, each playing one game, on the given pool.
+     *
+     * @param players The number of simulated players.
+     * @param pool The pool to run games on.
+     *
+     * @return The collected statistics.
+     */
+    public SimulationResult run(long players, ForkJoinPool pool) {
+        Counters counters = new Counters(bank.size(), questionsPerGame, pool.getParallelism());
+
+        long start = System.nanoTime();
+        pool.invoke(new PlayTask(counters, 0, players));
+        long elapsed = System.nanoTime() - start;
+
+        long[] scoreCounts = new long[counters.scores.length];
+        for (int i = 0; i < scoreCounts.length; i++) {
+            scoreCounts[i] = counters.scores[i].sum();
+        }
+        return new SimulationResult(counters.games.sum(), elapsed, counters.asked.sum(),
+                counters.correct.sum(), scoreCounts);
+    }
+
+    //plays the games of players [from, to) and records them in counters.
+    private void play(Counters counters, long from, long to) {
+        //each batch has its own random streams derived from the seed and its first player,
+        //so results do not depend on which thread runs which batch.
+        FloydQuestionSampler sampler =
+                new FloydQuestionSampler(seed ^ (from * 0x9E3779B97F4A7C15L));
+        SplittableRandom rand = new SplittableRandom(seed + from);
+
+        for (long player = from; player < to; player++) {
+            QuizEngine game = QuizEngine.newGame(bank, sampler, questionsPerGame);
+            while (!game.isGameOver()) {
+                int questionNumber = game.getCurrentQuestionNumber();
+                boolean correctAnswer = bank.getCorrectAnswer(questionNumber);
+                boolean knowsIt = rand.nextDouble()
+                        < accuracyModel.probabilityCorrect(player, questionNumber);
+
+                counters.asked.add(questionNumber, 1);
+                if (game.answerQuestion(knowsIt == correctAnswer)) {
+                    counters.correct.add(questionNumber, 1);
+                }
+            }
+            counters.scores[game.getScore()].increment();
+        }
+        counters.games.add(to - from);
+    }
+
+    //the counters shared by every task in a run.
+    private static class Counters {
+        final StripedLongArray asked;
+        final StripedLongArray correct;
+        final LongAdder[] scores;
+        final LongAdder games = new LongAdder();
+
+        Counters(int bankSize, int questionsPerGame, int threads) {
+            asked = new StripedLongArray(bankSize, threads);
+            correct = new StripedLongArray(bankSize, threads);
+            scores = new LongAdder[questionsPerGame + 1];
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = new LongAdder();
+            }
+        }
+    }
+
+    //splits a range of players in half until it is small enough to play directly.
+    private class PlayTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Counters counters;
+        private final long from;
+        private final long to;
+
+        PlayTask(Counters counters, long from, long to) {
+            this.counters = counters;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SIZE) {
+                play(counters, from, to);
+            } else {
+                //split on a batch boundary so batches (and their seeds) are the same no
+                //matter how the range was divided.
+                long middle = from + ((to - from) / 2 / BATCH_SIZE) * BATCH_SIZE;
+                if (middle == from) {
+                    middle += BATCH_SIZE;
+                }
+                invokeAll(new PlayTask(counters, from, middle), new PlayTask(counters, middle, to));
+            }
+        }
+    }
+
+    /**
+     * Command line simulator:
+     * <code>QuizSimulator [players] [questionsPerGame] [pack.qpk | bankSize]</code>.
+     * Runs the simulation at 1, 2, 4, ... threads up to the number of cores and prints the
+     * games per second and speedup for each, then the score distribution from the last run.
+     *
+     * @param args The number of players, the questions per game, and either a question pack
+     * or the size of a generated bank.
+     *
+     * @throws IOException If the question pack cannot be opened.
+     */
+    public static void main(String[] args) throws IOException {
+        long players = args.length > 0 ? Long.parseLong(args[0]) : 1000000;
+        int questionsPerGame = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        QuestionBank bank;
+        if (args.length > 2 && new File(args[2]).isFile()) {
+            bank = MappedQuestionBank.open(new File(args[2]));
+        } else {
+            bank = generatedBank(args.length > 2 ? Integer.parseInt(args[2]) : 100000);
+        }
+
+        //harder questions further into the bank, to give the report something to find.
+        double[] difficulty = new double[bank.size()];
+        for (int i = 0; i < difficulty.length; i++) {
+            difficulty[i] = 3.0 * i / difficulty.length - 1.5;
+        }
+        QuizSimulator simulator = new QuizSimulator(bank, questionsPerGame,
+                new AccuracyModel.Logistic(0.5, 2.0, difficulty), 42);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        double baseline = 0;
+        SimulationResult result = null;
+        for (int threads = 1; threads <= cores; threads = threads < cores
+                ? Math.min(threads * 2, cores) : threads + 1) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                result = simulator.run(players, pool);
+            } finally {
+                pool.shutdown();
+            }
+            if (threads == 1) {
+                baseline = result.getGamesPerSecond();
+            }
+            System.out.println(String.format(Locale.US,
+                    "%3d threads: %,12.0f games/s  (%.2fx)",
+                    threads, result.getGamesPerSecond(), result.getGamesPerSecond() / baseline));
+        }
+
+        System.out.println(String.format(Locale.US, "mean score %.3f of %d",
+                result.getMeanScore(), simulator.questionsPerGame));
+        long[] scoreCounts = result.getScoreCounts();
+        for (int score = 0; score < scoreCounts.length; score++) {
+            System.out.println(String.format(Locale.US, "score %3d: %,d", score,
+                    scoreCounts[score]));
+        }
+    }
+
+    //a bank of the given size with generated questions; its text is compressed, since these
+    //banks run to millions of questions.
+    static QuestionBank generatedBank(int size) {
+        SplittableRandom rand = new SplittableRandom(size);
+        ColumnarQuestionBank.Builder builder = new ColumnarQuestionBank.Builder().compressText();
+        for (int i = 0; i < size; i++) {
+            builder.add("Generated question #" + i + "?", rand.nextBoolean());
+        }
+        return builder.build();
+    }
+}
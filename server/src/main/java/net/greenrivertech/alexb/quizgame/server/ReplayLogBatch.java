@@ -0,0 +1,137 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: ReplayLogBatch.java
+ *
+ * A batch of replay logs held back to back in one array, as written by
+ * ReplayRecorder.writeFramed.
+ */
+package net.greenrivertech.alexb.quizgame.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * A batch of replay logs held back to back in one array, as written by
+ * ReplayRecorder.writeFramed (each log preceded by its length as a varint). The logs are not
+ * copied out; each is found by its offset and length in the array, so a batch of millions of
+ * logs is one array of bytes and two of ints.
+ *
+ * @author Alex Ball
+ */
+public class ReplayLogBatch {
+    private final byte[] data;
+    private final int[] offsets;
+    private final int[] lengths;
+
+    private ReplayLogBatch(byte[] data, int[] offsets, int[] lengths) {
+        this.data = data;
+        this.offsets = offsets;
+        this.lengths = lengths;
+    }
+
+    /**
+     * Reads a file of framed replay logs, e.g. one that each finished game was appended to.
+     *
+     * @param file The file to read.
+     *
+     * @throws IOException Throws IOException if the file cannot be read, or ends in the
+     * middle of a log.
+     *
+     * @return The batch.
+     */
+    public static ReplayLogBatch read(File file) throws IOException {
+        byte[] data = Files.readAllBytes(file.toPath());
+        try {
+            return parse(data);
+        } catch (IOException e) {
+            throw new IOException("Corrupt replay logs in " + file + ".", e);
+        }
+    }
+
+    /**
+     * Finds the framed replay logs in the given array, which is used directly, not copied.
+     *
+     * @param data The framed logs.
+     *
+     * @throws IOException Throws IOException if the data ends in the middle of a log.
+     *
+     * @return The batch.
+     */
+    public static ReplayLogBatch parse(byte[] data) throws IOException {
+        int[] offsets = new int[16];
+        int[] lengths = new int[16];
+        int count = 0;
+        int pos = 0;
+        while (pos < data.length) {
+            //the length varint; logs are far shorter than 2^28 bytes.
+            int length = 0;
+            int shift = 0;
+            int b;
+            do {
+                if (pos >= data.length || shift > 21) {
+                    throw new IOException("Corrupt replay log length at byte " + pos + ".");
+                }
+                b = data[pos++];
+                length |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            if (length > data.length - pos) {
+                throw new IOException("Replay log at byte " + pos + " is truncated.");
+            }
+
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+                lengths = Arrays.copyOf(lengths, count * 2);
+            }
+            offsets[count] = pos;
+            lengths[count] = length;
+            count++;
+            pos += length;
+        }
+        return new ReplayLogBatch(data, Arrays.copyOf(offsets, count),
+                Arrays.copyOf(lengths, count));
+    }
+
+    /**
+     * Returns the number of logs in the batch.
+     *
+     * @return The number of logs.
+     */
+    public int size() {
+        return offsets.length;
+    }
+
+    /**
+     * Returns the array holding every log.
+     *
+     * @return The framed logs.
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * Returns the position of a log in getData().
+     *
+     * @param index The log's index in the batch.
+     *
+     * @return Its offset.
+     */
+    public int getOffset(int index) {
+        return offsets[index];
+    }
+
+    /**
+     * Returns the length of a log in bytes.
+     *
+     * @param index The log's index in the batch.
+     *
+     * @return Its length.
+     */
+    public int getLength(int index) {
+        return lengths[index];
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: ReplayVerifier.java
+ *
+ * Checks the claimed scores of large batches of replay logs in parallel, by replaying each
+ * game through the quiz engine.
+ */
+package net.greenrivertech.alexb.quizgame.server;
+
+import net.greenrivertech.alexb.quizgame.engine.FloydQuestionSampler;
+import net.greenrivertech.alexb.quizgame.engine.GameReplayer;
+import net.greenrivertech.alexb.quizgame.engine.MappedQuestionBank;
+import net.greenrivertech.alexb.quizgame.engine.QuestionBank;
+import net.greenrivertech.alexb.quizgame.engine.QuizEngine;
+import net.greenrivertech.alexb.quizgame.engine.ReplayRecorder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Checks the claimed scores of large batches of replay logs in parallel, by replaying each
+ * game through the quiz engine (see GameReplayer) and comparing the score it earns with the
+ * score the log claims. Logs are split into batches that run on a fork-join pool; each batch
+ * has its own replayer and shares nothing but striped counters, so throughput grows almost
+ * linearly with the number of cores.
+ *
+ * @author Alex Ball
+ */
+public class ReplayVerifier {
+    //logs per fork-join leaf task; large enough to amortize task overhead.
+    private static final int BATCH_SIZE = 1024;
+
+    private final QuestionBank bank;
+
+    /**
+     * Constructor that creates a verifier for games played from the given bank.
+     *
+     * @param bank The bank the logged games were played from.
+     */
+    public ReplayVerifier(QuestionBank bank) {
+        this.bank = bank;
+    }
+
+    /**
+     * Replays every log in the batch on the given pool.
+     *
+     * @param logs The logs to check.
+     * @param pool The pool to replay them on.
+     *
+     * @return The counts of verified, wrong, unfinished and malformed logs.
+     */
+    public VerificationResult verify(ReplayLogBatch logs, ForkJoinPool pool) {
+        Counters counters = new Counters();
+
+        long start = System.nanoTime();
+        pool.invoke(new VerifyTask(logs, counters, 0, logs.size()));
+        long elapsed = System.nanoTime() - start;
+
+        return new VerificationResult(counters.verified.sum(), counters.wrongScore.sum(),
+                counters.unfinished.sum(), counters.malformed.sum(), elapsed);
+    }
+
+    //replays logs [from, to) and counts the outcomes in counters.
+    private void verify(ReplayLogBatch logs, Counters counters, int from, int to) {
+        GameReplayer replayer = new GameReplayer(bank);
+        byte[] data = logs.getData();
+        long verified = 0;
+        long wrongScore = 0;
+        long unfinished = 0;
+        long malformed = 0;
+
+        for (int i = from; i < to; i++) {
+            try {
+                if (replayer.verify(data, logs.getOffset(i), logs.getLength(i))) {
+                    verified++;
+                } else if (replayer.getClaimedScore() < 0) {
+                    unfinished++;
+                } else {
+                    wrongScore++;
+                }
+            } catch (IllegalArgumentException e) {
+                malformed++;
+            }
+        }
+        counters.verified.add(verified);
+        counters.wrongScore.add(wrongScore);
+        counters.unfinished.add(unfinished);
+        counters.malformed.add(malformed);
+    }
+
+    //the counters shared by every task in a run.
+    private static class Counters {
+        final LongAdder verified = new LongAdder();
+        final LongAdder wrongScore = new LongAdder();
+        final LongAdder unfinished = new LongAdder();
+        final LongAdder malformed = new LongAdder();
+    }
+
+    //splits a range of logs in half until it is small enough to check directly.
+    private class VerifyTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ReplayLogBatch logs;
+        private final Counters counters;
+        private final int from;
+        private final int to;
+
+        VerifyTask(ReplayLogBatch logs, Counters counters, int from, int to) {
+            this.logs = logs;
+            this.counters = counters;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SIZE) {
+                verify(logs, counters, from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new VerifyTask(logs, counters, from, middle),
+                        new VerifyTask(logs, counters, middle, to));
+            }
+        }
+    }
+
+    /**
+     * Plays and records the given number of seeded games, as framed logs (see
+     * ReplayRecorder.writeFramed). Each game answers its questions at random, with the
+     * occasional skip and step back; the given fraction of them then claim a score one off from
+     * the score they earned, as an edited log would.
+     *
+     * @param bank The bank to play from.
+     * @param games The number of games.
+     * @param questionsPerGame The number of questions in each game (at most 127).
+     * @param tamperRate The fraction of games whose claimed score is wrong.
+     * @param seed The seed the games are derived from.
+     *
+     * @return The framed logs.
+     */
+    static byte[] recordGames(QuestionBank bank, int games, int questionsPerGame,
+                              double tamperRate, long seed) {
+        SplittableRandom rand = new SplittableRandom(seed);
+        ReplayRecorder recorder = new ReplayRecorder();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(games * (24 + questionsPerGame));
+        try {
+            for (int i = 0; i < games; i++) {
+                long gameSeed = rand.nextLong();
+                QuizEngine game = QuizEngine.newGame(bank, new FloydQuestionSampler(gameSeed),
+                        questionsPerGame);
+                recorder.startSeeded(game, gameSeed);
+                while (!game.isGameOver()) {
+                    int move = rand.nextInt(20);
+                    if (move == 0) {
+                        game.nextQuestion();
+                    } else if (move == 1) {
+                        game.previousQuestion();
+                    } else if (!game.isCurrentQuestionAnswered()) {
+                        game.answerQuestion(rand.nextBoolean());
+                    } else if (!game.nextQuestion()) {
+                        //at the end with questions skipped; go back for them.
+                        while (game.previousQuestion() && game.isCurrentQuestionAnswered()) {
+                            //keep looking
+                        }
+                    }
+                }
+                recorder.finish();
+
+                //the score is the last byte of the log.
+                if (rand.nextDouble() < tamperRate) {
+                    int score = game.getScore();
+                    recorder.getBuffer()[recorder.getLength() - 1] =
+                            (byte) (score < game.getNumQuestions() ? score + 1 : score - 1);
+                }
+                recorder.writeFramed(out);
+            }
+        } catch (IOException e) {
+            //a ByteArrayOutputStream does not throw.
+            throw new AssertionError(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Command line verifier: <code>ReplayVerifier [logFile | games] [pack.qpk | bankSize]</code>.
+     * Checks a file of framed logs (or that many generated ten question games, one in a
+     * thousand with a wrong score) at 1, 2, 4, ... threads up to the number of cores, and
+     * prints the games per minute and speedup for each, then the counts from the last run.
+     *
+     * @param args A log file or the number of games to generate, and either a question pack
+     * or the size of a generated bank.
+     *
+     * @throws IOException If the log file or question pack cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        QuestionBank bank;
+        if (args.length > 1 && new File(args[1]).isFile()) {
+            bank = MappedQuestionBank.open(new File(args[1]));
+        } else {
+            bank = QuizSimulator.generatedBank(args.length > 1
+                    ? Integer.parseInt(args[1]) : 100000);
+        }
+        ReplayLogBatch logs;
+        if (args.length > 0 && new File(args[0]).isFile()) {
+            logs = ReplayLogBatch.read(new File(args[0]));
+        } else {
+            int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+            logs = ReplayLogBatch.parse(recordGames(bank, games, 10, 0.001, 42));
+        }
+        System.out.println(String.format(Locale.US, "%,d logs, %,d bytes",
+                logs.size(), logs.getData().length));
+
+        ReplayVerifier verifier = new ReplayVerifier(bank);
+        int cores = Runtime.getRuntime().availableProcessors();
+        double baseline = 0;
+        VerificationResult result = null;
+        for (int threads = 1; threads <= cores; threads = threads < cores
+                ? Math.min(threads * 2, cores) : threads + 1) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                result = verifier.verify(logs, pool);
+            } finally {
+                pool.shutdown();
+            }
+            if (threads == 1) {
+                baseline = result.getGamesPerMinute();
+            }
+            System.out.println(String.format(Locale.US,
+                    "%3d threads: %,14.0f games/min  (%.2fx)",
+                    threads, result.getGamesPerMinute(), result.getGamesPerMinute() / baseline));
+        }
+
+        System.out.println(String.format(Locale.US,
+                "verified %,d, wrong score %,d, unfinished %,d, malformed %,d",
+                result.getVerified(), result.getWrongScore(), result.getUnfinished(),
+                result.getMalformed()));
+    }
+}
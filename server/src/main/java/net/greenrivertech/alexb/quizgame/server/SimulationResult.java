@@ -0,0 +1,115 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: SimulationResult.java
+ *
+ * The statistics collected by one QuizSimulator run.
+ */
+package net.greenrivertech.alexb.quizgame.server;
+
+/**
+ * The statistics collected by one QuizSimulator run: how often each question was asked and
+ * answered correctly, how many games ended with each score, and how fast the games were played.
+ *
+ * @author Alex Ball
+ */
+public class SimulationResult {
+    private final long gamesPlayed;
+    private final long elapsedNanos;
+    private final long[] timesAsked;
+    private final long[] timesCorrect;
+    private final long[] scoreCounts;
+
+    SimulationResult(long gamesPlayed, long elapsedNanos, long[] timesAsked,
+                     long[] timesCorrect, long[] scoreCounts) {
+        this.gamesPlayed = gamesPlayed;
+        this.elapsedNanos = elapsedNanos;
+        this.timesAsked = timesAsked;
+        this.timesCorrect = timesCorrect;
+        this.scoreCounts = scoreCounts;
+    }
+
+    /**
+     * Returns the number of games played.
+     *
+     * @return The number of games played.
+     */
+    public long getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    /**
+     * Returns how long the run took, in nanoseconds.
+     *
+     * @return The run time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the number of games played per second of run time.
+     *
+     * @return Games per second.
+     */
+    public double getGamesPerSecond() {
+        return gamesPlayed / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * Returns how many times the given question was answered.
+     *
+     * @param questionNumber The question number in the bank.
+     *
+     * @return How many times the question was answered.
+     */
+    public long getTimesAsked(int questionNumber) {
+        return timesAsked[questionNumber];
+    }
+
+    /**
+     * Returns how many times the given question was answered correctly.
+     *
+     * @param questionNumber The question number in the bank.
+     *
+     * @return How many times the question was answered correctly.
+     */
+    public long getTimesCorrect(int questionNumber) {
+        return timesCorrect[questionNumber];
+    }
+
+    /**
+     * Returns the fraction of answers to the given question that were correct, or NaN if it
+     * was never asked.
+     *
+     * @param questionNumber The question number in the bank.
+     *
+     * @return The fraction of correct answers.
+     */
+    public double getAccuracy(int questionNumber) {
+        return (double) timesCorrect[questionNumber] / timesAsked[questionNumber];
+    }
+
+    /**
+     * Returns how many games ended with each score; element i is the number of games with
+     * score i.
+     *
+     * @return A copy of the score distribution.
+     */
+    public long[] getScoreCounts() {
+        return scoreCounts.clone();
+    }
+
+    /**
+     * Returns the average score over all games.
+     *
+     * @return The mean score.
+     */
+    public double getMeanScore() {
+        long total = 0;
+        for (int score = 0; score < scoreCounts.length; score++) {
+            total += score * scoreCounts[score];
+        }
+        return (double) total / gamesPlayed;
+    }
+}
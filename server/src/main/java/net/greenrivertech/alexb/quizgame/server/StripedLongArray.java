@@ -0,0 +1,94 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: StripedLongArray.java
+ *
+ * An array of long counters that many threads can add to without fighting over cache lines.
+ */
+package net.greenrivertech.alexb.quizgame.server;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * An array of long counters that many threads can add to without fighting over cache lines.
+ * The counters are kept in several stripes (full copies of the array); each thread adds to the
+ * stripe picked by its thread id, and reads add the stripes together. This is the same idea
+ * as LongAdder, but for a million counters it costs a few flat arrays instead of a million
+ * objects. The number of stripes is capped so the whole thing stays under a memory budget.
+ *
+ * @author Alex Ball
+ */
+public class StripedLongArray {
+    //at most this many longs (32 MB) are used across all stripes
+    private static final int MAX_CELLS = 1 << 22;
+
+    private final int length;
+    private final int stripeMask;
+    private final AtomicLongArray cells;
+
+    /**
+     * Constructor that creates counters for the given number of threads, all starting at 0.
+     *
+     * @param length The number of counters.
+     * @param threads The number of threads expected to add at once.
+     */
+    public StripedLongArray(int length, int threads) {
+        int maxStripes = MAX_CELLS / Math.max(1, length);
+        int stripes = Integer.highestOneBit(Math.max(1, Math.min(threads, maxStripes)));
+        this.length = length;
+        stripeMask = stripes - 1;
+        cells = new AtomicLongArray(stripes * length);
+    }
+
+    /**
+     * Returns the number of counters.
+     *
+     * @return The number of counters.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Adds delta to counter i.
+     *
+     * @param i The counter index.
+     * @param delta The amount to add.
+     */
+    public void add(int i, long delta) {
+        int stripe = (int) Thread.currentThread().getId() & stripeMask;
+        cells.getAndAdd(stripe * length + i, delta);
+    }
+
+    /**
+     * Returns the total of counter i. This is not an atomic snapshot while other threads are
+     * still adding.
+     *
+     * @param i The counter index.
+     *
+     * @return The total of counter i.
+     */
+    public long get(int i) {
+        long sum = 0;
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            sum += cells.get(stripe * length + i);
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the totals of every counter.
+     *
+     * @return The totals, indexed by counter.
+     */
+    public long[] sum() {
+        long[] totals = new long[length];
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            int base = stripe * length;
+            for (int i = 0; i < length; i++) {
+                totals[i] += cells.get(base + i);
+            }
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Author: Alex Ball
+ * Date: 10/18/2026
+ * Filename: VerificationResult.java
+ *
+ * The counts collected by one ReplayVerifier run.
+ */
+package net.greenrivertech.alexb.quizgame.server;
+
+/**
+ * The counts collected by one ReplayVerifier run: how many logs replayed to the score they
+ * claim, how many did not (a wrong score, or no score because the game was not finished),
+ * how many could not be replayed at all, and how fast they were checked.
+ *
+ * @author Alex Ball
+ */
+public class VerificationResult {
+    private final long verified;
+    private final long wrongScore;
+    private final long unfinished;
+    private final long malformed;
+    private final long elapsedNanos;
+
+    VerificationResult(long verified, long wrongScore, long unfinished, long malformed,
+                       long elapsedNanos) {
+        this.verified = verified;
+        this.wrongScore = wrongScore;
+        this.unfinished = unfinished;
+        this.malformed = malformed;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the number of logs whose replayed score matched the claimed score.
+     *
+     * @return The number of verified logs.
+     */
+    public long getVerified() {
+        return verified;
+    }
+
+    /**
+     * Returns the number of logs that claimed a score the replayed game did not earn.
+     *
+     * @return The number of logs with a wrong score.
+     */
+    public long getWrongScore() {
+        return wrongScore;
+    }
+
+    /**
+     * Returns the number of logs that replayed but claimed no score.
+     *
+     * @return The number of unfinished logs.
+     */
+    public long getUnfinished() {
+        return unfinished;
+    }
+
+    /**
+     * Returns the number of logs that could not be replayed (see GameReplayer).
+     *
+     * @return The number of malformed logs.
+     */
+    public long getMalformed() {
+        return malformed;
+    }
+
+    /**
+     * Returns the total number of logs checked.
+     *
+     * @return The number of logs.
+     */
+    public long getGamesChecked() {
+        return verified + wrongScore + unfinished + malformed;
+    }
+
+    /**
+     * Returns how long the run took, in nanoseconds.
+     *
+     * @return The run time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the number of logs checked per minute of run time.
+     *
+     * @return Games per minute.
+     */
+    public double getGamesPerMinute() {
+        return getGamesChecked() / (elapsedNanos / 60e9);
+    }
+}
@@ -0,0 +1,144 @@
+package net.greenrivertech.alexb.quizgame.server;
+
+import net.greenrivertech.alexb.quizgame.engine.ColumnarQuestionBank;
+import net.greenrivertech.alexb.quizgame.engine.QuestionBank;
+
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for QuizServer.
+ */
+public class QuizServerTest {
+    private static QuestionBank bank(int size) {
+        ColumnarQuestionBank.Builder builder = new ColumnarQuestionBank.Builder();
+        for (int i = 0; i < size; i++) {
+            builder.add("Question " + i, i % 2 == 0);
+        }
+        return builder.build();
+    }
+
+    //read one whole frame from a blocking channel.
+    private static ByteBuffer readFrame(SocketChannel channel) throws Exception {
+        ByteBuffer length = ByteBuffer.allocate(2);
+        while (length.hasRemaining()) {
+            if (channel.read(length) < 0) {
+                return null;
+            }
+        }
+        ByteBuffer frame = ByteBuffer.allocate(2 + (length.getShort(0) & 0xFFFF));
+        length.flip();
+        frame.put(length);
+        while (frame.hasRemaining()) {
+            assertTrue(channel.read(frame) >= 0);
+        }
+        frame.flip();
+        return frame;
+    }
+
+    private static boolean allJoined(QuizServer server, int rooms, int players) {
+        for (int room = 0; room < rooms; room++) {
+            if (server.getPlayerCount(room) < players) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    public void loadGenerator_playsInEveryRoom() throws Exception {
+        QuizServer server = new QuizServer.Builder(bank(100)).rooms(4).roomCapacity(64)
+                .rounds(5).roundMillis(20).reactors(2).seed(1).build();
+        server.start(new InetSocketAddress("localhost", 0));
+        try {
+            final QuizLoadGenerator generator = new QuizLoadGenerator(
+                    new InetSocketAddress("localhost", server.getPort()), 200, 4, 2, 7);
+            final QuizLoadGenerator.Report[] report = new QuizLoadGenerator.Report[1];
+            Thread players = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        report[0] = generator.run(4000, null);
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+            players.start();
+
+            //leaderboards cover the players in the room, so look while they are playing, once
+            //they have all joined.
+            long deadline = System.currentTimeMillis() + 3000;
+            while (System.currentTimeMillis() < deadline && !allJoined(server, 4, 50)) {
+                Thread.sleep(10);
+            }
+            for (int room = 0; room < 4; room++) {
+                assertEquals(50, server.getPlayerCount(room));
+                int[] leaderboard = server.getLeaderboard(room);
+                assertEquals(2 * QuizRoom.LEADERBOARD_SIZE, leaderboard.length);
+                for (int i = 3; i < leaderboard.length; i += 2) {
+                    assertTrue(leaderboard[i - 2] >= leaderboard[i]);
+                }
+            }
+            players.join();
+
+            assertEquals(200, report[0].getWelcomes());
+            assertEquals(0, report[0].getErrors());
+            assertTrue(report[0].getQuestions() > 200);
+            assertTrue(report[0].getAnswers() > 0);
+            assertTrue(report[0].getResults() > 0);
+            assertTrue(report[0].getResults() <= report[0].getAnswers());
+            assertTrue(report[0].getLeaderboards() > 0);
+            assertEquals(200, server.getConnectionsAccepted());
+            assertTrue(server.getAnswersScored() >= report[0].getResults());
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    public void join_refusesBadRoomAndFullRoom() throws Exception {
+        QuizServer server = new QuizServer.Builder(bank(10)).rooms(1).roomCapacity(1)
+                .roundMillis(1000).reactors(1).build();
+        server.start(new InetSocketAddress("localhost", 0));
+        InetSocketAddress address = new InetSocketAddress("localhost", server.getPort());
+        SocketChannel first = SocketChannel.open(address);
+        SocketChannel second = SocketChannel.open(address);
+        SocketChannel third = SocketChannel.open(address);
+        try {
+            first.write(QuizProtocol.join(0));
+            ByteBuffer welcome = readFrame(first);
+            assertEquals(QuizProtocol.WELCOME, welcome.get(2));
+            assertEquals(0, welcome.getInt(QuizProtocol.HEADER_SIZE + 4));
+
+            second.write(QuizProtocol.join(0));
+            ByteBuffer full = readFrame(second);
+            assertEquals(QuizProtocol.ERROR, full.get(2));
+            assertEquals(QuizProtocol.ERROR_ROOM_FULL, full.get(QuizProtocol.HEADER_SIZE));
+            assertNull(readFrame(second));
+
+            third.write(QuizProtocol.join(5));
+            ByteBuffer bad = readFrame(third);
+            assertEquals(QuizProtocol.ERROR, bad.get(2));
+            assertEquals(QuizProtocol.ERROR_BAD_MESSAGE, bad.get(QuizProtocol.HEADER_SIZE));
+            assertNull(readFrame(third));
+        } finally {
+            first.close();
+            second.close();
+            third.close();
+            server.close();
+        }
+    }
+
+    @Test
+    public void question_roundTripsText() throws Exception {
+        ByteBuffer frame = QuizProtocol.question(3, 1, 10, 5000, "Is \u00e9t\u00e9 summer?");
+        assertEquals(frame.remaining(), QuizProtocol.frameSize(frame));
+        assertEquals("Is \u00e9t\u00e9 summer?", QuizProtocol.questionText(frame));
+    }
+}
@@ -0,0 +1,57 @@
+package net.greenrivertech.alexb.quizgame.server;
+
+import net.greenrivertech.alexb.quizgame.engine.ColumnarQuestionBank;
+import net.greenrivertech.alexb.quizgame.engine.QuestionBank;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for QuizSimulator.
+ */
+public class QuizSimulatorTest {
+    private static QuestionBank bank(int size) {
+        ColumnarQuestionBank.Builder builder = new ColumnarQuestionBank.Builder();
+        for (int i = 0; i < size; i++) {
+            builder.add("Question " + i, i % 2 == 0);
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void run_countsEveryAnswer() throws Exception {
+        QuizSimulator simulator = new QuizSimulator(bank(50), 5,
+                new AccuracyModel.Constant(0.7), 1);
+        SimulationResult result = simulator.run(10000, new ForkJoinPool(4));
+
+        assertEquals(10000, result.getGamesPlayed());
+        long asked = 0;
+        for (int i = 0; i < 50; i++) {
+            asked += result.getTimesAsked(i);
+        }
+        assertEquals(50000, asked);
+
+        long games = 0;
+        for (long count : result.getScoreCounts()) {
+            games += count;
+        }
+        assertEquals(10000, games);
+        assertEquals(3.5, result.getMeanScore(), 0.1);
+    }
+
+    @Test
+    public void run_isReproducibleAcrossThreadCounts() throws Exception {
+        QuizSimulator simulator = new QuizSimulator(bank(20), 3,
+                new AccuracyModel.Logistic(0, 1, null), 99);
+        SimulationResult single = simulator.run(5000, new ForkJoinPool(1));
+        SimulationResult parallel = simulator.run(5000, new ForkJoinPool(8));
+
+        assertArrayEquals(single.getScoreCounts(), parallel.getScoreCounts());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(single.getTimesCorrect(i), parallel.getTimesCorrect(i));
+        }
+    }
+}
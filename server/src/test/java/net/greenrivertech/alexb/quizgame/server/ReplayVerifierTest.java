@@ -0,0 +1,52 @@
+package net.greenrivertech.alexb.quizgame.server;
+
+import net.greenrivertech.alexb.quizgame.engine.QuestionBank;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ReplayVerifier.
+ */
+public class ReplayVerifierTest {
+    @Test
+    public void verify_countsEveryOutcome() throws Exception {
+        QuestionBank bank = QuizSimulator.generatedBank(200);
+        byte[] games = ReplayVerifier.recordGames(bank, 5000, 8, 0.1, 7);
+
+        //add a log that is cut off before its score, and one that is not a log at all.
+        byte[] unfinished = ReplayVerifier.recordGames(bank, 1, 8, 0, 8);
+        unfinished[0] -= 2;
+        unfinished = Arrays.copyOf(unfinished, unfinished.length - 2);
+        byte[] data = new byte[games.length + unfinished.length + 4];
+        System.arraycopy(games, 0, data, 0, games.length);
+        System.arraycopy(unfinished, 0, data, games.length, unfinished.length);
+        data[data.length - 4] = 3;
+        data[data.length - 3] = 9;
+        ReplayLogBatch logs = ReplayLogBatch.parse(data);
+        assertEquals(5002, logs.size());
+
+        ReplayVerifier verifier = new ReplayVerifier(bank);
+        VerificationResult single = verifier.verify(logs, new ForkJoinPool(1));
+        assertEquals(5002, single.getGamesChecked());
+        assertEquals(5000, single.getVerified() + single.getWrongScore());
+        assertEquals(500, single.getWrongScore(), 60);
+        assertEquals(1, single.getUnfinished());
+        assertEquals(1, single.getMalformed());
+
+        VerificationResult parallel = verifier.verify(logs, new ForkJoinPool(4));
+        assertEquals(single.getVerified(), parallel.getVerified());
+        assertEquals(single.getWrongScore(), parallel.getWrongScore());
+    }
+
+    @Test(expected = IOException.class)
+    public void parse_rejectsTruncatedLog() throws Exception {
+        byte[] games = ReplayVerifier.recordGames(QuizSimulator.generatedBank(50), 3, 5, 0, 1);
+        ReplayLogBatch.parse(Arrays.copyOf(games, games.length - 1));
+    }
+}